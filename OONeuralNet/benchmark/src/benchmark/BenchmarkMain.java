@@ -0,0 +1,28 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point of the benchmark module. Runs every benchmark whose name matches the first argument (all of them by
+// default) with the GC profiler attached, so each result also reports the allocation rate, and writes the results
+// as JSON to the second argument (benchmark/results.json by default) to be compared against other runs.
+public class BenchmarkMain {
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: run the selected benchmarks and save their results
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "benchmark\\..*")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(args.length > 1 ? args[1] : "benchmark/results.json")
+                .build();
+        new Runner(options).run();
+    }
+
+}
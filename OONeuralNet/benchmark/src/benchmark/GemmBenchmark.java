@@ -0,0 +1,62 @@
+package benchmark;
+
+import model.operation.Process;
+import model.tensor.Kernels;
+import model.tensor.Tensor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Throughput of the matrix-matrix product on square matrices of increasing size, in the three variants used by a
+// batched layer: the forward pass (a * b^T), the gradient of the weights (a^T * b) and the gradient of the input
+// (a * b). The smallest size runs the simple loops, the middle one is blocked and the largest is also multi-threaded.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GemmBenchmark {
+    @Param({"16", "128", "512"})
+    private int size;
+
+    private Tensor a;
+    private Tensor b;
+    private Tensor c;
+
+    @Setup
+    public void setUp() {
+        a = Process.randTensor(size, size, "Xavier");
+        b = Process.randTensor(size, size, "Xavier");
+        c = new Tensor(size, size);
+    }
+
+    @Benchmark
+    public Tensor forward() {
+        Kernels.gemm(a, false, b, true, c, false);
+        return c;
+    }
+
+    @Benchmark
+    public Tensor gradWeights() {
+        Kernels.gemm(a, true, b, false, c, true);
+        return c;
+    }
+
+    @Benchmark
+    public Tensor gradInput() {
+        Kernels.gemm(a, false, b, false, c, false);
+        return c;
+    }
+
+}
@@ -0,0 +1,54 @@
+package benchmark;
+
+import model.operation.Process;
+import model.tensor.KernelBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Throughput of the inner loops of the dense kernels with each backend, on vectors of increasing length, to check
+// that the backend selected by default is the fastest one on the machine at hand.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KernelBenchmark {
+    @Param({"SCALAR", "UNROLLED"})
+    private KernelBackend backend;
+
+    @Param({"16", "512", "4096"})
+    private int length;
+
+    private double[] x;
+    private double[] y;
+
+    @Setup
+    public void setUp() {
+        x = Process.randTensor(1, length, "Xavier").toArray();
+        y = Process.randTensor(1, length, "Xavier").toArray();
+    }
+
+    @Benchmark
+    public double dot() {
+        return backend.dot(x, 0, y, 0, length);
+    }
+
+    @Benchmark
+    public double[] axpy() {
+        backend.axpy(1e-9, x, 0, y, 0, length);
+        return y;
+    }
+
+}
@@ -0,0 +1,104 @@
+package benchmark;
+
+import model.neuralnetwork.Network;
+import model.operation.Process;
+import model.tensor.Matrix;
+import model.tensor.Tensor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Latency of one forward pass and of one training step of multilayer perceptrons, from the XOR networks in data/ up
+// to an MNIST-sized network, through the Synapse graph (fire and backProp) and through the dense paths (infer and
+// batched backProp).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkBenchmark {
+    private static final int BATCH = 32;
+
+    @Param({"2-10-2", "4-16-16-4", "64-128-10", "784-512-512-10"})
+    private String sizes;
+
+    private Network network;
+    private Matrix[] input;
+    private Matrix[] expected;
+    private double[] values;
+    private Tensor inputs;
+    private Tensor outputs;
+
+    @Setup
+    public void setUp() {
+        int[] layers = parseSizes(sizes);
+        network = Network.multilayerPerceptron(layers);
+        int in = layers[0];
+        int out = layers[layers.length - 1];
+        values = Process.randTensor(1, in, "Xavier").toArray();
+        input = Process.listToNormalizedInput(values);
+        expected = Process.listToOutput(oneHot(out, 0));
+        inputs = Process.randTensor(BATCH, in, "Xavier");
+        outputs = new Tensor(BATCH, out);
+        for (int b = 0; b < BATCH; b++) {
+            outputs.set(b, b % out, 1);
+        }
+    }
+
+    @Benchmark
+    public Network fire() throws Exception {
+        network.fire(input);
+        return network;
+    }
+
+    @Benchmark
+    public double[] infer() throws Exception {
+        return network.infer(values);
+    }
+
+    @Benchmark
+    public Matrix backProp() throws Exception {
+        return network.backProp(Process::crossEntropy, input, expected, 1e-3);
+    }
+
+    @Benchmark
+    public Matrix backPropFused() throws Exception {
+        return network.backProp(Process::softmaxCrossEntropy, input, expected, 1e-3);
+    }
+
+    @Benchmark
+    public double backPropBatch() {
+        return network.backProp(inputs, outputs, 1e-3);
+    }
+
+    // REQUIRES: sizes is a list of positive integers separated by '-'
+    // MODIFIES: nothing
+    // EFFECTS: return the layer sizes described by sizes
+    static int[] parseSizes(String sizes) {
+        String[] parts = sizes.split("-");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i]);
+        }
+        return result;
+    }
+
+    // EFFECTS: return an array of the given length that is 1 at index and 0 elsewhere
+    private static double[] oneHot(int length, int index) {
+        double[] result = new double[length];
+        result[index] = 1;
+        return result;
+    }
+
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import model.neuralnetwork.Network;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.BinaryReader;
+import persistence.BinaryWriter;
+import persistence.JsonReader;
+import persistence.JsonWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Time taken to save and load whole networks as JSON and in the binary format, from small networks up to ones with
+// over half a million weights.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"2-10-2", "64-128-10", "784-512-512-10"})
+    private String sizes;
+
+    private Network network;
+    private File file;
+    private File binaryFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        network = Network.multilayerPerceptron(NetworkBenchmark.parseSizes(sizes));
+        file = File.createTempFile("benchmark", ".json");
+        binaryFile = File.createTempFile("benchmark", ".bin");
+        write();
+        writeBinary();
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+        binaryFile.delete();
+    }
+
+    @Benchmark
+    public File write() throws IOException {
+        JsonWriter writer = new JsonWriter(file.getPath());
+        writer.open();
+        writer.write(network);
+        writer.close();
+        return file;
+    }
+
+    @Benchmark
+    public Network read() throws IOException {
+        return new JsonReader(file.getPath()).read();
+    }
+
+    @Benchmark
+    public File writeBinary() throws IOException {
+        new BinaryWriter(binaryFile.getPath()).write(network);
+        return binaryFile;
+    }
+
+    @Benchmark
+    public Network readBinary() throws IOException {
+        return new BinaryReader(binaryFile.getPath()).read();
+    }
+
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import model.operation.Process;
+import model.tensor.Matrix;
+import model.tensor.Tensor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Throughput of the vector operations of Process on vectors of increasing length, on the Synapse matrices used to
+// build graphs and on the dense tensors used for inference.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessBenchmark {
+    @Param({"10", "512", "4096"})
+    private int length;
+
+    private Matrix graphRow;
+    private Matrix graphOther;
+    private Matrix graphBias;
+    private Tensor denseRow;
+    private Tensor denseOther;
+    private double[] values;
+
+    @Setup
+    public void setUp() {
+        graphRow = Process.randMat(1, length, "Xavier");
+        graphOther = Process.randMat(1, length, "Xavier");
+        graphBias = Process.randMat(1, 1, "Xavier");
+        denseRow = Process.randTensor(1, length, "Xavier");
+        denseOther = Process.randTensor(1, length, "Xavier");
+        values = Process.randTensor(1, length, "Xavier").toArray();
+    }
+
+    @Benchmark
+    public Matrix dotGraph() {
+        return Process.dot(graphRow, graphOther, graphBias);
+    }
+
+    @Benchmark
+    public double dotDense() {
+        return Process.dot(denseRow, denseOther, 0.5);
+    }
+
+    @Benchmark
+    public Matrix mapGraph() throws Exception {
+        return Process.map(Process::tanh, graphRow);
+    }
+
+    @Benchmark
+    public Tensor mapDense() {
+        return Process.map(Process::tanh, denseRow);
+    }
+
+    @Benchmark
+    public double[] softmax() {
+        Process.softmax(values, 0, values.length);
+        return values;
+    }
+
+}
@@ -0,0 +1,76 @@
+package benchmark;
+
+import model.neuralnetwork.ExecutionPlan;
+import model.neuralnetwork.Network;
+import model.neuralnetwork.QuantizedNetwork;
+import model.neuralnetwork.Quantizer;
+import model.operation.Process;
+import model.tensor.Precision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Throughput of scoring one sample with a serving-sized network through the compiled ExecutionPlan in double and
+// single precision, and through the int8 QuantizedNetwork calibrated on random inputs.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuantizedBenchmark {
+    @Param({"256-128-10", "784-256-10"})
+    private String sizes;
+
+    private ExecutionPlan plan;
+    private ExecutionPlan singlePlan;
+    private QuantizedNetwork quantized;
+    private double[] input;
+    private double[] output;
+
+    @Setup
+    public void setUp() {
+        int[] layers = NetworkBenchmark.parseSizes(sizes);
+        Network network = Network.multilayerPerceptron(layers);
+        plan = network.compile();
+        Network single = Network.multilayerPerceptron(layers);
+        single.setPrecision(Precision.SINGLE);
+        singlePlan = single.compile();
+        Quantizer quantizer = new Quantizer(network);
+        for (int i = 0; i < 100; i++) {
+            quantizer.observe(Process.randTensor(1, layers[0], "Xavier").toArray());
+        }
+        quantized = quantizer.quantize();
+        input = Process.randTensor(1, layers[0], "Xavier").toArray();
+        output = new double[layers[layers.length - 1]];
+    }
+
+    @Benchmark
+    public double[] plan() {
+        plan.forward(input, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] singlePlan() {
+        singlePlan.forward(input, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] quantized() {
+        quantized.forward(input, output);
+        return output;
+    }
+
+}
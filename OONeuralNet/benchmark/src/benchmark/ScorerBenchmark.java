@@ -0,0 +1,67 @@
+package benchmark;
+
+import model.neuralnetwork.ExecutionPlan;
+import model.neuralnetwork.Network;
+import model.neuralnetwork.Scorer;
+import model.neuralnetwork.ScorerGenerator;
+import model.operation.Process;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Latency of scoring one sample with the small networks ScorerGenerator accepts, through the dense path of infer,
+// the compiled ExecutionPlan and the generated class with the layers unrolled.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScorerBenchmark {
+    @Param({"2-10-2", "4-16-16-4", "16-32-4"})
+    private String sizes;
+
+    private Network network;
+    private ExecutionPlan plan;
+    private Scorer generated;
+    private double[] input;
+    private double[] output;
+
+    @Setup
+    public void setUp() {
+        int[] layers = NetworkBenchmark.parseSizes(sizes);
+        network = Network.multilayerPerceptron(layers);
+        plan = network.compile();
+        generated = ScorerGenerator.generate(network);
+        input = Process.randTensor(1, layers[0], "Xavier").toArray();
+        output = new double[layers[layers.length - 1]];
+    }
+
+    @Benchmark
+    public double[] infer() throws Exception {
+        return network.infer(input);
+    }
+
+    @Benchmark
+    public double[] plan() {
+        plan.forward(input, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] generated() {
+        generated.forward(input, output);
+        return output;
+    }
+
+}
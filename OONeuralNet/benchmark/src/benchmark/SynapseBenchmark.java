@@ -0,0 +1,83 @@
+package benchmark;
+
+import model.neuralnetwork.Synapse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Throughput of the elementary Synapse operations, on constants and on variables (which also build the closures or
+// tape nodes used for differentiation), and of differentiating a chain of them.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SynapseBenchmark {
+    private static final int CHAIN_LENGTH = 100;
+
+    private Synapse constant1;
+    private Synapse constant2;
+    private Synapse variable1;
+    private Synapse variable2;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        constant1 = new Synapse(0.3, false);
+        constant2 = new Synapse(-1.2, false);
+        variable1 = new Synapse(0.3);
+        variable2 = new Synapse(-1.2);
+    }
+
+    @Benchmark
+    public Synapse multiplyConstant() {
+        return Synapse.multiply(constant1, constant2);
+    }
+
+    @Benchmark
+    public Synapse multiplyVariable() {
+        return Synapse.multiply(variable1, variable2);
+    }
+
+    @Benchmark
+    public Synapse plusVariable() {
+        return Synapse.plus(variable1, variable2);
+    }
+
+    @Benchmark
+    public Synapse powVariable() {
+        return Synapse.pow(variable1, 3);
+    }
+
+    @Benchmark
+    public Synapse expVariable() {
+        return Synapse.exp(variable1);
+    }
+
+    @Benchmark
+    public Synapse lnVariable() {
+        return Synapse.ln(variable1);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public double autoDifferentiateChain() {
+        Synapse result = variable1;
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            result = Synapse.plus(Synapse.multiply(result, variable2), variable1);
+        }
+        result.autoDifferentiate();
+        return variable1.getDerivative();
+    }
+
+}
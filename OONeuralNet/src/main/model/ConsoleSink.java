@@ -0,0 +1,36 @@
+package model;
+
+import java.io.PrintStream;
+
+/**
+ * Represents a sink that prints each event on a line of a stream,
+ * the console by default.
+ */
+public class ConsoleSink implements EventSink {
+    private final PrintStream out;
+
+    /**
+     * Creates a sink printing to the console.
+     */
+    public ConsoleSink() {
+        this(System.out);
+    }
+
+    /**
+     * Creates a sink printing to the given stream.
+     * @param out  the stream to print to
+     */
+    public ConsoleSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void accept(Event event) {
+        out.println(event.toLine());
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
@@ -10,15 +10,27 @@ public class Event {
     private static final int HASH_CONSTANT = 13;
     private Date dateLogged;
     private String description;
+    private LogLevel level;
 
     /**
      * Creates an event with the given description
-     * and the current date/time stamp.
+     * and the current date/time stamp, at the INFO level.
      * @param description  a description of the event
      */
     public Event(String description) {
+        this(description, LogLevel.INFO);
+    }
+
+    /**
+     * Creates an event with the given description and level
+     * and the current date/time stamp.
+     * @param description  a description of the event
+     * @param level  the importance of the event
+     */
+    public Event(String description, LogLevel level) {
         dateLogged = Calendar.getInstance().getTime();
         this.description = description;
+        this.level = level;
     }
 
     /**
@@ -37,6 +49,22 @@ public class Event {
         return description;
     }
 
+    /**
+     * Gets the level of this event.
+     * @return  the importance of the event
+     */
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets this event as one line of text, as written by the sinks.
+     * @return  the date, level and description of the event
+     */
+    public String toLine() {
+        return dateLogged + " " + level + " " + description.replace('\n', ' ');
+    }
+
     @Override
     public boolean equals(Object other) {
         if (other == null) {
@@ -1,62 +1,252 @@
 package model;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Represents a log of alarm system events.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * The log only keeps the most recent events, in a ring buffer of fixed
+ * capacity, so a long-running process does not grow it without limit.
+ * Any number of threads may log at once without locking: each event
+ * claims the next sequence number and is stored in the slot of that
+ * number, replacing the event logged one capacity earlier. Events below
+ * the level of the log are dropped. Sinks added to the log receive the
+ * events on a background thread, so they never delay the threads that log.
  */
 public class EventLog implements Iterable<Event> {
+    /** the number of events kept by the log */
+    public static final int CAPACITY = 1024;
+    private static final long DRAIN_INTERVAL = TimeUnit.MILLISECONDS.toNanos(1);
     /** the only EventLog in the system (Singleton Design Pattern) */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    private static final EventLog theLog = new EventLog();
+
+    private final AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<Slot>(CAPACITY);
+    private final AtomicLong next = new AtomicLong();
+    private final List<EventSink> sinks = new CopyOnWriteArrayList<EventSink>();
+    private volatile LogLevel level = LogLevel.INFO;
+    private volatile long start;
+    private volatile long drained;
+    private volatile long dropped;
+    private volatile Thread drainer;
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
      */
     private EventLog() {
-        events = new ArrayList<Event>();
     }
 
     /**
-     * Gets instance of EventLog - creates it
-     * if it doesn't already exist.
+     * Gets instance of EventLog.
      * (Singleton Design Pattern)
      * @return  instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
-        }
+        return theLog;
+    }
 
+    /**
+     * Gets the lowest level of the events kept by the log.
+     * @return  the level of the log
+     */
+    public LogLevel getLevel() {
+        return level;
+    }
 
-        return theLog;
+    /**
+     * Sets the lowest level of the events kept by the log (INFO by default).
+     * @param level  the new level of the log
+     */
+    public void setLevel(LogLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * Checks whether events of the given level are kept, so that callers can
+     * skip building events that would be dropped.
+     * @param level  the level of an event
+     * @return  true if events of that level are kept
+     */
+    public boolean isEnabled(LogLevel level) {
+        return level.isAtLeast(this.level);
     }
 
     /**
-     * Adds an event to the event log.
+     * Adds an event to the event log, unless its level is below the level
+     * of the log.
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        if (!isEnabled(e.getLevel())) {
+            return;
+        }
+        long sequence = next.getAndIncrement();
+        slots.set(index(sequence), new Slot(sequence, e));
     }
 
     /**
      * Clears the event log and logs the event.
      */
     public void clear() {
-        events.clear();
+        start = next.get();
         logEvent(new Event("Event log cleared."));
     }
 
+    /**
+     * Gets an iterator over a snapshot of the events kept by the log,
+     * oldest first.
+     * @return  an iterator over the kept events
+     */
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        List<Event> snapshot = new ArrayList<Event>();
+        long end = next.get();
+        for (long sequence = Math.max(start, end - CAPACITY); sequence < end; sequence++) {
+            Slot slot = slots.get(index(sequence));
+            if (slot != null && slot.sequence == sequence) {
+                snapshot.add(slot.event);
+            }
+        }
+        return snapshot.iterator();
+    }
+
+    /**
+     * Adds a sink that receives every event logged from now on, starting
+     * the background thread of the log if needed.
+     * @param sink  the sink to add
+     */
+    public synchronized void addSink(EventSink sink) {
+        if (drainer == null) {
+            drained = next.get();
+            drainer = new Thread(this::drain, "EventLog");
+            drainer.setDaemon(true);
+            drainer.start();
+        }
+        sinks.add(sink);
+    }
+
+    /**
+     * Removes a sink; it stops receiving events once the background
+     * thread is done with the group of events it is passing on.
+     * @param sink  the sink to remove
+     */
+    public void removeSink(EventSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Waits until the sinks have received every event logged before this call.
+     */
+    public void flush() {
+        long target = next.get();
+        while (drainer != null && drained < target) {
+            LockSupport.parkNanos(DRAIN_INTERVAL);
+        }
+    }
+
+    /**
+     * Gets the number of events that were replaced in the ring buffer
+     * before the background thread could pass them to the sinks.
+     * @return  the number of events the sinks missed
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Body of the background thread: passes new events to the sinks,
+     * waiting a little whenever there are none.
+     */
+    private void drain() {
+        while (true) {
+            if (!deliver()) {
+                LockSupport.parkNanos(DRAIN_INTERVAL);
+            }
+        }
+    }
+
+    /**
+     * Passes the events logged since the last call to the sinks, stopping at
+     * the first one whose slot has been claimed but not written yet.
+     * @return  true if any event was passed on
+     */
+    private boolean deliver() {
+        long end = next.get();
+        long sequence = Math.max(drained, end - CAPACITY);
+        long missed = sequence - drained;
+        for (; sequence < end; sequence++) {
+            Slot slot = slots.get(index(sequence));
+            if (slot == null || slot.sequence < sequence) {
+                break;
+            } else if (slot.sequence > sequence) {
+                missed++;
+            } else {
+                send(slot.event);
+            }
+        }
+        boolean delivered = sequence > drained;
+        dropped += missed;
+        drained = sequence;
+        if (delivered) {
+            flushSinks();
+        }
+        return delivered;
+    }
+
+    /**
+     * Passes an event to every sink; a sink that fails does not stop the others.
+     */
+    private void send(Event event) {
+        for (EventSink sink : sinks) {
+            try {
+                sink.accept(event);
+            } catch (IOException e) {
+                // the event is lost for this sink only
+            }
+        }
     }
-}
 
+    /**
+     * Flushes every sink; a sink that fails does not stop the others.
+     */
+    private void flushSinks() {
+        for (EventSink sink : sinks) {
+            try {
+                sink.flush();
+            } catch (IOException e) {
+                // retried with the next group of events
+            }
+        }
+    }
+
+    /**
+     * Gets the slot of the ring buffer used by a sequence number.
+     */
+    private static int index(long sequence) {
+        return (int) (sequence % CAPACITY);
+    }
+
+    /**
+     * Represents an event together with its sequence number, so that readers
+     * can tell whether a slot still holds the event they are looking for.
+     */
+    private static final class Slot {
+        private final long sequence;
+        private final Event event;
+
+        private Slot(long sequence, Event event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+}
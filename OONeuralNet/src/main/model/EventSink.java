@@ -0,0 +1,26 @@
+package model;
+
+import java.io.IOException;
+
+/**
+ * Represents a destination for logged events. Sinks added to the
+ * EventLog receive every event it keeps, in the order they were logged,
+ * on the background thread of the log, so they may be slow without
+ * delaying the threads that log.
+ */
+public interface EventSink {
+
+    /**
+     * Receives an event.
+     * @param event  the event logged
+     * @throws IOException  if the event cannot be written
+     */
+    void accept(Event event) throws IOException;
+
+    /**
+     * Writes out any events held back by this sink; called after each
+     * group of events delivered together.
+     * @throws IOException  if the events cannot be written
+     */
+    void flush() throws IOException;
+}
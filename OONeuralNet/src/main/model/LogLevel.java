@@ -0,0 +1,19 @@
+package model;
+
+/**
+ * Represents the importance of an event. An EventLog only keeps events
+ * whose level is at least its own level, so fine-grained events such as
+ * the output of every inference can be switched off.
+ */
+public enum LogLevel {
+    DEBUG, INFO, WARN, ERROR;
+
+    /**
+     * Checks whether an event of this level passes a log set to the given level.
+     * @param threshold  the level of the log
+     * @return  true if this level is at least threshold
+     */
+    public boolean isAtLeast(LogLevel threshold) {
+        return compareTo(threshold) >= 0;
+    }
+}
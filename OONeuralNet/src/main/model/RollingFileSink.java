@@ -0,0 +1,91 @@
+package model;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Represents a sink that appends each event on a line of a file. When the
+ * file grows past a maximum size it is renamed to file.1 (file.1 to file.2
+ * and so on, deleting the oldest one) and a new file is started, so the
+ * log never takes more than about maxFiles times maxBytes on disk.
+ */
+public class RollingFileSink implements EventSink, Closeable {
+    private final Path path;
+    private final long maxBytes;
+    private final int maxFiles;
+    private BufferedWriter writer;
+    private long bytes;
+
+    /**
+     * Creates a sink appending to the file at the given path.
+     * @param path  the file to write to
+     * @param maxBytes  the size after which the file is rolled over
+     * @param maxFiles  the number of rolled over files kept, at least 1
+     * @throws IOException  if the file cannot be opened
+     */
+    public RollingFileSink(String path, long maxBytes, int maxFiles) throws IOException {
+        this.path = Paths.get(path);
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        open();
+    }
+
+    @Override
+    public void accept(Event event) throws IOException {
+        String line = event.toLine() + System.lineSeparator();
+        writer.write(line);
+        bytes += line.getBytes(StandardCharsets.UTF_8).length;
+        if (bytes >= maxBytes) {
+            roll();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Closes the current file, shifts the rolled over files by one and
+     * starts a new file.
+     */
+    private void roll() throws IOException {
+        writer.close();
+        Files.deleteIfExists(rolled(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rolled(i))) {
+                Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(path, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    /**
+     * Opens the file for appending.
+     */
+    private void open() throws IOException {
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        bytes = Files.size(path);
+    }
+
+    /**
+     * Gets the path of the ith rolled over file.
+     */
+    private Path rolled(int i) {
+        return Paths.get(path + "." + i);
+    }
+}
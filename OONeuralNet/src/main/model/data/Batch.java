@@ -0,0 +1,39 @@
+package model.data;
+
+import model.tensor.Tensor;
+
+// A Batch is a mini-batch of samples: the rows of its inputs are fed to a network and the matching rows of expected
+// are the outputs the network is trained towards.
+public class Batch {
+
+    //<editor-fold desc="Fields of Batch">
+    private final Tensor inputs;
+
+    private final Tensor expected;
+    //</editor-fold>
+
+    //<editor-fold desc="Batch Constructors">
+    // REQUIRES: inputs and expected are rank 2 with the same number of rows
+    // MODIFIES: this
+    // EFFECTS: create a batch of the rows of inputs and expected (no copy is made)
+    public Batch(Tensor inputs, Tensor expected) {
+        this.inputs = inputs;
+        this.expected = expected;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for Batch">
+    public Tensor getInputs() {
+        return inputs;
+    }
+
+    public Tensor getExpected() {
+        return expected;
+    }
+
+    // EFFECTS: return the number of samples in this batch
+    public int size() {
+        return inputs.getDimRow();
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,25 @@
+package model.data;
+
+import java.util.Iterator;
+
+// A BatchIterator is an iterator over the batches of one pass over a dataset that holds resources until the pass
+// ends, such as an open file or a background thread reading ahead. They are released once the last batch has been
+// read; a caller that stops before must close the iterator to release them.
+public interface BatchIterator extends Iterator<Batch>, AutoCloseable {
+
+    // REQUIRES: nothing
+    // MODIFIES: this
+    // EFFECTS: release the resources of this iterator, after which hasNext returns false. Closing an iterator that
+    // is already closed or at its end does nothing
+    @Override
+    void close();
+
+    // REQUIRES: nothing
+    // MODIFIES: batches
+    // EFFECTS: close batches if it is a BatchIterator (the iterators of datasets that hold nothing are not)
+    static void release(Iterator<Batch> batches) {
+        if (batches instanceof BatchIterator) {
+            ((BatchIterator) batches).close();
+        }
+    }
+}
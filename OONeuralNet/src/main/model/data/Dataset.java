@@ -0,0 +1,22 @@
+package model.data;
+
+import java.util.Iterator;
+import java.util.Random;
+
+// A Dataset is a source of training samples, each made of an input vector and an expected output vector, which is
+// read one mini-batch at a time so that it does not need to fit in memory as a whole.
+public interface Dataset {
+
+    // EFFECTS: return the number of elements of the input vector of each sample
+    int getInputSize();
+
+    // EFFECTS: return the number of elements of the expected output vector of each sample
+    int getOutputSize();
+
+    // REQUIRES: batchSize >= 1
+    // MODIFIES: random
+    // EFFECTS: return the mini-batches of one pass over this dataset, visiting the samples in an order drawn from
+    // random, or in the order in which they are stored if random is null. Every batch has batchSize samples except
+    // possibly the last one. The tensors of a batch may be reused by the iterator once next is called again
+    Iterator<Batch> batches(int batchSize, Random random);
+}
@@ -0,0 +1,95 @@
+package model.data;
+
+import java.util.Random;
+
+// An InMemoryDataset holds all of its samples in two primitive arrays, the input vectors one after the other in one
+// and the expected output vectors in the other.
+public class InMemoryDataset extends IndexedDataset {
+
+    //<editor-fold desc="Fields of InMemoryDataset">
+    private final double[] inputs;
+
+    private final double[] expected;
+
+    private final int inputSize;
+
+    private final int outputSize;
+    //</editor-fold>
+
+    //<editor-fold desc="InMemoryDataset Constructors">
+    // REQUIRES: inputs.length == expected.length >= 1, all rows of inputs have the same length, and so do all rows
+    // of expected
+    // MODIFIES: this
+    // EFFECTS: create a dataset whose ith sample has inputs[i] as input and expected[i] as expected output
+    public InMemoryDataset(double[][] inputs, double[][] expected) {
+        this(flatten(inputs), flatten(expected), inputs[0].length, expected[0].length);
+    }
+
+    // REQUIRES: inputs.length / inputSize == expected.length / outputSize, both divisions are exact
+    // MODIFIES: this
+    // EFFECTS: create a dataset from the input vectors stored one after the other in inputs and the expected output
+    // vectors stored likewise in expected (no copy is made)
+    public InMemoryDataset(double[] inputs, double[] expected, int inputSize, int outputSize) {
+        this.inputs = inputs;
+        this.expected = expected;
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for InMemoryDataset">
+    @Override
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    @Override
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    @Override
+    public int size() {
+        return inputs.length / inputSize;
+    }
+    //</editor-fold>
+
+    // REQUIRES: 0 < fraction < 1, size() >= 2
+    // MODIFIES: random
+    // EFFECTS: return {training, validation}, two new datasets that partition the samples of this one at random,
+    // with round(fraction * size()) samples (but at least one and at most size() - 1) in validation
+    public InMemoryDataset[] split(double fraction, Random random) {
+        int[] order = permutation(size(), random);
+        int validationSize = Math.max(1, Math.min(size() - 1, (int) Math.round(fraction * size())));
+        return new InMemoryDataset[]{subset(order, validationSize, size()), subset(order, 0, validationSize)};
+    }
+
+    @Override
+    protected void copySample(int index, double[] inputs, int inputOffset, double[] expected, int expectedOffset) {
+        System.arraycopy(this.inputs, index * inputSize, inputs, inputOffset, inputSize);
+        System.arraycopy(this.expected, index * outputSize, expected, expectedOffset, outputSize);
+    }
+
+    // REQUIRES: 0 <= from < to <= order.length
+    // MODIFIES: nothing
+    // EFFECTS: return a new dataset with copies of the samples at indices order[from..to)
+    private InMemoryDataset subset(int[] order, int from, int to) {
+        double[] subsetInputs = new double[(to - from) * inputSize];
+        double[] subsetExpected = new double[(to - from) * outputSize];
+        for (int i = from; i < to; i++) {
+            copySample(order[i], subsetInputs, (i - from) * inputSize, subsetExpected, (i - from) * outputSize);
+        }
+        return new InMemoryDataset(subsetInputs, subsetExpected, inputSize, outputSize);
+    }
+
+    // REQUIRES: all rows of rows have the same length
+    // MODIFIES: nothing
+    // EFFECTS: return the rows of rows one after the other in one array
+    private static double[] flatten(double[][] rows) {
+        double[] flat = new double[rows.length * rows[0].length];
+        for (int i = 0; i < rows.length; i++) {
+            System.arraycopy(rows[i], 0, flat, i * rows[i].length, rows[i].length);
+        }
+        return flat;
+    }
+}
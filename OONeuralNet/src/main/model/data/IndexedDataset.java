@@ -0,0 +1,73 @@
+package model.data;
+
+import model.tensor.Tensor;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+// An IndexedDataset is a Dataset whose samples can be read in any order by their index. A shuffled pass is then a
+// random permutation of the indices, and the samples themselves are never moved.
+public abstract class IndexedDataset implements Dataset {
+
+    // EFFECTS: return the number of samples in this dataset
+    public abstract int size();
+
+    // REQUIRES: 0 <= index < size(), inputs has room for getInputSize() elements from inputOffset and expected for
+    // getOutputSize() elements from expectedOffset
+    // MODIFIES: inputs, expected
+    // EFFECTS: copy the input and expected output vectors of the indexth sample into inputs and expected
+    protected abstract void copySample(int index, double[] inputs, int inputOffset, double[] expected,
+                                       int expectedOffset);
+
+    // REQUIRES: batchSize >= 1
+    // MODIFIES: random
+    // EFFECTS: return the mini-batches of one pass over this dataset (see Dataset.batches). The iterator owns one
+    // pair of batchSize x n buffers, and each batch is a view of their first rows
+    @Override
+    public Iterator<Batch> batches(int batchSize, Random random) {
+        int[] order = permutation(size(), random);
+        Tensor inputs = new Tensor(batchSize, getInputSize());
+        Tensor expected = new Tensor(batchSize, getOutputSize());
+        return new Iterator<Batch>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < order.length;
+            }
+
+            @Override
+            public Batch next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int rows = Math.min(batchSize, order.length - next);
+                for (int r = 0; r < rows; r++) {
+                    copySample(order[next++], inputs.getData(), r * getInputSize(), expected.getData(),
+                            r * getOutputSize());
+                }
+                return new Batch(inputs.view(0, rows, getInputSize()), expected.view(0, rows, getOutputSize()));
+            }
+        };
+    }
+
+    // REQUIRES: size >= 0
+    // MODIFIES: random
+    // EFFECTS: return 0, 1, ..., size - 1 shuffled with random (Fisher-Yates), or in order if random is null
+    public static int[] permutation(int size, Random random) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        if (random != null) {
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+        }
+        return order;
+    }
+}
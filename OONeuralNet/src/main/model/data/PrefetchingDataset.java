@@ -0,0 +1,174 @@
+package model.data;
+
+import model.tensor.Tensor;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// A PrefetchingDataset reads the batches of another dataset on a background thread, up to a given number of batches
+// ahead of the one being used, so that reading and parsing the next batch overlaps with training on the current
+// one. Each batch is copied into one of a small ring of buffers owned by the iterator, so the source dataset is free
+// to reuse its own buffers.
+public class PrefetchingDataset implements Dataset {
+
+    //<editor-fold desc="Fields of PrefetchingDataset">
+    private static final Object END = new Object();
+
+    private final Dataset source;
+
+    private final int depth;
+    //</editor-fold>
+
+    //<editor-fold desc="PrefetchingDataset Constructors">
+    // REQUIRES: source != null, depth >= 1
+    // MODIFIES: this
+    // EFFECTS: create a dataset with the samples of source, read up to depth batches ahead
+    public PrefetchingDataset(Dataset source, int depth) {
+        this.source = source;
+        this.depth = depth;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for PrefetchingDataset">
+    @Override
+    public int getInputSize() {
+        return source.getInputSize();
+    }
+
+    @Override
+    public int getOutputSize() {
+        return source.getOutputSize();
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+    //</editor-fold>
+
+    // REQUIRES: batchSize >= 1
+    // MODIFIES: random
+    // EFFECTS: return the batches of one pass over source (in the order source.batches(batchSize, random) gives
+    // them), which are read by a new daemon thread, as a BatchIterator. Closing it stops that thread and closes the
+    // iterator of source. Anything thrown by source is rethrown by next as an IllegalStateException
+    @Override
+    public Iterator<Batch> batches(int batchSize, Random random) {
+        PrefetchIterator iterator = new PrefetchIterator(batchSize);
+        Iterator<Batch> batches = source.batches(batchSize, random);
+        iterator.producer = new Thread(() -> iterator.produce(batches), "Prefetch");
+        iterator.producer.setDaemon(true);
+        iterator.producer.start();
+        return iterator;
+    }
+
+    // Hands the batches copied by the background thread over to the training thread. Besides the buffers that can be
+    // queued, there is one for the batch being filled, one for the batch taken by hasNext and one for the batch last
+    // returned by next, so that batch is never written before next is called again
+    private class PrefetchIterator implements BatchIterator {
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(depth);
+        private final Tensor[] inputs = new Tensor[depth + 3];
+        private final Tensor[] expected = new Tensor[depth + 3];
+        private Object head;
+        private Thread producer;
+        private volatile boolean closed = false;
+
+        PrefetchIterator(int batchSize) {
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i] = new Tensor(batchSize, getInputSize());
+                expected[i] = new Tensor(batchSize, getOutputSize());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            if (head == null) {
+                head = take();
+            }
+            if (head instanceof Throwable) {
+                throw new IllegalStateException("Prefetching failed", (Throwable) head);
+            }
+            return head != END;
+        }
+
+        @Override
+        public Batch next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Batch batch = (Batch) head;
+            head = null;
+            return batch;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: interrupt the producer, which stops reading and closes the iterator of source
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                producer.interrupt();
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: copy every batch of batches into the next buffer of the ring and queue it, then queue END (or
+        // whatever batches threw), stopping early if this iterator is closed. batches is closed at the end
+        private void produce(Iterator<Batch> batches) {
+            Object last = END;
+            try {
+                for (int i = 0; !closed && batches.hasNext(); i = (i + 1) % inputs.length) {
+                    put(copy(batches.next(), inputs[i], expected[i]));
+                }
+            } catch (Throwable e) {
+                last = e;
+            }
+            try {
+                BatchIterator.release(batches);
+            } catch (RuntimeException e) {
+                last = last == END ? e : last;
+            }
+            if (!closed) {
+                put(last);
+            }
+        }
+
+        // REQUIRES: batch has at most as many rows as inputs and expected
+        // MODIFIES: inputs, expected
+        // EFFECTS: copy batch into the first rows of inputs and expected and return them as a batch
+        private Batch copy(Batch batch, Tensor inputs, Tensor expected) {
+            Tensor from = batch.getInputs();
+            Tensor to = inputs.view(0, batch.size(), getInputSize());
+            System.arraycopy(from.getData(), from.getOffset(), to.getData(), 0, from.getSize());
+            Tensor fromExpected = batch.getExpected();
+            Tensor toExpected = expected.view(0, batch.size(), getOutputSize());
+            System.arraycopy(fromExpected.getData(), fromExpected.getOffset(), toExpected.getData(), 0,
+                    fromExpected.getSize());
+            return new Batch(to, toExpected);
+        }
+
+        // MODIFIES: this
+        // EFFECTS: queue item, waiting for room; give up if the producer is interrupted, which happens when this
+        // iterator is closed
+        private void put(Object item) {
+            try {
+                queue.put(item);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private Object take() {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the next batch", e);
+            }
+        }
+    }
+}
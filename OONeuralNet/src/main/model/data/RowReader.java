@@ -0,0 +1,15 @@
+package model.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// A RowReader reads the samples of a file one after the other, from the first one to the last.
+public interface RowReader extends Closeable {
+
+    // REQUIRES: inputs has room for the input vector of a sample from inputOffset, and expected for its expected
+    // output vector from expectedOffset
+    // MODIFIES: this, inputs, expected
+    // EFFECTS: copy the next sample into inputs and expected and return true, or return false if there are no more
+    // samples; throws IOException if the sample cannot be read
+    boolean next(double[] inputs, int inputOffset, double[] expected, int expectedOffset) throws IOException;
+}
@@ -0,0 +1,173 @@
+package model.data;
+
+import model.operation.Process;
+import model.tensor.Tensor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+// A StreamingDataset reads its samples from a file on each pass, one chunk of a few thousand samples at a time, so
+// that only one chunk is ever held in memory whatever the size of the file. A shuffled pass shuffles the samples
+// within each chunk, since the file is only read sequentially. Input vectors can be normalized as they are read.
+public abstract class StreamingDataset implements Dataset {
+
+    //<editor-fold desc="Fields of StreamingDataset">
+    private final int inputSize;
+
+    private final int outputSize;
+
+    private int chunkSize = 4096;
+
+    private boolean normalized = false;
+    //</editor-fold>
+
+    //<editor-fold desc="StreamingDataset Constructors">
+    // REQUIRES: inputSize >= 1, outputSize >= 1
+    // MODIFIES: this
+    // EFFECTS: create a dataset whose samples have input and expected output vectors of the given sizes
+    protected StreamingDataset(int inputSize, int outputSize) {
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for StreamingDataset">
+    @Override
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    @Override
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // REQUIRES: chunkSize >= 1
+    // EFFECTS: set the number of samples read (and shuffled) together; it is rounded up to a multiple of the batch
+    // size on each pass
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public boolean isNormalized() {
+        return normalized;
+    }
+
+    // EFFECTS: set whether each input vector is divided by its euclidean norm as it is read (see Process.normalize)
+    public void setNormalized(boolean normalized) {
+        this.normalized = normalized;
+    }
+    //</editor-fold>
+
+    // MODIFIES: nothing
+    // EFFECTS: return a reader positioned at the first sample of the file; throws IOException if it cannot be opened
+    protected abstract RowReader open() throws IOException;
+
+    // REQUIRES: batchSize >= 1
+    // MODIFIES: random
+    // EFFECTS: return the mini-batches of one pass over the file (see Dataset.batches), as a BatchIterator. The file
+    // is opened when the iterator is created and closed once its last sample has been read or the iterator is
+    // closed; throws UncheckedIOException if it cannot be read
+    @Override
+    public Iterator<Batch> batches(int batchSize, Random random) {
+        try {
+            return new ChunkIterator(open(), batchSize, random);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Iterates over the batches of one pass, reading a chunk of whole batches into its buffers whenever the previous
+    // chunk has been used up
+    private class ChunkIterator implements BatchIterator {
+        private final RowReader reader;
+        private final int batchSize;
+        private final Random random;
+        private final double[] inputs;
+        private final double[] expected;
+        private final Tensor batchInputs;
+        private final Tensor batchExpected;
+        private int[] order = new int[0];
+        private int position = 0;
+        private boolean exhausted = false;
+
+        ChunkIterator(RowReader reader, int batchSize, Random random) {
+            this.reader = reader;
+            this.batchSize = batchSize;
+            this.random = random;
+            int rows = (chunkSize + batchSize - 1) / batchSize * batchSize;
+            inputs = new double[rows * inputSize];
+            expected = new double[rows * outputSize];
+            batchInputs = new Tensor(batchSize, inputSize);
+            batchExpected = new Tensor(batchSize, outputSize);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (position == order.length && !exhausted) {
+                readChunk();
+            }
+            return position < order.length;
+        }
+
+        @Override
+        public Batch next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int rows = Math.min(batchSize, order.length - position);
+            for (int r = 0; r < rows; r++) {
+                int sample = order[position++];
+                System.arraycopy(inputs, sample * inputSize, batchInputs.getData(), r * inputSize, inputSize);
+                System.arraycopy(expected, sample * outputSize, batchExpected.getData(), r * outputSize,
+                        outputSize);
+            }
+            return new Batch(batchInputs.view(0, rows, inputSize), batchExpected.view(0, rows, outputSize));
+        }
+
+        @Override
+        public void close() {
+            order = new int[0];
+            position = 0;
+            if (!exhausted) {
+                exhausted = true;
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: read the next chunk of samples into the buffers, normalizing and shuffling it as configured, and
+        // close the reader once the end of the file is reached
+        private void readChunk() {
+            try {
+                int rows = 0;
+                int capacity = inputs.length / inputSize;
+                while (rows < capacity && reader.next(inputs, rows * inputSize, expected, rows * outputSize)) {
+                    if (normalized) {
+                        Process.normalize(inputs, rows * inputSize, (rows + 1) * inputSize);
+                    }
+                    rows++;
+                }
+                if (rows < capacity) {
+                    exhausted = true;
+                    reader.close();
+                }
+                order = IndexedDataset.permutation(rows, random);
+                position = 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
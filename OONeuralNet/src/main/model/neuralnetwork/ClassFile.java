@@ -0,0 +1,191 @@
+package model.neuralnetwork;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A ClassFile assembles, in the class file format of version 52 (Java 8), a public final class extending Object with
+// a public no-argument constructor and methods whose code is given as bytes. It only provides what the classes
+// emitted by ScorerGenerator need: a constant pool with deduplicated entries and methods without branches, which
+// therefore need no stack map frames.
+class ClassFile {
+
+    //<editor-fold desc="Fields of ClassFile">
+    static final int MAX_CODE_LENGTH = 65535;
+
+    private static final int MAX_POOL_SIZE = 65535;
+    private static final int VERSION = 52;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final String OBJECT = "java/lang/Object";
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> constants = new HashMap<String, Integer>();
+    private int poolCount = 1;
+
+    private final String name;
+    private final String[] interfaces;
+    private final List<byte[]> methods = new ArrayList<byte[]>();
+    //</editor-fold>
+
+    //<editor-fold desc="ClassFile Constructors">
+    // REQUIRES: name and interfaces are internal names (with '/' separating packages)
+    // MODIFIES: this
+    // EFFECTS: create a class file for the class name implementing interfaces, with a public constructor
+    ClassFile(String name, String... interfaces) {
+        this.name = name;
+        this.interfaces = interfaces.clone();
+        byte[] code = {0x2a, (byte) 0xb7, 0, 0, (byte) 0xb1};
+        int init = methodRef(OBJECT, "<init>", "()V");
+        code[2] = (byte) (init >> 8);
+        code[3] = (byte) init;
+        addMethod("<init>", "()V", 1, 1, code);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Constant pool">
+    // EFFECTS: return the index of the constant pool entry holding value, adding it if needed
+    int doubleConstant(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        return constant("D" + bits, 6, out -> out.writeLong(bits), 2);
+    }
+
+    // EFFECTS: return the index of the constant pool entry holding value, adding it if needed
+    int intConstant(int value) {
+        return constant("I" + value, 3, out -> out.writeInt(value), 1);
+    }
+
+    // EFFECTS: return the index of the constant pool entry for the field of owner with the given name and descriptor
+    int fieldRef(String owner, String field, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int type = nameAndType(field, descriptor);
+        return constant("F" + owner + "." + field + ":" + descriptor, 9, out -> writeShorts(out, ownerIndex, type), 1);
+    }
+
+    // EFFECTS: return the index of the constant pool entry for the method of class owner with the given name and
+    // descriptor
+    int methodRef(String owner, String method, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int type = nameAndType(method, descriptor);
+        return constant("M" + owner + "." + method + descriptor, 10, out -> writeShorts(out, ownerIndex, type), 1);
+    }
+
+    // EFFECTS: return the index of the constant pool entry for the class with the given internal name
+    private int classRef(String internalName) {
+        int utf8 = utf8(internalName);
+        return constant("C" + internalName, 7, out -> out.writeShort(utf8), 1);
+    }
+
+    // EFFECTS: return the index of the constant pool entry pairing a member name with its descriptor
+    private int nameAndType(String member, String descriptor) {
+        int memberIndex = utf8(member);
+        int type = utf8(descriptor);
+        return constant("N" + member + ":" + descriptor, 12, out -> writeShorts(out, memberIndex, type), 1);
+    }
+
+    // EFFECTS: return the index of the constant pool entry holding text
+    private int utf8(String text) {
+        return constant("U" + text, 1, out -> out.writeUTF(text), 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: return the index of the constant identified by key, first appending it with the given tag, the body
+    // written by body and taking slots entries if it is not in the pool yet.
+    // throws IllegalStateException if the pool is full
+    private int constant(String key, int tag, Body body, int slots) {
+        Integer index = constants.get(key);
+        if (index != null) {
+            return index;
+        }
+        if (poolCount + slots > MAX_POOL_SIZE) {
+            throw new IllegalStateException("Constant pool of " + name + " is full");
+        }
+        try {
+            poolOut.writeByte(tag);
+            body.write(poolOut);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        constants.put(key, poolCount);
+        poolCount += slots;
+        return poolCount - slots;
+    }
+
+    // MODIFIES: out
+    // EFFECTS: write first and second as two unsigned shorts
+    private static void writeShorts(DataOutputStream out, int first, int second) throws IOException {
+        out.writeShort(first);
+        out.writeShort(second);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Methods and class bytes">
+    // REQUIRES: code holds no branch and needs at most maxStack operand stack slots and maxLocals local slots
+    // (including this and the arguments), code.length <= MAX_CODE_LENGTH
+    // MODIFIES: this
+    // EFFECTS: add a public method with the given name, descriptor and code
+    void addMethod(String method, String descriptor, int maxStack, int maxLocals, byte[] code) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            writeShorts(out, ACC_PUBLIC, utf8(method));
+            writeShorts(out, utf8(descriptor), 1);
+            out.writeShort(utf8("Code"));
+            out.writeInt(12 + code.length);
+            writeShorts(out, maxStack, maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            writeShorts(out, 0, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methods.add(bytes.toByteArray());
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: this
+    // EFFECTS: return the bytes of the class file
+    byte[] toBytes() {
+        int thisClass = classRef(name);
+        int superClass = classRef(OBJECT);
+        int[] interfaceIndices = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceIndices[i] = classRef(interfaces[i]);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            writeShorts(out, 0, VERSION);
+            out.writeShort(poolCount);
+            out.write(pool.toByteArray());
+            writeShorts(out, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, thisClass);
+            writeShorts(out, superClass, interfaces.length);
+            for (int index : interfaceIndices) {
+                out.writeShort(index);
+            }
+            writeShorts(out, 0, methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    //</editor-fold>
+
+    // The body of a constant pool entry, written after its tag
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+}
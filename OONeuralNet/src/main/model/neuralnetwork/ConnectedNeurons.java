@@ -0,0 +1,36 @@
+package model.neuralnetwork;
+
+import model.tensor.CsrPattern;
+
+import java.util.AbstractList;
+import java.util.List;
+
+// The previous neurons of a neuron in a sparsely connected layer, as a read-only view of the previous layer's list of
+// neurons through one row of the layer's pattern, so that the connections of a layer take memory in proportion to
+// its number of connections only.
+class ConnectedNeurons extends AbstractList<Neuron> {
+    private final List<Neuron> neurons;
+    private final CsrPattern pattern;
+    private final int row;
+
+    // REQUIRES: 0 <= row < pattern.getRows(), neurons.size() == pattern.getCols()
+    // MODIFIES: this
+    // EFFECTS: create a view of the neurons of neurons at the columns present in the given row of pattern
+    ConnectedNeurons(List<Neuron> neurons, CsrPattern pattern, int row) {
+        this.neurons = neurons;
+        this.pattern = pattern;
+        this.row = row;
+    }
+
+    // REQUIRES: 0 <= i < size()
+    // EFFECTS: return the ith neuron connected through the row
+    @Override
+    public Neuron get(int i) {
+        return neurons.get(pattern.getColumn(pattern.getRowStart(row) + i));
+    }
+
+    @Override
+    public int size() {
+        return pattern.getRowLength(row);
+    }
+}
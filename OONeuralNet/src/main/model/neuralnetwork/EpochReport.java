@@ -0,0 +1,65 @@
+package model.neuralnetwork;
+
+// An EpochReport records how one epoch of training by a Trainer went: the learning rate used, the mean loss on the
+// training samples, the mean loss on the validation samples (NaN if there were none) and the wall time taken.
+public class EpochReport {
+
+    //<editor-fold desc="Fields of EpochReport">
+    private final int epoch;
+
+    private final double learningRate;
+
+    private final double trainingLoss;
+
+    private final double validationLoss;
+
+    private final long millis;
+    //</editor-fold>
+
+    //<editor-fold desc="EpochReport Constructors">
+    // REQUIRES: epoch >= 0, millis >= 0
+    // MODIFIES: this
+    // EFFECTS: create a report for the given epoch (counted from 0)
+    public EpochReport(int epoch, double learningRate, double trainingLoss, double validationLoss, long millis) {
+        this.epoch = epoch;
+        this.learningRate = learningRate;
+        this.trainingLoss = trainingLoss;
+        this.validationLoss = validationLoss;
+        this.millis = millis;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for EpochReport">
+    public int getEpoch() {
+        return epoch;
+    }
+
+    public double getLearningRate() {
+        return learningRate;
+    }
+
+    public double getTrainingLoss() {
+        return trainingLoss;
+    }
+
+    public double getValidationLoss() {
+        return validationLoss;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Text manipulations for EpochReport">
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return a one-line summary of this report
+    @Override
+    public String toString() {
+        String validation = Double.isNaN(validationLoss) ? "" : ", validation loss " + validationLoss;
+        return "Epoch " + epoch + ": loss " + trainingLoss + validation + ", learning rate " + learningRate + ", "
+                + millis + " ms";
+    }
+    //</editor-fold>
+}
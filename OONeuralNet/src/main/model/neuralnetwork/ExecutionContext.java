@@ -0,0 +1,238 @@
+package model.neuralnetwork;
+
+import model.operation.Activation;
+import model.operation.Process;
+import model.tensor.Arena;
+import model.tensor.Tensor;
+
+// An ExecutionContext holds the buffers one thread needs to run a batch of samples through a Network of packed,
+// fully connected layers: the activations of every layer and, for training, the derivatives of the loss with respect
+// to them and to the weights and biases of every layer. The Network is only read while a context runs on it, so any
+// number of contexts can be used on the same Network at once. The buffers of a step are taken from an Arena that is
+// reset at the start of every step, so once a context has run a step of some batch size, further steps of that size
+// allocate nothing.
+public class ExecutionContext {
+
+    //<editor-fold desc="Fields of ExecutionContext">
+    private final int capacity;
+
+    private final int[] sizes;
+
+    private final Arena arena;
+
+    private final Tensor[] activations;
+
+    private final Tensor[] deltas;
+
+    private Tensor[] weightGradients;
+
+    private Tensor[] biasGradients;
+    //</editor-fold>
+
+    //<editor-fold desc="ExecutionContext Constructors">
+    // REQUIRES: every layer of network after the first is packed, capacity >= 1
+    // MODIFIES: this
+    // EFFECTS: create a context for batches of up to capacity samples run through network
+    public ExecutionContext(Network network, int capacity) {
+        this.capacity = capacity;
+        sizes = new int[network.getLayers().size()];
+        activations = new Tensor[sizes.length];
+        deltas = new Tensor[sizes.length];
+        int total = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = network.getLayer(i).getSize();
+            total += i > 0 ? sizes[i] : 0;
+        }
+        arena = new Arena(2 * capacity * Math.max(total, 1));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for ExecutionContext">
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // REQUIRES: network != null
+    // MODIFIES: nothing
+    // EFFECTS: return true if this context can run batches of rows samples through network, i.e. rows is at most
+    // the capacity and the layers of network have the sizes this context was created for
+    public boolean fits(Network network, int rows) {
+        if (rows > capacity || network.getLayers().size() != sizes.length) {
+            return false;
+        }
+        for (int i = 0; i < sizes.length; i++) {
+            if (network.getLayer(i).getSize() != sizes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Forward and backward passes">
+    // REQUIRES: network is the one this context was created for, inputs is rows x (size of first layer) with
+    // rows <= getCapacity()
+    // MODIFIES: this
+    // EFFECTS: run every row of inputs through the layers of network and return the rows x (size of last layer)
+    // activations of the last layer. The result is a view of this context, valid until it is used again
+    public Tensor forward(Network network, Tensor inputs) {
+        begin(inputs.getDimRow(), false);
+        return forward(network, inputs, activations.length - 1);
+    }
+
+    // REQUIRES: fits(network, 1), input.length == size of the first layer of network
+    // MODIFIES: this
+    // EFFECTS: feed forward the input data using the buffers of this context and return a new array with the
+    // activations of the last layer. Only this context is written to, so threads running on the same network
+    // with different contexts do not interfere
+    public double[] infer(Network network, double[] input) {
+        return forward(network, new Tensor(input, 1, input.length)).toArray();
+    }
+
+    // REQUIRES: network is the one this context was created for, inputs is rows x (size of first layer) with
+    // rows <= getCapacity(), expected is rows x (size of last layer), batch >= rows
+    // MODIFIES: this
+    // EFFECTS: run inputs forward, then add to the gradients held by this context the derivative of the cross
+    // entropy loss averaged over batch samples (of which inputs are some). Return the sum of the losses of the rows
+    double accumulateGradient(Network network, Tensor inputs, Tensor expected, int batch) {
+        allocateGradients(network);
+        begin(inputs.getDimRow(), true);
+        boolean fused = network.getLayer(activations.length - 1).getActivation() == Activation.SOFTMAX;
+        double loss = fused ? forwardSoftmaxLoss(network, inputs, expected, batch)
+                : forwardLoss(network, inputs, expected, batch);
+        backward(network, inputs, fused);
+        return loss;
+    }
+
+    // REQUIRES: network is the one this context was created for
+    // MODIFIES: this, network
+    // EFFECTS: add the gradients held by this context to the gradients of the weights and biases of network, and
+    // reset the ones held by this context to 0
+    void addGradientsTo(Network network) {
+        if (weightGradients == null) {
+            return;
+        }
+        for (int i = 1; i < activations.length; i++) {
+            Layer layer = network.getLayer(i);
+            layer.getWeights().accumulateGrad(weightGradients[i]);
+            layer.getBiases().accumulateGrad(biasGradients[i]);
+            weightGradients[i].fill(0);
+            biasGradients[i].fill(0);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reset the gradients held by this context to 0, dropping those of a step that was not completed
+    void discardGradients() {
+        if (weightGradients == null) {
+            return;
+        }
+        for (int i = 1; i < activations.length; i++) {
+            weightGradients[i].fill(0);
+            biasGradients[i].fill(0);
+        }
+    }
+    //</editor-fold>
+
+    // MODIFIES: this
+    // EFFECTS: start a step on rows samples: reset the arena and take from it the activation buffer of every layer
+    // and, if training, the buffer for the derivative of the loss with respect to those activations
+    private void begin(int rows, boolean training) {
+        arena.reset();
+        for (int i = 1; i < activations.length; i++) {
+            activations[i] = arena.allocate(rows, sizes[i]);
+            if (training) {
+                deltas[i] = arena.allocate(rows, sizes[i]);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: run every row of inputs through the first count layers after the input layer and return their
+    // activations (inputs itself if count is 0)
+    private Tensor forward(Network network, Tensor inputs, int count) {
+        Tensor input = inputs;
+        for (int i = 1; i <= count; i++) {
+            network.getLayer(i).forward(input, activations[i]);
+            input = activations[i];
+        }
+        return input;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: run inputs forward, set the delta of the last layer to the derivative of the cross entropy loss
+    // (averaged over batch samples) with respect to its activations, and return the sum of the losses of the rows
+    private double forwardLoss(Network network, Tensor inputs, Tensor expected, int batch) {
+        Tensor output = forward(network, inputs, activations.length - 1);
+        Process.crossEntropyGradient(output, expected, batch, deltas[activations.length - 1]);
+        return Process.crossEntropy(output, expected) * inputs.getDimRow();
+    }
+
+    // REQUIRES: the last layer of network is a softmax layer
+    // MODIFIES: this
+    // EFFECTS: run inputs forward up to the combination of the last layer, set the delta of the last layer to the
+    // derivative of the fused softmax cross entropy loss (averaged over batch samples) with respect to that
+    // combination, and return the sum of the losses of the rows. The activation buffer of the last layer is left
+    // holding the combination rather than the softmax
+    private double forwardSoftmaxLoss(Network network, Tensor inputs, Tensor expected, int batch) {
+        int last = activations.length - 1;
+        network.getLayer(last).forwardLinear(forward(network, inputs, last - 1), activations[last]);
+        return Process.softmaxCrossEntropy(activations[last], expected, batch, deltas[last]);
+    }
+
+    // REQUIRES: the deltas of the last layer hold the derivative of the loss with respect to its activations, or to
+    // its combination if fused
+    // MODIFIES: this
+    // EFFECTS: propagate the derivative of the loss back through the layers of network, adding the derivatives with
+    // respect to the weights and biases of every layer to the gradients held by this context. The combination of a
+    // layer whose activation derives from it is recomputed into a buffer of the arena
+    private void backward(Network network, Tensor inputs, boolean fused) {
+        int last = activations.length - 1;
+        for (int i = last; i >= 1; i--) {
+            Layer layer = network.getLayer(i);
+            Tensor input = i > 1 ? activations[i - 1] : inputs;
+            if (!fused || i < last) {
+                Tensor values = activations[i];
+                if (layer.getActivation().derivesFromCombination()) {
+                    values = arena.allocate(inputs.getDimRow(), sizes[i]);
+                    layer.forwardLinear(input, values);
+                }
+                layer.backwardActivation(values, deltas[i]);
+            }
+            layer.backwardLinear(input, deltas[i], i > 1 ? deltas[i - 1] : null, weightGradients[i],
+                    biasGradients[i]);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: allocate the buffers used for training, unless that was done already for weights of the shapes the
+    // layers of network have now (a layer may have been connected sparsely since)
+    private void allocateGradients(Network network) {
+        if (gradientsFit(network)) {
+            return;
+        }
+        weightGradients = new Tensor[activations.length];
+        biasGradients = new Tensor[activations.length];
+        for (int i = 1; i < activations.length; i++) {
+            Layer layer = network.getLayer(i);
+            weightGradients[i] = new Tensor(layer.getWeights().getShape());
+            biasGradients[i] = new Tensor(layer.getBiases().getShape());
+        }
+    }
+
+    // EFFECTS: return true if the gradients held by this context have the shapes of the weights of network
+    private boolean gradientsFit(Network network) {
+        if (weightGradients == null) {
+            return false;
+        }
+        for (int i = 1; i < activations.length; i++) {
+            Tensor weights = network.getLayer(i).getWeights();
+            if (weightGradients[i].getDimRow() != weights.getDimRow()
+                    || weightGradients[i].getDimCol() != weights.getDimCol()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,417 @@
+package model.neuralnetwork;
+
+import model.operation.Activation;
+import model.operation.Process;
+import model.tensor.CsrPattern;
+import model.tensor.KernelBackend;
+import model.tensor.Kernels;
+import model.tensor.Precision;
+import model.tensor.Tensor;
+
+import java.util.Arrays;
+
+// An ExecutionPlan is a Network of packed, fully connected layers compiled to run one sample at a time. Compiling
+// resolves each layer into the kernels it needs (a dense or sparse matrix-vector product plus biases, then an
+// activation on primitive values) and keeps the arrays holding its weights, biases and their gradients, so forward
+// and backward are straight loops over primitive arrays that create no object.
+// The layout of a plan never changes once compiled. The buffers it runs on are allocated for each thread the first
+// time that thread uses the plan, so any number of threads can run forward at once. The parameters are read from the
+// network's own arrays, so a plan sees the network being trained in place, but it must be compiled again once a
+// layer is reconnected, pruned or given another activation or precision (see isCompiledFrom).
+// The layers of a network in SINGLE or MIXED precision store their parameters in float arrays (see
+// Layer.setPrecision), and the plan runs forward on those arrays and on float buffers, accumulating in float or
+// double. backward always computes in double, widening the float parameters as it reads them.
+public class ExecutionPlan implements Scorer {
+
+    //<editor-fold desc="Fields of ExecutionPlan">
+    private static final KernelBackend BACKEND = Kernels.getBackend();
+
+    private final Precision precision;
+
+    private final Layer[] layers;
+
+    private final Step[] steps;
+
+    private final boolean fused;
+
+    private final ThreadLocal<Buffers> buffers;
+    //</editor-fold>
+
+    //<editor-fold desc="ExecutionPlan Constructors">
+    // REQUIRES: network has at least two layers and network.isPacked()
+    // MODIFIES: this
+    // EFFECTS: compile network into a plan
+    ExecutionPlan(Network network) {
+        precision = network.getPrecision();
+        layers = network.getLayers().toArray(new Layer[0]);
+        steps = new Step[layers.length];
+        for (int i = 1; i < layers.length; i++) {
+            steps[i] = new Step(layers[i], layers[i - 1].getSize());
+        }
+        fused = steps[steps.length - 1].activation == Activation.SOFTMAX;
+        buffers = ThreadLocal.withInitial(() -> new Buffers(steps, precision.isSingle()));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for ExecutionPlan">
+    @Override
+    public int getInputSize() {
+        return steps[1].fanIn;
+    }
+
+    @Override
+    public int getOutputSize() {
+        return steps[steps.length - 1].size;
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    // REQUIRES: network != null
+    // MODIFIES: nothing
+    // EFFECTS: return true if network still has the layers this plan was compiled from, with the same sizes,
+    // activations and parameter tensors, i.e. if this plan still computes what network does
+    public boolean isCompiledFrom(Network network) {
+        if (network.getPrecision() != precision || network.getLayers().size() != layers.length
+                || network.getLayer(0) != layers[0] || layers[0].getSize() != getInputSize()) {
+            return false;
+        }
+        for (int i = 1; i < layers.length; i++) {
+            if (network.getLayer(i) != layers[i] || !steps[i].matches(layers[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Forward and backward passes">
+    // REQUIRES: input.length == getInputSize(), output.length == getOutputSize()
+    // MODIFIES: output
+    // EFFECTS: set output to the activations of the last layer of the network for input. Only buffers owned by the
+    // calling thread are written to
+    @Override
+    public void forward(double[] input, double[] output) {
+        if (precision.isSingle()) {
+            forwardSingle(input, output);
+            return;
+        }
+        double[] result = run(input, buffers.get(), steps.length - 1);
+        System.arraycopy(result, 0, output, 0, output.length);
+    }
+
+    // REQUIRES: input.length == getInputSize(), expected.length == getOutputSize(), batch >= 1
+    // MODIFIES: gradients of the weights and biases of the network
+    // EFFECTS: run input forward, then add to the gradients of the weights and biases of the network the derivative
+    // of the cross entropy loss between the output and expected, averaged over batch samples (of which this is
+    // one), and return the loss of this sample. A softmax output layer is differentiated together with the loss,
+    // like ExecutionContext does. The gradients belong to the network, so calls must not run on several threads
+    // at once
+    public double backward(double[] input, double[] expected, int batch) {
+        Buffers b = buffers.get();
+        int last = steps.length - 1;
+        double loss = fused ? forwardSoftmaxLoss(input, expected, batch, b) : forwardLoss(input, expected, batch, b);
+        for (int i = last; i >= 1; i--) {
+            Step step = steps[i];
+            if (!fused || i < last) {
+                double[] values = b.combinations[i] != null ? b.combinations[i] : b.outputs[i];
+                step.activation.backward(values, 0, step.size, b.deltas[i], 0);
+            }
+            step.backward(i > 1 ? b.outputs[i - 1] : input, b.deltas[i], i > 1 ? b.deltas[i - 1] : null);
+        }
+        return loss;
+    }
+    //</editor-fold>
+
+    // REQUIRES: input.length == getInputSize()
+    // MODIFIES: nothing
+    // EFFECTS: run input forward in double and return the activations of every layer, indexed like the layers of
+    // the network (the element of the input layer is null). The arrays are buffers of the calling thread, which the
+    // next call on that thread overwrites
+    double[][] trace(double[] input) {
+        Buffers b = buffers.get();
+        run(input, b, steps.length - 1);
+        return b.outputs;
+    }
+
+    // REQUIRES: precision.isSingle()
+    // MODIFIES: output
+    // EFFECTS: like forward, on the float parameters of the layers and float buffers
+    private void forwardSingle(double[] input, double[] output) {
+        Buffers b = buffers.get();
+        float[] x = b.singleInput;
+        for (int p = 0; p < x.length; p++) {
+            x[p] = (float) input[p];
+        }
+        for (int i = 1; i < steps.length; i++) {
+            steps[i].forward(x, b.singleOutputs[i], precision.accumulatesInDouble());
+            x = b.singleOutputs[i];
+        }
+        for (int j = 0; j < output.length; j++) {
+            output[j] = x[j];
+        }
+    }
+
+    // MODIFIES: b
+    // EFFECTS: run input through the first count layers after the input layer and return their activations (input
+    // itself if count is 0)
+    private double[] run(double[] input, Buffers b, int count) {
+        double[] x = input;
+        for (int i = 1; i <= count; i++) {
+            steps[i].forward(x, b.outputs[i], b.combinations[i]);
+            x = b.outputs[i];
+        }
+        return x;
+    }
+
+    // MODIFIES: b
+    // EFFECTS: run input forward, set the delta of the last layer to the derivative of the cross entropy loss
+    // (averaged over batch samples) with respect to its activations, and return the loss
+    private double forwardLoss(double[] input, double[] expected, int batch, Buffers b) {
+        int last = steps.length - 1;
+        double[] output = run(input, b, last);
+        double[] delta = b.deltas[last];
+        double loss = 0;
+        for (int j = 0; j < output.length; j++) {
+            loss -= expected[j] * Math.log(output[j]);
+            delta[j] = -expected[j] / output[j] / batch;
+        }
+        return loss;
+    }
+
+    // REQUIRES: the last layer is a softmax layer
+    // MODIFIES: b
+    // EFFECTS: run input forward up to the combination of the last layer, set the delta of the last layer to the
+    // derivative of the fused softmax cross entropy loss (averaged over batch samples) with respect to that
+    // combination, and return the loss. The output buffer of the last layer is left holding the combination
+    private double forwardSoftmaxLoss(double[] input, double[] expected, int batch, Buffers b) {
+        int last = steps.length - 1;
+        double[] logits = b.outputs[last];
+        steps[last].linear(run(input, b, last - 1), logits);
+        return Process.softmaxCrossEntropy(logits, 0, expected, 0, logits.length, batch, b.deltas[last], 0);
+    }
+
+    // A Step is one layer resolved into kernels: the arrays of its parameters (double or float, as the layer stores
+    // them) and their gradients, the pattern of its connections as primitive arrays if it is sparse, and its
+    // activation
+    private static class Step {
+        private final Tensor weightTensor;
+        private final Tensor biasTensor;
+        private final CsrPattern pattern;
+        private final Activation activation;
+        private final int fanIn;
+        private final int size;
+        private final double[] weights;
+        private final double[] weightGrads;
+        private final int weightOffset;
+        private final double[] biases;
+        private final double[] biasGrads;
+        private final int biasOffset;
+        private final int[] rowStart;
+        private final int[] columns;
+        private final float[] singleWeights;
+        private final float[] singleBiases;
+
+        // REQUIRES: layer is packed and fully connected to a layer of fanIn neurons
+        // MODIFIES: this
+        // EFFECTS: resolve layer into a step
+        Step(Layer layer, int fanIn) {
+            weightTensor = layer.getWeights();
+            biasTensor = layer.getBiases();
+            pattern = layer.getPattern();
+            activation = layer.getActivation();
+            this.fanIn = fanIn;
+            size = layer.getSize();
+            weights = weightTensor.getData();
+            singleWeights = weightTensor.getSingleData();
+            weightGrads = weightTensor.getGrad();
+            weightOffset = weightTensor.getOffset();
+            biases = biasTensor.getData();
+            singleBiases = biasTensor.getSingleData();
+            biasGrads = biasTensor.getGrad();
+            biasOffset = biasTensor.getOffset();
+            rowStart = pattern == null ? null : rowStarts(pattern);
+            columns = pattern == null ? null : columns(pattern);
+        }
+
+        // EFFECTS: return the row starts of pattern as an array
+        private static int[] rowStarts(CsrPattern pattern) {
+            int[] starts = new int[pattern.getRows() + 1];
+            for (int r = 0; r < starts.length; r++) {
+                starts[r] = pattern.getRowStart(r);
+            }
+            return starts;
+        }
+
+        // EFFECTS: return the columns of the elements of pattern as an array
+        private static int[] columns(CsrPattern pattern) {
+            int[] columns = new int[pattern.getSize()];
+            for (int e = 0; e < columns.length; e++) {
+                columns[e] = pattern.getColumn(e);
+            }
+            return columns;
+        }
+
+        // EFFECTS: return true if layer still has the size, activation and parameters this step was resolved from
+        private boolean matches(Layer layer) {
+            return layer.getSize() == size && layer.getActivation() == activation
+                    && layer.getWeights() == weightTensor && layer.getBiases() == biasTensor
+                    && layer.getPattern() == pattern;
+        }
+
+        // EFFECTS: return the eth weight of this layer in row-major order, whichever precision it is stored in
+        private double weight(int e) {
+            return weights != null ? weights[weightOffset + e] : singleWeights[weightOffset + e];
+        }
+
+        // EFFECTS: return the bias of the jth neuron of this layer, whichever precision it is stored in
+        private double bias(int j) {
+            return biases != null ? biases[biasOffset + j] : singleBiases[biasOffset + j];
+        }
+
+        // REQUIRES: x has fanIn elements, y has size elements, combination is null or has size elements
+        // MODIFIES: y, combination
+        // EFFECTS: set y to the activations of this layer for x, keeping the combination if it is not null
+        private void forward(double[] x, double[] y, double[] combination) {
+            linear(x, y);
+            if (combination != null) {
+                System.arraycopy(y, 0, combination, 0, size);
+            }
+            activation.apply(y, 0, size);
+        }
+
+        // REQUIRES: the layer stores its parameters in float, x has fanIn elements, y has size elements
+        // MODIFIES: y
+        // EFFECTS: set y to the activations of this layer for x computed on the float parameters, with the dot
+        // products accumulated in double if mixed
+        private void forward(float[] x, float[] y, boolean mixed) {
+            linear(x, y, mixed);
+            activation.apply(y, 0, size);
+        }
+
+        // REQUIRES: x has fanIn elements, y has size elements
+        // MODIFIES: y
+        // EFFECTS: set y to the combination of this layer for x (the weighted sums plus biases)
+        private void linear(double[] x, double[] y) {
+            for (int j = 0; j < size; j++) {
+                double sum;
+                if (rowStart != null) {
+                    sum = 0;
+                    for (int e = rowStart[j]; e < rowStart[j + 1]; e++) {
+                        sum += weight(e) * x[columns[e]];
+                    }
+                } else if (weights != null) {
+                    sum = BACKEND.dot(weights, weightOffset + j * fanIn, x, 0, fanIn);
+                } else {
+                    sum = BACKEND.dot(singleWeights, weightOffset + j * fanIn, x, 0, fanIn);
+                }
+                y[j] = sum + bias(j);
+            }
+        }
+
+        // REQUIRES: the layer stores its parameters in float, x has fanIn elements, y has size elements
+        // MODIFIES: y
+        // EFFECTS: set y to the combination of this layer for x computed on the float parameters, with the dot
+        // products accumulated in double if mixed and in float otherwise
+        private void linear(float[] x, float[] y, boolean mixed) {
+            for (int j = 0; j < size; j++) {
+                double sum;
+                if (rowStart != null) {
+                    sum = sparseDot(x, j, mixed);
+                } else if (mixed) {
+                    sum = BACKEND.dotMixed(singleWeights, weightOffset + j * fanIn, x, 0, fanIn);
+                } else {
+                    sum = BACKEND.dot(singleWeights, weightOffset + j * fanIn, x, 0, fanIn);
+                }
+                y[j] = (float) (sum + singleBiases[biasOffset + j]);
+            }
+        }
+
+        // EFFECTS: return the dot product of the jth row of the float weights of a sparse layer with x, accumulated
+        // in double if mixed and in float otherwise
+        private double sparseDot(float[] x, int j, boolean mixed) {
+            if (mixed) {
+                double sum = 0;
+                for (int e = rowStart[j]; e < rowStart[j + 1]; e++) {
+                    sum += (double) singleWeights[weightOffset + e] * x[columns[e]];
+                }
+                return sum;
+            }
+            float sum = 0;
+            for (int e = rowStart[j]; e < rowStart[j + 1]; e++) {
+                sum += singleWeights[weightOffset + e] * x[columns[e]];
+            }
+            return sum;
+        }
+
+        // REQUIRES: x is the input the combination was computed from, g has size elements and holds the derivative
+        // of a loss with respect to the combination, gradInput is null or has fanIn elements
+        // MODIFIES: gradients of the weights and biases of this layer, gradInput
+        // EFFECTS: add the derivative of the loss with respect to the weights and biases to their gradients, and
+        // set gradInput to the derivative with respect to x (skipped if gradInput is null)
+        private void backward(double[] x, double[] g, double[] gradInput) {
+            for (int j = 0; j < size; j++) {
+                biasGrads[biasOffset + j] += g[j];
+            }
+            if (gradInput != null) {
+                Arrays.fill(gradInput, 0, fanIn, 0);
+            }
+            for (int j = 0; j < size; j++) {
+                if (rowStart == null) {
+                    int row = weightOffset + j * fanIn;
+                    BACKEND.axpy(g[j], x, 0, weightGrads, row, fanIn);
+                    if (gradInput != null && weights != null) {
+                        BACKEND.axpy(g[j], weights, row, gradInput, 0, fanIn);
+                    } else if (gradInput != null) {
+                        BACKEND.axpy(g[j], singleWeights, row, gradInput, 0, fanIn);
+                    }
+                } else {
+                    sparseBackward(x, g[j], j, gradInput);
+                }
+            }
+        }
+
+        // MODIFIES: gradients of the weights of this layer, gradInput
+        // EFFECTS: like backward for the jth row of a sparse layer, whose combination has the derivative grad
+        private void sparseBackward(double[] x, double grad, int j, double[] gradInput) {
+            for (int e = rowStart[j]; e < rowStart[j + 1]; e++) {
+                weightGrads[weightOffset + e] += grad * x[columns[e]];
+                if (gradInput != null) {
+                    gradInput[columns[e]] += grad * weight(e);
+                }
+            }
+        }
+    }
+
+    // The Buffers of one thread: the output of each layer, its combination when the activation derives from it,
+    // and the derivative of the loss with respect to it, plus the input and outputs in float for a single precision
+    // plan
+    private static class Buffers {
+        private final double[][] outputs;
+        private final double[][] combinations;
+        private final double[][] deltas;
+        private final float[] singleInput;
+        private final float[][] singleOutputs;
+
+        // REQUIRES: steps[0] is null
+        // MODIFIES: this
+        // EFFECTS: allocate the buffers for running steps, including the float ones if single
+        Buffers(Step[] steps, boolean single) {
+            outputs = new double[steps.length][];
+            combinations = new double[steps.length][];
+            deltas = new double[steps.length][];
+            singleInput = single ? new float[steps[1].fanIn] : null;
+            singleOutputs = new float[steps.length][];
+            for (int i = 1; i < steps.length; i++) {
+                singleOutputs[i] = single ? new float[steps[i].size] : null;
+                outputs[i] = new double[steps[i].size];
+                deltas[i] = new double[steps[i].size];
+                if (steps[i].activation.derivesFromCombination()) {
+                    combinations[i] = new double[steps[i].size];
+                }
+            }
+        }
+    }
+
+}
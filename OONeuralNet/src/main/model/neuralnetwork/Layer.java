@@ -1,15 +1,44 @@
 package model.neuralnetwork;
 
+import model.operation.Activation;
 import model.operation.Fire;
+import model.operation.Process;
+import model.optimizer.Optimizer;
+import model.optimizer.Sgd;
+import model.tensor.CsrPattern;
+import model.tensor.Kernels;
+import model.tensor.Matrix;
+import model.tensor.Precision;
+import model.tensor.Tensor;
 
 import java.util.ArrayList;
+import java.util.List;
 
 // A Layer in a neural network is simply a class which includes the list of neurons belonging to it and basic methods
-// on the neurons
+// on the neurons.
+// A Layer built from an Activation is fully connected: its neurons receive by Process::rowAppend and combine by
+// Process::linear. Such a layer can be evaluated on primitive values only; setting custom functions on it turns it
+// back into a layer that is always evaluated through the per-neuron Fire pipeline.
+// Once connected, a Layer owns its parameters as one size x fanIn weight Tensor and one size x 1 bias Tensor, and the
+// weights and biases of each neuron are views of one row of them. While that holds (the layer is packed), the whole
+// layer is computed as a single matrix product instead of neuron by neuron.
+// A Layer can also be connected sparsely, through a CsrPattern that lists the previous neurons each neuron is
+// connected to. Its weights are then only the 1 x n values of its n connections, each neuron has a view of the values
+// of its own connections, and the layer is computed by sparse matrix products whose cost follows the number of
+// connections.
+// The parameters of a packed layer are stored in the precision of its network (see setPrecision): in float arrays
+// for SINGLE and MIXED, with double master copies for MIXED that only optimizers see.
 public class Layer {
 
     //<editor-fold desc="Fields of Layer">
     private ArrayList<Neuron> neurons = new ArrayList<Neuron>();
+    private Activation activation;
+    private boolean fullyConnected;
+    private Tensor weights;
+    private Tensor biases;
+    private Tensor masterWeights;
+    private Tensor masterBiases;
+    private CsrPattern pattern;
     //</editor-fold>
 
     //<editor-fold desc="Layer Constructors">
@@ -20,16 +49,19 @@ public class Layer {
     // and Activation functions
     public Layer(int size, Fire receiveFn, Fire combineFn, Fire activateFn) {
         for (int i = 0; i < size; i++) {
-            Neuron neuron = new Neuron(receiveFn, combineFn, activateFn);
-            neurons.add(neuron);
-        }
-        for (int j = 0; j < size; j++) {
-            for (int k = j + 1; k < size; k++) {
-                neurons.get(j).addAdj(neurons.get(k));
-                neurons.get(k).addAdj(neurons.get(j));
-            }
+            addNeuron(new Neuron(receiveFn, combineFn, activateFn));
         }
     }
+
+    // REQUIRES: activation != null
+    // MODIFIES: neurons
+    // EFFECTS: initialize a fully connected layer containing the specified number of neurons, which receive by
+    // Process::rowAppend, combine by Process::linear and activate by the given activation function
+    public Layer(int size, Activation activation) {
+        this(size, Process::rowAppend, Process::linear, activation.getFire());
+        this.activation = activation;
+        this.fullyConnected = true;
+    }
     //</editor-fold>
 
     //<editor-fold desc="Basic accessors and mutators for Layer">
@@ -37,6 +69,7 @@ public class Layer {
     // MODIFIES: neuron in neurons
     // EFFECTS: set the receive function for all neuron in neurons to be the input function
     public void setReceiveFunction(Fire fn) {
+        fullyConnected = false;
         for (Neuron neuron : neurons) {
             neuron.setReceiveFunction(fn);
         }
@@ -47,6 +80,7 @@ public class Layer {
     // MODIFIES: neuron in neurons
     // EFFECTS: set the combination function for all neuron in neurons to be the input function
     public void setCombineFunction(Fire fn) {
+        fullyConnected = false;
         for (Neuron neuron : neurons) {
             neuron.setCombineFunction(fn);
         }
@@ -57,11 +91,31 @@ public class Layer {
     // MODIFIES: neuron in neurons
     // EFFECTS: set the activation function for all neuron in neurons to be the input function
     public void setActivateFunction(Fire fn) {
+        activation = null;
         for (Neuron neuron : neurons) {
             neuron.setActivateFunction(fn);
         }
     }
 
+    // REQUIRES: activation != null
+    // MODIFIES: this, neuron in neurons
+    // EFFECTS: set the activation function for all neuron in neurons to the given activation
+    public void setActivation(Activation activation) {
+        setActivateFunction(activation.getFire());
+        this.activation = activation;
+    }
+
+    // EFFECTS: return the activation of this layer, or null if its neurons use a custom activation function
+    public Activation getActivation() {
+        return activation;
+    }
+
+    // EFFECTS: return true if the neurons of this layer receive by Process::rowAppend and combine by Process::linear
+    // and use a known activation, i.e. if the layer can be evaluated on primitive values only
+    public boolean isFullyConnected() {
+        return fullyConnected && activation != null;
+    }
+
 
 
 
@@ -80,15 +134,213 @@ public class Layer {
     }
 
     // REQUIRES: neuron != null
-    // MODIFIES: this
-    // EFFECTS: add the input neuron to neurons
+    // MODIFIES: this, neuron
+    // EFFECTS: add the input neuron to neurons, and make the neurons of this layer adjacent to it (through a view of
+    // the layer, so that no list of adjacent neurons grows with the size of the layer)
     public void addNeuron(Neuron neuron) {
         neurons.add(neuron);
+        neuron.setAdj(new SiblingNeurons(neurons, neuron));
     }
 
     public ArrayList<Neuron> getNeurons() {
         return neurons;
     }
+
+    // EFFECTS: return the size x fanIn weights of this layer (the 1 x n values of its connections if it is sparse),
+    // or null if it has not been connected
+    public Tensor getWeights() {
+        return weights;
+    }
+
+    // EFFECTS: return the size x 1 biases of this layer, or null if it has not been connected
+    public Tensor getBiases() {
+        return biases;
+    }
+
+    // EFFECTS: return the pattern of the connections of this layer, or null if it is not sparse
+    public CsrPattern getPattern() {
+        return pattern;
+    }
+
+    public boolean isSparse() {
+        return pattern != null;
+    }
+
+    // REQUIRES: fanIn >= 1
+    // MODIFIES: this, neuron in neurons
+    // EFFECTS: allocate Xavier-initialized weights for fanIn inputs per neuron and biases for this layer, and set the
+    // weights and biases of each neuron to views of its row
+    public void connect(int fanIn) {
+        pattern = null;
+        setParameters(Process.randTensor(neurons.size(), fanIn, "Xavier"), randomBiases());
+    }
+
+    // REQUIRES: prev is the layer before this one, pattern.getRows() == getSize(), pattern.getCols() ==
+    // prev.getSize(), every row of pattern holds at least one element
+    // MODIFIES: this, neuron in neurons and in prev
+    // EFFECTS: connect this layer sparsely to prev: the jth neuron receives from the neurons of prev in the jth row
+    // of pattern only, with Xavier-initialized weights for those connections, and new biases
+    public void connect(Layer prev, CsrPattern pattern) {
+        connect(prev, pattern, Process.randTensor(1, pattern.getSize(), "Xavier"), randomBiases());
+    }
+
+    // REQUIRES: prev is the layer before this one and this layer is packed and not sparse, threshold >= 0
+    // MODIFIES: this, neuron in neurons and in prev
+    // EFFECTS: remove every connection whose weight has a magnitude below threshold (but the strongest connection
+    // of each neuron), keeping the weights of the others and the biases, so that this layer becomes sparse
+    public void prune(Layer prev, double threshold) {
+        Tensor values = masterWeights != null ? masterWeights : weights;
+        CsrPattern pruned = CsrPattern.prune(values, threshold);
+        connect(prev, pruned, pruned.gather(values), masterBiases != null ? masterBiases : biases);
+    }
+
+    // MODIFIES: this, neuron in neurons and in prev
+    // EFFECTS: connect this layer sparsely to prev through pattern with the given connection weights and biases,
+    // and link the neurons of both layers accordingly
+    private void connect(Layer prev, CsrPattern pattern, Tensor values, Tensor biases) {
+        this.pattern = pattern;
+        setParameters(values, biases);
+        List<List<Neuron>> next = new ArrayList<List<Neuron>>();
+        for (int i = 0; i < prev.getSize(); i++) {
+            next.add(new ArrayList<Neuron>());
+        }
+        for (int j = 0; j < neurons.size(); j++) {
+            neurons.get(j).setPrev(new ConnectedNeurons(prev.getNeurons(), pattern, j));
+            for (int e = pattern.getRowStart(j); e < pattern.getRowStart(j + 1); e++) {
+                next.get(pattern.getColumn(e)).add(neurons.get(j));
+            }
+        }
+        for (int i = 0; i < prev.getSize(); i++) {
+            prev.getNeuron(i).setNext(next.get(i));
+        }
+    }
+
+    // MODIFIES: this, neuron in neurons
+    // EFFECTS: set the parameters of this layer (without master copies), and the weights and biases of each neuron to
+    // views of its row
+    private void setParameters(Tensor weights, Tensor biases) {
+        this.weights = weights;
+        this.biases = biases;
+        masterWeights = null;
+        masterBiases = null;
+        for (int j = 0; j < neurons.size(); j++) {
+            neurons.get(j).setWeights(weightRow(j));
+            neurons.get(j).setBiases(biases.row(j));
+        }
+    }
+
+    // EFFECTS: return new Xavier-initialized size x 1 biases
+    private Tensor randomBiases() {
+        Tensor biases = Tensor.variable(neurons.size(), 1);
+        for (int j = 0; j < neurons.size(); j++) {
+            biases.setFlat(j, Process.randTensor(1, 1, "Xavier").getFlat(0));
+        }
+        return biases;
+    }
+
+    // REQUIRES: this layer has been connected, 0 <= j < getSize()
+    // EFFECTS: return the view of the weights of the jth neuron in weights
+    private Tensor weightRow(int j) {
+        return pattern == null ? weights.row(j) : weights.view(pattern.getRowStart(j), 1, pattern.getRowLength(j));
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return true if this layer has been connected and the weights and biases of every neuron are still the
+    // views of its rows in the layer's parameters
+    public boolean isPacked() {
+        if (weights == null || biases.getDimRow() != neurons.size()
+                || (pattern == null ? weights.getDimRow() : pattern.getRows()) != neurons.size()) {
+            return false;
+        }
+        for (int j = 0; j < neurons.size(); j++) {
+            Neuron neuron = neurons.get(j);
+            int from = pattern == null ? j * weights.getDimCol() : pattern.getRowStart(j);
+            int length = pattern == null ? weights.getDimCol() : pattern.getRowLength(j);
+            if (!isView(neuron.getWeights(), weights, from, length) || !isView(neuron.getBiases(), biases, j, 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS: return true if m is a dense view of the size elements of t from its fromth one. This is checked on
+    // every training step, so it compares positions rather than creating views to compare with
+    private static boolean isView(Matrix m, Tensor t, int from, int size) {
+        return m != null && m.isDense() && m.getTensor().sharesData(t)
+                && m.getTensor().getOffset() == t.getOffset() + from && m.getTensor().getSize() == size;
+    }
+
+    // REQUIRES: isPacked()
+    // MODIFIES: this, neuron in neurons
+    // EFFECTS: store the parameters of this layer in the given precision, keeping their values: in double arrays for
+    // DOUBLE, in float arrays for SINGLE, and in float arrays plus double master copies for MIXED. Values written
+    // into the float parameters of a MIXED layer since the last call (other than by gradientDescent) are first copied
+    // into the master copies. The gradients are kept in double and shared by the master copies
+    void setPrecision(Precision precision) {
+        syncMaster(masterWeights, weights);
+        syncMaster(masterBiases, biases);
+        Tensor exactWeights = masterWeights != null ? masterWeights : weights;
+        Tensor exactBiases = masterBiases != null ? masterBiases : biases;
+        Tensor newMasterWeights = precision == Precision.MIXED ? asDouble(exactWeights) : null;
+        Tensor newMasterBiases = precision == Precision.MIXED ? asDouble(exactBiases) : null;
+        Tensor newWeights = precision.isSingle() ? asSingle(weights) : asDouble(exactWeights);
+        Tensor newBiases = precision.isSingle() ? asSingle(biases) : asDouble(exactBiases);
+        if (newWeights != weights || newBiases != biases) {
+            setParameters(newWeights, newBiases);
+        }
+        masterWeights = newMasterWeights;
+        masterBiases = newMasterBiases;
+    }
+
+    // REQUIRES: weightValues and biasValues hold as many values as the weights and biases of this layer
+    // MODIFIES: this
+    // EFFECTS: set the weights and biases of this layer (and their master copies in MIXED precision) to the given
+    // values in row-major order
+    void setParameterValues(double[] weightValues, double[] biasValues) {
+        for (Tensor parameters : new Tensor[]{masterWeights, weights}) {
+            if (parameters != null) {
+                parameters.assign(new Tensor(weightValues, weightValues.length));
+            }
+        }
+        for (Tensor parameters : new Tensor[]{masterBiases, biases}) {
+            if (parameters != null) {
+                parameters.assign(new Tensor(biasValues, biasValues.length));
+            }
+        }
+    }
+
+    // EFFECTS: return the values of the weights and then of the biases of this layer in row-major order, taken from
+    // the master copies in MIXED precision
+    double[][] getParameterValues() {
+        Tensor exactWeights = masterWeights != null ? masterWeights : weights;
+        Tensor exactBiases = masterBiases != null ? masterBiases : biases;
+        return new double[][]{exactWeights.toArray(), exactBiases.toArray()};
+    }
+
+    // EFFECTS: return parameters if they are single, or a single copy of them otherwise
+    private static Tensor asSingle(Tensor parameters) {
+        return parameters.isSingle() ? parameters : parameters.toSingle();
+    }
+
+    // EFFECTS: return parameters if they are stored in double, or a double copy of them otherwise
+    private static Tensor asDouble(Tensor parameters) {
+        return parameters.isSingle() ? parameters.toDouble() : parameters;
+    }
+
+    // MODIFIES: master
+    // EFFECTS: copy into master (if not null) every element of the float parameters that is not master's element
+    // rounded to float, i.e. that was written into parameters directly
+    private static void syncMaster(Tensor master, Tensor parameters) {
+        if (master == null) {
+            return;
+        }
+        for (int i = 0; i < master.getSize(); i++) {
+            if ((float) master.getFlat(i) != parameters.getFlat(i)) {
+                master.setFlat(i, parameters.getFlat(i));
+            }
+        }
+    }
     //</editor-fold>
 
     //<editor-fold desc="Functional Operations">
@@ -96,6 +348,14 @@ public class Layer {
     // MODIFIES: this
     // EFFECTS: run the receive function for all neurons in neuron
     public void receive() throws Exception {
+        if (isFullyConnected() && isPacked() && !isSparse()) {
+            // all neurons share the same previous neurons, so the received data is built once for the whole layer
+            neurons.get(0).receive();
+            for (Neuron neuron : neurons) {
+                neuron.setReceiveData(neurons.get(0).getReceiveData());
+            }
+            return;
+        }
         for (Neuron neuron : neurons) {
             neuron.receive();
         }
@@ -112,8 +372,13 @@ public class Layer {
 
     // REQUIRES: neurons != null
     // MODIFIES: this
-    // EFFECTS: run the activation function for all neuron in neurons
+    // EFFECTS: run the activation function for all neuron in neurons. A softmax layer is activated as a whole, so
+    // that the normalizing sum is computed once rather than once per neuron
     public void activate() throws Exception {
+        if (activation == Activation.SOFTMAX) {
+            Process.softmax(this);
+            return;
+        }
         for (Neuron neuron : neurons) {
             neuron.activate();
         }
@@ -122,22 +387,198 @@ public class Layer {
     // REQUIRES: neurons != null
     // MODIFIES: this
     // EFFECTS: run the receive function for all neuron in neurons, then combination function for all neuron in neurons,
-    // then activation function for all neuron in neurons
+    // then activation function for all neuron in neurons. A packed, fully connected layer whose input is dense is
+    // instead computed as one matrix-vector product, and each neuron is given views of the layer's results
     public void fireAll() throws Exception {
+        if (isFullyConnected() && isPacked() && !isSparse()) {
+            Tensor input = denseInput();
+            if (input != null) {
+                fireDense(input);
+                return;
+            }
+        }
         receive();
         combine();
         activate();
     }
+
+    // REQUIRES: isFullyConnected(), size of this layer >= 1
+    // MODIFIES: nothing
+    // EFFECTS: return the activation data of the previous neurons appended in a 1 x N tensor, or null if any of it
+    // is not dense
+    private Tensor denseInput() {
+        List<Neuron> prev = neurons.get(0).getPrev();
+        double[] input = new double[prev.size()];
+        for (int i = 0; i < input.length; i++) {
+            Matrix data = prev.get(i).getActivateData();
+            if (!data.isDense() || data.getDimRow() * data.getDimCol() != 1) {
+                return null;
+            }
+            input[i] = data.getValue(0, 0);
+        }
+        return new Tensor(input, 1, input.length);
+    }
+
+    // REQUIRES: isPacked(), input is 1 x fanIn
+    // MODIFIES: neuron in neurons
+    // EFFECTS: compute the combination and activation of the whole layer at once, then set the receive data of each
+    // neuron to input and its combination and activation data to views of its element in the results
+    private void fireDense(Tensor input) {
+        Tensor combined = new Tensor(neurons.size(), 1);
+        Kernels.gemv(weights, input, combined);
+        Kernels.addRow(combined.reshape(1, neurons.size()), biases.reshape(neurons.size()));
+        Tensor activated = combined.copy();
+        activation.apply(activated.getData(), 0, neurons.size());
+        Matrix received = new Matrix(input);
+        for (int j = 0; j < neurons.size(); j++) {
+            Neuron neuron = neurons.get(j);
+            neuron.setReceiveData(received);
+            neuron.setCombineData(new Matrix(combined.view(j, 1, 1)));
+            neuron.setActivateData(new Matrix(activated.view(j, 1, 1)));
+        }
+    }
+
+    // REQUIRES: isPacked(), input is batch x fanIn
+    // MODIFIES: nothing
+    // EFFECTS: return the batch x size activations of this layer for each row of input, computed as one
+    // matrix-matrix product plus biases followed by the activation of each row
+    public Tensor forward(Tensor input) {
+        Tensor output = new Tensor(input.getDimRow(), neurons.size());
+        forward(input, output);
+        return output;
+    }
+
+    // REQUIRES: isPacked(), input is batch x fanIn, output is batch x size
+    // MODIFIES: output
+    // EFFECTS: set output to the activations of this layer for each row of input, like forward(input)
+    public void forward(Tensor input, Tensor output) {
+        int size = neurons.size();
+        forwardLinear(input, output);
+        for (int b = 0; b < input.getDimRow(); b++) {
+            int from = output.getOffset() + b * size;
+            activation.apply(output.getData(), from, from + size);
+        }
+    }
+
+    // REQUIRES: isPacked(), input is batch x fanIn, output is batch x size
+    // MODIFIES: output
+    // EFFECTS: set output to the combination of this layer for each row of input (the weighted sums plus biases,
+    // before activation)
+    public void forwardLinear(Tensor input, Tensor output) {
+        if (isSparse()) {
+            Kernels.csrGemm(input, pattern, weights, output);
+        } else {
+            Kernels.gemm(input, false, weights, true, output, false);
+        }
+        Kernels.addRow(output, biases);
+    }
+
+    // REQUIRES: isPacked(), values is batch x size and holds the activations of this layer for some input (or their
+    // combination if the activation derivesFromCombination()), gradOutput has the shape of values and holds the
+    // derivative of a loss with respect to those activations
+    // MODIFIES: gradOutput
+    // EFFECTS: replace gradOutput by the derivative of the loss with respect to the combination of this layer
+    public void backwardActivation(Tensor values, Tensor gradOutput) {
+        int size = neurons.size();
+        for (int b = 0; b < values.getDimRow(); b++) {
+            int from = values.getOffset() + b * size;
+            activation.backward(values.getData(), from, from + size, gradOutput.getData(),
+                    gradOutput.getOffset() + b * size);
+        }
+    }
+
+    // REQUIRES: isPacked(), gradCombination is batch x size and holds the derivative of a loss with respect to the
+    // combination of this layer for each row of input, gradInput (if not null) has the shape of input, gradWeights
+    // and gradBiases have the shapes of getWeights() and getBiases()
+    // MODIFIES: gradInput, gradWeights, gradBiases
+    // EFFECTS: add the derivatives of the loss with respect to the weights and biases (summed over the batch) to
+    // gradWeights and gradBiases, and set gradInput to the derivative with respect to input (skipped if gradInput is
+    // null). Callers differentiate the activation first with backwardActivation, unless it is fused with the loss
+    // (as a softmax with cross-entropy). This layer is only read, so it can run on many threads at once with
+    // different buffers
+    public void backwardLinear(Tensor input, Tensor gradCombination, Tensor gradInput, Tensor gradWeights,
+                               Tensor gradBiases) {
+        Kernels.addColumnSums(gradCombination, gradBiases);
+        if (isSparse()) {
+            Kernels.csrGemmBackward(input, pattern, weights, gradCombination, gradWeights, gradInput);
+            return;
+        }
+        Kernels.gemm(gradCombination, true, input, false, gradWeights, true);
+        if (gradInput != null) {
+            Kernels.gemm(gradCombination, false, weights, false, gradInput, false);
+        }
+    }
+
+    // REQUIRES: prev is the layer before this one, input.length == prev.getSize()
+    // MODIFIES: nothing if this layer is fully connected, otherwise neurons of this layer and of prev
+    // EFFECTS: return the activations of this layer for the given activations of prev, without building any Synapse
+    // graph. A fully connected layer is evaluated on primitive values only (as one matrix-vector product if it is
+    // packed); any other layer is fired through the per-neuron pipeline on dense data
+    public double[] infer(Layer prev, double[] input) throws Exception {
+        if (!isFullyConnected()) {
+            return inferPerNeuron(prev, input);
+        }
+        double[] output = new double[neurons.size()];
+        if (isPacked()) {
+            Tensor result = new Tensor(output, 1, output.length);
+            forwardLinear(new Tensor(input, 1, input.length), result);
+        } else {
+            for (int j = 0; j < output.length; j++) {
+                Neuron neuron = neurons.get(j);
+                output[j] = Process.dot(neuron.getWeights(), input, neuron.getBiases().getValue(0, 0));
+            }
+        }
+        activation.apply(output, 0, output.length);
+        return output;
+    }
+
+    // REQUIRES: prev is the layer before this one, input.length == prev.getSize()
+    // MODIFIES: neurons of this layer and of prev
+    // EFFECTS: fire this layer through the per-neuron pipeline with dense activations of prev set to input, and
+    // return the resultant activations
+    private double[] inferPerNeuron(Layer prev, double[] input) throws Exception {
+        for (int i = 0; i < prev.getSize(); i++) {
+            prev.getNeuron(i).setActivateData(new Matrix(Tensor.scalar(input[i])));
+        }
+        fireAll();
+        double[] output = new double[neurons.size()];
+        for (int j = 0; j < output.length; j++) {
+            output[j] = neurons.get(j).getActivateData().getValue(0, 0);
+        }
+        return output;
+    }
     //</editor-fold>
 
     //<editor-fold desc="Differentiation Operations">
 
     // REQUIRES: nothing
     // MODIFIES: neurons
-    // EFFECTS: update each Synapse in weights and biases in each neuron in neurons with its derivative
+    // EFFECTS: update each Synapse in weights and biases in each neuron in neurons with its derivative (in one pass
+    // over the layer's parameters if it is packed)
     public void gradientDescent(double learningRate) {
+        gradientDescent(new Sgd(), learningRate);
+    }
+
+    // REQUIRES: optimizer != null
+    // MODIFIES: neurons, optimizer
+    // EFFECTS: update the weights and biases of each neuron in neurons with optimizer, which sees the whole weight
+    // matrix and bias vector of the layer at once if it is packed (see Neuron.gradientDescent otherwise). In MIXED
+    // precision the optimizer updates the double master copies, which are then rounded into the float parameters
+    public void gradientDescent(Optimizer optimizer, double learningRate) {
+        if (isPacked() && masterWeights != null) {
+            optimizer.update(masterWeights, learningRate);
+            optimizer.update(masterBiases, learningRate);
+            weights.assign(masterWeights);
+            biases.assign(masterBiases);
+            return;
+        }
+        if (isPacked()) {
+            optimizer.update(weights, learningRate);
+            optimizer.update(biases, learningRate);
+            return;
+        }
         for (Neuron neuron : neurons) {
-            neuron.gradientDescent(learningRate);
+            neuron.gradientDescent(optimizer, learningRate);
         }
     }
     //</editor-fold>
@@ -2,15 +2,24 @@ package model.neuralnetwork;
 
 import model.Event;
 import model.EventLog;
+import model.LogLevel;
 import model.tensor.Matrix;
+import model.operation.Activation;
 import model.operation.Error;
 import model.operation.Process;
+import model.optimizer.Optimizer;
+import model.optimizer.Sgd;
+import model.tensor.CsrPattern;
+import model.tensor.Precision;
+import model.tensor.Tensor;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import persistence.Writable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 // A Network is a class which includes the list of layers belonging to it as well as basic methods for the layers.
 // A Network can deals with network initialization and Backpropagation.
@@ -18,6 +27,11 @@ public class Network implements Writable {
 
     //<editor-fold desc="Fields of Network">
     private ArrayList<Layer> layers = new ArrayList<Layer>();
+    private final Tape tape = new Tape();
+    private final ThreadLocal<ExecutionContext> contexts = new ThreadLocal<ExecutionContext>();
+    private volatile ExecutionPlan plan;
+    private Optimizer optimizer = new Sgd();
+    private Precision precision = Precision.DOUBLE;
     //</editor-fold>
 
     //<editor-fold desc="Network Constructors">
@@ -33,28 +47,36 @@ public class Network implements Writable {
     // MODIFIES: layers
     // EFFECTS: fully connect all neurons in the layers
     public void fullConnect() {
-        for (Layer layer : layers) {
-            for (Neuron neuron : layer.getNeurons()) {
-                neuron.getPrev().clear();
-                neuron.getNext().clear();
-            }
+        fullConnectSameParameters();
+        for (int i = 1; i < layers.size(); i++) {
+            layers.get(i).connect(layers.get(i - 1).getSize());
         }
-        for (int i = 0; i < layers.size() - 1; i++) {
-            Layer l1 = layers.get(i);
-            Layer l2 = layers.get(i + 1);
+        parametersChanged();
+        EventLog.getInstance().logEvent(new Event("Parameters reset with neurons reconnection"));
+    }
 
-            for (int m = 0; m < l2.getSize(); m++) {
-                Neuron n2 = l2.getNeuron(m);
-                for (int n = 0; n < l1.getSize(); n++) {
-                    Neuron n1 = l1.getNeuron(n);
-                    n2.addPrev(n1);
-                    n1.addNext(n2);
-                }
-                n2.setWeights(Process.randMat(1, l1.getSize(), "Xavier"));
-                n2.setBiases(Process.randMat(1, 1, "Xavier"));
-            }
+    // REQUIRES: 1 <= i < number of layers, pattern.getRows() is the size of the ith layer, pattern.getCols() is
+    // the size of the layer before it, every row of pattern holds at least one element
+    // MODIFIES: layers
+    // EFFECTS: connect the ith layer sparsely to the layer before it through pattern, with new parameters (see
+    // Layer.connect)
+    public void sparseConnect(int i, CsrPattern pattern) {
+        layers.get(i).connect(layers.get(i - 1), pattern);
+        parametersChanged();
+        EventLog.getInstance().logEvent(new Event("Layer " + i + " sparsely reconnected with "
+                + pattern.getSize() + " connections"));
+    }
+
+    // REQUIRES: isPacked(), no layer is sparse, threshold >= 0
+    // MODIFIES: layers
+    // EFFECTS: make every layer after the first sparse by removing its connections whose weight has a magnitude
+    // below threshold (see Layer.prune)
+    public void prune(double threshold) {
+        for (int i = 1; i < layers.size(); i++) {
+            layers.get(i).prune(layers.get(i - 1), threshold);
         }
-        EventLog.getInstance().logEvent(new Event("Parameters reset with neurons reconnection"));
+        parametersChanged();
+        EventLog.getInstance().logEvent(new Event("Connections pruned below " + threshold));
     }
 
     // REQUIRES: nothing
@@ -78,36 +100,70 @@ public class Network implements Writable {
 
     // REQUIRES: nothing
     // MODIFIES: layers
-    // EFFECTS: fully connect all neurons in the layers without randomizing weights and biases
+    // EFFECTS: fully connect all neurons in the layers without randomizing weights and biases. All the neurons of a
+    // layer share one read-only view of the previous layer as their previous neurons, and one of the next layer as
+    // their next neurons, so connecting takes memory linear (not quadratic) in the size of the layers
     public void fullConnectSameParameters() {
-        for (Layer layer : layers) {
-            for (Neuron neuron : layer.getNeurons()) {
-                neuron.getPrev().clear();
-                neuron.getNext().clear();
+        for (int i = 0; i < layers.size(); i++) {
+            List<Neuron> prev = i > 0 ? Collections.unmodifiableList(layers.get(i - 1).getNeurons())
+                    : Collections.<Neuron>emptyList();
+            List<Neuron> next = i < layers.size() - 1 ? Collections.unmodifiableList(layers.get(i + 1).getNeurons())
+                    : Collections.<Neuron>emptyList();
+            for (Neuron neuron : layers.get(i).getNeurons()) {
+                neuron.setPrev(prev);
+                neuron.setNext(next);
             }
         }
-        for (int i = 0; i < layers.size() - 1; i++) {
-            Layer l1 = layers.get(i);
-            Layer l2 = layers.get(i + 1);
+    }
 
-            for (int m = 0; m < l2.getSize(); m++) {
-                Neuron n2 = l2.getNeuron(m);
-                for (int n = 0; n < l1.getSize(); n++) {
-                    Neuron n1 = l1.getNeuron(n);
-                    n2.addPrev(n1);
-                    n1.addNext(n2);
-                }
+
+    public Optimizer getOptimizer() {
+        return optimizer;
+    }
+
+    // REQUIRES: optimizer != null
+    // MODIFIES: this
+    // EFFECTS: set the optimizer used by gradientDescent (and so by every backProp), which is plain gradient descent
+    // by default
+    public void setOptimizer(Optimizer optimizer) {
+        this.optimizer = optimizer;
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    // REQUIRES: precision != null
+    // MODIFIES: this, layers
+    // EFFECTS: set the precision in which the packed layers store their parameters (see Layer.setPrecision), compile
+    // runs the forward pass and BinaryWriter saves the network by default. SINGLE and MIXED store the parameters in
+    // float arrays, MIXED also in double master copies that gradientDescent updates
+    public void setPrecision(Precision precision) {
+        this.precision = precision;
+        parametersChanged();
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: this, layers
+    // EFFECTS: store the parameters of every packed layer in the precision of this network, copying values written
+    // into the float parameters of a MIXED layer into its master copies. The methods connecting layers call this;
+    // code writing the weights or biases of layers directly must call it afterwards
+    public void parametersChanged() {
+        for (int i = 1; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            if (layer.isPacked()) {
+                layer.setPrecision(precision);
             }
         }
     }
 
-
     // REQUIRES: nothing
-    // MODIFIES: layers
-    // EFFECTS: run the gradient descent algorithm on each layer in layers
+    // MODIFIES: layers, optimizer
+    // EFFECTS: update the parameters of each layer in layers from their accumulated derivatives with the optimizer
+    // of this network, then reset the derivatives
     public void gradientDescent(double learningRate) {
         for (int i = 1; i < layers.size(); i++) {
-            layers.get(i).gradientDescent(learningRate);
+            layers.get(i).gradientDescent(optimizer, learningRate);
         }
     }
 
@@ -124,36 +180,195 @@ public class Network implements Writable {
         }
     }
 
+    // REQUIRES: input != null, input.getSize() == size of the first layer
+    // MODIFIES: layers
+    // EFFECTS: set the activation data for each neuron in the first layer to a dense view of the corresponding
+    // element of input, then fire all neurons in every other layer. As long as the parameters are dense as well,
+    // no Synapse is created.
+    public void fire(Tensor input) throws Exception {
+        fire(Process.tensorToOutput(input));
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: this
+    // EFFECTS: return an ExecutionPlan computing this network on one sample at a time with no allocation. The plan is
+    // kept and returned again by later calls until it no longer matches the layers (see ExecutionPlan).
+    // throws IllegalStateException if there are fewer than two layers or a layer is not packed and fully connected
+    public ExecutionPlan compile() {
+        checkPacked();
+        if (layers.size() < 2) {
+            throw new IllegalStateException("A network needs at least two layers to be compiled");
+        }
+        ExecutionPlan compiled = plan;
+        if (compiled == null || !compiled.isCompiledFrom(this)) {
+            compiled = new ExecutionPlan(this);
+            plan = compiled;
+        }
+        return compiled;
+    }
+
     // REQUIRES: lossFn != null, input != null, expected != null
     // MODIFIES: layers
     // EFFECTS: fire all neurons in layers, autoDifferentiate the resultant from running lossFn, then run gradient
-    // descent on all the layers.
+    // descent on all the layers. The input synapses are watched by the network's Tape, so the whole pass is recorded
+    // on it and differentiated in one backward sweep; dense inputs are turned into synapses first.
     public Matrix backProp(Error lossFn, Matrix[] input, Matrix[] expected, double learningRate) throws Exception {
-        fire(input);
+        Matrix loss = accumulateGradient(lossFn, input, expected);
+        gradientDescent(learningRate);
+        return loss;
+    }
+
+    // REQUIRES: lossFn != null, inputs and expected have the same length >= 1
+    // MODIFIES: layers
+    // EFFECTS: train on a mini-batch: for each sample, fire all neurons, and autoDifferentiate the resultant from
+    // running lossFn, accumulating the derivatives of all samples; then run gradient descent once with the
+    // learning rate divided by the number of samples. Return the loss averaged over the batch as a 1 x 1 matrix
+    public Matrix backProp(Error lossFn, Matrix[][] inputs, Matrix[][] expected, double learningRate)
+            throws Exception {
+        double sum = 0;
+        for (int i = 0; i < inputs.length; i++) {
+            Matrix loss = accumulateGradient(lossFn, inputs[i], expected[i]);
+            for (int r = 0; r < loss.getDimRow(); r++) {
+                for (int c = 0; c < loss.getDimCol(); c++) {
+                    sum += loss.getValue(r, c);
+                }
+            }
+        }
+        gradientDescent(learningRate / inputs.length);
+        return new Matrix(Tensor.scalar(sum / inputs.length));
+    }
+
+    // REQUIRES: every layer after the first is fully connected and packed, inputs is batch x (size of first layer),
+    // expected is batch x (size of last layer)
+    // MODIFIES: layers
+    // EFFECTS: train on a mini-batch without building any Synapse graph: run the whole batch through each layer as
+    // one matrix product, propagate the derivative of the cross entropy loss back through the layers as matrix
+    // products, accumulating the gradients of every sample, then apply one gradient descent step. Return the cross
+    // entropy loss averaged over the batch. The buffers come from an ExecutionContext owned by the calling thread,
+    // so steps on batches of the same size allocate nothing
+    public double backProp(Tensor inputs, Tensor expected, double learningRate) {
+        checkPacked();
+        int batch = inputs.getDimRow();
+        ExecutionContext context = context(batch);
+        double loss = context.accumulateGradient(this, inputs, expected, batch);
+        context.addGradientsTo(this);
+        gradientDescent(learningRate);
+        return loss / batch;
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return true if every layer after the first is fully connected and packed
+    public boolean isPacked() {
+        for (int i = 1; i < layers.size(); i++) {
+            if (!layers.get(i).isFullyConnected() || !layers.get(i).isPacked()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: throw IllegalStateException unless every layer after the first is fully connected and packed
+    void checkPacked() {
+        if (!isPacked()) {
+            throw new IllegalStateException("Every layer after the first must be packed and fully connected");
+        }
+    }
+
+    // REQUIRES: lossFn != null, input != null, expected != null
+    // MODIFIES: layers
+    // EFFECTS: fire all neurons in layers with the input synapses watched by the network's Tape, autoDifferentiate
+    // the resultant from running lossFn (adding to the derivatives of the weights and biases), and return it
+    private Matrix accumulateGradient(Error lossFn, Matrix[] input, Matrix[] expected) throws Exception {
+        fire(watch(input));
         Matrix loss = lossFn.compute(layers.get(layers.size() - 1), expected);
         Process.autoDifferentiate(loss);
-        String outputText = layers.get(layers.size() - 1).toString();
-        outputText += "Loss: " + loss;
-        //System.out.println(outputText);
-        gradientDescent(learningRate);
+        tape.reset();
         return loss;
     }
 
+    // REQUIRES: input != null
+    // MODIFIES: tape
+    // EFFECTS: return input with every matrix holding synapses, each of which is watched by tape
+    private Matrix[] watch(Matrix[] input) {
+        Matrix[] graphInput = new Matrix[input.length];
+        for (int i = 0; i < input.length; i++) {
+            graphInput[i] = input[i].toGraph();
+            for (int r = 0; r < graphInput[i].getDimRow(); r++) {
+                for (int c = 0; c < graphInput[i].getDimCol(); c++) {
+                    tape.watch(graphInput[i].getSynapse(r, c));
+                }
+            }
+        }
+        return graphInput;
+    }
+
 
     // REQUIRES: input != null
     // MODIFIES: this
-    // EFFECTS: feed forward the input data nad output the text of the result
-    public String output(Matrix[] input) throws Exception {
+    // EFFECTS: feed forward the input data nad output the text of the result, which is also logged at the DEBUG
+    // level. Calls on the same network are serialized since the result is kept in the neurons; use infer to serve
+    // several threads at once
+    public synchronized String output(Matrix[] input) throws Exception {
         fire(input);
         String output = "";
         Layer l = layers.get(layers.size() - 1);
         for (int i = 0; i < l.getSize(); i++) {
             output += l.getNeuron(i).getActivateData();
         }
-        EventLog.getInstance().logEvent(new Event("Output of Network: " + "\n" + output));
+        if (EventLog.getInstance().isEnabled(LogLevel.DEBUG)) {
+            EventLog.getInstance().logEvent(new Event("Output of Network: " + "\n" + output, LogLevel.DEBUG));
+        }
         return output;
     }
 
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: log the network output event to console
+    public static void logOutput(String outputText) {
+        EventLog.getInstance().logEvent(new Event("Output of Network: " + "\n" + outputText));
+    }
+
+    // REQUIRES: input.length == size of the first layer
+    // MODIFIES: nothing as long as every layer is fully connected and packed, otherwise neurons of the layers
+    // EFFECTS: feed forward the input data without building any Synapse graph and return the activations of the
+    // last layer. Nothing is recorded for differentiation, so this is the mode to use when the network is not
+    // being trained. When every layer is fully connected and packed, the activations are written to an
+    // ExecutionContext owned by the calling thread, so any number of threads can call this at once
+    public double[] infer(double[] input) throws Exception {
+        if (!isPacked()) {
+            return inferPerLayer(input);
+        }
+        return context(1).infer(this, input);
+    }
+
+    // REQUIRES: isPacked(), rows >= 1
+    // MODIFIES: this
+    // EFFECTS: return the ExecutionContext of the calling thread, replaced by a new one for rows samples if it does
+    // not fit rows samples through the layers of this network
+    private ExecutionContext context(int rows) {
+        ExecutionContext context = contexts.get();
+        if (context == null || !context.fits(this, rows)) {
+            context = new ExecutionContext(this, rows);
+            contexts.set(context);
+        }
+        return context;
+    }
+
+    // REQUIRES: input.length == size of the first layer
+    // MODIFIES: neurons of layers that are not fully connected
+    // EFFECTS: feed forward the input data one layer at a time; calls on the same network are serialized since
+    // custom layers keep their results in their neurons
+    private synchronized double[] inferPerLayer(double[] input) throws Exception {
+        double[] activations = input;
+        for (int i = 1; i < layers.size(); i++) {
+            activations = layers.get(i).infer(layers.get(i - 1), activations);
+        }
+        return activations;
+    }
+
     // REQUIRES: layer != null, 0 <= i <= layers.size()
     // MODIFIES: layers
     // MODIFIES: add layer to layers
@@ -192,9 +407,9 @@ public class Network implements Writable {
     public static Network multilayerPerceptron(int... sizes) {
         Network net = new Network();
         for (int i = 0; i < sizes.length - 1; i++) {
-            net.addLayer(new Layer(sizes[i], Process::rowAppend, Process::linear, Process::tanh));
+            net.addLayer(new Layer(sizes[i], Activation.TANH));
         }
-        net.addLayer(new Layer(sizes[sizes.length - 1], Process::rowAppend, Process::linear, Process::softmax));
+        net.addLayer(new Layer(sizes[sizes.length - 1], Activation.SOFTMAX));
         net.fullConnect();
         return net;
     }
@@ -206,9 +421,15 @@ public class Network implements Writable {
 
 
     // Specifications and general structure are based on https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
-    // EFFECTS: convert Network to a JSONObject, storing the appropriate corresponding data
+    // EFFECTS: convert Network to a JSONObject, storing the appropriate corresponding data;
+    // throws IllegalStateException if a layer is sparse (the format only holds dense weights)
     @Override
     public JSONObject toJson() {
+        for (int k = 1; k < layers.size(); k++) {
+            if (layers.get(k).isSparse()) {
+                throw new IllegalStateException("Layer " + k + " is sparse");
+            }
+        }
         JSONObject json = new JSONObject();
         JSONArray jsonArray = new JSONArray();
         for (int k = 0; k < layers.size(); k++) {
@@ -237,6 +458,7 @@ public class Network implements Writable {
 
         }
         json.put("Layers", jsonArray);
+        json.put("Precision", precision.name());
 
         return json;
     }
@@ -2,18 +2,23 @@ package model.neuralnetwork;
 
 import model.tensor.Matrix;
 import model.operation.Fire;
+import model.optimizer.Optimizer;
+import model.optimizer.Sgd;
+import model.tensor.Tensor;
 
 import java.util.ArrayList;
+import java.util.List;
 
 // In a neural network, the neuron represents the receiver, processor, and sender of data (synapses). Each neuron holds
 // weights and biases as matrices which are to be updated using automatic differentiation (for gradient descent).
 // A neuron processes the input data in three steps, Receive, Combine, and Activate. Each neuron holds a(n) (Array)list
 // reference to adjacent neurons (in same layer), previous neurons (in the previous layer),
-// and next neurons (in then next layer).
+// and next neurons (in then next layer). Neurons that are connected alike share one read-only list (such as the
+// neurons of a whole layer), which is copied into a list of their own before they are connected to any other neuron.
 public class Neuron {
-    private ArrayList<Neuron> adj = new ArrayList<Neuron>();
-    private ArrayList<Neuron> prev = new ArrayList<Neuron>();
-    private ArrayList<Neuron> next = new ArrayList<Neuron>();
+    private List<Neuron> adj = new ArrayList<Neuron>();
+    private List<Neuron> prev = new ArrayList<Neuron>();
+    private List<Neuron> next = new ArrayList<Neuron>();
     private Matrix receiveData;
     private Matrix combineData;
     private Matrix activateData;
@@ -109,6 +114,13 @@ public class Neuron {
         this.weights = weights;
     }
 
+    // REQUIRES: weights != null, weights.getRank() == 2
+    // MODIFIES: this
+    // EFFECTS: set the weights to a dense Matrix backed by the given tensor
+    public void setWeights(Tensor weights) {
+        this.weights = new Matrix(weights);
+    }
+
     public Matrix getBiases() {
         return biases;
     }
@@ -117,21 +129,43 @@ public class Neuron {
         this.biases = biases;
     }
 
-    public ArrayList<Neuron> getPrev() {
+    // REQUIRES: biases != null, biases.getRank() == 2
+    // MODIFIES: this
+    // EFFECTS: set the biases to a dense Matrix backed by the given tensor
+    public void setBiases(Tensor biases) {
+        this.biases = new Matrix(biases);
+    }
+
+    public List<Neuron> getPrev() {
         return prev;
     }
 
+    // REQUIRES: prev != null
+    // MODIFIES: this
+    // EFFECTS: set the previous neurons to prev, which may be shared with other neurons (no copy is made)
+    public void setPrev(List<Neuron> prev) {
+        this.prev = prev;
+    }
+
     // REQUIRES: neuron != null
     // MODIFIES: prev
     // EFFECTS: add neuron to prev
     public void addPrev(Neuron prev) {
+        this.prev = ownList(this.prev);
         this.prev.add(prev);
     }
 
-    public ArrayList<Neuron> getAdj() {
+    public List<Neuron> getAdj() {
         return adj;
     }
 
+    // REQUIRES: adj != null
+    // MODIFIES: this
+    // EFFECTS: set the adjacent neurons to adj, which may be shared with other neurons (no copy is made)
+    public void setAdj(List<Neuron> adj) {
+        this.adj = adj;
+    }
+
     // REQUIRES: i is an integer between 0 and adj.size()-1
     // MODIFIES: this
     // EFFECTS: return the ith neuron in adj
@@ -143,19 +177,34 @@ public class Neuron {
     // MODIFIES: adj
     // EFFECTS: add neuron to adj
     public void addAdj(Neuron neuron) {
+        this.adj = ownList(this.adj);
         this.adj.add(neuron);
     }
 
-    public ArrayList<Neuron> getNext() {
+    public List<Neuron> getNext() {
         return next;
     }
 
+    // REQUIRES: next != null
+    // MODIFIES: this
+    // EFFECTS: set the next neurons to next, which may be shared with other neurons (no copy is made)
+    public void setNext(List<Neuron> next) {
+        this.next = next;
+    }
+
     // REQUIRES: neuron != null
     // MODIFIES: next
     // EFFECTS: add neuron to next
     public void addNext(Neuron next) {
+        this.next = ownList(this.next);
         this.next.add(next);
     }
+
+    // EFFECTS: return neurons if it is a list owned by a single neuron, or a new list with the same neurons if it
+    // may be shared
+    private static List<Neuron> ownList(List<Neuron> neurons) {
+        return neurons instanceof ArrayList ? neurons : new ArrayList<Neuron>(neurons);
+    }
     //</editor-fold>
 
     //<editor-fold desc="Differentiation Operations">
@@ -164,18 +213,34 @@ public class Neuron {
     // MODIFIES: weights and biases
     // EFFECTS: update each Synapse in weights and biases using its derivative
     public void gradientDescent(double learningRate) {
-        int dimRow = weights.getDimRow();
-        int dimCol = weights.getDimCol();
-        for (int r = 0; r < dimRow; r++) {
-            for (int c = 0; c < dimCol; c++) {
-                weights.getSynapse(r, c).gradientDescent(learningRate);
+        gradientDescent(new Sgd(), learningRate);
+    }
+
+    // REQUIRES: weights != null && biases != null, optimizer != null
+    // MODIFIES: weights and biases, optimizer
+    // EFFECTS: update weights and biases with optimizer. A dense Matrix is passed to optimizer as its tensor; the
+    // Synapses of any other Matrix have no room for optimizer state, so they are updated by plain gradient descent
+    public void gradientDescent(Optimizer optimizer, double learningRate) {
+        gradientDescent(weights, optimizer, learningRate);
+        gradientDescent(biases, optimizer, learningRate);
+    }
+
+    // REQUIRES: parameters != null
+    // MODIFIES: parameters, optimizer
+    // EFFECTS: update each element of parameters using its derivative; a dense Matrix is updated directly on its
+    // tensor by optimizer, otherwise each Synapse is updated
+    private static void gradientDescent(Matrix parameters, Optimizer optimizer, double learningRate) {
+        if (parameters.isDense()) {
+            if (parameters.getTensor().hasGrad()) {
+                optimizer.update(parameters.getTensor(), learningRate);
             }
+            return;
         }
-        dimRow = biases.getDimRow();
-        dimCol = biases.getDimCol();
+        int dimRow = parameters.getDimRow();
+        int dimCol = parameters.getDimCol();
         for (int r = 0; r < dimRow; r++) {
             for (int c = 0; c < dimCol; c++) {
-                biases.getSynapse(r, c).gradientDescent(learningRate);
+                parameters.getSynapse(r, c).gradientDescent(learningRate);
             }
         }
     }
@@ -0,0 +1,110 @@
+package model.neuralnetwork;
+
+import model.tensor.Tensor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// A ParallelTrainer trains a Network of packed, fully connected layers on mini-batches split across the threads of a
+// ForkJoinPool. Each batch is cut into a fixed number of contiguous shards, and each shard runs forward and backward
+// with its own ExecutionContext against the shared weights. The gradients of the shards are then added to the layers
+// in shard order, so the result of a step does not depend on how the threads were scheduled, only on the number of
+// shards: trainers with the same number of shards give the same results on any machine.
+public class ParallelTrainer {
+
+    //<editor-fold desc="Fields of ParallelTrainer">
+    private final Network network;
+
+    private final ForkJoinPool pool;
+
+    private final ExecutionContext[] contexts;
+    //</editor-fold>
+
+    //<editor-fold desc="ParallelTrainer Constructors">
+    // REQUIRES: every layer of network after the first is fully connected and packed
+    // MODIFIES: this
+    // EFFECTS: create a trainer for network that splits each batch into one shard per available processor and runs
+    // them on the common ForkJoinPool. Use ParallelTrainer(network, pool, shards) with a fixed number of shards for
+    // results that do not depend on the machine
+    public ParallelTrainer(Network network) {
+        this(network, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    // REQUIRES: every layer of network after the first is fully connected and packed, shards >= 1
+    // MODIFIES: this
+    // EFFECTS: create a trainer for network that splits each batch into the given number of shards and runs them
+    // on pool
+    public ParallelTrainer(Network network, ForkJoinPool pool, int shards) {
+        this.network = network;
+        this.pool = pool;
+        this.contexts = new ExecutionContext[shards];
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for ParallelTrainer">
+    public Network getNetwork() {
+        return network;
+    }
+
+    public int getShards() {
+        return contexts.length;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Training">
+    // REQUIRES: inputs is batch x (size of first layer), expected is batch x (size of last layer)
+    // MODIFIES: this, network
+    // EFFECTS: do what network.backProp(inputs, expected, learningRate) does, with the shards of the batch running
+    // in parallel. Return the cross entropy loss averaged over the batch. If a shard throws, the gradients of every
+    // shard are discarded once they have all finished, the network is left unchanged and the exception is rethrown
+    public double backProp(Tensor inputs, Tensor expected, double learningRate) {
+        network.checkPacked();
+        int batch = inputs.getDimRow();
+        int shards = Math.min(contexts.length, batch);
+        List<ForkJoinTask<Double>> tasks = new ArrayList<ForkJoinTask<Double>>();
+        for (int s = 0; s < shards; s++) {
+            int from = s * batch / shards;
+            int rows = (s + 1) * batch / shards - from;
+            ExecutionContext context = context(s, rows);
+            Tensor shardInputs = inputs.view(from * inputs.getDimCol(), rows, inputs.getDimCol());
+            Tensor shardExpected = expected.view(from * expected.getDimCol(), rows, expected.getDimCol());
+            tasks.add(pool.submit(() -> context.accumulateGradient(network, shardInputs, shardExpected, batch)));
+        }
+        double loss = 0;
+        try {
+            for (ForkJoinTask<Double> task : tasks) {
+                loss += task.join();
+            }
+        } catch (RuntimeException | Error e) {
+            discardGradients(tasks);
+            throw e;
+        }
+        for (int s = 0; s < shards; s++) {
+            contexts[s].addGradientsTo(network);
+        }
+        network.gradientDescent(learningRate);
+        return loss / batch;
+    }
+    //</editor-fold>
+
+    // MODIFIES: this
+    // EFFECTS: wait for every task to finish, then reset the gradients held by the contexts of their shards to 0
+    private void discardGradients(List<ForkJoinTask<Double>> tasks) {
+        for (int s = 0; s < tasks.size(); s++) {
+            tasks.get(s).quietlyJoin();
+            contexts[s].discardGradients();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: return the context of the sth shard, replacing it if it cannot hold rows samples
+    private ExecutionContext context(int s, int rows) {
+        if (contexts[s] == null || !contexts[s].fits(network, rows)) {
+            contexts[s] = new ExecutionContext(network, rows);
+        }
+        return contexts[s];
+    }
+
+}
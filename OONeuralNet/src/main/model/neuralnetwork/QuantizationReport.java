@@ -0,0 +1,79 @@
+package model.neuralnetwork;
+
+// A QuantizationReport records how far a QuantizedNetwork drifts from the network it was quantized from over a
+// dataset: the mean and largest absolute difference between their outputs, the fraction of samples on which both
+// pick the same output (the same largest activation), and the sizes of their parameters.
+public class QuantizationReport {
+
+    //<editor-fold desc="Fields of QuantizationReport">
+    private final int samples;
+
+    private final double meanAbsoluteError;
+
+    private final double maxAbsoluteError;
+
+    private final double agreement;
+
+    private final long originalBytes;
+
+    private final long quantizedBytes;
+    //</editor-fold>
+
+    //<editor-fold desc="QuantizationReport Constructors">
+    // REQUIRES: samples >= 1, 0 <= agreement <= 1, originalBytes >= 1, quantizedBytes >= 1
+    // MODIFIES: this
+    // EFFECTS: create a report over the given number of samples
+    public QuantizationReport(int samples, double meanAbsoluteError, double maxAbsoluteError, double agreement,
+                              long originalBytes, long quantizedBytes) {
+        this.samples = samples;
+        this.meanAbsoluteError = meanAbsoluteError;
+        this.maxAbsoluteError = maxAbsoluteError;
+        this.agreement = agreement;
+        this.originalBytes = originalBytes;
+        this.quantizedBytes = quantizedBytes;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for QuantizationReport">
+    public int getSamples() {
+        return samples;
+    }
+
+    public double getMeanAbsoluteError() {
+        return meanAbsoluteError;
+    }
+
+    public double getMaxAbsoluteError() {
+        return maxAbsoluteError;
+    }
+
+    public double getAgreement() {
+        return agreement;
+    }
+
+    public long getOriginalBytes() {
+        return originalBytes;
+    }
+
+    public long getQuantizedBytes() {
+        return quantizedBytes;
+    }
+
+    // EFFECTS: return how many times smaller the quantized parameters are than the original ones
+    public double getCompression() {
+        return (double) originalBytes / quantizedBytes;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Text manipulations for QuantizationReport">
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return a one-line summary of this report
+    @Override
+    public String toString() {
+        return "Quantized over " + samples + " samples: mean absolute error " + meanAbsoluteError + ", max absolute "
+                + "error " + maxAbsoluteError + ", agreement " + agreement + ", " + originalBytes + " -> "
+                + quantizedBytes + " bytes";
+    }
+    //</editor-fold>
+}
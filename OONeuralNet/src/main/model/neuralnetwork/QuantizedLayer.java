@@ -0,0 +1,131 @@
+package model.neuralnetwork;
+
+import model.operation.Activation;
+import model.tensor.KernelBackend;
+import model.tensor.Kernels;
+
+// A QuantizedLayer is a fully connected layer whose weights are 8-bit integers, for inference only. The weights of
+// each neuron are quantized symmetrically with a scale of their own (weight = scale * q, with -127 <= q <= 127),
+// and the activations of the layer before are quantized asymmetrically with one scale and zero point calibrated
+// for the whole layer (value = inputScale * (q - inputZeroPoint), with -128 <= q <= 127). The combination of a
+// neuron is then an integer dot product, corrected for the zero point and scaled back to a double before the float
+// bias is added and the activation is applied.
+public class QuantizedLayer {
+
+    //<editor-fold desc="Fields of QuantizedLayer">
+    private static final KernelBackend BACKEND = Kernels.getBackend();
+
+    private final Activation activation;
+
+    private final int fanIn;
+
+    private final int size;
+
+    private final byte[] weights;
+
+    private final float[] weightScales;
+
+    private final float[] biases;
+
+    private final float inputScale;
+
+    private final int inputZeroPoint;
+
+    private final int[] weightSums;
+    //</editor-fold>
+
+    //<editor-fold desc="QuantizedLayer Constructors">
+    // REQUIRES: activation != null, weights.length == fanIn * biases.length, weightScales.length == biases.length,
+    // inputScale > 0, -128 <= inputZeroPoint <= 127
+    // MODIFIES: this
+    // EFFECTS: create a layer of biases.length neurons fully connected to a layer of fanIn neurons, with the given
+    // row-major quantized weights and quantization parameters (no copy is made)
+    public QuantizedLayer(Activation activation, int fanIn, byte[] weights, float[] weightScales, float[] biases,
+                          float inputScale, int inputZeroPoint) {
+        this.activation = activation;
+        this.fanIn = fanIn;
+        this.size = biases.length;
+        this.weights = weights;
+        this.weightScales = weightScales;
+        this.biases = biases;
+        this.inputScale = inputScale;
+        this.inputZeroPoint = inputZeroPoint;
+        weightSums = new int[size];
+        for (int j = 0; j < size; j++) {
+            for (int p = 0; p < fanIn; p++) {
+                weightSums[j] += weights[j * fanIn + p];
+            }
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for QuantizedLayer">
+    public Activation getActivation() {
+        return activation;
+    }
+
+    public int getFanIn() {
+        return fanIn;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public byte[] getWeights() {
+        return weights;
+    }
+
+    public float[] getWeightScales() {
+        return weightScales;
+    }
+
+    public float[] getBiases() {
+        return biases;
+    }
+
+    public float getInputScale() {
+        return inputScale;
+    }
+
+    public int getInputZeroPoint() {
+        return inputZeroPoint;
+    }
+
+    // EFFECTS: return the number of bytes the parameters of this layer take
+    public int getParameterBytes() {
+        return weights.length + Float.BYTES * (weightScales.length + biases.length + 1) + Integer.BYTES;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Quantized inference">
+    // REQUIRES: x has fanIn elements, q has fanIn elements
+    // MODIFIES: q
+    // EFFECTS: set q to x quantized with the input scale and zero point of this layer, clamping values outside the
+    // calibrated range
+    public void quantizeInput(double[] x, byte[] q) {
+        for (int p = 0; p < fanIn; p++) {
+            q[p] = quantize(x[p], inputScale, inputZeroPoint);
+        }
+    }
+
+    // REQUIRES: q has fanIn elements, y has size elements
+    // MODIFIES: y
+    // EFFECTS: set y to the activations of this layer for the quantized input q
+    public void forward(byte[] q, double[] y) {
+        for (int j = 0; j < size; j++) {
+            int sum = BACKEND.dot(weights, j * fanIn, q, 0, fanIn) - inputZeroPoint * weightSums[j];
+            y[j] = (double) sum * weightScales[j] * inputScale + biases[j];
+        }
+        activation.apply(y, 0, size);
+    }
+
+    // REQUIRES: scale > 0
+    // MODIFIES: nothing
+    // EFFECTS: return round(value / scale) + zeroPoint clamped to the range of a byte
+    public static byte quantize(double value, double scale, int zeroPoint) {
+        long q = Math.round(value / scale) + zeroPoint;
+        return (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, q));
+    }
+    //</editor-fold>
+}
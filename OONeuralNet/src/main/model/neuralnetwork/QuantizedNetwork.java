@@ -0,0 +1,96 @@
+package model.neuralnetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A QuantizedNetwork is the inference-only form of a Network produced by a Quantizer: a chain of QuantizedLayers
+// (the input layer has no parameters, so it is not one of them) whose weights take one byte each instead of eight.
+// The input of each layer is quantized right before it is used and the output of the last layer is left in double,
+// so callers feed and read doubles like for any other Scorer. The buffers it runs on are allocated for each thread
+// the first time that thread uses the network, so forward creates no object and any number of threads can run it.
+public class QuantizedNetwork implements Scorer {
+
+    //<editor-fold desc="Fields of QuantizedNetwork">
+    private final List<QuantizedLayer> layers;
+
+    private final ThreadLocal<Buffers> buffers;
+    //</editor-fold>
+
+    //<editor-fold desc="QuantizedNetwork Constructors">
+    // REQUIRES: layers is not empty, and the fan-in of each layer after the first is the size of the one before
+    // MODIFIES: this
+    // EFFECTS: create a network running layers one after the other
+    public QuantizedNetwork(List<QuantizedLayer> layers) {
+        this.layers = new ArrayList<>(layers);
+        buffers = ThreadLocal.withInitial(() -> new Buffers(this.layers));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for QuantizedNetwork">
+    public List<QuantizedLayer> getLayers() {
+        return layers;
+    }
+
+    // REQUIRES: 0 <= i < getLayers().size()
+    // EFFECTS: return the ith layer after the input layer
+    public QuantizedLayer getLayer(int i) {
+        return layers.get(i);
+    }
+
+    @Override
+    public int getInputSize() {
+        return layers.get(0).getFanIn();
+    }
+
+    @Override
+    public int getOutputSize() {
+        return layers.get(layers.size() - 1).getSize();
+    }
+
+    // EFFECTS: return the number of bytes the parameters of all the layers take
+    public long getParameterBytes() {
+        long bytes = 0;
+        for (QuantizedLayer layer : layers) {
+            bytes += layer.getParameterBytes();
+        }
+        return bytes;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Forward pass">
+    // REQUIRES: input.length == getInputSize(), output.length == getOutputSize()
+    // MODIFIES: output
+    // EFFECTS: set output to the activations of the last layer for input. Only buffers owned by the calling thread
+    // are written to
+    @Override
+    public void forward(double[] input, double[] output) {
+        Buffers b = buffers.get();
+        double[] x = input;
+        for (int i = 0; i < layers.size(); i++) {
+            QuantizedLayer layer = layers.get(i);
+            layer.quantizeInput(x, b.inputs[i]);
+            x = i == layers.size() - 1 ? output : b.outputs[i];
+            layer.forward(b.inputs[i], x);
+        }
+    }
+    //</editor-fold>
+
+    // The Buffers of one thread: the quantized input and the output of each layer (the output of the last layer is
+    // written straight to the array of the caller)
+    private static class Buffers {
+        private final byte[][] inputs;
+        private final double[][] outputs;
+
+        // MODIFIES: this
+        // EFFECTS: allocate the buffers for running layers
+        Buffers(List<QuantizedLayer> layers) {
+            inputs = new byte[layers.size()][];
+            outputs = new double[layers.size()][];
+            for (int i = 0; i < layers.size(); i++) {
+                inputs[i] = new byte[layers.get(i).getFanIn()];
+                outputs[i] = new double[layers.get(i).getSize()];
+            }
+        }
+    }
+
+}
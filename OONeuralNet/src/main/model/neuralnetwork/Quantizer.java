@@ -0,0 +1,180 @@
+package model.neuralnetwork;
+
+import model.data.Batch;
+import model.data.Dataset;
+import model.tensor.Tensor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// A Quantizer turns a trained Network into a QuantizedNetwork with 8-bit weights (post-training quantization).
+// Weights are quantized per neuron from their own largest magnitude. Activations are quantized per layer from the
+// range they take on a calibration dataset, which should look like the data the network will serve: a range that is
+// too narrow clamps outliers, one that is too wide wastes resolution. The range always includes 0, so that 0 is
+// quantized exactly. evaluate then measures the drift of the quantized network from the original one.
+public class Quantizer {
+
+    //<editor-fold desc="Fields of Quantizer">
+    private static final int BATCH = 256;
+
+    private final Network network;
+
+    private final double[] min;
+
+    private final double[] max;
+
+    private int samples = 0;
+    //</editor-fold>
+
+    //<editor-fold desc="Quantizer Constructors">
+    // REQUIRES: network != null
+    // MODIFIES: this
+    // EFFECTS: create a quantizer for network, which has seen no calibration sample yet;
+    // throws IllegalStateException if network cannot be compiled or has a sparse layer
+    public Quantizer(Network network) {
+        network.compile();
+        for (int i = 1; i < network.getLayers().size(); i++) {
+            if (network.getLayer(i).isSparse()) {
+                throw new IllegalStateException("Layer " + i + " is sparse");
+            }
+        }
+        this.network = network;
+        min = new double[network.getLayers().size() - 1];
+        max = new double[min.length];
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for Quantizer">
+    // EFFECTS: return the number of samples observed for calibration so far
+    public int getSamples() {
+        return samples;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Calibration">
+    // REQUIRES: dataset matches the first layer of the network
+    // MODIFIES: this
+    // EFFECTS: observe every sample of dataset
+    public void calibrate(Dataset dataset) {
+        double[] input = new double[dataset.getInputSize()];
+        Iterator<Batch> batches = dataset.batches(BATCH, null);
+        while (batches.hasNext()) {
+            Tensor inputs = batches.next().getInputs();
+            for (int r = 0; r < inputs.getDimRow(); r++) {
+                System.arraycopy(inputs.getData(), inputs.index(r, 0), input, 0, input.length);
+                observe(input);
+            }
+        }
+    }
+
+    // REQUIRES: input.length is the size of the first layer of the network
+    // MODIFIES: this
+    // EFFECTS: widen the range of the input and of the activations of every hidden layer to include their values
+    // for input
+    public void observe(double[] input) {
+        double[][] activations = network.compile().trace(input);
+        for (int i = 0; i < min.length; i++) {
+            for (double value : i == 0 ? input : activations[i]) {
+                min[i] = Math.min(min[i], value);
+                max[i] = Math.max(max[i], value);
+            }
+        }
+        samples++;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Quantization">
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the network quantized with the ranges observed so far. The parameters are copied, so the
+    // quantized network does not change when the network is trained further;
+    // throws IllegalStateException if no sample was observed
+    public QuantizedNetwork quantize() {
+        if (samples == 0) {
+            throw new IllegalStateException("No sample was observed to calibrate the quantization");
+        }
+        List<QuantizedLayer> layers = new ArrayList<>();
+        for (int i = 1; i < network.getLayers().size(); i++) {
+            int fanIn = network.getLayer(i - 1).getSize();
+            layers.add(quantizeLayer(network.getLayer(i), fanIn, min[i - 1], max[i - 1]));
+        }
+        return new QuantizedNetwork(layers);
+    }
+
+    // REQUIRES: quantized has the input and output sizes of the network, dataset matches them
+    // MODIFIES: nothing
+    // EFFECTS: return how much the outputs of quantized differ from those of the network over dataset
+    public QuantizationReport evaluate(QuantizedNetwork quantized, Dataset dataset) {
+        double[] input = new double[dataset.getInputSize()];
+        double[] expected = new double[quantized.getOutputSize()];
+        double[] output = new double[quantized.getOutputSize()];
+        double sum = 0;
+        double largest = 0;
+        int agreed = 0;
+        int count = 0;
+        Iterator<Batch> batches = dataset.batches(BATCH, null);
+        while (batches.hasNext()) {
+            Tensor inputs = batches.next().getInputs();
+            for (int r = 0; r < inputs.getDimRow(); r++, count++) {
+                System.arraycopy(inputs.getData(), inputs.index(r, 0), input, 0, input.length);
+                network.compile().forward(input, expected);
+                quantized.forward(input, output);
+                for (int j = 0; j < output.length; j++) {
+                    sum += Math.abs(output[j] - expected[j]);
+                    largest = Math.max(largest, Math.abs(output[j] - expected[j]));
+                }
+                agreed += argmax(expected) == argmax(output) ? 1 : 0;
+            }
+        }
+        return new QuantizationReport(count, sum / count / output.length, largest, (double) agreed / count,
+                originalBytes(), quantized.getParameterBytes());
+    }
+    //</editor-fold>
+
+    // EFFECTS: return layer (connected to a layer of fanIn neurons) quantized, with its input quantized over
+    // [low, high] widened to include 0
+    private static QuantizedLayer quantizeLayer(Layer layer, int fanIn, double low, double high) {
+        Tensor weights = layer.getWeights();
+        byte[] quantized = new byte[weights.getSize()];
+        float[] scales = new float[layer.getSize()];
+        float[] biases = new float[layer.getSize()];
+        for (int j = 0; j < scales.length; j++) {
+            double largest = 0;
+            for (int p = 0; p < fanIn; p++) {
+                largest = Math.max(largest, Math.abs(weights.getFlat(j * fanIn + p)));
+            }
+            scales[j] = largest == 0 ? 1 : (float) (largest / Byte.MAX_VALUE);
+            for (int p = 0; p < fanIn; p++) {
+                quantized[j * fanIn + p] = QuantizedLayer.quantize(weights.getFlat(j * fanIn + p), scales[j], 0);
+            }
+            biases[j] = (float) layer.getBiases().getFlat(j);
+        }
+        double range = Math.max(high, 0) - Math.min(low, 0);
+        float scale = range == 0 ? 1 : (float) (range / (Byte.MAX_VALUE - Byte.MIN_VALUE));
+        long zeroPoint = Byte.MIN_VALUE - Math.round(Math.min(low, 0) / scale);
+        return new QuantizedLayer(layer.getActivation(), fanIn, quantized, scales, biases, scale,
+                (int) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, zeroPoint)));
+    }
+
+    // EFFECTS: return the number of bytes the parameters of the network take in its precision
+    private long originalBytes() {
+        long parameters = 0;
+        for (int i = 1; i < network.getLayers().size(); i++) {
+            parameters += network.getLayer(i).getWeights().getSize() + network.getLayer(i).getBiases().getSize();
+        }
+        return parameters * network.getPrecision().getBytes();
+    }
+
+    // EFFECTS: return the index of the largest element of values
+    private static int argmax(double[] values) {
+        int best = 0;
+        for (int j = 1; j < values.length; j++) {
+            if (values[j] > values[best]) {
+                best = j;
+            }
+        }
+        return best;
+    }
+
+}
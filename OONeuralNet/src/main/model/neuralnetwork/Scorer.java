@@ -0,0 +1,17 @@
+package model.neuralnetwork;
+
+// A Scorer computes the output of a compiled network for one sample at a time, writing it to an array owned by the
+// caller so that scoring allocates nothing. Implementations are safe to call from any number of threads at once.
+public interface Scorer {
+
+    // EFFECTS: return the number of elements of the input of each sample
+    int getInputSize();
+
+    // EFFECTS: return the number of elements of the output of each sample
+    int getOutputSize();
+
+    // REQUIRES: input.length == getInputSize(), output.length == getOutputSize()
+    // MODIFIES: output
+    // EFFECTS: set output to the activations of the last layer of the network for input
+    void forward(double[] input, double[] output);
+}
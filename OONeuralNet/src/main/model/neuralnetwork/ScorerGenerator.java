@@ -0,0 +1,297 @@
+package model.neuralnetwork;
+
+import model.operation.Activation;
+import model.tensor.CsrPattern;
+import model.tensor.Tensor;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+
+// A ScorerGenerator turns a small Network of packed layers into a Scorer whose class is generated at run time. The
+// loops over layers, neurons and connections are unrolled into straight-line bytecode, the weights and biases are
+// constants of the class, and the activations of the hidden layers stay in local variables, which removes the loop
+// and array overhead that dominates the arithmetic of tiny networks such as the 2-10-2 XOR models. The parameters are
+// copied when the class is generated, so the Scorer keeps computing the network as it was then.
+// The generated forward method is kept within the size up to which HotSpot compiles methods (8000 bytes of bytecode,
+// see -XX:-DontCompileHugeMethods): a larger one would stay interpreted and be slower than an ExecutionPlan, so
+// canGenerate rejects networks whose unrolled code would not fit.
+// The class is defined through MethodHandles.Lookup.defineHiddenClass on JVMs that have it (Java 15 and later), so it
+// is unloaded once its Scorer is unreachable; older JVMs define it in a class loader of its own instead.
+public class ScorerGenerator {
+
+    //<editor-fold desc="Fields of ScorerGenerator">
+    // The largest number of weights and biases a generated network may have, checked before unrolling a network to
+    // find the size of its code
+    public static final int MAX_PARAMETERS = 4096;
+
+    // The largest size in bytes of the bytecode of the generated forward method, the size of the largest methods
+    // HotSpot compiles by default
+    public static final int MAX_CODE_LENGTH = 8000;
+
+    private static final String NAME = ScorerGenerator.class.getName().replace('.', '/').replace("ScorerGenerator",
+            "GeneratedScorer");
+    private static final String ACTIVATION = Activation.class.getName().replace('.', '/');
+    private static final String PROCESS = "model/operation/Process";
+    private static final Method DEFINE_HIDDEN = hiddenClassDefiner();
+    private static final int MAX_STACK = 8;
+
+    private final Network network;
+    private final ClassFile classFile;
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    private final int[] localStart;
+    //</editor-fold>
+
+    //<editor-fold desc="ScorerGenerator Constructors">
+    // REQUIRES: canGenerate(network)
+    // MODIFIES: this
+    // EFFECTS: create a generator for network, giving each hidden layer its range of local variables
+    private ScorerGenerator(Network network) {
+        this.network = network;
+        classFile = new ClassFile(NAME, Scorer.class.getName().replace('.', '/'));
+        localStart = new int[network.getLayers().size()];
+        int next = 3;
+        for (int i = 1; i < localStart.length; i++) {
+            localStart[i] = next;
+            next += 2 * network.getLayer(i).getSize();
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Generating scorers">
+    // REQUIRES: network != null
+    // MODIFIES: nothing
+    // EFFECTS: return true if a Scorer can be generated for network: it has at least two layers, all of them packed
+    // and fully connected, at most MAX_PARAMETERS weights and biases, no softmax before the last layer, and its
+    // unrolled forward method takes at most MAX_CODE_LENGTH bytes
+    public static boolean canGenerate(Network network) {
+        if (network.getLayers().size() < 2 || !network.isPacked()) {
+            return false;
+        }
+        int parameters = 0;
+        for (int i = 1; i < network.getLayers().size(); i++) {
+            Layer layer = network.getLayer(i);
+            if (layer.getActivation() == Activation.SOFTMAX && i < network.getLayers().size() - 1) {
+                return false;
+            }
+            parameters += layer.getWeights().getSize() + layer.getBiases().getSize();
+        }
+        return parameters <= MAX_PARAMETERS && new ScorerGenerator(network).emitForward() <= MAX_CODE_LENGTH;
+    }
+
+    // REQUIRES: network != null
+    // MODIFIES: nothing
+    // EFFECTS: return a Scorer computing network with the parameters it has now, as a generated class.
+    // throws IllegalStateException if !canGenerate(network) or the class cannot be defined
+    public static Scorer generate(Network network) {
+        if (!canGenerate(network)) {
+            throw new IllegalStateException("Only small networks of packed layers without hidden softmax layers "
+                    + "can be generated (see canGenerate)");
+        }
+        try {
+            return (Scorer) define(new ScorerGenerator(network).assemble()).getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not instantiate the generated scorer", e);
+        }
+    }
+
+    // EFFECTS: return true if generated classes are defined as hidden classes on this JVM
+    public static boolean usesHiddenClasses() {
+        return DEFINE_HIDDEN != null;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Assembling the class">
+    // MODIFIES: this
+    // EFFECTS: return the bytes of the class implementing Scorer for network
+    private byte[] assemble() {
+        int last = localStart.length - 1;
+        addSizeMethod("getInputSize", network.getLayer(0).getSize());
+        addSizeMethod("getOutputSize", network.getLayer(last).getSize());
+        if (emitForward() > MAX_CODE_LENGTH) {
+            throw new IllegalStateException("Generated scorer exceeds the size of a compiled method");
+        }
+        classFile.addMethod("forward", "([D[D)V", MAX_STACK, localStart[last], code.toByteArray());
+        return classFile.toBytes();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: emit the code of the forward method, computing every layer then applying the activation of the last
+    // one on the output array, and return its size in bytes
+    private int emitForward() {
+        int last = localStart.length - 1;
+        code.reset();
+        for (int i = 1; i <= last; i++) {
+            emitLayer(i, i == last);
+        }
+        Activation activation = network.getLayer(last).getActivation();
+        if (activation != Activation.IDENTITY) {
+            emitIndexed(0xb2, classFile.fieldRef(ACTIVATION, activation.name(), "L" + ACTIVATION + ";"));
+            code.write(0x2c);
+            pushInt(0);
+            pushInt(network.getLayer(last).getSize());
+            emitIndexed(0xb6, classFile.methodRef(ACTIVATION, "apply", "([DII)V"));
+        }
+        code.write(0xb1);
+        return code.size();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: add a method with the given name returning the constant value
+    private void addSizeMethod(String method, int value) {
+        code.reset();
+        pushInt(value);
+        code.write(0xac);
+        classFile.addMethod(method, "()I", 1, 1, code.toByteArray());
+        code.reset();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: emit the code computing the ith layer, storing each activation of a hidden layer in its local
+    // variable, or each combination of the output layer in the output array (whose activation is applied after)
+    private void emitLayer(int i, boolean output) {
+        Layer layer = network.getLayer(i);
+        CsrPattern pattern = layer.getPattern();
+        Tensor weights = layer.getWeights();
+        int fanIn = network.getLayer(i - 1).getSize();
+        for (int j = 0; j < layer.getSize(); j++) {
+            if (output) {
+                code.write(0x2c);
+                pushInt(j);
+            }
+            int from = pattern == null ? j * fanIn : pattern.getRowStart(j);
+            int to = pattern == null ? from + fanIn : pattern.getRowStart(j + 1);
+            for (int e = from; e < to; e++) {
+                emitIndexed(0x14, classFile.doubleConstant(weights.getFlat(e)));
+                loadSource(i - 1, pattern == null ? e - from : pattern.getColumn(e));
+                code.write(0x6b);
+                if (e > from) {
+                    code.write(0x63);
+                }
+            }
+            emitIndexed(0x14, classFile.doubleConstant(layer.getBiases().getFlat(j)));
+            code.write(0x63);
+            if (output) {
+                code.write(0x52);
+            } else {
+                emitActivation(layer.getActivation());
+                emitLocal(0x39, localStart[i] + 2 * j);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: emit the code pushing the activation of the pth neuron of the ith layer (an element of the input
+    // array for the input layer, a local variable otherwise)
+    private void loadSource(int i, int p) {
+        if (i == 0) {
+            code.write(0x2b);
+            pushInt(p);
+            code.write(0x31);
+        } else {
+            emitLocal(0x18, localStart[i] + 2 * p);
+        }
+    }
+
+    // REQUIRES: activation is element-wise
+    // MODIFIES: this
+    // EFFECTS: emit the code replacing the value on top of the stack by activation applied on it
+    private void emitActivation(Activation activation) {
+        if (activation != Activation.IDENTITY) {
+            emitIndexed(0xb8, classFile.methodRef(PROCESS, functionOf(activation), "(D)D"));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: emit the instruction with the given opcode and a two byte constant pool index
+    private void emitIndexed(int opcode, int index) {
+        code.write(opcode);
+        code.write(index >> 8);
+        code.write(index);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: emit the instruction with the given opcode on the local variable at slot, widened if needed
+    private void emitLocal(int opcode, int slot) {
+        if (slot > 255) {
+            code.write(0xc4);
+            emitIndexed(opcode, slot);
+        } else {
+            code.write(opcode);
+            code.write(slot);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: emit the shortest instruction pushing value
+    private void pushInt(int value) {
+        if (value >= -1 && value <= 5) {
+            code.write(0x03 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            code.write(0x10);
+            code.write(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            emitIndexed(0x11, value);
+        } else {
+            emitIndexed(0x13, classFile.intConstant(value));
+        }
+    }
+    //</editor-fold>
+
+    // REQUIRES: activation is element-wise and not IDENTITY
+    // EFFECTS: return the name of the method of Process computing activation on a double
+    private static String functionOf(Activation activation) {
+        switch (activation) {
+            case TANH:
+                return "tanh";
+            case SIGMOID:
+                return "sigmoid";
+            case RELU:
+                return "relu";
+            case LEAKY_RELU:
+                return "leakyRelu";
+            case GELU:
+                return "gelu";
+            case SOFTPLUS:
+                return "softplus";
+            default:
+                throw new IllegalStateException("No scalar function for " + activation);
+        }
+    }
+
+    // EFFECTS: return MethodHandles.Lookup.defineHiddenClass, or null on JVMs older than Java 15
+    private static Method hiddenClassDefiner() {
+        try {
+            Class<?> options = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            return MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class,
+                    Array.newInstance(options, 0).getClass());
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    // EFFECTS: define the class whose bytes are given, in the package of this class, and return it
+    private static Class<?> define(byte[] bytes) throws ReflectiveOperationException {
+        if (DEFINE_HIDDEN == null) {
+            return new GeneratedClassLoader(ScorerGenerator.class.getClassLoader()).define(bytes);
+        }
+        Object options = Array.newInstance(DEFINE_HIDDEN.getParameterTypes()[2].getComponentType(), 0);
+        Object lookup = DEFINE_HIDDEN.invoke(MethodHandles.lookup(), bytes, true, options);
+        return ((MethodHandles.Lookup) lookup).lookupClass();
+    }
+
+    // A GeneratedClassLoader defines a single generated class, which is unloaded along with the loader
+    private static class GeneratedClassLoader extends ClassLoader {
+
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        // EFFECTS: define the class whose bytes are given
+        Class<?> define(byte[] bytes) {
+            return defineClass(null, bytes, 0, bytes.length);
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package model.neuralnetwork;
+
+import java.util.AbstractList;
+import java.util.List;
+
+// The neurons adjacent to a neuron, i.e. every other neuron of its layer, as a read-only view of the layer's list of
+// neurons. All the neurons of a layer thus share one list instead of each holding a copy, which would take memory
+// quadratic in the size of the layer. The position of the owner in the layer is remembered between calls, so
+// walking the view in order takes constant time per neuron.
+class SiblingNeurons extends AbstractList<Neuron> {
+    private final List<Neuron> neurons;
+    private final Neuron owner;
+    private int ownerIndex = 0;
+
+    // REQUIRES: neurons contains owner
+    // MODIFIES: this
+    // EFFECTS: create a view of the neurons other than owner in neurons
+    SiblingNeurons(List<Neuron> neurons, Neuron owner) {
+        this.neurons = neurons;
+        this.owner = owner;
+    }
+
+    // REQUIRES: 0 <= i < size()
+    // EFFECTS: return the ith neuron of the layer other than the owner
+    @Override
+    public Neuron get(int i) {
+        if (ownerIndex >= neurons.size() || neurons.get(ownerIndex) != owner) {
+            ownerIndex = neurons.indexOf(owner);
+        }
+        return neurons.get(i < ownerIndex ? i : i + 1);
+    }
+
+    @Override
+    public int size() {
+        return neurons.size() - 1;
+    }
+}
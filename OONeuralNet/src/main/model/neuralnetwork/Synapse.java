@@ -1,5 +1,7 @@
 package model.neuralnetwork;
 
+import model.tensor.Tensor;
+
 import java.util.function.Consumer;
 
 
@@ -7,10 +9,30 @@ import java.util.function.Consumer;
 // operations with other synapses (plus, minus, multiply) or with itself (exponential, logarithm, power).
 // Gradient descent is achieved through automatic differentiation.
 // The chain of differentiation is maintained via the Consumer for differentiation function: derivativeFunction.
+// A Synapse can also view one element of a variable Tensor, in which case its derivative is accumulated into the
+// Tensor's gradient and gradient descent is applied to the Tensor's data.
+// When one of the operands is recorded on a Tape, an operation is recorded on that Tape instead of building a
+// derivativeFunction closure, and autoDifferentiate runs the Tape's backward sweep.
 public class Synapse {
 
     //<editor-fold desc="Fields of Synapse">
-    private static final Consumer<Double> emptyFunction = x -> { };
+    static final Consumer<Double> emptyFunction = x -> { };
+
+    private static final int CACHE_LOW = -128;
+
+    private static final Synapse[] CACHE = new Synapse[256];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new Synapse(CACHE_LOW + i, false, emptyFunction);
+        }
+    }
+
+    private static final Synapse MINUS_ONE = constant(-1);
+
+    private static final double GELU_SCALE = Math.sqrt(2 / Math.PI);
+
+    private static final double GELU_CUBIC = 0.044715;
 
     private double value;
 
@@ -19,6 +41,16 @@ public class Synapse {
     private Consumer<Double> derivativeFunction;
 
     private boolean toDerive;
+
+    private Tensor store;
+
+    private int index;
+
+    Tape tape;
+
+    int node;
+
+    int generation;
     //</editor-fold>
 
     //<editor-fold desc="Synapse Constructors">
@@ -48,6 +80,34 @@ public class Synapse {
         this.toDerive = toDerive;
         this.derivativeFunction = derivativeFunction;
     }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return a constant Synapse with the given value. Constants never take part in differentiation, so
+    // integral values from -128 to 127 are interned and shared by every graph instead of being allocated each time
+    public static Synapse constant(double value) {
+        int interned = (int) value;
+        if (interned != value || interned < CACHE_LOW || interned >= CACHE_LOW + CACHE.length
+                || Double.doubleToRawLongBits(value) == Double.doubleToRawLongBits(-0.0)) {
+            return new Synapse(value, false, emptyFunction);
+        }
+        return CACHE[interned - CACHE_LOW];
+    }
+
+    // REQUIRES: tensor != null, index is a position in the backing array of tensor
+    // MODIFIES: nothing
+    // EFFECTS: return a Synapse holding the element of tensor at position index of its data. If tensor is a variable,
+    // the Synapse is a variable whose derivative is also accumulated into the tensor's gradient; otherwise it is an
+    // independent variable Synapse with that value
+    public static Synapse view(Tensor tensor, int index) {
+        Synapse synapse = new Synapse(tensor.getAt(index));
+        if (tensor.hasGrad()) {
+            synapse.store = tensor;
+            synapse.index = index;
+            synapse.derivativeFunction = synapse::accumulate;
+        }
+        return synapse;
+    }
     //</editor-fold>
 
     //<editor-fold desc="Basic accessors and mutators for Synapse">
@@ -58,6 +118,10 @@ public class Synapse {
     public double getValue() {
         return this.value;
     }
+
+    boolean requiresDerivative() {
+        return toDerive;
+    }
     //</editor-fold>
 
     //<editor-fold desc="Text manipulations for Synapse">
@@ -77,29 +141,28 @@ public class Synapse {
     // to synapse1 and synapse2, and update their derivativeFunctions correspondingly
     // [∂(yx)/∂x = y, ∂(yx)/∂y = x].
     // Then, pass the reference of synapse1 and synapse2's derivativeFunction to the
-    // derivativeFunction of the product.
+    // derivativeFunction of the product. A product with a constant is folded (see scale).
     public static Synapse multiply(Synapse synapse1, Synapse synapse2) {
+        if (!synapse2.toDerive) {
+            return scale(synapse1, synapse2.value);
+        }
+        if (!synapse1.toDerive) {
+            return scale(synapse2, synapse1.value);
+        }
 
         double data = synapse1.value * synapse2.value;
 
-        boolean derive = synapse1.toDerive || synapse2.toDerive;
-
-        Consumer<Double> synapse1Fn = synapse1.toDerive
-                ? prevDerivative -> synapse1.derivativeFunction
-                        .accept(prevDerivative * synapse2.value)
-                : emptyFunction;
-
-        Consumer<Double> synapse2Fn = synapse2.toDerive
-                ? prevDerivative -> synapse2.derivativeFunction
-                        .accept(prevDerivative * synapse1.value)
-                : emptyFunction;
+        Tape tape = Tape.of(synapse1, synapse2);
+        if (tape != null) {
+            return tape.record(data, synapse1, synapse2.value, synapse2, synapse1.value);
+        }
 
         Consumer<Double> derivativeFunction = prevDerivative -> {
-            synapse1Fn.accept(prevDerivative);
-            synapse2Fn.accept(prevDerivative);
+            synapse1.derivativeFunction.accept(prevDerivative * synapse2.value);
+            synapse2.derivativeFunction.accept(prevDerivative * synapse1.value);
         };
 
-        return new Synapse(data, derive, derivativeFunction);
+        return new Synapse(data, true, derivativeFunction);
     }
 
     // REQUIRES: synapse1 != null && synapse2 != null
@@ -108,29 +171,28 @@ public class Synapse {
     // of the input synapses' values. Differentiate the sum with respect
     // to synapse1 and synapse2, and update their derivativeFunctions correspondingly.
     // Then, pass the reference of synapse1 and synapse2's derivativeFunction to the
-    // derivativeFunction of the sum.
+    // derivativeFunction of the sum. A sum with a constant is folded (see shift).
     public static Synapse plus(Synapse synapse1, Synapse synapse2) {
-
-        boolean requiresDerivative = synapse1.toDerive || synapse2.toDerive;
+        if (!synapse2.toDerive) {
+            return shift(synapse1, synapse2.value);
+        }
+        if (!synapse1.toDerive) {
+            return shift(synapse2, synapse1.value);
+        }
 
         double data = synapse1.value + synapse2.value;
 
-        Consumer<Double> synapse1Fn = synapse1.toDerive
-                ? prevDerivative -> synapse1.derivativeFunction
-                        .accept(prevDerivative)
-                : emptyFunction;
-
-        Consumer<Double> synapse2Fn = synapse2.toDerive
-                ? prevDerivative -> synapse2.derivativeFunction
-                        .accept(prevDerivative)
-                : emptyFunction;
+        Tape tape = Tape.of(synapse1, synapse2);
+        if (tape != null) {
+            return tape.record(data, synapse1, 1, synapse2, 1);
+        }
 
         Consumer<Double> derivativeFunction = prevDerivative -> {
-            synapse1Fn.accept(prevDerivative);
-            synapse2Fn.accept(prevDerivative);
+            synapse1.derivativeFunction.accept(prevDerivative);
+            synapse2.derivativeFunction.accept(prevDerivative);
         };
 
-        return new Synapse(data, requiresDerivative, derivativeFunction);
+        return new Synapse(data, true, derivativeFunction);
     }
 
     // REQUIRES: synapse1 != null && synapse2 != null
@@ -142,7 +204,7 @@ public class Synapse {
     // Then, pass the reference of synapse1 and synapse2's derivativeFunction to the
     // derivativeFunction of the difference.
     public static Synapse minus(Synapse synapse1, Synapse synapse2) {
-        return plus(synapse1, multiply(new Synapse(-1), synapse2));
+        return plus(synapse1, multiply(MINUS_ONE, synapse2));
     }
 
     // REQUIRES: synapse != null
@@ -151,18 +213,13 @@ public class Synapse {
     // of powerOf. Differentiate the result with respect to to synapse, and update
     // its derivativeFunctions correspondingly [d(x^n)/dx = nx^(n-1)].
     // Then, pass the reference of synapse's derivativeFunction to the derivativeFunction of the result.
+    // synapse itself is returned if powerOf is 1
     public static Synapse pow(Synapse synapse, int powerOf) {
-
+        if (powerOf == 1) {
+            return synapse;
+        }
         double data = Math.pow(synapse.value, powerOf);
-
-        boolean requiresDerivative = synapse.toDerive;
-
-        Consumer<Double> derivativeFunction = synapse.toDerive
-                ? prevDerivative -> synapse.derivativeFunction
-                .accept(prevDerivative * powerOf * Math.pow(synapse.value, powerOf - 1))
-                : emptyFunction;
-
-        return new Synapse(data, requiresDerivative, derivativeFunction);
+        return unary(data, synapse, powerOf * Math.pow(synapse.value, powerOf - 1));
     }
 
     // REQUIRES: synapse != null
@@ -173,15 +230,7 @@ public class Synapse {
     // derivativeFunction to the derivativeFunction of the result.
     public static Synapse exp(Synapse synapse) {
         double data = Math.exp(synapse.value);
-
-        boolean requiresDerivative = synapse.toDerive;
-
-        Consumer<Double> derivativeFunction = synapse.toDerive
-                ? prevDerivative -> synapse.derivativeFunction
-                .accept(prevDerivative * Math.exp(synapse.value))
-                : emptyFunction;
-
-        return new Synapse(data, requiresDerivative, derivativeFunction);
+        return unary(data, synapse, data);
     }
 
     // REQUIRES: synapse != null
@@ -191,17 +240,195 @@ public class Synapse {
     // its derivativeFunctions correspondingly [d(lnx)/dx = 1/x]. Then, pass the reference of synapse's
     // derivativeFunction to the derivativeFunction of the result.
     public static Synapse ln(Synapse synapse) {
+        return unary(Math.log(synapse.value), synapse, 1 / synapse.value);
+    }
+
+    // REQUIRES: synapse != null
+    // MODIFIES: derivativeFunction of synapse
+    // EFFECTS: return factor * synapse, folded when possible: a constant if synapse is a constant or factor is 0
+    // (whose derivative is then 0), synapse itself if factor is 1, and otherwise a single node whose derivative with
+    // respect to synapse is factor
+    private static Synapse scale(Synapse synapse, double factor) {
+        double data = synapse.value * factor;
+        if (!synapse.toDerive || factor == 0) {
+            return constant(data);
+        }
+        if (factor == 1) {
+            return synapse;
+        }
+        return unary(data, synapse, factor);
+    }
+
+    // REQUIRES: synapse != null
+    // MODIFIES: derivativeFunction of synapse
+    // EFFECTS: return synapse + offset, folded when possible: a constant if synapse is a constant, synapse itself if
+    // offset is 0, and otherwise a single node whose derivative with respect to synapse is 1
+    private static Synapse shift(Synapse synapse, double offset) {
+        double data = synapse.value + offset;
+        if (!synapse.toDerive) {
+            return constant(data);
+        }
+        if (offset == 0) {
+            return synapse;
+        }
+        return unary(data, synapse, 1);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Activation Functions">
+    // REQUIRES: synapse != null
+    // MODIFIES: derivativeFunction of synapse
+    // EFFECTS: return a new synapse whose value is the hyperbolic tangent y of synapse's value. It is a single node
+    // whose derivative with respect to synapse is 1 - y^2
+    public static Synapse tanh(Synapse synapse) {
+        double data = Math.tanh(synapse.value);
+        return unary(data, synapse, 1 - data * data);
+    }
+
+    // REQUIRES: synapse != null
+    // MODIFIES: derivativeFunction of synapse
+    // EFFECTS: return a new synapse whose value is the logistic sigmoid y of synapse's value. It is a single node
+    // whose derivative with respect to synapse is y (1 - y)
+    public static Synapse sigmoid(Synapse synapse) {
+        double data = 1 / (1 + Math.exp(-synapse.value));
+        return unary(data, synapse, data * (1 - data));
+    }
 
-        double data = Math.log(synapse.value);
+    // REQUIRES: synapse != null
+    // MODIFIES: derivativeFunction of synapse
+    // EFFECTS: return a new synapse whose value is max(x, 0) for the value x of synapse. It is a single node whose
+    // derivative with respect to synapse is 1 if x > 0 and 0 otherwise
+    public static Synapse relu(Synapse synapse) {
+        boolean positive = synapse.value > 0;
+        return unary(positive ? synapse.value : 0, synapse, positive ? 1 : 0);
+    }
 
-        boolean requiresDerivative = synapse.toDerive;
+    // REQUIRES: synapse != null, 0 <= slope < 1
+    // MODIFIES: derivativeFunction of synapse
+    // EFFECTS: return a new synapse whose value is x if x > 0 and slope * x otherwise, for the value x of synapse.
+    // It is a single node whose derivative with respect to synapse is 1 if x > 0 and slope otherwise
+    public static Synapse leakyRelu(Synapse synapse, double slope) {
+        boolean positive = synapse.value > 0;
+        return unary(positive ? synapse.value : slope * synapse.value, synapse, positive ? 1 : slope);
+    }
 
-        Consumer<Double> derivativeFunction = synapse.toDerive
-                ? prevDerivative -> synapse.derivativeFunction
-                .accept(prevDerivative * 1 / synapse.value)
-                : emptyFunction;
+    // REQUIRES: synapse != null
+    // MODIFIES: derivativeFunction of synapse
+    // EFFECTS: return a new synapse whose value is the GELU of synapse's value, using the tanh approximation
+    // x (1 + tanh(u)) / 2 with u = sqrt(2 / pi) (x + 0.044715 x^3). It is a single node whose derivative with
+    // respect to synapse is (1 + t) / 2 + x (1 - t^2) u' / 2, where t = tanh(u)
+    public static Synapse gelu(Synapse synapse) {
+        double x = synapse.value;
+        double t = Math.tanh(GELU_SCALE * (x + GELU_CUBIC * x * x * x));
+        double partial = (1 + t) / 2 + x * (1 - t * t) * GELU_SCALE * (1 + 3 * GELU_CUBIC * x * x) / 2;
+        return unary(x * (1 + t) / 2, synapse, partial);
+    }
 
-        return new Synapse(data, requiresDerivative, derivativeFunction);
+    // REQUIRES: synapse != null
+    // MODIFIES: derivativeFunction of synapse
+    // EFFECTS: return a new synapse whose value is the softplus ln(1 + e^x) of the value x of synapse, computed as
+    // max(x, 0) + ln(1 + e^-|x|) so that it does not overflow. It is a single node whose derivative with respect to
+    // synapse is the logistic sigmoid of x
+    public static Synapse softplus(Synapse synapse) {
+        double x = synapse.value;
+        double data = Math.max(x, 0) + Math.log1p(Math.exp(-Math.abs(x)));
+        return unary(data, synapse, 1 / (1 + Math.exp(-x)));
+    }
+
+    // REQUIRES: synapse != null
+    // MODIFIES: derivativeFunction of synapse
+    // EFFECTS: return a new synapse with the given value computed from synapse, whose derivative with respect to
+    // synapse is partial. It is a constant if synapse is one, is recorded as one node on the tape of synapse if it is
+    // on one, and otherwise passes its derivative to synapse through its derivativeFunction
+    private static Synapse unary(double data, Synapse synapse, double partial) {
+        if (!synapse.toDerive) {
+            return constant(data);
+        }
+        Tape tape = Tape.of(synapse, null);
+        if (tape != null) {
+            return tape.record(data, synapse, partial, null, 0);
+        }
+        return new Synapse(data, true, prevDerivative -> synapse.derivativeFunction.accept(prevDerivative * partial));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Operations on many Synapses">
+    // REQUIRES: synapses.length >= 1
+    // MODIFIES: derivativeFunction of synapses
+    // EFFECTS: return a new synapse whose value is ln(e^x1 + ... + e^xn) for the values xi of synapses, computed
+    // with the largest value factored out so that it neither overflows nor underflows. It is a single node whose
+    // derivative with respect to xi is the softmax e^(xi) / (e^x1 + ... + e^xn)
+    public static Synapse logSumExp(Synapse... synapses) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (Synapse synapse : synapses) {
+            max = Math.max(max, synapse.value);
+        }
+        double sum = 0;
+        for (Synapse synapse : synapses) {
+            sum += Math.exp(synapse.value - max);
+        }
+        double data = max + Math.log(sum);
+        double[] partials = new double[synapses.length];
+        for (int i = 0; i < synapses.length; i++) {
+            partials[i] = Math.exp(synapses[i].value - data);
+        }
+        return combine(data, synapses, partials);
+    }
+
+    // REQUIRES: logits.length == expected.length >= 1
+    // MODIFIES: derivativeFunction of logits
+    // EFFECTS: return a new synapse whose value is the cross entropy -(y1 ln p1 + ... + yn ln pn) between expected
+    // (y) and the softmax p of the values of logits, computed as y1 (lse - x1) + ... + yn (lse - xn) where lse is
+    // the log-sum-exp of the logits xi. It is a single node whose derivative with respect to xi is
+    // pi (y1 + ... + yn) - yi, i.e. p - y for a one-hot expected
+    public static Synapse softmaxCrossEntropy(Synapse[] logits, double[] expected) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (Synapse logit : logits) {
+            max = Math.max(max, logit.value);
+        }
+        double sum = 0;
+        for (Synapse logit : logits) {
+            sum += Math.exp(logit.value - max);
+        }
+        double lse = max + Math.log(sum);
+        double data = 0;
+        double total = 0;
+        for (int i = 0; i < logits.length; i++) {
+            data += expected[i] == 0 ? 0 : expected[i] * (lse - logits[i].value);
+            total += expected[i];
+        }
+        double[] partials = new double[logits.length];
+        for (int i = 0; i < logits.length; i++) {
+            partials[i] = Math.exp(logits[i].value - lse) * total - expected[i];
+        }
+        return combine(data, logits, partials);
+    }
+
+    // REQUIRES: synapses.length == partials.length
+    // MODIFIES: derivativeFunction of synapses
+    // EFFECTS: return a new synapse with the given value computed from all of synapses, whose partial derivative
+    // with respect to synapses[i] is partials[i]. It is recorded as one node on the tape of its operands if they are
+    // on one, and otherwise passes its derivative to each variable operand through its derivativeFunction
+    static Synapse combine(double data, Synapse[] synapses, double[] partials) {
+        Tape tape = Tape.of(synapses);
+        if (tape != null) {
+            return tape.record(data, synapses, partials);
+        }
+        boolean derive = false;
+        for (Synapse synapse : synapses) {
+            derive |= synapse.toDerive;
+        }
+        if (!derive) {
+            return constant(data);
+        }
+        Consumer<Double> derivativeFunction = prevDerivative -> {
+            for (int i = 0; i < synapses.length; i++) {
+                if (synapses[i].toDerive) {
+                    synapses[i].derivativeFunction.accept(prevDerivative * partials[i]);
+                }
+            }
+        };
+        return new Synapse(data, true, derivativeFunction);
     }
     //</editor-fold>
 
@@ -213,16 +440,43 @@ public class Synapse {
     // with derivativeFunction linked to this synapse's derivativeFunction. The variable synapses will have its
     // derivative value updated corresponding to its partial differentiation.
     public void autoDifferentiate() {
-        derivativeFunction.accept(1.0);
+        Tape current = Tape.of(this, null);
+        if (current != null) {
+            current.backward(node);
+        } else {
+            derivativeFunction.accept(1.0);
+        }
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: synapses linked to this synapse's derivativeFunction
+    // EFFECTS: pass prevDerivative, the derivative with respect to this synapse computed on a Tape, to the
+    // derivativeFunction of this synapse
+    void sink(double prevDerivative) {
+        derivativeFunction.accept(prevDerivative);
     }
 
     // REQUIRES: nothing
     // MODIFIES: the value of the synapse calling this method
     // EFFECTS: subtract learningRate * derivative to the value of the synapse calling this method
     public void gradientDescent(double learningRate) {
+        if (store != null) {
+            store.setAt(index, store.getAt(index) - learningRate * store.getGrad()[index]);
+            store.getGrad()[index] = 0;
+            value = store.getAt(index);
+            this.derivative = 0;
+            return;
+        }
         value -= learningRate * derivative;
         this.derivative = 0;
-        this.derivativeFunction = (prevDerivative) -> derivative += prevDerivative;
+    }
+
+    // REQUIRES: store != null
+    // MODIFIES: this, store
+    // EFFECTS: add prevDerivative to the derivative of this Synapse and to the gradient of the viewed element
+    private void accumulate(double prevDerivative) {
+        derivative += prevDerivative;
+        store.getGrad()[index] += prevDerivative;
     }
     //</editor-fold>
 
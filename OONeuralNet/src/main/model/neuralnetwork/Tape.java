@@ -0,0 +1,229 @@
+package model.neuralnetwork;
+
+import java.util.Arrays;
+
+// A Tape records the operations performed on synapses as a flat list of nodes, in the order in which they were
+// computed (which is always a topological order). Each node stores the indices of its operands and the partial
+// derivatives of the node with respect to them, so differentiation is a single backward sweep over primitive arrays,
+// with no recursion and with every node visited once no matter how many paths lead to it.
+// A Synapse joins the tape either by being watched or by being an operand of a recorded operation; such synapses are
+// the leaves of the tape and receive their derivative through their own derivative function.
+public class Tape {
+
+    //<editor-fold desc="Fields of Tape">
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private double[] grads = new double[INITIAL_CAPACITY];
+
+    private int[] edgeStart = new int[INITIAL_CAPACITY];
+
+    private int[] edgeEnd = new int[INITIAL_CAPACITY];
+
+    private Synapse[] leaves = new Synapse[INITIAL_CAPACITY];
+
+    private int[] parents = new int[2 * INITIAL_CAPACITY];
+
+    private double[] partials = new double[2 * INITIAL_CAPACITY];
+
+    private int nodeCount = 0;
+
+    private int edgeCount = 0;
+
+    private int generation = 0;
+    //</editor-fold>
+
+    //<editor-fold desc="Tape Constructors">
+    // REQUIRES: nothing
+    // MODIFIES: this
+    // EFFECTS: create an empty Tape
+    public Tape() {
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for Tape">
+    // EFFECTS: return the number of nodes recorded since the last reset
+    public int size() {
+        return nodeCount;
+    }
+
+    // REQUIRES: synapse != null
+    // MODIFIES: this, synapse
+    // EFFECTS: record synapse as a leaf of this tape (if it is not on the tape already), so that every operation it
+    // takes part in is recorded on this tape. Constants are never recorded, since nothing is derived through them
+    public void watch(Synapse synapse) {
+        if (synapse.requiresDerivative()) {
+            nodeOf(synapse);
+        }
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: this, leaves of this tape
+    // EFFECTS: forget all recorded nodes. Synapses recorded before the reset no longer belong to the tape; the ones
+    // that were computed on it behave as constants from then on
+    public void reset() {
+        for (int n = 0; n < nodeCount; n++) {
+            if (leaves[n] != null) {
+                leaves[n].tape = null;
+                leaves[n] = null;
+            }
+        }
+        nodeCount = 0;
+        edgeCount = 0;
+        generation++;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Recording Operations">
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the tape that synapse1 or synapse2 (which may be null) is currently recorded on, or null
+    static Tape of(Synapse synapse1, Synapse synapse2) {
+        if (synapse1.tape != null && synapse1.tape.owns(synapse1)) {
+            return synapse1.tape;
+        }
+        if (synapse2 != null && synapse2.tape != null && synapse2.tape.owns(synapse2)) {
+            return synapse2.tape;
+        }
+        return null;
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the tape that any of synapses is currently recorded on, or null
+    static Tape of(Synapse[] synapses) {
+        for (Synapse synapse : synapses) {
+            if (synapse.tape != null && synapse.tape.owns(synapse)) {
+                return synapse.tape;
+            }
+        }
+        return null;
+    }
+
+    // REQUIRES: synapse1 != null
+    // MODIFIES: this
+    // EFFECTS: record a node with the given value, computed from synapse1 and synapse2 (null for unary operations),
+    // whose partial derivatives with respect to them are partial1 and partial2. Return the Synapse for the node, or
+    // a constant Synapse if neither operand is a variable
+    Synapse record(double value, Synapse synapse1, double partial1, Synapse synapse2, double partial2) {
+        boolean derive1 = synapse1.requiresDerivative();
+        boolean derive2 = synapse2 != null && synapse2.requiresDerivative();
+        if (!derive1 && !derive2) {
+            return Synapse.constant(value);
+        }
+        int parent1 = derive1 ? nodeOf(synapse1) : -1;
+        int parent2 = derive2 ? nodeOf(synapse2) : -1;
+        int node = newNode();
+        if (derive1) {
+            addEdge(parent1, partial1);
+        }
+        if (derive2) {
+            addEdge(parent2, partial2);
+        }
+        edgeEnd[node] = edgeCount;
+        return bind(new Synapse(value, true, Synapse.emptyFunction), node);
+    }
+
+    // REQUIRES: synapses.length == partials.length
+    // MODIFIES: this
+    // EFFECTS: record a single node with the given value, computed from all of synapses, whose partial derivative
+    // with respect to synapses[i] is partials[i]. Return the Synapse for the node, or a constant Synapse if no
+    // operand is a variable
+    Synapse record(double value, Synapse[] synapses, double[] partials) {
+        int[] operands = new int[synapses.length];
+        boolean derive = false;
+        for (int i = 0; i < synapses.length; i++) {
+            operands[i] = synapses[i].requiresDerivative() ? nodeOf(synapses[i]) : -1;
+            derive |= operands[i] >= 0;
+        }
+        if (!derive) {
+            return Synapse.constant(value);
+        }
+        int node = newNode();
+        for (int i = 0; i < synapses.length; i++) {
+            if (operands[i] >= 0) {
+                addEdge(operands[i], partials[i]);
+            }
+        }
+        edgeEnd[node] = edgeCount;
+        return bind(new Synapse(value, true, Synapse.emptyFunction), node);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Differentiation Operations">
+    // REQUIRES: 0 <= node < size()
+    // MODIFIES: leaves of this tape
+    // EFFECTS: differentiate the node with respect to every leaf it depends on, passing each partial derivative to
+    // the derivative function of the leaf
+    void backward(int node) {
+        grads[node] = 1;
+        for (int n = node; n >= 0; n--) {
+            double grad = grads[n];
+            if (grad == 0) {
+                continue;
+            }
+            grads[n] = 0;
+            if (leaves[n] != null) {
+                leaves[n].sink(grad);
+                continue;
+            }
+            for (int e = edgeStart[n]; e < edgeEnd[n]; e++) {
+                grads[parents[e]] += grad * partials[e];
+            }
+        }
+    }
+    //</editor-fold>
+
+    // EFFECTS: return true if synapse is a node of this tape since its last reset
+    private boolean owns(Synapse synapse) {
+        return synapse.generation == generation && synapse.node < nodeCount;
+    }
+
+    // MODIFIES: this, synapse
+    // EFFECTS: return the node of synapse, recording it as a new leaf if it is not on this tape yet
+    private int nodeOf(Synapse synapse) {
+        if (synapse.tape == this && owns(synapse)) {
+            return synapse.node;
+        }
+        int node = newNode();
+        edgeEnd[node] = edgeCount;
+        leaves[node] = synapse;
+        bind(synapse, node);
+        return node;
+    }
+
+    // MODIFIES: synapse
+    // EFFECTS: mark synapse as node of this tape and return it
+    private Synapse bind(Synapse synapse, int node) {
+        synapse.tape = this;
+        synapse.node = node;
+        synapse.generation = generation;
+        return synapse;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: append a node without edges and return its index, growing the node arrays if needed
+    private int newNode() {
+        if (nodeCount == grads.length) {
+            int capacity = 2 * grads.length;
+            grads = Arrays.copyOf(grads, capacity);
+            edgeStart = Arrays.copyOf(edgeStart, capacity);
+            edgeEnd = Arrays.copyOf(edgeEnd, capacity);
+            leaves = Arrays.copyOf(leaves, capacity);
+        }
+        edgeStart[nodeCount] = edgeCount;
+        return nodeCount++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: append an edge to parent with the given partial derivative, growing the edge arrays if needed
+    private void addEdge(int parent, double partial) {
+        if (edgeCount == parents.length) {
+            parents = Arrays.copyOf(parents, 2 * parents.length);
+            partials = Arrays.copyOf(partials, 2 * partials.length);
+        }
+        parents[edgeCount] = parent;
+        partials[edgeCount] = partial;
+        edgeCount++;
+    }
+
+}
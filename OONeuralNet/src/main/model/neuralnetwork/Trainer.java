@@ -0,0 +1,204 @@
+package model.neuralnetwork;
+
+import model.Event;
+import model.EventLog;
+import model.LogLevel;
+import model.data.Batch;
+import model.data.BatchIterator;
+import model.data.Dataset;
+import model.operation.Process;
+import model.optimizer.LearningRateSchedule;
+import model.tensor.Tensor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+// A Trainer runs the training of a Network of packed, fully connected layers over many epochs. Each epoch shuffles
+// the training set into mini-batches, takes one step of the network's optimizer per batch with the learning rate
+// given by a schedule, and measures the loss on an optional validation set. Training stops early once the
+// validation loss has not improved for a given number of epochs, and the best parameters seen are then restored.
+// Every epoch is reported to the EventLog and in the list returned by train.
+public class Trainer {
+
+    //<editor-fold desc="Fields of Trainer">
+    private final Network network;
+
+    private int epochs = 1;
+
+    private int batchSize = 32;
+
+    private LearningRateSchedule schedule = LearningRateSchedule.constant(0.05);
+
+    private int patience = 0;
+
+    private double minDelta = 0;
+
+    private Random random = new Random();
+
+    private ExecutionContext context;
+    //</editor-fold>
+
+    //<editor-fold desc="Trainer Constructors">
+    // REQUIRES: every layer of network after the first is fully connected and packed
+    // MODIFIES: this
+    // EFFECTS: create a trainer for network that runs one epoch in batches of 32 with a learning rate of 0.05, and
+    // does not stop early
+    public Trainer(Network network) {
+        this.network = network;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for Trainer">
+    public Network getNetwork() {
+        return network;
+    }
+
+    // REQUIRES: epochs >= 1
+    public void setEpochs(int epochs) {
+        this.epochs = epochs;
+    }
+
+    // REQUIRES: batchSize >= 1
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    // REQUIRES: schedule != null
+    public void setSchedule(LearningRateSchedule schedule) {
+        this.schedule = schedule;
+    }
+
+    // REQUIRES: random != null
+    // EFFECTS: set the source of the order of the samples in each epoch (e.g. a seeded Random for repeatable runs)
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    // REQUIRES: patience >= 0, minDelta >= 0
+    // MODIFIES: this
+    // EFFECTS: stop training once the validation loss has not decreased by more than minDelta below its best value
+    // for patience epochs in a row (never stop early if patience is 0)
+    public void setEarlyStopping(int patience, double minDelta) {
+        this.patience = patience;
+        this.minDelta = minDelta;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Training">
+    // REQUIRES: training matches the first and last layers of the network
+    // MODIFIES: this, network
+    // EFFECTS: train the network on training for the configured number of epochs and return a report per epoch
+    public List<EpochReport> train(Dataset training) {
+        return train(training, null);
+    }
+
+    // REQUIRES: training and validation (if not null) match the first and last layers of the network
+    // MODIFIES: this, network
+    // EFFECTS: train the network on training for the configured number of epochs, or until the loss on validation
+    // stops improving (if early stopping is set), and return a report per epoch run. With early stopping, the
+    // parameters of the network are left at those of the epoch with the best validation loss
+    public List<EpochReport> train(Dataset training, Dataset validation) {
+        network.checkPacked();
+        boolean stopping = validation != null && patience > 0;
+        List<EpochReport> reports = new ArrayList<EpochReport>();
+        double best = Double.POSITIVE_INFINITY;
+        double[][] bestParameters = null;
+        int stale = 0;
+        for (int epoch = 0; epoch < epochs && (!stopping || stale < patience); epoch++) {
+            EpochReport report = runEpoch(epoch, training, validation);
+            reports.add(report);
+            EventLog.getInstance().logEvent(new Event(report.toString(), LogLevel.INFO));
+            if (report.getValidationLoss() < best - minDelta) {
+                best = report.getValidationLoss();
+                bestParameters = stopping ? parameters() : null;
+                stale = 0;
+            } else {
+                stale++;
+            }
+        }
+        if (stale > 0 && bestParameters != null) {
+            restore(bestParameters);
+        }
+        return reports;
+    }
+
+    // REQUIRES: data matches the first and last layers of the network
+    // MODIFIES: this
+    // EFFECTS: return the cross entropy loss of the network averaged over the samples of data, without training
+    public double evaluate(Dataset data) {
+        double loss = 0;
+        int count = 0;
+        Iterator<Batch> batches = data.batches(batchSize, null);
+        try {
+            while (batches.hasNext()) {
+                Batch batch = batches.next();
+                Tensor output = context().forward(network, batch.getInputs());
+                loss += Process.crossEntropy(output, batch.getExpected()) * batch.size();
+                count += batch.size();
+            }
+        } finally {
+            BatchIterator.release(batches);
+        }
+        return loss / count;
+    }
+    //</editor-fold>
+
+    // MODIFIES: this, network
+    // EFFECTS: run one epoch of training and, if validation is not null, evaluate the network on it
+    private EpochReport runEpoch(int epoch, Dataset training, Dataset validation) {
+        long start = System.nanoTime();
+        double rate = schedule.rate(epoch);
+        double loss = 0;
+        int count = 0;
+        Iterator<Batch> batches = training.batches(batchSize, random);
+        try {
+            while (batches.hasNext()) {
+                Batch batch = batches.next();
+                ExecutionContext context = context();
+                loss += context.accumulateGradient(network, batch.getInputs(), batch.getExpected(), batch.size());
+                context.addGradientsTo(network);
+                network.gradientDescent(rate);
+                count += batch.size();
+            }
+        } finally {
+            BatchIterator.release(batches);
+        }
+        double validationLoss = validation == null ? Double.NaN : evaluate(validation);
+        long millis = (System.nanoTime() - start) / 1000000;
+        return new EpochReport(epoch, rate, loss / count, validationLoss, millis);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: return an execution context for batches of batchSize samples through the network, reusing the
+    // previous one if it still fits
+    private ExecutionContext context() {
+        if (context == null || !context.fits(network, batchSize)) {
+            context = new ExecutionContext(network, batchSize);
+        }
+        return context;
+    }
+
+    // EFFECTS: return a copy of the weights and biases of every layer after the first, in that order
+    private double[][] parameters() {
+        int layers = network.getLayers().size();
+        double[][] parameters = new double[2 * layers][];
+        for (int i = 1; i < layers; i++) {
+            double[][] values = network.getLayer(i).getParameterValues();
+            parameters[2 * i] = values[0];
+            parameters[2 * i + 1] = values[1];
+        }
+        return parameters;
+    }
+
+    // REQUIRES: parameters was returned by parameters() on the network with the same layer sizes
+    // MODIFIES: network
+    // EFFECTS: set the weights and biases of every layer after the first back to parameters
+    private void restore(double[][] parameters) {
+        for (int i = 1; i < network.getLayers().size(); i++) {
+            network.getLayer(i).setParameterValues(parameters[2 * i], parameters[2 * i + 1]);
+        }
+        network.parametersChanged();
+    }
+}
@@ -0,0 +1,168 @@
+package model.operation;
+
+// The activation functions known to the network. Each one provides the Fire function used by the per-neuron
+// pipeline as well as an implementation on primitive values, which lets a layer that uses it be evaluated without
+// creating any Synapse or Matrix. Every element-wise activation is a single node on a Synapse graph, whose derivative
+// is computed in closed form (from the activated value, except for GELU which needs the value before activation).
+public enum Activation {
+    IDENTITY(Process::identityActivate),
+    TANH(Process::tanh),
+    SIGMOID(Process::sigmoid),
+    SOFTMAX(Process::softmax),
+    RELU(Process::relu),
+    LEAKY_RELU(Process::leakyRelu),
+    GELU(Process::gelu),
+    SOFTPLUS(Process::softplus);
+
+    private final Fire fire;
+
+    Activation(Fire fire) {
+        this.fire = fire;
+    }
+
+    public Fire getFire() {
+        return fire;
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return true if backward expects the values before activation (the combination) instead of the
+    // output of apply
+    public boolean derivesFromCombination() {
+        return this == GELU;
+    }
+
+    // REQUIRES: 0 <= from <= to <= values.length
+    // MODIFIES: values
+    // EFFECTS: replace values[from..to) by the result of this activation function applied on them (softmax is
+    // computed over the whole range)
+    public void apply(double[] values, int from, int to) {
+        if (this == SOFTMAX) {
+            Process.softmax(values, from, to);
+        } else if (this == RELU || this == LEAKY_RELU) {
+            rectify(values, from, to);
+        } else if (this != IDENTITY) {
+            for (int i = from; i < to; i++) {
+                values[i] = valueOf(values[i]);
+            }
+        }
+    }
+
+    // REQUIRES: 0 <= from <= to <= values.length
+    // MODIFIES: values
+    // EFFECTS: like apply on doubles, for values stored as floats. Each value is computed in double and rounded
+    public void apply(float[] values, int from, int to) {
+        if (this == SOFTMAX) {
+            Process.softmax(values, from, to);
+        } else if (this == RELU || this == LEAKY_RELU) {
+            rectify(values, from, to);
+        } else if (this != IDENTITY) {
+            for (int i = from; i < to; i++) {
+                values[i] = (float) valueOf(values[i]);
+            }
+        }
+    }
+
+    // REQUIRES: values[from..to) is the output of apply (or its input if derivesFromCombination()),
+    // grads[gradFrom..gradFrom + to - from) is in bounds
+    // MODIFIES: grads
+    // EFFECTS: replace grads[gradFrom..gradFrom + to - from), the derivative of a loss with respect to the activated
+    // values, by the derivative of that loss with respect to the values before activation
+    public void backward(double[] values, int from, int to, double[] grads, int gradFrom) {
+        int shift = gradFrom - from;
+        if (this == SOFTMAX) {
+            double dot = 0;
+            for (int i = from; i < to; i++) {
+                dot += grads[i + shift] * values[i];
+            }
+            for (int i = from; i < to; i++) {
+                grads[i + shift] = values[i] * (grads[i + shift] - dot);
+            }
+        } else if (this == RELU || this == LEAKY_RELU) {
+            double slope = this == RELU ? 0 : Process.LEAKY_SLOPE;
+            for (int i = from; i < to; i++) {
+                grads[i + shift] *= values[i] > 0 ? 1 : slope;
+            }
+        } else if (this != IDENTITY) {
+            for (int i = from; i < to; i++) {
+                grads[i + shift] *= derivativeOf(values[i]);
+            }
+        }
+    }
+
+    // REQUIRES: this is RELU or LEAKY_RELU, 0 <= from <= to <= values.length
+    // MODIFIES: values
+    // EFFECTS: apply this rectifier on values[from..to). The loops hold no call, so the JIT compiler can turn them
+    // into conditional moves and SIMD instructions, unlike the general loop through valueOf
+    private void rectify(double[] values, int from, int to) {
+        if (this == RELU) {
+            for (int i = from; i < to; i++) {
+                values[i] = values[i] > 0 ? values[i] : 0;
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                values[i] = values[i] > 0 ? values[i] : Process.LEAKY_SLOPE * values[i];
+            }
+        }
+    }
+
+    // REQUIRES: this is RELU or LEAKY_RELU, 0 <= from <= to <= values.length
+    // MODIFIES: values
+    // EFFECTS: apply this rectifier on values[from..to) like rectify on doubles
+    private void rectify(float[] values, int from, int to) {
+        if (this == RELU) {
+            for (int i = from; i < to; i++) {
+                values[i] = values[i] > 0 ? values[i] : 0;
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                values[i] = values[i] > 0 ? values[i] : (float) (Process.LEAKY_SLOPE * values[i]);
+            }
+        }
+    }
+
+    // REQUIRES: this is an element-wise activation
+    // MODIFIES: nothing
+    // EFFECTS: return this activation function applied on value
+    private double valueOf(double value) {
+        switch (this) {
+            case TANH:
+                return Process.tanh(value);
+            case SIGMOID:
+                return Process.sigmoid(value);
+            case RELU:
+                return Process.relu(value);
+            case LEAKY_RELU:
+                return Process.leakyRelu(value);
+            case GELU:
+                return Process.gelu(value);
+            case SOFTPLUS:
+                return Process.softplus(value);
+            default:
+                return value;
+        }
+    }
+
+    // REQUIRES: this is an element-wise activation, value is an activated value (or the combination if
+    // derivesFromCombination())
+    // MODIFIES: nothing
+    // EFFECTS: return the derivative of this activation function at the point that produced value
+    private double derivativeOf(double value) {
+        switch (this) {
+            case TANH:
+                return 1 - value * value;
+            case SIGMOID:
+                return value * (1 - value);
+            case RELU:
+                return value > 0 ? 1 : 0;
+            case LEAKY_RELU:
+                return value > 0 ? 1 : Process.LEAKY_SLOPE;
+            case GELU:
+                return Process.geluDerivative(value);
+            case SOFTPLUS:
+                return -Math.expm1(-value);
+            default:
+                return 1;
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package model.operation;
 
+import model.tensor.Kernels;
 import model.tensor.Matrix;
 import model.neuralnetwork.Layer;
 import model.neuralnetwork.Neuron;
 import model.neuralnetwork.Synapse;
+import model.tensor.Tensor;
 
 import java.util.ArrayList;
+import java.util.List;
 
 // A class with only static methods, used for running general methods on component of Network
 public class Process {
 
+    public static final double LEAKY_SLOPE = 0.01;
+
+    private static final double GELU_SCALE = Math.sqrt(2 / Math.PI);
+
+    private static final double GELU_CUBIC = 0.044715;
+
     // REQUIRES: fn != null, m != null
     // MODIFIES: m
     // EFFECTS: apply fn on each Synapse in m, return the resultant matrix
@@ -23,6 +32,20 @@ public class Process {
         return new Matrix(synapses);
     }
 
+    // REQUIRES: fn != null, t != null
+    // MODIFIES: nothing
+    // EFFECTS: apply fn on each element of t, return the resultant tensor
+    public static Tensor map(ScalarFunction fn, Tensor t) {
+        Tensor result = new Tensor(t.getShape());
+        double[] data = t.getData();
+        double[] resultData = result.getData();
+        int offset = t.getOffset();
+        for (int i = 0; i < resultData.length; i++) {
+            resultData[i] = fn.compute(data[offset + i]);
+        }
+        return result;
+    }
+
     // REQUIRES: m != null
     // MODIFIES: m
     // EFFECTS: autoDifferentiate each Synapse in m
@@ -84,7 +107,7 @@ public class Process {
     // EFFECTS: compare the activation data for neurons in l and matrices in expected to compute
     // the cross entropy loss
     public static Matrix crossEntropy(Layer l, Matrix[] expected) {
-        Synapse sum = new Synapse(0);
+        Synapse sum = Synapse.constant(0);
         for (int i = 0; i < l.getSize(); i++) {
             Matrix nodes = l.getNeuron(i).getActivateData();
             Matrix y = expected[i];
@@ -96,10 +119,113 @@ public class Process {
                 }
             }
         }
-        sum = Synapse.multiply(new Synapse(-1), sum);
+        sum = Synapse.multiply(Synapse.constant(-1), sum);
         return new Matrix(new Synapse[][]{{sum}});
     }
 
+    // REQUIRES: output and expected are batch x n, every element of output is positive
+    // MODIFIES: nothing
+    // EFFECTS: return the cross entropy loss between each row of output and of expected, averaged over the batch
+    public static double crossEntropy(Tensor output, Tensor expected) {
+        double sum = 0;
+        for (int i = 0; i < output.getSize(); i++) {
+            sum -= expected.getFlat(i) * Math.log(output.getFlat(i));
+        }
+        return sum / output.getDimRow();
+    }
+
+    // REQUIRES: output and expected are batch x n, every element of output is positive
+    // MODIFIES: nothing
+    // EFFECTS: return the derivative of crossEntropy(output, expected) with respect to each element of output
+    public static Tensor crossEntropyGradient(Tensor output, Tensor expected) {
+        Tensor gradient = new Tensor(output.getShape());
+        crossEntropyGradient(output, expected, output.getDimRow(), gradient);
+        return gradient;
+    }
+
+    // REQUIRES: output, expected and gradient have the same shape, every element of output is positive, batch >= 1
+    // MODIFIES: gradient
+    // EFFECTS: set gradient to the derivative with respect to output of the cross entropy loss averaged over batch
+    // samples, of which output holds some rows
+    public static void crossEntropyGradient(Tensor output, Tensor expected, int batch, Tensor gradient) {
+        for (int i = 0; i < output.getSize(); i++) {
+            gradient.setFlat(i, -expected.getFlat(i) / output.getFlat(i) / batch);
+        }
+    }
+
+    // REQUIRES: l is a layer whose combination data holds logits, expected has one matrix per neuron of l with the
+    // same dimensions as its combination data
+    // MODIFIES: nothing
+    // EFFECTS: return the cross entropy loss between expected and the softmax of the combination data of all
+    // neurons in l, fused into one node computed with the log-sum-exp of the layer, whose derivative with respect
+    // to each logit is p - y. Unlike crossEntropy, it stays finite when a probability rounds to 0
+    public static Matrix softmaxCrossEntropy(Layer l, Matrix[] expected) {
+        Synapse[] logits = combineSynapses(l);
+        double[] y = new double[logits.length];
+        int k = 0;
+        for (int i = 0; i < l.getSize(); i++) {
+            for (int r = 0; r < expected[i].getDimRow(); r++) {
+                for (int c = 0; c < expected[i].getDimCol(); c++) {
+                    y[k++] = expected[i].getValue(r, c);
+                }
+            }
+        }
+        return new Matrix(new Synapse[][]{{Synapse.softmaxCrossEntropy(logits, y)}});
+    }
+
+    // REQUIRES: logits, expected and gradient are rows x n, batch >= 1
+    // MODIFIES: gradient
+    // EFFECTS: for each row, compute the cross entropy between expected and the softmax p of logits with the
+    // log-sum-exp of the row, and set the row of gradient to (p * (sum of the row of expected) - expected) / batch,
+    // the derivative of the loss averaged over batch samples with respect to logits. Return the sum of the losses
+    public static double softmaxCrossEntropy(Tensor logits, Tensor expected, int batch, Tensor gradient) {
+        int n = logits.getDimCol();
+        double loss = 0;
+        for (int b = 0; b < logits.getDimRow(); b++) {
+            loss += softmaxCrossEntropy(logits.getData(), logits.getOffset() + b * n, expected.getData(),
+                    expected.getOffset() + b * n, n, batch, gradient.getData(), gradient.getOffset() + b * n);
+        }
+        return loss;
+    }
+
+    // REQUIRES: logits[from..from + n), expected[expectedFrom..expectedFrom + n) and
+    // gradient[gradientFrom..gradientFrom + n) are in bounds, batch >= 1
+    // MODIFIES: gradient
+    // EFFECTS: like softmaxCrossEntropy(logits, expected, batch, gradient) for a single row of n logits held in
+    // primitive arrays, returning its loss
+    public static double softmaxCrossEntropy(double[] logits, int from, double[] expected, int expectedFrom, int n,
+                                             int batch, double[] gradient, int gradientFrom) {
+        double lse = logSumExp(logits, from, from + n);
+        double loss = 0;
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            double y = expected[expectedFrom + i];
+            loss += y == 0 ? 0 : y * (lse - logits[from + i]);
+            total += y;
+        }
+        for (int i = 0; i < n; i++) {
+            gradient[gradientFrom + i] = (Math.exp(logits[from + i] - lse) * total - expected[expectedFrom + i])
+                    / batch;
+        }
+        return loss;
+    }
+
+    // REQUIRES: 0 <= from < to <= values.length
+    // MODIFIES: nothing
+    // EFFECTS: return ln(e^x1 + ... + e^xn) over values[from..to), with the largest element factored out for
+    // numerical stability
+    private static double logSumExp(double[] values, int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += Math.exp(values[i] - max);
+        }
+        return max + Math.log(sum);
+    }
+
     // REQUIRES: neuron != null
     // MODIFIES: neuron
     // EFFECTS: set combination data of neuron to its receive data
@@ -118,11 +244,15 @@ public class Process {
     // MODIFIES: n
     // EFFECTS: run the Softmax activation function on neuron n
     public static void softmax(Neuron n) {
+        if (isDenseAdj(n)) {
+            n.setActivateData(new Matrix(softmaxDense(n)));
+            return;
+        }
 
         Matrix nodes = n.getCombineData();
         int dimRow = nodes.getDimRow();
         int dimCol = nodes.getDimCol();
-        Synapse sum = new Synapse(0);
+        Synapse sum = Synapse.constant(0);
         for (int r = 0; r < dimRow; r++) {
             for (int c = 0; c < dimCol; c++) {
                 sum = Synapse.plus(Synapse.exp(nodes.getSynapse(r, c)), sum);
@@ -146,6 +276,134 @@ public class Process {
 
     }
 
+    // REQUIRES: 0 <= from < to <= values.length
+    // MODIFIES: values
+    // EFFECTS: replace values[from..to) by their softmax, shifted by the largest value for numerical stability
+    public static void softmax(double[] values, int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            values[i] = Math.exp(values[i] - max);
+            sum += values[i];
+        }
+        for (int i = from; i < to; i++) {
+            values[i] /= sum;
+        }
+    }
+
+    // REQUIRES: 0 <= from < to <= values.length
+    // MODIFIES: values
+    // EFFECTS: replace values[from..to) by their softmax like softmax on doubles, summing the exponentials in double
+    public static void softmax(float[] values, int from, int to) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += Math.exp(values[i] - max);
+        }
+        for (int i = from; i < to; i++) {
+            values[i] = (float) (Math.exp(values[i] - max) / sum);
+        }
+    }
+
+    // REQUIRES: l != null, size of l >= 1
+    // MODIFIES: neurons of l
+    // EFFECTS: set the activation data of every neuron in l to the softmax of its combination data over the whole
+    // layer. The log-sum-exp of the layer is computed once (as a single node if the data is part of a graph) and
+    // each activation is e^(x - lse), so the cost is linear in the size of the layer
+    public static void softmax(Layer l) {
+        Synapse[] logits = combineSynapses(l);
+        Synapse lse = Synapse.logSumExp(logits);
+        int k = 0;
+        for (Neuron neuron : l.getNeurons()) {
+            Matrix nodes = neuron.getCombineData();
+            Synapse[][] activated = new Synapse[nodes.getDimRow()][nodes.getDimCol()];
+            for (int r = 0; r < nodes.getDimRow(); r++) {
+                for (int c = 0; c < nodes.getDimCol(); c++) {
+                    activated[r][c] = Synapse.exp(Synapse.minus(logits[k++], lse));
+                }
+            }
+            neuron.setActivateData(new Matrix(activated));
+        }
+    }
+
+    // REQUIRES: l != null
+    // MODIFIES: nothing
+    // EFFECTS: return the synapses of the combination data of all neurons in l, in order
+    private static Synapse[] combineSynapses(Layer l) {
+        ArrayList<Synapse> synapses = new ArrayList<Synapse>();
+        for (Neuron neuron : l.getNeurons()) {
+            Matrix nodes = neuron.getCombineData();
+            for (int r = 0; r < nodes.getDimRow(); r++) {
+                for (int c = 0; c < nodes.getDimCol(); c++) {
+                    synapses.add(nodes.getSynapse(r, c));
+                }
+            }
+        }
+        return synapses.toArray(new Synapse[0]);
+    }
+
+    // REQUIRES: n != null, the combination data of n and its adjacent neurons is dense
+    // MODIFIES: nothing
+    // EFFECTS: return the softmax of the combination data of n over n and its adjacent neurons, computed on
+    // primitive values (shifted by the largest element for numerical stability)
+    private static Tensor softmaxDense(Neuron n) {
+        Tensor nodes = n.getCombineData().getTensor();
+        double max = max(nodes);
+        for (Neuron adj : n.getAdj()) {
+            max = Math.max(max, max(adj.getCombineData().getTensor()));
+        }
+        double sum = sumExp(nodes, max);
+        for (Neuron adj : n.getAdj()) {
+            sum += sumExp(adj.getCombineData().getTensor(), max);
+        }
+        final double shift = max;
+        final double total = sum;
+        return map(x -> Math.exp(x - shift) / total, nodes);
+    }
+
+    // REQUIRES: n != null
+    // MODIFIES: nothing
+    // EFFECTS: return true if the combination data of n and of all its adjacent neurons is dense
+    private static boolean isDenseAdj(Neuron n) {
+        if (!n.getCombineData().isDense()) {
+            return false;
+        }
+        for (Neuron adj : n.getAdj()) {
+            if (!adj.getCombineData().isDense()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // REQUIRES: t != null
+    // MODIFIES: nothing
+    // EFFECTS: return the largest element of t
+    private static double max(Tensor t) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < t.getSize(); i++) {
+            max = Math.max(max, t.getFlat(i));
+        }
+        return max;
+    }
+
+    // REQUIRES: t != null
+    // MODIFIES: nothing
+    // EFFECTS: return the sum of e^(x - shift) over the elements x of t
+    private static double sumExp(Tensor t, double shift) {
+        double sum = 0;
+        for (int i = 0; i < t.getSize(); i++) {
+            sum += Math.exp(t.getFlat(i) - shift);
+        }
+        return sum;
+    }
+
     // REQUIRES: n != null
     // MODIFIES: n
     // EFFECTS: sum the softmax component of adjacent neurons of n
@@ -163,56 +421,158 @@ public class Process {
         return sum;
     }
 
-//    public static void softplus(Neuron neuron) throws Exception {
-//        Matrix nodes = neuron.getCombineData();
-//        Matrix result = map(Process::softplus, nodes);
-//        neuron.setActivateData(result);
-//    }
-//
-//    public static Synapse softplus(Synapse synapse) {
-//        Synapse resultSynapse = Synapse.ln(Synapse.plus(new Synapse(1), Synapse.exp(synapse)));
-//        return resultSynapse;
-//    }
-
     // REQUIRES: neuron != null
     // MODIFIES: neuron
     // EFFECTS: run the hyperbolic tangent function on the combination data of neuron, and set the resultant data to
     // its activation data
     public static void tanh(Neuron neuron) throws Exception {
-        Matrix nodes = neuron.getCombineData();
-        Matrix result = map(Process::tanh, nodes);
-        neuron.setActivateData(result);
+        activate(neuron, Process::tanh, Process::tanh);
     }
 
     // REQUIRES: synapse != null
     // MODIFIES: synapse
     // EFFECTS: run the hyperbolic tangent function on the synapse and return the result
     public static Synapse tanh(Synapse synapse) {
-        Synapse resultSynapse = Synapse.multiply(Synapse.plus(
-                Synapse.exp(Synapse.multiply(synapse, new Synapse(2))), new Synapse(-1)),
-                Synapse.pow(Synapse.plus(Synapse.exp(Synapse.multiply(synapse, new Synapse(2))), new Synapse(1)), -1));
-        return resultSynapse;
+        return Synapse.tanh(synapse);
     }
 
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the hyperbolic tangent of value
+    public static double tanh(double value) {
+        return Math.tanh(value);
+    }
 
     // REQUIRES: neuron != null
     // MODIFIES: neuron
     // EFFECTS: run the logistic sigmoid function on the combination data of neuron, and set the resultant data to
     // its activation data
     public static void sigmoid(Neuron neuron) throws Exception {
-        Matrix nodes = neuron.getCombineData();
-        Matrix result = map(Process::sigmoid, nodes);
-        neuron.setActivateData(result);
+        activate(neuron, Process::sigmoid, Process::sigmoid);
     }
 
-
     // REQUIRES: synapse != null
     // MODIFIES: synapse
     // EFFECTS: run the logistic sigmoid function on the synapse and return the result
     public static Synapse sigmoid(Synapse synapse) {
-        Synapse resultSynapse = Synapse.pow(Synapse.plus(new Synapse(1),
-                Synapse.exp(Synapse.multiply(new Synapse(-1), synapse))), -1);
-        return resultSynapse;
+        return Synapse.sigmoid(synapse);
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the logistic sigmoid of value
+    public static double sigmoid(double value) {
+        return 1 / (1 + Math.exp(-value));
+    }
+
+    // REQUIRES: neuron != null
+    // MODIFIES: neuron
+    // EFFECTS: run the rectified linear unit on the combination data of neuron, and set the resultant data to its
+    // activation data
+    public static void relu(Neuron neuron) throws Exception {
+        activate(neuron, Process::relu, Process::relu);
+    }
+
+    // REQUIRES: synapse != null
+    // MODIFIES: synapse
+    // EFFECTS: run the rectified linear unit on the synapse and return the result
+    public static Synapse relu(Synapse synapse) {
+        return Synapse.relu(synapse);
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return max(value, 0)
+    public static double relu(double value) {
+        return value > 0 ? value : 0;
+    }
+
+    // REQUIRES: neuron != null
+    // MODIFIES: neuron
+    // EFFECTS: run the leaky rectified linear unit (with slope LEAKY_SLOPE for negative values) on the combination
+    // data of neuron, and set the resultant data to its activation data
+    public static void leakyRelu(Neuron neuron) throws Exception {
+        activate(neuron, Process::leakyRelu, Process::leakyRelu);
+    }
+
+    // REQUIRES: synapse != null
+    // MODIFIES: synapse
+    // EFFECTS: run the leaky rectified linear unit (with slope LEAKY_SLOPE for negative values) on the synapse and
+    // return the result
+    public static Synapse leakyRelu(Synapse synapse) {
+        return Synapse.leakyRelu(synapse, LEAKY_SLOPE);
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return value if it is positive, and LEAKY_SLOPE * value otherwise
+    public static double leakyRelu(double value) {
+        return value > 0 ? value : LEAKY_SLOPE * value;
+    }
+
+    // REQUIRES: neuron != null
+    // MODIFIES: neuron
+    // EFFECTS: run the Gaussian error linear unit on the combination data of neuron, and set the resultant data to
+    // its activation data
+    public static void gelu(Neuron neuron) throws Exception {
+        activate(neuron, Process::gelu, Process::gelu);
+    }
+
+    // REQUIRES: synapse != null
+    // MODIFIES: synapse
+    // EFFECTS: run the Gaussian error linear unit on the synapse and return the result
+    public static Synapse gelu(Synapse synapse) {
+        return Synapse.gelu(synapse);
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the Gaussian error linear unit of value (with the tanh approximation used by Synapse.gelu)
+    public static double gelu(double value) {
+        return value * (1 + Math.tanh(GELU_SCALE * (value + GELU_CUBIC * value * value * value))) / 2;
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the derivative of gelu at value
+    public static double geluDerivative(double value) {
+        double t = Math.tanh(GELU_SCALE * (value + GELU_CUBIC * value * value * value));
+        return (1 + t) / 2 + value * (1 - t * t) * GELU_SCALE * (1 + 3 * GELU_CUBIC * value * value) / 2;
+    }
+
+    // REQUIRES: neuron != null
+    // MODIFIES: neuron
+    // EFFECTS: run the softplus function on the combination data of neuron, and set the resultant data to its
+    // activation data
+    public static void softplus(Neuron neuron) throws Exception {
+        activate(neuron, Process::softplus, Process::softplus);
+    }
+
+    // REQUIRES: synapse != null
+    // MODIFIES: synapse
+    // EFFECTS: run the softplus function on the synapse and return the result
+    public static Synapse softplus(Synapse synapse) {
+        return Synapse.softplus(synapse);
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return ln(1 + e^value), computed without overflow
+    public static double softplus(double value) {
+        return Math.max(value, 0) + Math.log1p(Math.exp(-Math.abs(value)));
+    }
+
+    // REQUIRES: neuron != null
+    // MODIFIES: neuron
+    // EFFECTS: apply an element-wise activation on the combination data of neuron and set the result as its
+    // activation data, using scalar on dense data and fn (which records one node per element) otherwise
+    private static void activate(Neuron neuron, Function fn, ScalarFunction scalar) throws Exception {
+        Matrix nodes = neuron.getCombineData();
+        if (nodes.isDense()) {
+            neuron.setActivateData(new Matrix(map(scalar, nodes.getTensor())));
+            return;
+        }
+        neuron.setActivateData(map(fn, nodes));
     }
 
     // REQUIRES: neuron != null
@@ -223,6 +583,11 @@ public class Process {
         Matrix nodes = neuron.getReceiveData();
         Matrix weights = neuron.getWeights();
         Matrix bias = neuron.getBiases();
+        if (nodes.isDense() && weights.isDense() && bias.isDense()) {
+            double sum = dot(nodes.getTensor(), weights.getTensor(), bias.getValue(0, 0));
+            neuron.setCombineData(new Matrix(Tensor.scalar(sum)));
+            return;
+        }
         Matrix result = dot(nodes, weights, bias);
         neuron.setCombineData(result);
     }
@@ -232,7 +597,11 @@ public class Process {
     // EFFECTS: combine the matrices of previous neurons by appending them in a 1 x N matrix, then set the result
     // as the neuron's receive data
     public static void rowAppend(Neuron neuron) {
-        ArrayList<Neuron> prev = neuron.getPrev();
+        List<Neuron> prev = neuron.getPrev();
+        if (isDensePrev(prev)) {
+            neuron.setReceiveData(new Matrix(rowAppendDense(prev)));
+            return;
+        }
         ArrayList<Synapse> synapses = new ArrayList<Synapse>();
         for (int i = 0; i < prev.size(); i++) {
             Matrix temp = flatten(prev.get(i).getActivateData());
@@ -240,7 +609,6 @@ public class Process {
                 synapses.add(temp.getSynapse(0, c));
             }
         }
-        Synapse sum = new Synapse(0);
         Synapse[][] result = new Synapse[1][synapses.size()];
         for (int c = 0; c < synapses.size(); c++) {
             result[0][c] = synapses.get(c);
@@ -250,6 +618,56 @@ public class Process {
         neuron.setReceiveData(new Matrix(result));
     }
 
+    // REQUIRES: prev != null
+    // MODIFIES: nothing
+    // EFFECTS: return true if the activation data of every neuron in prev is dense
+    private static boolean isDensePrev(List<Neuron> prev) {
+        for (Neuron neuron : prev) {
+            if (!neuron.getActivateData().isDense()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // REQUIRES: prev != null, the activation data of every neuron in prev is dense
+    // MODIFIES: nothing
+    // EFFECTS: return a 1 x N tensor holding the activation data of the neurons in prev in row-major order
+    private static Tensor rowAppendDense(List<Neuron> prev) {
+        int size = 0;
+        for (Neuron neuron : prev) {
+            size += neuron.getActivateData().getTensor().getSize();
+        }
+        Tensor result = new Tensor(1, size);
+        int c = 0;
+        for (Neuron neuron : prev) {
+            Tensor temp = neuron.getActivateData().getTensor();
+            System.arraycopy(temp.getData(), temp.getOffset(), result.getData(), c, temp.getSize());
+            c += temp.getSize();
+        }
+        return result;
+    }
+
+    // REQUIRES: row >= 1, col >= 1, mode != null
+    // MODIFIES: nothing
+    // EFFECTS: return a row x col variable tensor with the specified mode of initialization
+    public static Tensor randTensor(int row, int col, String mode) {
+        Tensor tensor = Tensor.variable(row, col);
+        for (int i = 0; i < tensor.getSize(); i++) {
+            switch (mode) {
+                case "Xavier":
+                    tensor.setFlat(i, 2 * (Math.random() - 0.5) * (1 / Math.sqrt(row * col)));
+                    break;
+                case "All-ones":
+                    tensor.setFlat(i, 1);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return tensor;
+    }
+
     // REQUIRES: row >= 1, col >= 1, mode != null
     // MODIFIES: nothing
     // EFFECTS: return a row x col matrix with the specified mode of initialization
@@ -329,7 +747,7 @@ public class Process {
     // EFFECTS: return (m1 * m2) + m3, where * is the dot product (summation of element-wise
     // multiplication of m1 and m2)
     public static Matrix dot(Matrix m1, Matrix m2, Matrix m3) {
-        Synapse sum = new Synapse(0);
+        Synapse sum = Synapse.constant(0);
         for (int r = 0; r < m1.getDimRow(); r++) {
             for (int c = 0; c < m1.getDimCol(); c++) {
                 sum = Synapse.plus(Synapse.multiply(m1.getSynapse(r, c), m2.getSynapse(r, c)), sum);
@@ -339,11 +757,48 @@ public class Process {
         return new Matrix(new Synapse[][]{{Synapse.plus(sum, m3.getSynapse(0, 0))}});
     }
 
+    // REQUIRES: t1 != null, t2 != null, t1 and t2 has the same number of elements
+    // MODIFIES: nothing
+    // EFFECTS: return (t1 * t2) + bias, where * is the dot product (summation of element-wise
+    // multiplication of t1 and t2)
+    public static double dot(Tensor t1, Tensor t2, double bias) {
+        return Kernels.dot(t1, t2) + bias;
+    }
+
+    // REQUIRES: m != null, values.length == number of elements of m
+    // MODIFIES: nothing
+    // EFFECTS: return (m * values) + bias, where * is the dot product of the elements of m in row-major order and
+    // values. No Synapse is created, whether m is dense or not
+    public static double dot(Matrix m, double[] values, double bias) {
+        if (m.isDense()) {
+            return dot(m.getTensor(), new Tensor(values, values.length), bias);
+        }
+        double sum = 0;
+        for (int r = 0; r < m.getDimRow(); r++) {
+            for (int c = 0; c < m.getDimCol(); c++) {
+                sum += m.getValue(r, c) * values[r * m.getDimCol() + c];
+            }
+        }
+        return sum + bias;
+    }
+
     // REQUIRES: nothing
     // MODIFIES: nothing
     // EFFECTS: return a 1d array of 1 x 1 matrices with a normalized element in the list of input data
     public static Matrix[] listToNormalizedInput(double... listOfData) {
+        double[] normalized = normalize(listOfData);
         Matrix[] m = new Matrix[listOfData.length];
+        for (int i = 0; i < listOfData.length; i++) {
+            Synapse data = new Synapse(normalized[i]);
+            m[i] = new Matrix(new Synapse[][]{{data}});
+        }
+        return m;
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the list of input data divided by its euclidean norm (unchanged if the norm is 0)
+    public static double[] normalize(double... listOfData) {
         double sum = 0;
         for (int i = 0; i < listOfData.length; i++) {
             sum += Math.pow(listOfData[i], 2);
@@ -352,11 +807,29 @@ public class Process {
             sum = 1;
         }
         sum = Math.sqrt(sum);
+        double[] normalized = new double[listOfData.length];
         for (int i = 0; i < listOfData.length; i++) {
-            Synapse data = new Synapse(listOfData[i] / sum);
-            m[i] = new Matrix(new Synapse[][]{{data}});
+            normalized[i] = listOfData[i] / sum;
+        }
+        return normalized;
+    }
+
+    // REQUIRES: 0 <= from <= to <= values.length
+    // MODIFIES: values
+    // EFFECTS: divide values[from..to) by their euclidean norm (unchanged if the norm is 0), like normalize but in
+    // place
+    public static void normalize(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i] * values[i];
+        }
+        if (sum == 0) {
+            return;
+        }
+        double norm = Math.sqrt(sum);
+        for (int i = from; i < to; i++) {
+            values[i] /= norm;
         }
-        return m;
     }
 
     // REQUIRES: nothing
@@ -371,5 +844,17 @@ public class Process {
         return m;
     }
 
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return a 1d array of 1 x 1 matrices, one for each element of t in row-major order. Each matrix is a
+    // view of its element, so unlike listToOutput no data is copied and no Synapse is created
+    public static Matrix[] tensorToOutput(Tensor t) {
+        Matrix[] m = new Matrix[t.getSize()];
+        for (int i = 0; i < m.length; i++) {
+            m[i] = new Matrix(t.view(i, 1, 1));
+        }
+        return m;
+    }
+
 
 }
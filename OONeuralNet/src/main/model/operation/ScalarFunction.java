@@ -0,0 +1,7 @@
+package model.operation;
+
+
+// An interface for functions on primitive values used in the Process class when operating on dense Tensors
+public interface ScalarFunction {
+    double compute(double value);
+}
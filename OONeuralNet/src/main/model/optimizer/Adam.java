@@ -0,0 +1,90 @@
+package model.optimizer;
+
+import model.tensor.Tensor;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+// Adam: each parameter keeps moving averages of its gradient (first moment) and of its squared gradient (second
+// moment), corrected for their bias towards 0 in the first steps, and moves by the ratio of the first moment to the
+// root of the second. The optional weight decay shrinks every parameter independently of its gradient (AdamW).
+public class Adam implements Optimizer {
+
+    //<editor-fold desc="Fields of Adam">
+    private final double beta1;
+
+    private final double beta2;
+
+    private final double epsilon;
+
+    private final double weightDecay;
+
+    private final Map<Tensor, Moments> moments = new WeakHashMap<Tensor, Moments>();
+    //</editor-fold>
+
+    //<editor-fold desc="Adam Constructors">
+    // REQUIRES: nothing
+    // MODIFIES: this
+    // EFFECTS: create an Adam optimizer with beta1 = 0.9, beta2 = 0.999 and epsilon = 1e-8
+    public Adam() {
+        this(0.9, 0.999, 1e-8);
+    }
+
+    // REQUIRES: 0 <= beta1 < 1, 0 <= beta2 < 1, epsilon > 0
+    // MODIFIES: this
+    // EFFECTS: create an Adam optimizer with the given decays of the first and second moments and epsilon added to
+    // the root of the second moment
+    public Adam(double beta1, double beta2, double epsilon) {
+        this(beta1, beta2, epsilon, 0);
+    }
+
+    // REQUIRES: 0 <= beta1 < 1, 0 <= beta2 < 1, epsilon > 0, weightDecay >= 0
+    // MODIFIES: this
+    // EFFECTS: create an Adam optimizer like Adam(beta1, beta2, epsilon) which also scales every parameter by
+    // 1 - learningRate * weightDecay at each step
+    protected Adam(double beta1, double beta2, double epsilon, double weightDecay) {
+        this.beta1 = beta1;
+        this.beta2 = beta2;
+        this.epsilon = epsilon;
+        this.weightDecay = weightDecay;
+    }
+    //</editor-fold>
+
+    // REQUIRES: parameters.hasGrad()
+    // MODIFIES: parameters, this
+    // EFFECTS: update the moments m and v of every element of parameters with its gradient, then subtract
+    // learningRate * m' / (sqrt(v') + epsilon) from the element after scaling it by 1 - learningRate * weightDecay,
+    // where m' and v' are the bias-corrected moments, and reset the gradient to 0
+    @Override
+    public void update(Tensor parameters, double learningRate) {
+        Moments state = moments.computeIfAbsent(parameters, t -> new Moments(t.getSize()));
+        state.step++;
+        double correction1 = 1 / (1 - Math.pow(beta1, state.step));
+        double correction2 = 1 / (1 - Math.pow(beta2, state.step));
+        double keep = 1 - learningRate * weightDecay;
+        double[] first = state.first;
+        double[] second = state.second;
+        double[] grad = parameters.getGrad();
+        int offset = parameters.getOffset();
+        for (int i = 0; i < first.length; i++) {
+            double g = grad[offset + i];
+            first[i] = beta1 * first[i] + (1 - beta1) * g;
+            second[i] = beta2 * second[i] + (1 - beta2) * g * g;
+            double step = first[i] * correction1 / (Math.sqrt(second[i] * correction2) + epsilon);
+            parameters.setFlat(i, keep * parameters.getFlat(i) - learningRate * step);
+            grad[offset + i] = 0;
+        }
+    }
+
+    // The moment estimates of one parameter Tensor and the number of steps taken on it
+    private static class Moments {
+        private final double[] first;
+        private final double[] second;
+        private int step;
+
+        Moments(int size) {
+            first = new double[size];
+            second = new double[size];
+        }
+    }
+}
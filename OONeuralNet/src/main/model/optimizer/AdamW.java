@@ -0,0 +1,20 @@
+package model.optimizer;
+
+// AdamW: Adam with weight decay decoupled from the gradient, i.e. every parameter is shrunk towards 0 by
+// learningRate * weightDecay of its value at each step, on top of the Adam update computed from the raw gradient.
+public class AdamW extends Adam {
+
+    // REQUIRES: weightDecay >= 0
+    // MODIFIES: this
+    // EFFECTS: create an AdamW optimizer with the given weight decay, beta1 = 0.9, beta2 = 0.999 and epsilon = 1e-8
+    public AdamW(double weightDecay) {
+        this(0.9, 0.999, 1e-8, weightDecay);
+    }
+
+    // REQUIRES: 0 <= beta1 < 1, 0 <= beta2 < 1, epsilon > 0, weightDecay >= 0
+    // MODIFIES: this
+    // EFFECTS: create an AdamW optimizer with the given decays of the moments, epsilon and weight decay
+    public AdamW(double beta1, double beta2, double epsilon, double weightDecay) {
+        super(beta1, beta2, epsilon, weightDecay);
+    }
+}
@@ -0,0 +1,41 @@
+package model.optimizer;
+
+// A LearningRateSchedule gives the learning rate to use in each epoch of training. The static methods build the
+// usual schedules, which can be combined (e.g. a warmup followed by a cosine decay).
+public interface LearningRateSchedule {
+
+    // REQUIRES: epoch >= 0
+    // MODIFIES: nothing
+    // EFFECTS: return the learning rate for the given epoch (counted from 0)
+    double rate(int epoch);
+
+    // REQUIRES: rate > 0
+    // MODIFIES: nothing
+    // EFFECTS: return a schedule that always gives rate
+    static LearningRateSchedule constant(double rate) {
+        return epoch -> rate;
+    }
+
+    // REQUIRES: rate > 0, every >= 1, 0 < factor <= 1
+    // MODIFIES: nothing
+    // EFFECTS: return a schedule that starts at rate and multiplies it by factor every given number of epochs
+    static LearningRateSchedule step(double rate, int every, double factor) {
+        return epoch -> rate * Math.pow(factor, epoch / every);
+    }
+
+    // REQUIRES: rate >= minimum >= 0, epochs >= 1
+    // MODIFIES: nothing
+    // EFFECTS: return a schedule that decays from rate to minimum along half a cosine over the given number of
+    // epochs, and stays at minimum after that
+    static LearningRateSchedule cosine(double rate, double minimum, int epochs) {
+        return epoch -> minimum + (rate - minimum) * (1 + Math.cos(Math.PI * Math.min(epoch, epochs) / epochs)) / 2;
+    }
+
+    // REQUIRES: epochs >= 1, after != null
+    // MODIFIES: nothing
+    // EFFECTS: return a schedule that increases linearly up to after.rate(0) over the given number of epochs, then
+    // follows after (started from its epoch 0)
+    static LearningRateSchedule warmup(int epochs, LearningRateSchedule after) {
+        return epoch -> epoch < epochs ? after.rate(0) * (epoch + 1) / epochs : after.rate(epoch - epochs);
+    }
+}
@@ -0,0 +1,49 @@
+package model.optimizer;
+
+import model.tensor.Tensor;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+// Gradient descent with momentum: each parameter keeps a velocity, which is the gradient plus the previous velocity
+// scaled by beta, and moves against the velocity instead of the raw gradient.
+public class Momentum implements Optimizer {
+
+    //<editor-fold desc="Fields of Momentum">
+    private final double beta;
+
+    private final Map<Tensor, double[]> velocities = new WeakHashMap<Tensor, double[]>();
+    //</editor-fold>
+
+    //<editor-fold desc="Momentum Constructors">
+    // REQUIRES: nothing
+    // MODIFIES: this
+    // EFFECTS: create a momentum optimizer with beta = 0.9
+    public Momentum() {
+        this(0.9);
+    }
+
+    // REQUIRES: 0 <= beta < 1
+    // MODIFIES: this
+    // EFFECTS: create a momentum optimizer with the given decay of the velocity
+    public Momentum(double beta) {
+        this.beta = beta;
+    }
+    //</editor-fold>
+
+    // REQUIRES: parameters.hasGrad()
+    // MODIFIES: parameters, this
+    // EFFECTS: set the velocity v of every element of parameters to beta * v + gradient, subtract learningRate * v
+    // from the element, then reset the gradient to 0
+    @Override
+    public void update(Tensor parameters, double learningRate) {
+        double[] velocity = velocities.computeIfAbsent(parameters, t -> new double[t.getSize()]);
+        double[] grad = parameters.getGrad();
+        int offset = parameters.getOffset();
+        for (int i = 0; i < velocity.length; i++) {
+            velocity[i] = beta * velocity[i] + grad[offset + i];
+            parameters.setFlat(i, parameters.getFlat(i) - learningRate * velocity[i]);
+            grad[offset + i] = 0;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package model.optimizer;
+
+import model.tensor.Tensor;
+
+// An Optimizer turns the gradient accumulated in the parameters of a network into an update of those parameters.
+// Optimizers that keep state between steps (velocities, moment estimates) keep it per parameter Tensor, in primitive
+// arrays laid out like the Tensor, so that each update is one pass over the parameters, their gradient and the state.
+public interface Optimizer {
+
+    // REQUIRES: parameters.hasGrad(), learningRate > 0
+    // MODIFIES: parameters, this
+    // EFFECTS: update every element of parameters using its gradient and the given learning rate, then reset the
+    // gradient to 0
+    void update(Tensor parameters, double learningRate);
+}
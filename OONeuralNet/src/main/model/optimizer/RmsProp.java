@@ -0,0 +1,53 @@
+package model.optimizer;
+
+import model.tensor.Tensor;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+// RMSProp: each parameter keeps a moving average of its squared gradient, and its step is the gradient divided by
+// the square root of that average, so that every parameter moves at a similar rate regardless of its gradient scale.
+public class RmsProp implements Optimizer {
+
+    //<editor-fold desc="Fields of RmsProp">
+    private final double decay;
+
+    private final double epsilon;
+
+    private final Map<Tensor, double[]> averages = new WeakHashMap<Tensor, double[]>();
+    //</editor-fold>
+
+    //<editor-fold desc="RmsProp Constructors">
+    // REQUIRES: nothing
+    // MODIFIES: this
+    // EFFECTS: create an RMSProp optimizer with decay = 0.9 and epsilon = 1e-8
+    public RmsProp() {
+        this(0.9, 1e-8);
+    }
+
+    // REQUIRES: 0 <= decay < 1, epsilon > 0
+    // MODIFIES: this
+    // EFFECTS: create an RMSProp optimizer with the given decay of the average and epsilon added to its root
+    public RmsProp(double decay, double epsilon) {
+        this.decay = decay;
+        this.epsilon = epsilon;
+    }
+    //</editor-fold>
+
+    // REQUIRES: parameters.hasGrad()
+    // MODIFIES: parameters, this
+    // EFFECTS: set the average s of every element of parameters to decay * s + (1 - decay) * gradient^2, subtract
+    // learningRate * gradient / (sqrt(s) + epsilon) from the element, then reset the gradient to 0
+    @Override
+    public void update(Tensor parameters, double learningRate) {
+        double[] average = averages.computeIfAbsent(parameters, t -> new double[t.getSize()]);
+        double[] grad = parameters.getGrad();
+        int offset = parameters.getOffset();
+        for (int i = 0; i < average.length; i++) {
+            double g = grad[offset + i];
+            average[i] = decay * average[i] + (1 - decay) * g * g;
+            parameters.setFlat(i, parameters.getFlat(i) - learningRate * g / (Math.sqrt(average[i]) + epsilon));
+            grad[offset + i] = 0;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package model.optimizer;
+
+import model.tensor.Tensor;
+
+// Plain stochastic gradient descent: every parameter moves against its gradient, scaled by the learning rate. It
+// keeps no state, so a single instance can be shared by any number of networks.
+public class Sgd implements Optimizer {
+
+    // REQUIRES: parameters.hasGrad()
+    // MODIFIES: parameters
+    // EFFECTS: subtract learningRate * gradient from every element of parameters, then reset the gradient to 0
+    @Override
+    public void update(Tensor parameters, double learningRate) {
+        parameters.gradientDescent(learningRate);
+    }
+}
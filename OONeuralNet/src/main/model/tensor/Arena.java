@@ -0,0 +1,88 @@
+package model.tensor;
+
+import java.util.Arrays;
+
+// An Arena hands out Tensors carved one after the other from a single block of doubles, for buffers that live for
+// one step (one batch through a network). Allocating moves a cursor forward and reset moves it back, so the same
+// memory serves every step. The Tensor objects are kept too: after a reset, a request for the same shape at the same
+// position returns the Tensor handed out there before, so a step that repeats the allocations of the previous one
+// creates no object at all. The block grows when a step needs more than it holds, which only costs an allocation
+// until the arena has seen its largest step.
+public class Arena {
+
+    //<editor-fold desc="Fields of Arena">
+    private double[] block;
+
+    private Tensor whole;
+
+    private int used = 0;
+
+    private Tensor[] tensors = new Tensor[16];
+
+    private int count = 0;
+    //</editor-fold>
+
+    //<editor-fold desc="Arena Constructors">
+    // REQUIRES: capacity >= 1
+    // MODIFIES: this
+    // EFFECTS: create an empty arena holding capacity doubles before it needs to grow
+    public Arena(int capacity) {
+        setBlock(new double[capacity]);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for Arena">
+    // EFFECTS: return the number of doubles the arena holds before it needs to grow
+    public int getCapacity() {
+        return block.length;
+    }
+
+    // EFFECTS: return the number of doubles handed out since the last reset
+    public int getUsed() {
+        return used;
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: this
+    // EFFECTS: make all the memory of the arena available again. Tensors handed out before are not valid anymore,
+    // since their elements will be handed out again
+    public void reset() {
+        used = 0;
+        count = 0;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Allocation">
+    // REQUIRES: rows >= 1, cols >= 1
+    // MODIFIES: this
+    // EFFECTS: return a constant rows x cols Tensor over memory of this arena that is not handed out since the last
+    // reset, reusing the Tensor handed out at the same point of the previous step if it has the same shape. Its
+    // elements hold whatever was last written there, so the caller must set all of them
+    public Tensor allocate(int rows, int cols) {
+        int size = rows * cols;
+        if (used + size > block.length) {
+            setBlock(new double[Math.max(2 * block.length, used + size)]);
+        }
+        if (count == tensors.length) {
+            tensors = Arrays.copyOf(tensors, 2 * count);
+        }
+        Tensor tensor = tensors[count];
+        if (tensor == null || tensor.getData() != block || tensor.getOffset() != used || tensor.getRank() != 2
+                || tensor.getDimRow() != rows || tensor.getDimCol() != cols) {
+            tensor = whole.view(used, rows, cols);
+            tensors[count] = tensor;
+        }
+        count++;
+        used += size;
+        return tensor;
+    }
+    //</editor-fold>
+
+    // MODIFIES: this
+    // EFFECTS: hand out memory from block from now on
+    private void setBlock(double[] block) {
+        this.block = block;
+        whole = new Tensor(block, block.length);
+    }
+
+}
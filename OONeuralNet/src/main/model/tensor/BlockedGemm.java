@@ -0,0 +1,246 @@
+package model.tensor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// A BlockedGemm adds op(a) * op(b) to c for shapes large enough to be worth the bookkeeping. The product is split
+// into blocks that fit in the caches: a panel of op(b) of KC rows and NC columns is copied ("packed") into a
+// contiguous buffer, then for each block of MC rows of op(a), the block is packed as well and multiplied with the
+// panel, MR x NR elements of c at a time, keeping those elements in registers while the KC products are summed.
+// Packing also removes the difference between transposed and plain operands, so all variants share one inner loop.
+// Large products are split across row blocks on a fork-join pool; each task packs into its own buffers. A single b
+// is widened to double while it is packed, so the inner loop is the same for both precisions.
+class BlockedGemm {
+
+    //<editor-fold desc="Fields of BlockedGemm">
+    static final int MR = 2;
+    static final int NR = 4;
+    static final int MC = 64;
+    static final int KC = 256;
+    static final int NC = 512;
+
+    // The number of multiply-adds from which a product is split across threads
+    static final long PARALLEL_THRESHOLD = 1L << 21;
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private final double[] ad;
+    private final int aOffset;
+    private final int strideAi;
+    private final int strideAp;
+    private final double[] bd;
+    private final float[] bs;
+    private final int bOffset;
+    private final int strideBp;
+    private final int strideBj;
+    private final double[] cd;
+    private final int cOffset;
+    private final int m;
+    private final int n;
+    private final int k;
+    //</editor-fold>
+
+    // REQUIRES: op(a) is m x k and op(b) is k x n, where op(t) is t transposed if the corresponding flag is set,
+    // and c is m x n, a and c are not single
+    // MODIFIES: this
+    // EFFECTS: create the product of op(a) and op(b) into c
+    BlockedGemm(Tensor a, boolean transA, Tensor b, boolean transB, Tensor c) {
+        ad = a.getData();
+        aOffset = a.getOffset();
+        strideAi = transA ? 1 : a.getDimCol();
+        strideAp = transA ? a.getDimCol() : 1;
+        bd = b.getData();
+        bs = b.getSingleData();
+        bOffset = b.getOffset();
+        strideBp = transB ? 1 : b.getDimCol();
+        strideBj = transB ? b.getDimCol() : 1;
+        cd = c.getData();
+        cOffset = c.getOffset();
+        m = c.getDimRow();
+        n = c.getDimCol();
+        k = transA ? a.getDimRow() : a.getDimCol();
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: c
+    // EFFECTS: add op(a) * op(b) to c, on several threads if the product is large enough and there is more than one
+    // block of rows
+    void run() {
+        if ((long) m * n * k >= PARALLEL_THRESHOLD && m > MC && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            new RowBlocks(this, 0, m).invoke();
+        } else {
+            multiply(0, m);
+        }
+    }
+
+    // REQUIRES: 0 <= rowFrom <= rowTo <= m
+    // MODIFIES: c
+    // EFFECTS: add rows rowFrom..rowTo of op(a) * op(b) to the same rows of c, one packed block at a time
+    private void multiply(int rowFrom, int rowTo) {
+        Workspace workspace = WORKSPACE.get();
+        for (int jc = 0; jc < n; jc += NC) {
+            int nc = Math.min(NC, n - jc);
+            for (int pc = 0; pc < k; pc += KC) {
+                int kc = Math.min(KC, k - pc);
+                double[] packedB = workspace.packedB(roundUp(nc, NR) * kc);
+                packB(pc, kc, jc, nc, packedB);
+                for (int ic = rowFrom; ic < rowTo; ic += MC) {
+                    int mc = Math.min(MC, rowTo - ic);
+                    double[] packedA = workspace.packedA(roundUp(mc, MR) * kc);
+                    packA(ic, mc, pc, kc, packedA);
+                    multiplyBlock(packedA, packedB, ic, mc, jc, nc, kc, workspace.tile);
+                }
+            }
+        }
+    }
+
+    // REQUIRES: packedA holds the block of op(a) at rows ic..ic + mc and packedB the panel of op(b) at columns
+    // jc..jc + nc, both over kc elements of the shared dimension, tile has MR * NR elements
+    // MODIFIES: c, tile
+    // EFFECTS: add the product of the packed block and panel to the mc x nc block of c at row ic and column jc
+    private void multiplyBlock(double[] packedA, double[] packedB, int ic, int mc, int jc, int nc, int kc,
+                               double[] tile) {
+        for (int jr = 0; jr < nc; jr += NR) {
+            int cols = Math.min(NR, nc - jr);
+            for (int ir = 0; ir < mc; ir += MR) {
+                int rows = Math.min(MR, mc - ir);
+                multiplyTile(packedA, ir * kc, packedB, jr * kc, kc, tile);
+                for (int r = 0; r < rows; r++) {
+                    int ci = cOffset + (ic + ir + r) * n + jc + jr;
+                    for (int j = 0; j < cols; j++) {
+                        cd[ci + j] += tile[r * NR + j];
+                    }
+                }
+            }
+        }
+    }
+
+    // REQUIRES: packedA holds kc columns of MR rows from aFrom, packedB holds kc rows of NR columns from bFrom,
+    // tile has MR * NR elements
+    // MODIFIES: tile
+    // EFFECTS: set tile to the MR x NR product of the two packed slivers. The eight sums are kept in local variables
+    // so that the JIT compiler can hold them in registers for the whole loop
+    @SuppressWarnings("methodlength")
+    private static void multiplyTile(double[] packedA, int aFrom, double[] packedB, int bFrom, int kc,
+                                     double[] tile) {
+        double c00 = 0;
+        double c01 = 0;
+        double c02 = 0;
+        double c03 = 0;
+        double c10 = 0;
+        double c11 = 0;
+        double c12 = 0;
+        double c13 = 0;
+        for (int p = 0; p < kc; p++) {
+            double a0 = packedA[aFrom + MR * p];
+            double a1 = packedA[aFrom + MR * p + 1];
+            int bp = bFrom + NR * p;
+            double b0 = packedB[bp];
+            double b1 = packedB[bp + 1];
+            double b2 = packedB[bp + 2];
+            double b3 = packedB[bp + 3];
+            c00 += a0 * b0;
+            c01 += a0 * b1;
+            c02 += a0 * b2;
+            c03 += a0 * b3;
+            c10 += a1 * b0;
+            c11 += a1 * b1;
+            c12 += a1 * b2;
+            c13 += a1 * b3;
+        }
+        tile[0] = c00;
+        tile[1] = c01;
+        tile[2] = c02;
+        tile[3] = c03;
+        tile[4] = c10;
+        tile[5] = c11;
+        tile[6] = c12;
+        tile[7] = c13;
+    }
+
+    // REQUIRES: packed has room for roundUp(mc, MR) * kc elements
+    // MODIFIES: packed
+    // EFFECTS: copy the mc x kc block of op(a) at row ic and column pc into packed as slivers of MR rows, each
+    // stored column by column, padding the last sliver with zeros
+    private void packA(int ic, int mc, int pc, int kc, double[] packed) {
+        int position = 0;
+        for (int ir = 0; ir < mc; ir += MR) {
+            for (int p = 0; p < kc; p++) {
+                int ap = aOffset + (pc + p) * strideAp;
+                for (int r = ir; r < ir + MR; r++) {
+                    packed[position++] = r < mc ? ad[ap + (ic + r) * strideAi] : 0;
+                }
+            }
+        }
+    }
+
+    // REQUIRES: packed has room for roundUp(nc, NR) * kc elements
+    // MODIFIES: packed
+    // EFFECTS: copy the kc x nc panel of op(b) at row pc and column jc into packed as slivers of NR columns, each
+    // stored row by row, padding the last sliver with zeros
+    private void packB(int pc, int kc, int jc, int nc, double[] packed) {
+        int next = 0;
+        for (int jr = 0; jr < nc; jr += NR) {
+            for (int p = 0; p < kc; p++) {
+                int bp = bOffset + (pc + p) * strideBp;
+                for (int j = jr; j < jr + NR; j++) {
+                    int position = bp + (jc + j) * strideBj;
+                    packed[next++] = j >= nc ? 0 : bd != null ? bd[position] : bs[position];
+                }
+            }
+        }
+    }
+
+    // EFFECTS: return the smallest multiple of multiple that is not less than value
+    private static int roundUp(int value, int multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+
+    // The product of a range of rows, split in two halves on boundaries of MC rows until a single block is left
+    private static class RowBlocks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient BlockedGemm product;
+        private final int from;
+        private final int to;
+
+        RowBlocks(BlockedGemm product, int from, int to) {
+            this.product = product;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MC) {
+                product.multiply(from, to);
+                return;
+            }
+            int middle = from + Math.max(1, (to - from) / (2 * MC)) * MC;
+            invokeAll(new RowBlocks(product, from, middle), new RowBlocks(product, middle, to));
+        }
+    }
+
+    // The packing buffers of one thread, grown as needed and reused by every product computed on that thread
+    private static class Workspace {
+        private double[] packedA = new double[0];
+        private double[] packedB = new double[0];
+        private final double[] tile = new double[MR * NR];
+
+        // EFFECTS: return the buffer for blocks of op(a), with at least size elements
+        double[] packedA(int size) {
+            if (packedA.length < size) {
+                packedA = new double[size];
+            }
+            return packedA;
+        }
+
+        // EFFECTS: return the buffer for panels of op(b), with at least size elements
+        double[] packedB(int size) {
+            if (packedB.length < size) {
+                packedB = new double[size];
+            }
+            return packedB;
+        }
+    }
+}
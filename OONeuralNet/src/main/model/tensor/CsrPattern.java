@@ -0,0 +1,141 @@
+package model.tensor;
+
+import java.util.Arrays;
+
+// A CsrPattern describes which elements of a rows x cols matrix are present in a sparse matrix, in compressed sparse
+// row form: the elements present in row r are at the columns getColumn(e) for getRowStart(r) <= e <
+// getRowStart(r + 1), in increasing order. The values themselves are kept apart, as a Tensor of getSize() elements
+// in the same order, so one pattern serves the values, their gradient and any optimizer state, and every operation
+// on the sparse matrix costs time and memory in proportion to the elements present rather than rows x cols.
+public class CsrPattern {
+
+    //<editor-fold desc="Fields of CsrPattern">
+    private final int cols;
+    private final int[] rowStart;
+    private final int[] columns;
+    //</editor-fold>
+
+    //<editor-fold desc="CsrPattern Constructors">
+    // REQUIRES: rowStart[0] == 0, rowStart is increasing, rowStart[rowStart.length - 1] == columns.length, the
+    // columns of each row are increasing and in [0, cols)
+    // MODIFIES: this
+    // EFFECTS: create a pattern with rowStart.length - 1 rows and cols columns (no copy of the arrays is made)
+    public CsrPattern(int cols, int[] rowStart, int[] columns) {
+        this.cols = cols;
+        this.rowStart = rowStart;
+        this.columns = columns;
+    }
+
+    // REQUIRES: rows >= 1, cols >= 1
+    // MODIFIES: nothing
+    // EFFECTS: return the pattern in which every element of a rows x cols matrix is present
+    public static CsrPattern dense(int rows, int cols) {
+        return local(rows, cols, cols);
+    }
+
+    // REQUIRES: rows >= 1, cols >= 1, width >= 1
+    // MODIFIES: nothing
+    // EFFECTS: return the pattern of a locally connected rows x cols matrix, in which row r holds the min(width,
+    // cols) consecutive columns centred (as far as the edges allow) on the column at the same relative position
+    public static CsrPattern local(int rows, int cols, int width) {
+        int count = Math.min(width, cols);
+        int[] rowStart = new int[rows + 1];
+        int[] columns = new int[rows * count];
+        for (int r = 0; r < rows; r++) {
+            int centre = (int) ((r + 0.5) * cols / rows);
+            int from = Math.max(0, Math.min(cols - count, centre - count / 2));
+            for (int e = 0; e < count; e++) {
+                columns[r * count + e] = from + e;
+            }
+            rowStart[r + 1] = (r + 1) * count;
+        }
+        return new CsrPattern(cols, rowStart, columns);
+    }
+
+    // REQUIRES: matrix is rows x cols with rows >= 1 and cols >= 1
+    // MODIFIES: nothing
+    // EFFECTS: return the pattern of the elements of matrix whose magnitude is at least threshold. A row in which
+    // no element reaches threshold keeps its largest element, so that every row holds at least one element
+    public static CsrPattern prune(Tensor matrix, double threshold) {
+        int rows = matrix.getDimRow();
+        int[] rowStart = new int[rows + 1];
+        int[] columns = new int[matrix.getSize()];
+        int size = 0;
+        for (int r = 0; r < rows; r++) {
+            int largest = 0;
+            for (int c = 0; c < matrix.getDimCol(); c++) {
+                double magnitude = Math.abs(matrix.get(r, c));
+                if (magnitude >= threshold) {
+                    columns[size++] = c;
+                }
+                largest = magnitude > Math.abs(matrix.get(r, largest)) ? c : largest;
+            }
+            if (size == rowStart[r]) {
+                columns[size++] = largest;
+            }
+            rowStart[r + 1] = size;
+        }
+        return new CsrPattern(matrix.getDimCol(), rowStart, Arrays.copyOf(columns, size));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for CsrPattern">
+    public int getRows() {
+        return rowStart.length - 1;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    // EFFECTS: return the number of elements present
+    public int getSize() {
+        return columns.length;
+    }
+
+    // REQUIRES: 0 <= r <= getRows()
+    // EFFECTS: return the position of the first element of row r among the elements present (getSize() if r is
+    // getRows())
+    public int getRowStart(int r) {
+        return rowStart[r];
+    }
+
+    // REQUIRES: 0 <= r < getRows()
+    // EFFECTS: return the number of elements present in row r
+    public int getRowLength(int r) {
+        return rowStart[r + 1] - rowStart[r];
+    }
+
+    // REQUIRES: 0 <= e < getSize()
+    // EFFECTS: return the column of the eth element present
+    public int getColumn(int e) {
+        return columns[e];
+    }
+    //</editor-fold>
+
+    // REQUIRES: matrix is getRows() x getCols()
+    // MODIFIES: nothing
+    // EFFECTS: return a new variable 1 x getSize() Tensor holding the elements of matrix present in this pattern
+    public Tensor gather(Tensor matrix) {
+        Tensor values = Tensor.variable(1, getSize());
+        for (int r = 0; r < getRows(); r++) {
+            for (int e = rowStart[r]; e < rowStart[r + 1]; e++) {
+                values.setFlat(e, matrix.get(r, columns[e]));
+            }
+        }
+        return values;
+    }
+
+    // REQUIRES: values has getSize() elements
+    // MODIFIES: nothing
+    // EFFECTS: return a new getRows() x getCols() Tensor with values at the elements present and 0 elsewhere
+    public Tensor scatter(Tensor values) {
+        Tensor matrix = new Tensor(getRows(), cols);
+        for (int r = 0; r < getRows(); r++) {
+            for (int e = rowStart[r]; e < rowStart[r + 1]; e++) {
+                matrix.set(r, columns[e], values.getFlat(e));
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,244 @@
+package model.tensor;
+
+// The implementations of the innermost loops shared by the kernels of the Kernels class, selected once when that
+// class is loaded. SCALAR is the plain loop with one running sum, kept as a reference. UNROLLED processes four
+// elements per iteration into independent sums, which breaks the dependency between consecutive additions and lets
+// the JIT compiler issue them as SIMD instructions on any JVM that supports the language level of this project.
+public enum KernelBackend {
+    SCALAR {
+        @Override
+        public double dot(double[] x, int xo, double[] y, int yo, int n) {
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += x[xo + i] * y[yo + i];
+            }
+            return sum;
+        }
+
+        @Override
+        public float dot(float[] x, int xo, float[] y, int yo, int n) {
+            float sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += x[xo + i] * y[yo + i];
+            }
+            return sum;
+        }
+
+        @Override
+        public double dot(float[] x, int xo, double[] y, int yo, int n) {
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += x[xo + i] * y[yo + i];
+            }
+            return sum;
+        }
+
+        @Override
+        public int dot(byte[] x, int xo, byte[] y, int yo, int n) {
+            int sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += x[xo + i] * y[yo + i];
+            }
+            return sum;
+        }
+
+        @Override
+        public double dotMixed(float[] x, int xo, float[] y, int yo, int n) {
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += (double) x[xo + i] * y[yo + i];
+            }
+            return sum;
+        }
+
+        @Override
+        public void axpy(double alpha, double[] x, int xo, double[] y, int yo, int n) {
+            for (int i = 0; i < n; i++) {
+                y[yo + i] += alpha * x[xo + i];
+            }
+        }
+
+        @Override
+        public void axpy(double alpha, float[] x, int xo, double[] y, int yo, int n) {
+            for (int i = 0; i < n; i++) {
+                y[yo + i] += alpha * x[xo + i];
+            }
+        }
+    },
+    UNROLLED {
+        @Override
+        public double dot(double[] x, int xo, double[] y, int yo, int n) {
+            double sum0 = 0;
+            double sum1 = 0;
+            double sum2 = 0;
+            double sum3 = 0;
+            int i = 0;
+            for (; i <= n - 4; i += 4) {
+                sum0 += x[xo + i] * y[yo + i];
+                sum1 += x[xo + i + 1] * y[yo + i + 1];
+                sum2 += x[xo + i + 2] * y[yo + i + 2];
+                sum3 += x[xo + i + 3] * y[yo + i + 3];
+            }
+            for (; i < n; i++) {
+                sum0 += x[xo + i] * y[yo + i];
+            }
+            return (sum0 + sum1) + (sum2 + sum3);
+        }
+
+        @Override
+        public float dot(float[] x, int xo, float[] y, int yo, int n) {
+            float sum0 = 0;
+            float sum1 = 0;
+            float sum2 = 0;
+            float sum3 = 0;
+            int i = 0;
+            for (; i <= n - 4; i += 4) {
+                sum0 += x[xo + i] * y[yo + i];
+                sum1 += x[xo + i + 1] * y[yo + i + 1];
+                sum2 += x[xo + i + 2] * y[yo + i + 2];
+                sum3 += x[xo + i + 3] * y[yo + i + 3];
+            }
+            for (; i < n; i++) {
+                sum0 += x[xo + i] * y[yo + i];
+            }
+            return (sum0 + sum1) + (sum2 + sum3);
+        }
+
+        @Override
+        public double dot(float[] x, int xo, double[] y, int yo, int n) {
+            double sum0 = 0;
+            double sum1 = 0;
+            double sum2 = 0;
+            double sum3 = 0;
+            int i = 0;
+            for (; i <= n - 4; i += 4) {
+                sum0 += x[xo + i] * y[yo + i];
+                sum1 += x[xo + i + 1] * y[yo + i + 1];
+                sum2 += x[xo + i + 2] * y[yo + i + 2];
+                sum3 += x[xo + i + 3] * y[yo + i + 3];
+            }
+            for (; i < n; i++) {
+                sum0 += x[xo + i] * y[yo + i];
+            }
+            return (sum0 + sum1) + (sum2 + sum3);
+        }
+
+        @Override
+        public int dot(byte[] x, int xo, byte[] y, int yo, int n) {
+            int sum0 = 0;
+            int sum1 = 0;
+            int sum2 = 0;
+            int sum3 = 0;
+            int i = 0;
+            for (; i <= n - 4; i += 4) {
+                sum0 += x[xo + i] * y[yo + i];
+                sum1 += x[xo + i + 1] * y[yo + i + 1];
+                sum2 += x[xo + i + 2] * y[yo + i + 2];
+                sum3 += x[xo + i + 3] * y[yo + i + 3];
+            }
+            for (; i < n; i++) {
+                sum0 += x[xo + i] * y[yo + i];
+            }
+            return sum0 + sum1 + sum2 + sum3;
+        }
+
+        @Override
+        public double dotMixed(float[] x, int xo, float[] y, int yo, int n) {
+            double sum0 = 0;
+            double sum1 = 0;
+            double sum2 = 0;
+            double sum3 = 0;
+            int i = 0;
+            for (; i <= n - 4; i += 4) {
+                sum0 += (double) x[xo + i] * y[yo + i];
+                sum1 += (double) x[xo + i + 1] * y[yo + i + 1];
+                sum2 += (double) x[xo + i + 2] * y[yo + i + 2];
+                sum3 += (double) x[xo + i + 3] * y[yo + i + 3];
+            }
+            for (; i < n; i++) {
+                sum0 += (double) x[xo + i] * y[yo + i];
+            }
+            return (sum0 + sum1) + (sum2 + sum3);
+        }
+
+        @Override
+        public void axpy(double alpha, double[] x, int xo, double[] y, int yo, int n) {
+            int i = 0;
+            for (; i <= n - 4; i += 4) {
+                y[yo + i] += alpha * x[xo + i];
+                y[yo + i + 1] += alpha * x[xo + i + 1];
+                y[yo + i + 2] += alpha * x[xo + i + 2];
+                y[yo + i + 3] += alpha * x[xo + i + 3];
+            }
+            for (; i < n; i++) {
+                y[yo + i] += alpha * x[xo + i];
+            }
+        }
+
+        @Override
+        public void axpy(double alpha, float[] x, int xo, double[] y, int yo, int n) {
+            int i = 0;
+            for (; i <= n - 4; i += 4) {
+                y[yo + i] += alpha * x[xo + i];
+                y[yo + i + 1] += alpha * x[xo + i + 1];
+                y[yo + i + 2] += alpha * x[xo + i + 2];
+                y[yo + i + 3] += alpha * x[xo + i + 3];
+            }
+            for (; i < n; i++) {
+                y[yo + i] += alpha * x[xo + i];
+            }
+        }
+    };
+
+    // The system property that forces a backend by name (case insensitive), e.g. -Dooneuralnet.kernels=scalar
+    public static final String PROPERTY = "ooneuralnet.kernels";
+
+    // REQUIRES: x has n elements from xo, y has n elements from yo
+    // MODIFIES: nothing
+    // EFFECTS: return the dot product of x[xo..xo + n) and y[yo..yo + n)
+    public abstract double dot(double[] x, int xo, double[] y, int yo, int n);
+
+    // REQUIRES: x has n elements from xo, y has n elements from yo
+    // MODIFIES: nothing
+    // EFFECTS: return the dot product of x[xo..xo + n) and y[yo..yo + n), accumulated in float
+    public abstract float dot(float[] x, int xo, float[] y, int yo, int n);
+
+    // REQUIRES: x has n elements from xo, y has n elements from yo
+    // MODIFIES: nothing
+    // EFFECTS: return the dot product of x[xo..xo + n) and y[yo..yo + n), with every product and sum in double
+    public abstract double dot(float[] x, int xo, double[] y, int yo, int n);
+
+    // REQUIRES: x has n elements from xo, y has n elements from yo, n <= 2^17 so that the sum cannot overflow
+    // MODIFIES: nothing
+    // EFFECTS: return the dot product of x[xo..xo + n) and y[yo..yo + n), accumulated in int
+    public abstract int dot(byte[] x, int xo, byte[] y, int yo, int n);
+
+    // REQUIRES: x has n elements from xo, y has n elements from yo
+    // MODIFIES: nothing
+    // EFFECTS: return the dot product of x[xo..xo + n) and y[yo..yo + n), with every product and sum in double
+    public abstract double dotMixed(float[] x, int xo, float[] y, int yo, int n);
+
+    // REQUIRES: x has n elements from xo, y has n elements from yo
+    // MODIFIES: y
+    // EFFECTS: add alpha * x[xo + i] to y[yo + i] for every 0 <= i < n
+    public abstract void axpy(double alpha, double[] x, int xo, double[] y, int yo, int n);
+
+    // REQUIRES: x has n elements from xo, y has n elements from yo
+    // MODIFIES: y
+    // EFFECTS: add alpha * x[xo + i] to y[yo + i] for every 0 <= i < n, in double
+    public abstract void axpy(double alpha, float[] x, int xo, double[] y, int yo, int n);
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the backend named by the system property PROPERTY, or UNROLLED if it is not set or names no
+    // backend
+    public static KernelBackend select() {
+        String name = System.getProperty(PROPERTY);
+        for (KernelBackend backend : values()) {
+            if (backend.name().equalsIgnoreCase(name)) {
+                return backend;
+            }
+        }
+        return UNROLLED;
+    }
+}
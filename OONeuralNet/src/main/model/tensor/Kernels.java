@@ -0,0 +1,223 @@
+package model.tensor;
+
+// A class with only static methods implementing the linear algebra kernels used on dense Tensors. All Tensors passed
+// to these methods are assumed to be contiguous and row-major, which is the case for every Tensor and view created
+// by the Tensor class. Weights may be single (see Tensor.toSingle): the operand that can hold weights is read from
+// its float array and widened to double, while every other operand and every sum stays in double.
+public class Kernels {
+
+    // The number of multiply-adds from which gemm switches to the cache-blocked implementation
+    public static final long BLOCKED_THRESHOLD = 1L << 15;
+
+    private static final KernelBackend BACKEND = KernelBackend.select();
+
+    // EFFECTS: return the backend implementing the inner loops of these kernels, chosen when this class is loaded
+    public static KernelBackend getBackend() {
+        return BACKEND;
+    }
+
+    // REQUIRES: x and y have the same number of elements, at most one of them is single
+    // EFFECTS: return the dot product of x and y
+    public static double dot(Tensor x, Tensor y) {
+        if (x.isSingle()) {
+            return BACKEND.dot(x.getSingleData(), x.getOffset(), y.getData(), y.getOffset(), x.getSize());
+        } else if (y.isSingle()) {
+            return BACKEND.dot(y.getSingleData(), y.getOffset(), x.getData(), x.getOffset(), x.getSize());
+        }
+        return BACKEND.dot(x.getData(), x.getOffset(), y.getData(), y.getOffset(), x.getSize());
+    }
+
+    // REQUIRES: x and y have the same number of elements, y is not single
+    // MODIFIES: y
+    // EFFECTS: add alpha * x to y, element by element
+    public static void axpy(double alpha, Tensor x, Tensor y) {
+        if (x.isSingle()) {
+            BACKEND.axpy(alpha, x.getSingleData(), x.getOffset(), y.getData(), y.getOffset(), x.getSize());
+        } else {
+            BACKEND.axpy(alpha, x.getData(), x.getOffset(), y.getData(), y.getOffset(), x.getSize());
+        }
+    }
+
+    // REQUIRES: a is m x k, x has k elements, y has m elements, x and y are not single
+    // MODIFIES: y
+    // EFFECTS: set y to the matrix-vector product a * x
+    public static void gemv(Tensor a, Tensor x, Tensor y) {
+        int cols = a.getDimCol();
+        double[] yd = y.getData();
+        for (int i = 0; i < a.getDimRow(); i++) {
+            int ai = a.getOffset() + i * cols;
+            yd[y.getOffset() + i] = a.isSingle()
+                    ? BACKEND.dot(a.getSingleData(), ai, x.getData(), x.getOffset(), cols)
+                    : BACKEND.dot(a.getData(), ai, x.getData(), x.getOffset(), cols);
+        }
+    }
+
+    // REQUIRES: op(a) is m x k and op(b) is k x n, where op(t) is t transposed if the corresponding flag is set,
+    // and c is m x n, a and c are not single
+    // MODIFIES: c
+    // EFFECTS: set c to op(a) * op(b), or add op(a) * op(b) to c if accumulate is true. Products of at least
+    // BLOCKED_THRESHOLD multiply-adds are cache-blocked and register-tiled (see BlockedGemm), and the largest ones
+    // run on several threads. Smaller ones order their loops so that the innermost one walks contiguous memory
+    // whenever b is not transposed (a row of c gathers scaled rows of b) or only b is (each element of c is the dot
+    // product of two rows)
+    public static void gemm(Tensor a, boolean transA, Tensor b, boolean transB, Tensor c, boolean accumulate) {
+        if (!accumulate) {
+            c.fill(0);
+        }
+        int k = transA ? a.getDimRow() : a.getDimCol();
+        if ((long) c.getDimRow() * c.getDimCol() * k >= BLOCKED_THRESHOLD && c.getDimRow() >= BlockedGemm.MR
+                && c.getDimCol() >= BlockedGemm.NR) {
+            new BlockedGemm(a, transA, b, transB, c).run();
+        } else if (!transB) {
+            gemmRows(a, transA, b, c);
+        } else if (!transA) {
+            gemmDots(a, b, c);
+        } else {
+            gemmStrided(a, b, c);
+        }
+    }
+
+    // REQUIRES: op(a) is m x k, b is k x n, c is m x n
+    // MODIFIES: c
+    // EFFECTS: add op(a) * b to c, as each row of c plus the rows of b scaled by the elements of a row of op(a)
+    private static void gemmRows(Tensor a, boolean transA, Tensor b, Tensor c) {
+        int m = c.getDimRow();
+        int n = c.getDimCol();
+        int k = b.getDimRow();
+        int strideAi = transA ? 1 : a.getDimCol();
+        int strideAp = transA ? a.getDimCol() : 1;
+        double[] ad = a.getData();
+        for (int i = 0; i < m; i++) {
+            int ai = a.getOffset() + i * strideAi;
+            for (int p = 0; p < k; p++) {
+                int bp = b.getOffset() + p * n;
+                if (b.isSingle()) {
+                    BACKEND.axpy(ad[ai + p * strideAp], b.getSingleData(), bp, c.getData(), c.getOffset() + i * n, n);
+                } else {
+                    BACKEND.axpy(ad[ai + p * strideAp], b.getData(), bp, c.getData(), c.getOffset() + i * n, n);
+                }
+            }
+        }
+    }
+
+    // REQUIRES: a is m x k, b is n x k, c is m x n
+    // MODIFIES: c
+    // EFFECTS: add a * b^T to c, each element being the dot product of a row of a and a row of b
+    private static void gemmDots(Tensor a, Tensor b, Tensor c) {
+        int n = c.getDimCol();
+        int k = a.getDimCol();
+        double[] cd = c.getData();
+        for (int i = 0; i < c.getDimRow(); i++) {
+            int ai = a.getOffset() + i * k;
+            for (int j = 0; j < n; j++) {
+                int bj = b.getOffset() + j * k;
+                cd[c.getOffset() + i * n + j] += b.isSingle()
+                        ? BACKEND.dot(b.getSingleData(), bj, a.getData(), ai, k)
+                        : BACKEND.dot(a.getData(), ai, b.getData(), bj, k);
+            }
+        }
+    }
+
+    // REQUIRES: a is k x m, b is n x k, c is m x n
+    // MODIFIES: c
+    // EFFECTS: add a^T * b^T to c, walking both a and b with a stride
+    private static void gemmStrided(Tensor a, Tensor b, Tensor c) {
+        int m = c.getDimRow();
+        int n = c.getDimCol();
+        int k = a.getDimRow();
+        double[] ad = a.getData();
+        double[] cd = c.getData();
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int p = 0; p < k; p++) {
+                    sum += ad[a.getOffset() + p * m + i] * b.getAt(b.getOffset() + j * k + p);
+                }
+                cd[c.getOffset() + i * n + j] += sum;
+            }
+        }
+    }
+
+    // REQUIRES: input is m x pattern.getCols(), values has pattern.getSize() elements, output is
+    // m x pattern.getRows(), input and output are not single
+    // MODIFIES: output
+    // EFFECTS: set output to input * w^T, where w is the sparse matrix with the given pattern and values. Only the
+    // elements present in w are visited
+    public static void csrGemm(Tensor input, CsrPattern pattern, Tensor values, Tensor output) {
+        int k = pattern.getCols();
+        int n = pattern.getRows();
+        double[] id = input.getData();
+        double[] od = output.getData();
+        for (int i = 0; i < input.getDimRow(); i++) {
+            int row = input.getOffset() + i * k;
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int e = pattern.getRowStart(j); e < pattern.getRowStart(j + 1); e++) {
+                    sum += values.getAt(values.getOffset() + e) * id[row + pattern.getColumn(e)];
+                }
+                od[output.getOffset() + i * n + j] = sum;
+            }
+        }
+    }
+
+    // REQUIRES: input, pattern and values as for csrGemm, gradOutput is m x pattern.getRows(), gradValues has
+    // pattern.getSize() elements, gradInput (if not null) has the shape of input, only values may be single
+    // MODIFIES: gradValues, gradInput
+    // EFFECTS: for output = input * w^T as computed by csrGemm and the derivative gradOutput of a loss with respect
+    // to output, add the derivative of the loss with respect to the values of w to gradValues, and set gradInput to
+    // the derivative with respect to input (skipped if gradInput is null)
+    public static void csrGemmBackward(Tensor input, CsrPattern pattern, Tensor values, Tensor gradOutput,
+                                      Tensor gradValues, Tensor gradInput) {
+        int k = pattern.getCols();
+        int n = pattern.getRows();
+        if (gradInput != null) {
+            gradInput.fill(0);
+        }
+        for (int i = 0; i < input.getDimRow(); i++) {
+            for (int j = 0; j < n; j++) {
+                double grad = gradOutput.getData()[gradOutput.getOffset() + i * n + j];
+                for (int e = pattern.getRowStart(j); e < pattern.getRowStart(j + 1); e++) {
+                    int column = i * k + pattern.getColumn(e);
+                    gradValues.getData()[gradValues.getOffset() + e] += grad
+                            * input.getData()[input.getOffset() + column];
+                    if (gradInput != null) {
+                        gradInput.getData()[gradInput.getOffset() + column] += grad
+                                * values.getAt(values.getOffset() + e);
+                    }
+                }
+            }
+        }
+    }
+
+    // REQUIRES: c is m x n, bias has n elements, c is not single
+    // MODIFIES: c
+    // EFFECTS: add bias to every row of c
+    public static void addRow(Tensor c, Tensor bias) {
+        int n = c.getDimCol();
+        double[] cd = c.getData();
+        for (int i = 0; i < c.getDimRow(); i++) {
+            int ci = c.getOffset() + i * n;
+            if (bias.isSingle()) {
+                BACKEND.axpy(1, bias.getSingleData(), bias.getOffset(), cd, ci, n);
+            } else {
+                BACKEND.axpy(1, bias.getData(), bias.getOffset(), cd, ci, n);
+            }
+        }
+    }
+
+    // REQUIRES: m is r x n, out has n elements
+    // MODIFIES: out
+    // EFFECTS: add the sum of each column of m to the corresponding element of out
+    public static void addColumnSums(Tensor m, Tensor out) {
+        int n = m.getDimCol();
+        double[] md = m.getData();
+        double[] od = out.getData();
+        for (int i = 0; i < m.getDimRow(); i++) {
+            int mi = m.getOffset() + i * n;
+            for (int j = 0; j < n; j++) {
+                od[out.getOffset() + j] += md[mi + j];
+            }
+        }
+    }
+
+}
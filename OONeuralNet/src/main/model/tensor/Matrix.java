@@ -6,6 +6,8 @@ import java.util.ArrayList;
 
 // A Matrix is an m x n tensor. It takes a 2D array of Synapse as its data and deals with basic String manipulation and
 // access / modification of those Synapse.
+// A Matrix can instead be dense, i.e. backed by a primitive Tensor. A dense Matrix holds no Synapse at all; asking it
+// for a Synapse hands out a fresh Synapse viewing the element, so the Synapse graph is only built where it is needed.
 public class Matrix {
 
 
@@ -13,6 +15,7 @@ public class Matrix {
     private int dimRow;
     private int dimCol;
     private Synapse[][] synapses;
+    private Tensor tensor;
     //</editor-fold>
 
     //<editor-fold desc="Matrix constructors">
@@ -24,6 +27,15 @@ public class Matrix {
         dimRow = synapses.length;
         dimCol = synapses[0].length;
     }
+
+    // REQUIRES: tensor != null, tensor.getRank() == 2
+    // MODIFIES: this
+    // EFFECTS: create a new dense m x n Matrix backed by tensor (no copy is made)
+    public Matrix(Tensor tensor) {
+        this.tensor = tensor;
+        dimRow = tensor.getDimRow();
+        dimCol = tensor.getDimCol();
+    }
     //</editor-fold>
 
     //<editor-fold desc="Basic accessors and mutators for Matrix">
@@ -35,18 +47,78 @@ public class Matrix {
         return this.dimCol;
     }
 
+    public boolean isDense() {
+        return tensor != null;
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the Tensor backing a dense Matrix, or a new Tensor holding the values of the synapses otherwise
+    public Tensor getTensor() {
+        return tensor != null ? tensor : Tensor.fromMatrix(this);
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the value at rth row and cth column without creating any Synapse (0-based indexing)
+    public double getValue(int r, int c) {
+        return tensor != null ? tensor.get(r, c) : synapses[r][c].getValue();
+    }
+
     // REQUIRES: nothing
     // MODIFIES: this
-    // EFFECTS: return the synapse at rth row and cth column in synapses (0-based indexing)
+    // EFFECTS: return the synapse at rth row and cth column in synapses (0-based indexing). For a dense Matrix, a new
+    // Synapse viewing the element is returned on every call
     public Synapse getSynapse(int r, int c) {
+        if (tensor != null) {
+            return Synapse.view(tensor, tensor.index(r, c));
+        }
         return synapses[r][c];
     }
 
     // REQUIRES: input synapse is not null
     // MODIFIES: this
-    // EFFECTS: replace the synapse at rth row and cth column with a another synapse (0-based indexing)
+    // EFFECTS: replace the synapse at rth row and cth column with a another synapse (0-based indexing). For a dense
+    // Matrix, only the value of synapse is stored
     public void setData(int r, int c, Synapse synapse) {
-        synapses[r][c] = synapse;
+        if (tensor != null) {
+            tensor.set(r, c, synapse.getValue());
+        } else {
+            synapses[r][c] = synapse;
+        }
+    }
+
+    // REQUIRES: m != null, m has the same dimensions as this Matrix
+    // MODIFIES: this
+    // EFFECTS: copy the values of m into this Matrix; a dense Matrix keeps its tensor, otherwise each synapse is
+    // replaced by a new variable Synapse
+    public void assign(Matrix m) {
+        for (int r = 0; r < dimRow; r++) {
+            for (int c = 0; c < dimCol; c++) {
+                if (tensor != null) {
+                    tensor.set(r, c, m.getValue(r, c));
+                } else {
+                    synapses[r][c] = new Synapse(m.getValue(r, c));
+                }
+            }
+        }
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return this Matrix if it already holds synapses, otherwise a Matrix of synapses viewing each element
+    // of the dense Matrix, so that operations on it build a Synapse graph
+    public Matrix toGraph() {
+        if (tensor == null) {
+            return this;
+        }
+        Synapse[][] result = new Synapse[dimRow][dimCol];
+        for (int r = 0; r < dimRow; r++) {
+            for (int c = 0; c < dimCol; c++) {
+                result[r][c] = getSynapse(r, c);
+            }
+        }
+        return new Matrix(result);
     }
     //</editor-fold>
 
@@ -60,7 +132,7 @@ public class Matrix {
         for (int r = 0; r < dimRow; r++) {
             output += "[ ";
             for (int c = 0; c < dimCol; c++) {
-                output += getSynapse(r, c).toString() + " ";
+                output += getValue(r, c) + " ";
             }
             output += "]" + "\n";
         }
@@ -99,19 +171,19 @@ public class Matrix {
     // MODIFIES: this
     // EFFECTS: returns the Matrix in text (String) form
     public String toString2() {
-        String output = "";
+        StringBuilder output = new StringBuilder();
         for (int r = 0; r < dimRow; r++) {
-            output += "[ ";
+            output.append("[ ");
             for (int c = 0; c < dimCol - 1; c++) {
-                output += getSynapse(r, c).toString() + ", ";
+                output.append(getValue(r, c)).append(", ");
             }
-            output += getSynapse(r, dimCol - 1);
-            output += "]";
+            output.append(getValue(r, dimCol - 1));
+            output.append("]");
             if (r < dimRow - 1) {
-                output += ",";
+                output.append(",");
             }
         }
-        return output;
+        return output.toString();
     }
     //</editor-fold>
 
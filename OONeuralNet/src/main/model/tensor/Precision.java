@@ -0,0 +1,50 @@
+package model.tensor;
+
+// The precision in which a network keeps its parameters and runs its compiled forward pass. DOUBLE is the default.
+// SINGLE stores the weights and biases of every fully or sparsely connected layer in float arrays, which halves
+// their memory, and accumulates the sums of products of compiled plans in float, which lets the kernels process
+// twice as many elements per SIMD instruction; gradients are still kept in double. MIXED stores the same float
+// parameters, used by every forward and backward pass, plus double master parameters used only by updates, so that
+// updates smaller than the resolution of a float still add up over many steps; its sums are accumulated in double.
+public enum Precision {
+    DOUBLE(Double.BYTES, true),
+    SINGLE(Float.BYTES, false),
+    MIXED(Float.BYTES, true);
+
+    private final int bytes;
+    private final boolean doubleAccumulation;
+
+    Precision(int bytes, boolean doubleAccumulation) {
+        this.bytes = bytes;
+        this.doubleAccumulation = doubleAccumulation;
+    }
+
+    // EFFECTS: return the number of bytes in which a parameter is stored in layers and files
+    public int getBytes() {
+        return bytes;
+    }
+
+    // EFFECTS: return true if parameters are stored as floats in layers and files
+    public boolean isSingle() {
+        return bytes == Float.BYTES;
+    }
+
+    // EFFECTS: return true if sums of products are accumulated in double
+    public boolean accumulatesInDouble() {
+        return doubleAccumulation;
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the precision storing parameters in the given number of bytes, accumulating in double
+    // throws IllegalArgumentException if bytes is neither 4 nor 8
+    public static Precision ofBytes(int bytes) {
+        if (bytes == Double.BYTES) {
+            return DOUBLE;
+        }
+        if (bytes == Float.BYTES) {
+            return MIXED;
+        }
+        throw new IllegalArgumentException("No precision stores values in " + bytes + " bytes");
+    }
+}
@@ -0,0 +1,351 @@
+package model.tensor;
+
+import java.util.Arrays;
+
+// A Tensor is a dense, row-major block of doubles described by its shape and the stride of each dimension. Unlike a
+// Matrix of Synapse, all elements live in one primitive array, so a large weight matrix is a single allocation that
+// is walked sequentially. A variable Tensor also carries a gradient array with the same layout, and views taken from
+// a Tensor share both its data and its gradient. A single Tensor (see toSingle) stores its elements in a float array
+// instead, which halves the memory of network parameters; its gradient is still kept in double.
+public class Tensor {
+
+    //<editor-fold desc="Fields of Tensor">
+    private final double[] data;
+    private final float[] singleData;
+    private final double[] grad;
+    private final int[] shape;
+    private final int[] strides;
+    private final int offset;
+    private final int size;
+    //</editor-fold>
+
+    //<editor-fold desc="Tensor Constructors">
+    // REQUIRES: every element of shape is 1 or greater
+    // MODIFIES: this
+    // EFFECTS: create a zero-filled constant Tensor with the given shape
+    public Tensor(int... shape) {
+        this(new double[sizeOf(shape)], null, null, 0, shape);
+    }
+
+    // REQUIRES: data.length equals the product of the elements of shape
+    // MODIFIES: this
+    // EFFECTS: create a constant Tensor with the given shape which uses data as its storage (no copy is made)
+    public Tensor(double[] data, int... shape) {
+        this(data, null, null, 0, shape);
+    }
+
+    // REQUIRES: exactly one of data and singleData is not null; it and grad (if not null) hold at least offset +
+    //           product of shape elements
+    // MODIFIES: this
+    // EFFECTS: create a Tensor over data (or singleData) and grad starting at offset, with row-major strides derived
+    //          from shape
+    private Tensor(double[] data, float[] singleData, double[] grad, int offset, int... shape) {
+        this.data = data;
+        this.singleData = singleData;
+        this.grad = grad;
+        this.offset = offset;
+        this.shape = shape.clone();
+        this.size = sizeOf(shape);
+        this.strides = new int[shape.length];
+        int stride = 1;
+        for (int d = shape.length - 1; d >= 0; d--) {
+            strides[d] = stride;
+            stride *= shape[d];
+        }
+    }
+
+    // REQUIRES: every element of shape is 1 or greater
+    // MODIFIES: nothing
+    // EFFECTS: return a zero-filled variable Tensor, i.e. one that also holds a gradient for each element
+    public static Tensor variable(int... shape) {
+        int size = sizeOf(shape);
+        return new Tensor(new double[size], null, new double[size], 0, shape);
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return a constant 1 x 1 Tensor holding value
+    public static Tensor scalar(double value) {
+        return new Tensor(new double[]{value}, 1, 1);
+    }
+
+    // REQUIRES: m != null
+    // MODIFIES: nothing
+    // EFFECTS: return a constant Tensor with the same dimensions and values as m
+    public static Tensor fromMatrix(Matrix m) {
+        Tensor tensor = new Tensor(m.getDimRow(), m.getDimCol());
+        for (int r = 0; r < m.getDimRow(); r++) {
+            for (int c = 0; c < m.getDimCol(); c++) {
+                tensor.set(r, c, m.getValue(r, c));
+            }
+        }
+        return tensor;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Basic accessors and mutators for Tensor">
+    public int[] getShape() {
+        return shape.clone();
+    }
+
+    public int[] getStrides() {
+        return strides.clone();
+    }
+
+    public int getRank() {
+        return shape.length;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // EFFECTS: return the position of the first element of this Tensor in getData()
+    public int getOffset() {
+        return offset;
+    }
+
+    // EFFECTS: return the backing array; element i (in row-major order) is at getData()[getOffset() + i]. Returns null
+    //          for a single Tensor, whose elements are in getSingleData()
+    public double[] getData() {
+        return data;
+    }
+
+    // EFFECTS: return the float backing array of a single Tensor (laid out like getData()), or null otherwise
+    public float[] getSingleData() {
+        return singleData;
+    }
+
+    public boolean isSingle() {
+        return singleData != null;
+    }
+
+    // EFFECTS: return the backing gradient array (laid out like getData()), or null for a constant Tensor
+    public double[] getGrad() {
+        return grad;
+    }
+
+    public boolean hasGrad() {
+        return grad != null;
+    }
+
+    // REQUIRES: hasGrad()
+    // MODIFIES: nothing
+    // EFFECTS: return a constant Tensor with the same shape as this Tensor whose data is this Tensor's gradient
+    public Tensor gradient() {
+        return new Tensor(grad, null, null, offset, shape);
+    }
+
+    // REQUIRES: getRank() >= 1
+    // EFFECTS: return the size of the first dimension
+    public int getDimRow() {
+        return shape[0];
+    }
+
+    // REQUIRES: nothing
+    // EFFECTS: return the size of the last dimension (1 for a rank 1 Tensor)
+    public int getDimCol() {
+        return shape.length > 1 ? shape[shape.length - 1] : 1;
+    }
+
+    // REQUIRES: getRank() == 2, 0 <= r < getDimRow(), 0 <= c < getDimCol()
+    // EFFECTS: return the position of the element at row r and column c in getData()
+    public int index(int r, int c) {
+        return offset + r * strides[0] + c * strides[1];
+    }
+
+    // REQUIRES: indices.length == getRank(), each index within its dimension
+    // EFFECTS: return the position of the element at the given indices in getData()
+    public int index(int... indices) {
+        int position = offset;
+        for (int d = 0; d < indices.length; d++) {
+            position += indices[d] * strides[d];
+        }
+        return position;
+    }
+
+    // REQUIRES: getRank() == 2, 0 <= r < getDimRow(), 0 <= c < getDimCol()
+    // EFFECTS: return the element at row r and column c
+    public double get(int r, int c) {
+        return getAt(index(r, c));
+    }
+
+    // REQUIRES: getRank() == 2, 0 <= r < getDimRow(), 0 <= c < getDimCol()
+    // MODIFIES: this
+    // EFFECTS: replace the element at row r and column c with value
+    public void set(int r, int c, double value) {
+        setAt(index(r, c), value);
+    }
+
+    // REQUIRES: 0 <= i < getSize()
+    // EFFECTS: return the ith element in row-major order
+    public double getFlat(int i) {
+        return getAt(offset + i);
+    }
+
+    // REQUIRES: 0 <= i < getSize()
+    // MODIFIES: this
+    // EFFECTS: replace the ith element in row-major order with value (rounded to float for a single Tensor)
+    public void setFlat(int i, double value) {
+        setAt(offset + i, value);
+    }
+
+    // REQUIRES: position is within the backing array
+    // EFFECTS: return the element stored at position in the backing array, whichever precision it is kept in
+    public double getAt(int position) {
+        return data != null ? data[position] : singleData[position];
+    }
+
+    // REQUIRES: position is within the backing array
+    // MODIFIES: this
+    // EFFECTS: replace the element stored at position in the backing array with value (rounded to float for a
+    //          single Tensor)
+    public void setAt(int position, double value) {
+        if (data != null) {
+            data[position] = value;
+        } else {
+            singleData[position] = (float) value;
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Views and copies">
+    // REQUIRES: 0 <= from, from + product of shape elements <= getSize()
+    // MODIFIES: nothing
+    // EFFECTS: return a Tensor of the given shape starting at the fromth element of this Tensor, sharing its data
+    // and gradient
+    public Tensor view(int from, int... shape) {
+        return new Tensor(data, singleData, grad, offset + from, shape);
+    }
+
+    // REQUIRES: getRank() == 2, 0 <= r < getDimRow()
+    // MODIFIES: nothing
+    // EFFECTS: return the rth row as a 1 x getDimCol() view sharing data and gradient with this Tensor
+    public Tensor row(int r) {
+        return view(r * strides[0], 1, getDimCol());
+    }
+
+    // REQUIRES: product of shape elements == getSize()
+    // MODIFIES: nothing
+    // EFFECTS: return a view of this Tensor with a different shape
+    public Tensor reshape(int... shape) {
+        return view(0, shape);
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return a constant Tensor with the same shape and values as this Tensor
+    public Tensor copy() {
+        return new Tensor(toArray(), shape);
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the elements of this Tensor in row-major order as a new array
+    public double[] toArray() {
+        if (data != null) {
+            return Arrays.copyOfRange(data, offset, offset + size);
+        }
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = singleData[offset + i];
+        }
+        return values;
+    }
+
+    // REQUIRES: nothing
+    // MODIFIES: this
+    // EFFECTS: set every element of this Tensor to value
+    public void fill(double value) {
+        if (data != null) {
+            Arrays.fill(data, offset, offset + size, value);
+        } else {
+            Arrays.fill(singleData, offset, offset + size, (float) value);
+        }
+    }
+
+    // REQUIRES: source has getSize() elements
+    // MODIFIES: this
+    // EFFECTS: copy the elements of source into this Tensor in row-major order, rounding them to float if this
+    //          Tensor is single
+    public void assign(Tensor source) {
+        for (int i = 0; i < size; i++) {
+            setFlat(i, source.getFlat(i));
+        }
+    }
+
+    // REQUIRES: other != null
+    // MODIFIES: nothing
+    // EFFECTS: return true if this Tensor and other are backed by the same array
+    public boolean sharesData(Tensor other) {
+        return data != null ? data == other.data : singleData == other.singleData;
+    }
+
+    // REQUIRES: getOffset() == 0
+    // MODIFIES: nothing
+    // EFFECTS: return a single Tensor with the same shape as this Tensor whose elements are this Tensor's elements
+    //          rounded to float and stored in a new float array; the gradient array (if any) is shared
+    public Tensor toSingle() {
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (float) getFlat(i);
+        }
+        return new Tensor(null, values, grad, 0, shape);
+    }
+
+    // REQUIRES: getOffset() == 0
+    // MODIFIES: nothing
+    // EFFECTS: return a Tensor with the same shape and elements as this Tensor stored in a new double array; the
+    //          gradient array (if any) is shared
+    public Tensor toDouble() {
+        return new Tensor(toArray(), null, grad, 0, shape);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Differentiation Operations">
+    // REQUIRES: nothing
+    // MODIFIES: this
+    // EFFECTS: set the gradient of every element to 0 (does nothing for a constant Tensor)
+    public void zeroGrad() {
+        if (grad != null) {
+            Arrays.fill(grad, offset, offset + size, 0);
+        }
+    }
+
+    // REQUIRES: hasGrad()
+    // MODIFIES: this
+    // EFFECTS: subtract learningRate * gradient from every element, then reset the gradient to 0
+    public void gradientDescent(double learningRate) {
+        if (data != null) {
+            Kernels.getBackend().axpy(-learningRate, grad, offset, data, offset, size);
+        } else {
+            for (int i = offset; i < offset + size; i++) {
+                singleData[i] = (float) (singleData[i] - learningRate * grad[i]);
+            }
+        }
+        Arrays.fill(grad, offset, offset + size, 0);
+    }
+
+    // REQUIRES: hasGrad(), gradient has getSize() elements
+    // MODIFIES: this
+    // EFFECTS: add each element of gradient to the gradient of the corresponding element of this Tensor
+    public void accumulateGrad(Tensor gradient) {
+        double[] source = gradient.getData();
+        for (int i = 0; i < size; i++) {
+            grad[offset + i] += source[gradient.getOffset() + i];
+        }
+    }
+    //</editor-fold>
+
+    // REQUIRES: nothing
+    // MODIFIES: nothing
+    // EFFECTS: return the number of elements described by shape
+    private static int sizeOf(int... shape) {
+        int size = 1;
+        for (int dim : shape) {
+            size *= dim;
+        }
+        return size;
+    }
+
+}
@@ -0,0 +1,132 @@
+package persistence;
+
+import model.data.RowReader;
+import model.data.StreamingDataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Represents a dataset streamed from a binary row file written by BinaryDatasetWriter. The file is read through one
+// direct buffer of a fixed size which is refilled as the samples are consumed, so memory use does not depend on the
+// size of the file.
+public class BinaryDataset extends StreamingDataset {
+    private static final int CHUNK = 1 << 20;
+
+    private String source;
+    private int bytesPerValue;
+
+    // EFFECTS: constructs a dataset reading samples from source file, with the vector sizes given in its header;
+    // throws IOException if the file cannot be read or is not a binary row file
+    public BinaryDataset(String source) throws IOException {
+        this(source, readHeader(source));
+    }
+
+    // EFFECTS: constructs a dataset reading samples from source file, whose header is header
+    private BinaryDataset(String source, ByteBuffer header) {
+        super(header.getInt(3 * Integer.BYTES), header.getInt(4 * Integer.BYTES));
+        this.source = source;
+        this.bytesPerValue = header.getInt(2 * Integer.BYTES);
+    }
+
+    public int getBytesPerValue() {
+        return bytesPerValue;
+    }
+
+    // EFFECTS: opens source file and returns a reader positioned at its first sample;
+    // throws IOException if the file cannot be opened
+    @Override
+    protected RowReader open() throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ);
+        channel.position(BinaryDatasetWriter.HEADER_BYTES);
+        return new BinaryRowReader(channel);
+    }
+
+    // EFFECTS: returns the header of source file, after checking its magic number, version and value size;
+    // throws IOException if the file cannot be read or is not a binary row file
+    private static ByteBuffer readHeader(String source) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BinaryDatasetWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            fill(channel, header);
+        }
+        int bytesPerValue = header.getInt(2 * Integer.BYTES);
+        if (header.hasRemaining() || header.getInt(0) != BinaryDatasetWriter.MAGIC
+                || header.getInt(Integer.BYTES) != BinaryDatasetWriter.VERSION
+                || (bytesPerValue != Double.BYTES && bytesPerValue != Float.BYTES)) {
+            throw new IOException("Not a binary dataset file: " + source);
+        }
+        return header;
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: reads from channel into buffer until buffer is full or the end of the file is reached
+    private static void fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int read = 0;
+        while (buffer.hasRemaining() && read >= 0) {
+            read = channel.read(buffer);
+        }
+    }
+
+    // Reads the samples of a binary row file through a direct buffer, refilling it whenever less than one sample
+    // is left in it
+    private class BinaryRowReader implements RowReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int rowBytes;
+
+        BinaryRowReader(FileChannel channel) {
+            this.channel = channel;
+            this.rowBytes = (getInputSize() + getOutputSize()) * bytesPerValue;
+            int capacity = Math.max(CHUNK / rowBytes, 1) * rowBytes;
+            this.buffer = ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+        }
+
+        // EFFECTS: copies the next sample into inputs and expected and returns true, or returns false at the end
+        // of the file; throws IOException if the file ends in the middle of a sample
+        @Override
+        public boolean next(double[] inputs, int inputOffset, double[] expected, int expectedOffset)
+                throws IOException {
+            if (buffer.remaining() < rowBytes && !refill()) {
+                return false;
+            }
+            read(inputs, inputOffset, getInputSize());
+            read(expected, expectedOffset, getOutputSize());
+            return true;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: moves the unread bytes to the start of the buffer and fills the rest from the file, then returns
+        // true if a whole sample is available; throws IOException if the file ends in the middle of a sample
+        private boolean refill() throws IOException {
+            buffer.compact();
+            fill(channel, buffer);
+            buffer.flip();
+            if (buffer.remaining() % rowBytes != 0) {
+                throw new IOException("Truncated binary dataset file: " + source);
+            }
+            return buffer.hasRemaining();
+        }
+
+        // MODIFIES: this, values
+        // EFFECTS: reads count values of the file into values from offset
+        private void read(double[] values, int offset, int count) {
+            if (bytesPerValue == Double.BYTES) {
+                buffer.asDoubleBuffer().get(values, offset, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                values[offset + i] = buffer.getFloat();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
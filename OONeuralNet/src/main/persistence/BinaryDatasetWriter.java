@@ -0,0 +1,89 @@
+package persistence;
+
+import model.data.Batch;
+import model.data.Dataset;
+import model.tensor.Tensor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+// Represents a writer that writes the samples of a Dataset to a binary row file, which BinaryDataset streams back
+// without any parsing. All numbers are little-endian. The file starts with a 24 byte header: the magic number, the
+// format version, the number of bytes per value (8 for doubles, 4 for floats), the input size, the output size and
+// a reserved 0. It is followed by each sample in turn, as its input vector then its expected output vector.
+public class BinaryDatasetWriter {
+    static final int MAGIC = 0x4F4F4E44;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 6 * Integer.BYTES;
+    private static final int CHUNK = 1 << 16;
+    private static final int BATCH = 1024;
+
+    private String destination;
+    private int bytesPerValue;
+
+    // EFFECTS: constructs writer to write to destination file with double precision values
+    public BinaryDatasetWriter(String destination) {
+        this(destination, false);
+    }
+
+    // EFFECTS: constructs writer to write to destination file with single precision values if singlePrecision is
+    // true (half the size, rounding every value to a float), or double precision values otherwise
+    public BinaryDatasetWriter(String destination, boolean singlePrecision) {
+        this.destination = destination;
+        this.bytesPerValue = singlePrecision ? Float.BYTES : Double.BYTES;
+    }
+
+    // MODIFIES: destination file
+    // EFFECTS: writes every sample of data, in its stored order, to the destination file, replacing its content, and
+    // returns the number of samples written; throws IOException if the file cannot be written
+    public long write(Dataset data) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(destination), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(bytesPerValue).putInt(data.getInputSize())
+                    .putInt(data.getOutputSize()).putInt(0);
+            Iterator<Batch> batches = data.batches(BATCH, null);
+            while (batches.hasNext()) {
+                Batch batch = batches.next();
+                for (int r = 0; r < batch.size(); r++) {
+                    writeRow(batch.getInputs(), r, channel, buffer);
+                    writeRow(batch.getExpected(), r, channel, buffer);
+                }
+                count += batch.size();
+            }
+            flush(channel, buffer);
+        }
+        return count;
+    }
+
+    // MODIFIES: buffer, destination file
+    // EFFECTS: puts the elements of row r of tensor in buffer, writing buffer to channel whenever it is full
+    private void writeRow(Tensor tensor, int r, FileChannel channel, ByteBuffer buffer) throws IOException {
+        for (int c = 0; c < tensor.getDimCol(); c++) {
+            if (buffer.remaining() < bytesPerValue) {
+                flush(channel, buffer);
+            }
+            if (bytesPerValue == Double.BYTES) {
+                buffer.putDouble(tensor.get(r, c));
+            } else {
+                buffer.putFloat((float) tensor.get(r, c));
+            }
+        }
+    }
+
+    // MODIFIES: buffer, destination file
+    // EFFECTS: writes the content of buffer to channel and clears buffer
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,111 @@
+package persistence;
+
+import model.neuralnetwork.Layer;
+import model.neuralnetwork.Network;
+import model.operation.Activation;
+import model.tensor.Precision;
+import model.tensor.Tensor;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Represents a reader that reads a Network from a file written by BinaryWriter. The file is memory-mapped, so its
+// pages are only loaded by the operating system as the parameters are copied into the layers, and each block of
+// double precision parameters is copied with a single bulk transfer instead of being parsed. A network read from a
+// file of single precision parameters is set to MIXED precision.
+public class BinaryReader {
+    private String source;
+
+    // EFFECTS: constructs reader to read from source file
+    public BinaryReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: reads Network from file and returns it;
+    // throws IOException if an error occurs reading data from file or if it is not a valid binary network file
+    public Network read() throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parseNetwork(buffer.order(ByteOrder.LITTLE_ENDIAN));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary network file: " + source);
+        }
+    }
+
+    // EFFECTS: parses Network from buffer and returns it
+    private Network parseNetwork(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 4 * Integer.BYTES || buffer.getInt() != BinaryWriter.MAGIC
+                || buffer.getInt() != BinaryWriter.VERSION) {
+            throw new IOException("Not a binary network file: " + source);
+        }
+        int bytesPerValue = buffer.getInt();
+        if (bytesPerValue != Double.BYTES && bytesPerValue != Float.BYTES) {
+            throw new IOException("Not a binary network file: " + source);
+        }
+        int count = buffer.getInt();
+        if (count < 1 || count > buffer.remaining() / (2 * Integer.BYTES)) {
+            throw new IOException("Not a binary network file: " + source);
+        }
+        int[] sizes = new int[count];
+        int[] activations = new int[count];
+        for (int i = 0; i < count; i++) {
+            sizes[i] = buffer.getInt();
+            activations[i] = buffer.getInt();
+        }
+        checkSizes(sizes, bytesPerValue, buffer.remaining());
+        Network network = Network.multilayerPerceptron(sizes);
+        for (int i = 1; i < sizes.length; i++) {
+            Layer layer = network.getLayer(i);
+            if (activations[i] < 0 || activations[i] >= Activation.values().length) {
+                throw new IOException("Layer " + i + " has no known activation in " + source);
+            }
+            layer.setActivation(Activation.values()[activations[i]]);
+            readTensor(buffer, bytesPerValue, layer.getWeights());
+            readTensor(buffer, bytesPerValue, layer.getBiases());
+        }
+        network.setPrecision(Precision.ofBytes(bytesPerValue));
+        return network;
+    }
+
+    // EFFECTS: throws IOException unless every size is positive, every layer has fewer weights than the largest
+    // array, and the parameters of all the layers (bytesPerValue bytes each) fit in the remaining bytes of the file
+    private void checkSizes(int[] sizes, int bytesPerValue, int remaining) throws IOException {
+        long parameters = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] < 1) {
+                throw new IOException("Not a binary network file: " + source);
+            }
+            if (i > 0) {
+                long weights = (long) sizes[i - 1] * sizes[i];
+                if (weights > Integer.MAX_VALUE) {
+                    throw new IOException("Not a binary network file: " + source);
+                }
+                parameters += weights + sizes[i];
+            }
+        }
+        if (parameters * bytesPerValue > remaining) {
+            throw new IOException("Truncated binary network file: " + source);
+        }
+    }
+
+    // MODIFIES: buffer, tensor
+    // EFFECTS: copies the next tensor.getSize() parameters of buffer into tensor
+    private static void readTensor(ByteBuffer buffer, int bytesPerValue, Tensor tensor) {
+        if (bytesPerValue == Double.BYTES) {
+            buffer.asDoubleBuffer().get(tensor.getData(), tensor.getOffset(), tensor.getSize());
+        } else {
+            FloatBuffer floats = buffer.asFloatBuffer();
+            for (int i = 0; i < tensor.getSize(); i++) {
+                tensor.setFlat(i, floats.get());
+            }
+        }
+        buffer.position(buffer.position() + tensor.getSize() * bytesPerValue);
+    }
+
+}
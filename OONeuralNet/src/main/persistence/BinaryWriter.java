@@ -0,0 +1,120 @@
+package persistence;
+
+import model.neuralnetwork.Layer;
+import model.neuralnetwork.Network;
+import model.tensor.Precision;
+import model.tensor.Tensor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Represents a writer that writes a Network to a file in a compact binary format, which is much smaller and faster
+// to load than JSON for networks with many weights. All numbers are little-endian. The file starts with a header:
+// the magic number, the format version, the number of bytes per parameter (8 for doubles, 4 for floats), the number
+// of layers, then the size and the activation (index in Activation.values(), or -1 for the input layer when it has
+// none) of each layer. The header is a multiple of 8 bytes long, and it is followed by the weights (row-major) and
+// then the biases of every layer after the first, as one contiguous block of parameters.
+public class BinaryWriter {
+    static final int MAGIC = 0x4F4F4E4E;
+    static final int VERSION = 1;
+    private static final int CHUNK = 1 << 16;
+
+    private String destination;
+    private Precision precision;
+
+    // EFFECTS: constructs writer to write to destination file with parameters in the precision of each network
+    public BinaryWriter(String destination) {
+        this.destination = destination;
+    }
+
+    // EFFECTS: constructs writer to write to destination file with single precision parameters if singlePrecision
+    // is true (half the size, rounding every parameter to a float), or double precision parameters otherwise
+    public BinaryWriter(String destination, boolean singlePrecision) {
+        this.destination = destination;
+        this.precision = singlePrecision ? Precision.MIXED : Precision.DOUBLE;
+    }
+
+    // REQUIRES: every layer of network after the first is fully connected, packed and not sparse
+    // MODIFIES: destination file
+    // EFFECTS: writes the binary representation of network to the destination file, replacing its content;
+    // throws IOException if the file cannot be written and IllegalStateException if a layer is not fully connected
+    // (custom functions cannot be saved), is not packed or is sparse (the format only holds dense weights)
+    public void write(Network network) throws IOException {
+        checkLayers(network);
+        try (FileChannel channel = FileChannel.open(Paths.get(destination), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            int bytesPerValue = (precision == null ? network.getPrecision() : precision).getBytes();
+            writeHeader(network, bytesPerValue, channel, buffer);
+            for (int i = 1; i < network.getLayers().size(); i++) {
+                Layer layer = network.getLayer(i);
+                writeTensor(layer.getWeights(), bytesPerValue, channel, buffer);
+                writeTensor(layer.getBiases(), bytesPerValue, channel, buffer);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    // EFFECTS: throws IllegalStateException if a layer of network after the first is not fully connected, is not
+    // packed or is sparse. Checked before the file is opened, so a network that cannot be written leaves it untouched
+    private static void checkLayers(Network network) {
+        for (int i = 1; i < network.getLayers().size(); i++) {
+            Layer layer = network.getLayer(i);
+            if (!layer.isFullyConnected()) {
+                throw new IllegalStateException("Layer " + i + " is not fully connected");
+            }
+            if (!layer.isPacked()) {
+                throw new IllegalStateException("Layer " + i + " is not packed");
+            }
+            if (layer.isSparse()) {
+                throw new IllegalStateException("Layer " + i + " is sparse");
+            }
+        }
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: puts the header describing network with parameters of bytesPerValue bytes in buffer
+    private void writeHeader(Network network, int bytesPerValue, FileChannel channel, ByteBuffer buffer)
+            throws IOException {
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(bytesPerValue).putInt(network.getLayers().size());
+        for (Layer layer : network.getLayers()) {
+            if (buffer.remaining() < 2 * Integer.BYTES) {
+                flush(channel, buffer);
+            }
+            buffer.putInt(layer.getSize());
+            buffer.putInt(layer.getActivation() == null ? -1 : layer.getActivation().ordinal());
+        }
+    }
+
+    // MODIFIES: buffer, destination file
+    // EFFECTS: puts the elements of tensor in buffer with bytesPerValue bytes each, writing buffer to channel
+    // whenever it is full
+    private void writeTensor(Tensor tensor, int bytesPerValue, FileChannel channel, ByteBuffer buffer)
+            throws IOException {
+        for (int i = 0; i < tensor.getSize(); i++) {
+            if (buffer.remaining() < bytesPerValue) {
+                flush(channel, buffer);
+            }
+            if (bytesPerValue == Double.BYTES) {
+                buffer.putDouble(tensor.getFlat(i));
+            } else {
+                buffer.putFloat((float) tensor.getFlat(i));
+            }
+        }
+    }
+
+    // MODIFIES: buffer, destination file
+    // EFFECTS: writes the content of buffer to channel and clears buffer
+    static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
@@ -0,0 +1,154 @@
+package persistence;
+
+import model.data.Batch;
+import model.data.Dataset;
+import model.data.IndexedDataset;
+import model.tensor.Tensor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+// Represents a writer that converts a Dataset once into a columnar cache file, which MappedDataset maps into memory
+// for every later pass. All numbers are little-endian. The file starts with a 24 byte header: the magic number, the
+// format version, the number of bytes per value (8 for doubles, 4 for floats), the input size, the output size and
+// the number of samples. It is followed by one column per element of the input vector, then one per element of the
+// expected output vector, each holding the value of that element for every sample in turn.
+public class ColumnarCacheWriter {
+    static final int MAGIC = 0x4F4F4E43;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 6 * Integer.BYTES;
+    private static final int BATCH = 1024;
+
+    private String destination;
+    private int bytesPerValue;
+
+    // EFFECTS: constructs writer to write to destination file with double precision values
+    public ColumnarCacheWriter(String destination) {
+        this(destination, false);
+    }
+
+    // EFFECTS: constructs writer to write to destination file with single precision values if singlePrecision is
+    // true (half the size, rounding every value to a float), or double precision values otherwise
+    public ColumnarCacheWriter(String destination, boolean singlePrecision) {
+        this.destination = destination;
+        this.bytesPerValue = singlePrecision ? Float.BYTES : Double.BYTES;
+    }
+
+    // MODIFIES: destination file
+    // EFFECTS: writes every sample of data, in its stored order, to the destination file, replacing its content, and
+    // returns the number of samples written. The samples are written to a temporary file next to the destination,
+    // which replaces it only once it is complete, so a failed write leaves the destination as it was. A dataset that
+    // does not know its size is read twice, once to count its samples; throws IOException if the file cannot be
+    // written, if a column would exceed 2 GB or if data yields a different number of samples on the second pass
+    public int write(Dataset data) throws IOException {
+        int size = data instanceof IndexedDataset ? ((IndexedDataset) data).size() : count(data);
+        if ((long) size * bytesPerValue > Integer.MAX_VALUE) {
+            throw new IOException("Too many samples for a columnar cache: " + size);
+        }
+        Path target = Paths.get(destination);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        boolean written = false;
+        try {
+            writeFile(data, size, temporary);
+            move(temporary, target);
+            written = true;
+        } finally {
+            if (!written) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+        return size;
+    }
+
+    // MODIFIES: file
+    // EFFECTS: writes the header and the size samples of data to file, replacing its content
+    private void writeFile(Dataset data, int size, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(bytesPerValue).putInt(data.getInputSize())
+                    .putInt(data.getOutputSize()).putInt(size).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            MappedByteBuffer[] columns = map(channel, data.getInputSize() + data.getOutputSize(), size);
+            if (writeColumns(data, columns, size) != size) {
+                throw new IOException("Dataset changed while writing " + destination);
+            }
+            for (MappedByteBuffer column : columns) {
+                column.force();
+            }
+        }
+    }
+
+    // MODIFIES: source, target
+    // EFFECTS: renames source to target, replacing it, atomically if the file system can
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // MODIFIES: destination file
+    // EFFECTS: returns count columns of size values each, mapped read-write one after the other past the header
+    private MappedByteBuffer[] map(FileChannel channel, int count, int size) throws IOException {
+        MappedByteBuffer[] columns = new MappedByteBuffer[count];
+        long columnBytes = (long) size * bytesPerValue;
+        for (int c = 0; c < count; c++) {
+            columns[c] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + c * columnBytes, columnBytes);
+            columns[c].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return columns;
+    }
+
+    // MODIFIES: columns
+    // EFFECTS: puts the samples of data in columns, stopping after size samples, and returns the number of samples
+    // data yielded
+    private int writeColumns(Dataset data, MappedByteBuffer[] columns, int size) {
+        int sample = 0;
+        Iterator<Batch> batches = data.batches(BATCH, null);
+        while (batches.hasNext()) {
+            Batch batch = batches.next();
+            for (int r = 0; r < batch.size() && sample + r < size; r++) {
+                writeRow(batch.getInputs(), r, columns, 0, sample + r);
+                writeRow(batch.getExpected(), r, columns, data.getInputSize(), sample + r);
+            }
+            sample += batch.size();
+        }
+        return sample;
+    }
+
+    // MODIFIES: columns
+    // EFFECTS: puts each element c of row r of tensor in columns[first + c] at the position of sample
+    private void writeRow(Tensor tensor, int r, MappedByteBuffer[] columns, int first, int sample) {
+        for (int c = 0; c < tensor.getDimCol(); c++) {
+            if (bytesPerValue == Double.BYTES) {
+                columns[first + c].putDouble(sample * Double.BYTES, tensor.get(r, c));
+            } else {
+                columns[first + c].putFloat(sample * Float.BYTES, (float) tensor.get(r, c));
+            }
+        }
+    }
+
+    // EFFECTS: returns the number of samples in one pass over data
+    private static int count(Dataset data) {
+        int count = 0;
+        Iterator<Batch> batches = data.batches(BATCH, null);
+        while (batches.hasNext()) {
+            count += batches.next().size();
+        }
+        return count;
+    }
+}
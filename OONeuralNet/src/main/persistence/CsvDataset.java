@@ -0,0 +1,102 @@
+package persistence;
+
+import model.data.RowReader;
+import model.data.StreamingDataset;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+// Represents a dataset streamed from a CSV file in which each line holds one sample: the values of its input vector
+// followed by the values of its expected output vector, separated by commas. Blank lines are skipped, and the first
+// line can be declared a header to skip as well.
+public class CsvDataset extends StreamingDataset {
+    private String source;
+    private boolean header = false;
+
+    // REQUIRES: inputSize >= 1, outputSize >= 1
+    // EFFECTS: constructs a dataset reading samples with the given vector sizes from source file
+    public CsvDataset(String source, int inputSize, int outputSize) {
+        super(inputSize, outputSize);
+        this.source = source;
+    }
+
+    public boolean hasHeader() {
+        return header;
+    }
+
+    // EFFECTS: sets whether the first line of the file is a header rather than a sample
+    public void setHeader(boolean header) {
+        this.header = header;
+    }
+
+    // EFFECTS: opens source file and returns a reader positioned at its first sample;
+    // throws IOException if the file cannot be opened
+    @Override
+    protected RowReader open() throws IOException {
+        BufferedReader reader = Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8);
+        if (header) {
+            reader.readLine();
+        }
+        return new CsvReader(reader);
+    }
+
+    // Parses the lines of a CSV file into samples, keeping track of the line number for error messages
+    private class CsvReader implements RowReader {
+        private final BufferedReader reader;
+        private int line;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+            this.line = header ? 1 : 0;
+        }
+
+        // EFFECTS: parses the next non-blank line into inputs and expected and returns true, or returns false at the
+        // end of the file; throws IOException if the line does not hold the right number of numbers
+        @Override
+        public boolean next(double[] inputs, int inputOffset, double[] expected, int expectedOffset)
+                throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+            } while (text != null && text.trim().isEmpty());
+            if (text == null) {
+                return false;
+            }
+            int start = parse(text, 0, inputs, inputOffset, getInputSize());
+            if (parse(text, start, expected, expectedOffset, getOutputSize()) <= text.length()) {
+                throw new IOException("Too many values on line " + line + " of " + source);
+            }
+            return true;
+        }
+
+        // EFFECTS: parses count comma separated numbers of text starting at index start into values from offset,
+        // and returns the index just after the comma following the last one (text.length() + 1 if there is none);
+        // throws IOException if there are fewer than count numbers or one of them is malformed
+        private int parse(String text, int start, double[] values, int offset, int count) throws IOException {
+            int from = start;
+            for (int i = 0; i < count; i++) {
+                if (from > text.length()) {
+                    throw new IOException("Too few values on line " + line + " of " + source);
+                }
+                int to = text.indexOf(',', from);
+                to = to < 0 ? text.length() : to;
+                try {
+                    values[offset + i] = Double.parseDouble(text.substring(from, to));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed value on line " + line + " of " + source, e);
+                }
+                from = to + 1;
+            }
+            return from;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
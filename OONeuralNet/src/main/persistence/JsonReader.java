@@ -4,6 +4,7 @@ import model.neuralnetwork.Layer;
 import model.neuralnetwork.Network;
 import model.neuralnetwork.Neuron;
 import model.tensor.Matrix;
+import model.tensor.Precision;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -59,10 +60,11 @@ public class JsonReader {
             for (int j = 0; j < network.getLayer(i).getSize(); j++) {
                 Matrix weights = Matrix.stringToMatrix((String) neurons.getJSONObject(j).get("Weights"));
                 Matrix biases = Matrix.stringToMatrix((String) neurons.getJSONObject(j).get("Biases"));
-                network.getLayer(i).getNeuron(j).setWeights(weights);
-                network.getLayer(i).getNeuron(j).setBiases(biases);
+                network.getLayer(i).getNeuron(j).getWeights().assign(weights);
+                network.getLayer(i).getNeuron(j).getBiases().assign(biases);
             }
         }
+        network.setPrecision(Precision.valueOf(jsonObject.optString("Precision", Precision.DOUBLE.name())));
 
         return network;
     }
@@ -20,9 +20,9 @@ public class JsonWriter {
     // Specifications and general structure are based on https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
     // MODIFIES: this
     // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
-    // be opened for writing
+    // be opened for writing. The file is opened for appending, so its content is kept until write replaces it
     public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(destination));
+        writer = new PrintWriter(new FileOutputStream(destination, true));
     }
 
     // Specifications and general structure are based on https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
@@ -34,10 +34,14 @@ public class JsonWriter {
 
     // Specifications and general structure are based on https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
     // MODIFIES: this
-    // EFFECTS: writes JSON representation of Network to file
-    public void write(Network network) {
+    // EFFECTS: writes JSON representation of Network to file, replacing its content. The JSON is built before the
+    // file is truncated, so the file is left untouched if network cannot be represented (toJson throws);
+    // throws FileNotFoundException if destination file cannot be opened for writing
+    public void write(Network network) throws FileNotFoundException {
         JSONObject json = network.toJson();
 
+        writer.close();
+        writer = new PrintWriter(new File(destination));
         saveToFile(json.toString(TAB));
     }
 
@@ -0,0 +1,140 @@
+package persistence;
+
+import model.data.Dataset;
+import model.data.IndexedDataset;
+import model.operation.Process;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Represents a dataset read from a columnar cache file written by ColumnarCacheWriter. Each column of the file is
+// mapped into memory once, so every pass reads the samples straight from the page cache without parsing or copying
+// the file, and a shuffled pass only permutes the sample indices.
+public class MappedDataset extends IndexedDataset {
+    private String source;
+    private int inputSize;
+    private int outputSize;
+    private int size;
+    private int bytesPerValue;
+    private DoubleBuffer[] doubleColumns;
+    private FloatBuffer[] floatColumns;
+    private boolean normalized = false;
+
+    // EFFECTS: constructs a dataset mapping the columns of source file, with the sizes given in its header;
+    // throws IOException if the file cannot be read or is not a columnar cache file
+    public MappedDataset(String source) throws IOException {
+        this.source = source;
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            readHeader(channel);
+            int count = inputSize + outputSize;
+            long columnBytes = (long) size * bytesPerValue;
+            if (channel.size() < ColumnarCacheWriter.HEADER_BYTES + count * columnBytes) {
+                throw new IOException("Truncated columnar cache file: " + source);
+            }
+            doubleColumns = new DoubleBuffer[bytesPerValue == Double.BYTES ? count : 0];
+            floatColumns = new FloatBuffer[bytesPerValue == Float.BYTES ? count : 0];
+            for (int c = 0; c < count; c++) {
+                MappedByteBuffer column = channel.map(FileChannel.MapMode.READ_ONLY,
+                        ColumnarCacheWriter.HEADER_BYTES + c * columnBytes, columnBytes);
+                column.order(ByteOrder.LITTLE_ENDIAN);
+                if (bytesPerValue == Double.BYTES) {
+                    doubleColumns[c] = column.asDoubleBuffer();
+                } else {
+                    floatColumns[c] = column.asFloatBuffer();
+                }
+            }
+        }
+    }
+
+    // MODIFIES: cache file
+    // EFFECTS: returns the dataset cached in cache file, first writing data to it with ColumnarCacheWriter unless
+    // it already exists, is newer than origin file (the file data is read from) and holds samples with the input
+    // and output sizes of data; throws IOException if the cache cannot be written or read
+    public static MappedDataset cache(Dataset data, String origin, String cache, boolean singlePrecision)
+            throws IOException {
+        File cacheFile = new File(cache);
+        if (cacheFile.isFile() && cacheFile.lastModified() >= new File(origin).lastModified()) {
+            MappedDataset cached = new MappedDataset(cache);
+            if (cached.getInputSize() == data.getInputSize() && cached.getOutputSize() == data.getOutputSize()) {
+                return cached;
+            }
+        }
+        new ColumnarCacheWriter(cache, singlePrecision).write(data);
+        return new MappedDataset(cache);
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    @Override
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getBytesPerValue() {
+        return bytesPerValue;
+    }
+
+    public boolean isNormalized() {
+        return normalized;
+    }
+
+    // EFFECTS: sets whether each input vector is divided by its euclidean norm as it is read (see Process.normalize)
+    public void setNormalized(boolean normalized) {
+        this.normalized = normalized;
+    }
+
+    // EFFECTS: copies the indexth value of every input column into inputs and of every output column into expected
+    @Override
+    protected void copySample(int index, double[] inputs, int inputOffset, double[] expected, int expectedOffset) {
+        for (int c = 0; c < inputSize; c++) {
+            inputs[inputOffset + c] = value(c, index);
+        }
+        for (int c = 0; c < outputSize; c++) {
+            expected[expectedOffset + c] = value(inputSize + c, index);
+        }
+        if (normalized) {
+            Process.normalize(inputs, inputOffset, inputOffset + inputSize);
+        }
+    }
+
+    // EFFECTS: returns the indexth value of column c
+    private double value(int c, int index) {
+        return bytesPerValue == Double.BYTES ? doubleColumns[c].get(index) : floatColumns[c].get(index);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the header of the file from channel into the fields of this dataset, after checking its magic
+    // number, version and value size; throws IOException if it is not a columnar cache file
+    private void readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(ColumnarCacheWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int read = 0;
+        while (header.hasRemaining() && read >= 0) {
+            read = channel.read(header);
+        }
+        bytesPerValue = header.getInt(2 * Integer.BYTES);
+        inputSize = header.getInt(3 * Integer.BYTES);
+        outputSize = header.getInt(4 * Integer.BYTES);
+        size = header.getInt(5 * Integer.BYTES);
+        if (header.hasRemaining() || header.getInt(0) != ColumnarCacheWriter.MAGIC
+                || header.getInt(Integer.BYTES) != ColumnarCacheWriter.VERSION
+                || (bytesPerValue != Double.BYTES && bytesPerValue != Float.BYTES)) {
+            throw new IOException("Not a columnar cache file: " + source);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package persistence;
+
+import model.neuralnetwork.QuantizedLayer;
+import model.neuralnetwork.QuantizedNetwork;
+import model.operation.Activation;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a reader that reads a QuantizedNetwork from a file written by QuantizedWriter. The file is
+// memory-mapped and the weights of each layer are copied with a single bulk transfer.
+public class QuantizedReader {
+    private String source;
+
+    // EFFECTS: constructs reader to read from source file
+    public QuantizedReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: reads QuantizedNetwork from file and returns it;
+    // throws IOException if an error occurs reading data from file or if it is not a valid quantized network file
+    public QuantizedNetwork read() throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parseNetwork(buffer.order(ByteOrder.LITTLE_ENDIAN));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated quantized network file: " + source);
+        }
+    }
+
+    // EFFECTS: parses QuantizedNetwork from buffer and returns it
+    private QuantizedNetwork parseNetwork(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 4 * Integer.BYTES || buffer.getInt() != QuantizedWriter.MAGIC
+                || buffer.getInt() != QuantizedWriter.VERSION) {
+            throw new IOException("Not a quantized network file: " + source);
+        }
+        int count = buffer.getInt();
+        int fanIn = buffer.getInt();
+        if (count < 1) {
+            throw new IOException("Not a quantized network file: " + source);
+        }
+        List<QuantizedLayer> layers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            QuantizedLayer layer = parseLayer(buffer, fanIn);
+            layers.add(layer);
+            fanIn = layer.getSize();
+        }
+        return new QuantizedNetwork(layers);
+    }
+
+    // EFFECTS: parses the next QuantizedLayer of buffer, connected to a layer of fanIn neurons, and returns it;
+    // throws IOException if its header is out of range or its parameters do not fit in the rest of buffer
+    private QuantizedLayer parseLayer(ByteBuffer buffer, int fanIn) throws IOException {
+        int size = buffer.getInt();
+        int activation = buffer.getInt();
+        float scale = buffer.getFloat();
+        int zeroPoint = buffer.getInt();
+        if (fanIn < 1 || size < 1 || activation < 0 || activation >= Activation.values().length
+                || zeroPoint < Byte.MIN_VALUE || zeroPoint > Byte.MAX_VALUE) {
+            throw new IOException("Not a quantized network file: " + source);
+        }
+        if ((long) fanIn * size > Integer.MAX_VALUE
+                || 2L * size * Float.BYTES + (long) fanIn * size > buffer.remaining()) {
+            throw new IOException("Truncated quantized network file: " + source);
+        }
+        float[] weightScales = readFloats(buffer, size);
+        float[] biases = readFloats(buffer, size);
+        byte[] weights = new byte[fanIn * size];
+        buffer.get(weights);
+        return new QuantizedLayer(Activation.values()[activation], fanIn, weights, weightScales, biases, scale,
+                zeroPoint);
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: returns the next count floats of buffer
+    private static float[] readFloats(ByteBuffer buffer, int count) {
+        float[] values = new float[count];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + count * Float.BYTES);
+        return values;
+    }
+
+}
@@ -0,0 +1,77 @@
+package persistence;
+
+import model.neuralnetwork.QuantizedLayer;
+import model.neuralnetwork.QuantizedNetwork;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Represents a writer that writes a QuantizedNetwork to a file in a compact binary format, with one byte per weight.
+// All numbers are little-endian. The file starts with a header: the magic number, the format version, the number of
+// layers after the input layer and the size of the input layer. Each layer follows: its size, its activation (index
+// in Activation.values()), the scale (float) and zero point (int) of its input, the scales of the weights of its
+// neurons and its biases (floats), then its weights (bytes, row-major).
+public class QuantizedWriter {
+    static final int MAGIC = 0x4F4F5138;
+    static final int VERSION = 1;
+    private static final int CHUNK = 1 << 16;
+
+    private String destination;
+
+    // EFFECTS: constructs writer to write to destination file
+    public QuantizedWriter(String destination) {
+        this.destination = destination;
+    }
+
+    // MODIFIES: destination file
+    // EFFECTS: writes the binary representation of network to the destination file, replacing its content;
+    // throws IOException if the file cannot be written
+    public void write(QuantizedNetwork network) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(destination), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(network.getLayers().size()).putInt(network.getInputSize());
+            for (QuantizedLayer layer : network.getLayers()) {
+                if (buffer.remaining() < 4 * Integer.BYTES) {
+                    BinaryWriter.flush(channel, buffer);
+                }
+                buffer.putInt(layer.getSize()).putInt(layer.getActivation().ordinal());
+                buffer.putFloat(layer.getInputScale()).putInt(layer.getInputZeroPoint());
+                writeFloats(layer.getWeightScales(), channel, buffer);
+                writeFloats(layer.getBiases(), channel, buffer);
+                writeBytes(layer.getWeights(), channel, buffer);
+            }
+            BinaryWriter.flush(channel, buffer);
+        }
+    }
+
+    // MODIFIES: buffer, destination file
+    // EFFECTS: puts values in buffer, writing buffer to channel whenever it is full
+    private static void writeFloats(float[] values, FileChannel channel, ByteBuffer buffer) throws IOException {
+        for (float value : values) {
+            if (buffer.remaining() < Float.BYTES) {
+                BinaryWriter.flush(channel, buffer);
+            }
+            buffer.putFloat(value);
+        }
+    }
+
+    // MODIFIES: buffer, destination file
+    // EFFECTS: puts values in buffer, writing buffer to channel whenever it is full
+    private static void writeBytes(byte[] values, FileChannel channel, ByteBuffer buffer) throws IOException {
+        int from = 0;
+        while (from < values.length) {
+            if (!buffer.hasRemaining()) {
+                BinaryWriter.flush(channel, buffer);
+            }
+            int length = Math.min(buffer.remaining(), values.length - from);
+            buffer.put(values, from, length);
+            from += length;
+        }
+    }
+
+}
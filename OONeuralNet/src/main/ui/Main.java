@@ -1,11 +1,16 @@
 package ui;
 
 
+import model.data.InMemoryDataset;
 import model.neuralnetwork.Layer;
 import model.neuralnetwork.Neuron;
 import model.operation.Process;
 import model.neuralnetwork.Network;
+import model.neuralnetwork.Trainer;
+import model.operation.Activation;
+import model.optimizer.LearningRateSchedule;
 import model.tensor.Matrix;
+import model.tensor.Tensor;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -54,11 +59,10 @@ public class Main {
             try {
                 //System.out.println(network.output(Process.listToNormalizedInput(tempData)));
                 Network.logInput(inputText.getText());
-                String[] outputLines = network.output(Process.listToNormalizedInput(tempData)).replace("[", "")
-                        .replace("]", "").split("\\r?\\n");
-                DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+                double[] output = network.infer(Process.normalize(tempData));
+                Network.logOutput(new Matrix(new Tensor(output, output.length, 1)).toString());
                 JFreeChart barChart = ChartFactory.createBarChart("Output", "Output",
-                        "Value", createDataset(outputLines), PlotOrientation.VERTICAL,
+                        "Value", createDataset(output), PlotOrientation.VERTICAL,
                         true, true, false);
                 ChartPanel chartPanel = new ChartPanel(barChart);
                 chartPanel.setPreferredSize(new java.awt.Dimension(560, 367));
@@ -120,26 +124,26 @@ public class Main {
     });
 
     private static JTextField expectedText = new JTextField("Expected Output");
+    private static JTextField learningRateText = new JTextField("0.05");
     private static JButton trainButton = new JButton(new AbstractAction("Train Network") {
         // REQUIRES: nothing
         // MODIFIES: nothing
-        // EFFECTS: train the neural network with the vector data specified in inputText and expectedText and
-        // add the data to the training table
+        // EFFECTS: train the neural network with the vector data specified in inputText and expectedText, at the
+        // learning rate specified in learningRateText, and add the data to the training table
         public void actionPerformed(ActionEvent e) {
-            double[] tempData = new double[network.getLayer(0).getSize()];
+            double[] input = new double[network.getLayer(0).getSize()];
             String[] stringData = inputText.getText().split(",", 0);
             for (int j = 0; j < stringData.length; j++) {
-                tempData[j] = Double.parseDouble(stringData[j]);
+                input[j] = Double.parseDouble(stringData[j]);
             }
-            Matrix[] input = Process.listToNormalizedInput(tempData);
-            tempData = new double[network.getLayer(network.getLayers().size() - 1).getSize()];
+            double[] expected = new double[network.getLayer(network.getLayers().size() - 1).getSize()];
             stringData = expectedText.getText().split(",", 0);
             for (int j = 0; j < stringData.length; j++) {
-                tempData[j] = Double.parseDouble(stringData[j]);
+                expected[j] = Double.parseDouble(stringData[j]);
             }
 
             try {
-                network.backProp(Process::crossEntropy, input, Process.listToOutput(tempData), 0.05);
+                trainSample(input, expected, Double.parseDouble(learningRateText.getText()));
             } catch (Exception exception) {
                 exception.printStackTrace();
             }
@@ -195,13 +199,29 @@ public class Main {
         openMenu();
     }
 
+    // REQUIRES: input.length is the size of the first layer, expected.length the size of the last one
+    // MODIFIES: network
+    // EFFECTS: take one training step on the sample (input normalized, expected), with a Trainer if the network is
+    // packed and through the graph otherwise
+    private static void trainSample(double[] input, double[] expected, double learningRate) throws Exception {
+        if (!network.isPacked()) {
+            network.backProp(Process::crossEntropy, Process.listToNormalizedInput(input),
+                    Process.listToOutput(expected), learningRate);
+            return;
+        }
+        Trainer trainer = new Trainer(network);
+        trainer.setBatchSize(1);
+        trainer.setSchedule(LearningRateSchedule.constant(learningRate));
+        trainer.train(new InMemoryDataset(new double[][]{Process.normalize(input)}, new double[][]{expected}));
+    }
+
     // REQUIRES: nothing
     // MODIFIES: nothing
     // EFFECTS: add the given input data to a data set, and return the data set
-    private static CategoryDataset createDataset(String[] outputLines) {
+    private static CategoryDataset createDataset(double[] output) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        for (int i = 0; i < outputLines.length; i++) {
-            Number value = Double.parseDouble(outputLines[i]);
+        for (int i = 0; i < output.length; i++) {
+            Number value = output[i];
             dataset.addValue(value, "Outputs for input: " + inputText.getText(), i);
         }
 
@@ -221,7 +241,7 @@ public class Main {
             public void actionPerformed(ActionEvent e) {
                 panel.remove(networkPane);
                 frame.remove(panel);
-                Layer layer = new Layer(4, Process::rowAppend, Process::linear, Process::tanh);
+                Layer layer = new Layer(4, Activation.TANH);
                 network.addLayer(layer, network.getLayers().size() - 1);
                 network.fullConnect();
                 initializeTable();
@@ -241,6 +261,7 @@ public class Main {
     private static void addMenuElements() {
         mb.add(trainButton);
         mb.add(expectedText);
+        mb.add(learningRateText);
         mb.add(inputButton);
         mb.add(inputText);
         mb.add(loadButton);
@@ -284,9 +305,9 @@ public class Main {
                 String[] data = new String[13];
                 data[0] = "L" + i + ":" + "N" + j;
                 for (int c = 0; c < network.getLayer(i).getNeuron(j).getWeights().getDimCol(); c++) {
-                    data[c + 1] = network.getLayer(i).getNeuron(j).getWeights().getSynapse(0, c).toString();
+                    data[c + 1] = network.getLayer(i).getNeuron(j).getWeights().getValue(0, c) + "";
                 }
-                data[12] = network.getLayer(i).getNeuron(j).getBiases().getSynapse(0,0).toString();
+                data[12] = network.getLayer(i).getNeuron(j).getBiases().getValue(0, 0) + "";
                 dataRows.add(data);
             }
         }
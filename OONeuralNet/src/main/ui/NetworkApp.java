@@ -1,22 +1,37 @@
 package ui;
 
+import model.data.Batch;
+import model.data.InMemoryDataset;
+import model.data.IndexedDataset;
+import model.neuralnetwork.EpochReport;
 import model.neuralnetwork.Network;
+import model.neuralnetwork.Trainer;
+import model.operation.Activation;
 import model.operation.Process;
+import model.optimizer.LearningRateSchedule;
 import model.tensor.Matrix;
+import model.tensor.Tensor;
+import persistence.BinaryReader;
+import persistence.CsvDataset;
 import persistence.JsonReader;
 import persistence.JsonWriter;
+import persistence.MappedDataset;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
 
 // Class responsible for user interface; providing text instructions and accepting user's inputs
 public class NetworkApp {
 
-    private List<double[]> dataList;
-    private List<double[]> expectedList;
+    private static final Activation[] ACTIVATION_CHOICES = {Activation.TANH, Activation.SIGMOID, Activation.SOFTMAX,
+            Activation.RELU, Activation.LEAKY_RELU, Activation.GELU, Activation.SOFTPLUS};
+    private static final String[] ACTIVATION_NAMES = {"Hyperbolic Tangent", "Logistic Sigmoid", "Softmax",
+            "Rectified Linear Unit", "Leaky Rectified Linear Unit", "Gaussian Error Linear Unit", "Softplus"};
+    private IndexedDataset dataset;
     private Network network;
     private Scanner reader = new Scanner(System.in);
     private int numberOfLayers;
@@ -64,35 +79,59 @@ public class NetworkApp {
 
     // REQUIRES: fileName != null
     // MODIFIES: this
-    // EFFECTS: load network from fileLocation
+    // EFFECTS: load network from fileLocation, in the binary format if it ends with .bin and as JSON otherwise
     private void loadNetwork(String fileLocation) throws FileNotFoundException {
 
-        JsonReader jsonReader = new JsonReader(fileLocation);
         try {
-            network = jsonReader.read();
+            if (fileLocation.endsWith(".bin")) {
+                network = new BinaryReader(fileLocation).read();
+            } else {
+                network = new JsonReader(fileLocation).read();
+            }
         } catch (IOException e) {
             throw new FileNotFoundException();
         }
 
     }
 
+    // REQUIRES: dataset is not empty
+    // MODIFIES: network
+    // EFFECTS: train the network on the normalized data for the epochs, learning rate and batch size given by the
+    // user, with a Trainer if the network is packed and one sample at a time through the graph otherwise
     private void trainNetwork() throws Exception {
         System.out.println("How many epochs to train for?");
         epochs = Integer.parseInt(reader.nextLine());
         System.out.println("Learning rate?");
         learningRate = Double.parseDouble(reader.nextLine());
+        if (!network.isPacked()) {
+            trainPerSample();
+            return;
+        }
+        System.out.println("Batch size?");
+        Trainer trainer = new Trainer(network);
+        trainer.setBatchSize(Integer.parseInt(reader.nextLine()));
+        trainer.setEpochs(epochs);
+        trainer.setSchedule(LearningRateSchedule.constant(learningRate));
+        for (EpochReport report : trainer.train(dataset)) {
+            System.out.println(report);
+        }
+    }
 
-
+    // REQUIRES: dataset is not empty
+    // MODIFIES: network
+    // EFFECTS: train the network one sample at a time through the graph, on matrices viewing the rows of dataset
+    private void trainPerSample() throws Exception {
         for (int i = 0; i < epochs; i++) {
             System.out.println("Epoch: " + i);
-            for (int j = 0; j < dataList.size(); j++) {
-                Matrix[] input = Process.listToNormalizedInput(dataList.get(j));
-                Matrix[] expected = Process.listToOutput(expectedList.get(j));
+            Iterator<Batch> samples = dataset.batches(1, null);
+            for (int j = 0; samples.hasNext(); j++) {
+                Batch sample = samples.next();
+                Matrix[] input = Process.tensorToOutput(sample.getInputs());
+                Matrix[] expected = Process.tensorToOutput(sample.getExpected());
                 System.out.println("Loss for data " + j + ": \n"
-                        + network.backProp(Process::crossEntropy, input, expected, 1));
+                        + network.backProp(Process::crossEntropy, input, expected, learningRate));
             }
         }
-
     }
 
     private void initializeNetwork() {
@@ -114,36 +153,52 @@ public class NetworkApp {
     private void initializeLayers() {
         for (int i = 0; i < numberOfLayers; i++) {
             System.out.println("Activation function of layer " + i + "?");
-            System.out.println("(1) Hyperbolic Tangent");
-            System.out.println("(2) Logistic Sigmoid");
-            System.out.println("(3) Softmax");
-
-            switch (Integer.parseInt(reader.nextLine())) {
-                case 1: {
-                    network.getLayer(i).setActivateFunction(Process::tanh);
-                    break;
-                }
-
-                case 2: {
-                    network.getLayer(i).setActivateFunction(Process::sigmoid);
-                    break;
-                }
-
-                case 3: {
-                    network.getLayer(i).setActivateFunction(Process::softmax);
-                    break;
-                }
+            for (int choice = 0; choice < ACTIVATION_CHOICES.length; choice++) {
+                System.out.println("(" + (choice + 1) + ") " + ACTIVATION_NAMES[choice]);
+            }
+
+            int choice = Integer.parseInt(reader.nextLine());
+            if (choice >= 1 && choice <= ACTIVATION_CHOICES.length) {
+                network.getLayer(i).setActivation(ACTIVATION_CHOICES[choice - 1]);
             }
         }
     }
 
-    private void readData() {
-        String[] stringData;
-        dataList = new ArrayList<double[]>();
-        expectedList = new ArrayList<double[]>();
+    // MODIFIES: this
+    // EFFECTS: read the training data, typed in by the user or from a CSV file
+    private void readData() throws IOException {
+        System.out.println("(1) type in data");
+        System.out.println("(2) read data from a CSV file");
+        if (Integer.parseInt(reader.nextLine()) == 2) {
+            readDataFile();
+        } else {
+            typeData();
+        }
+    }
 
-        System.out.println("How many data?");
+    // MODIFIES: this
+    // EFFECTS: read the training data from a CSV file named by the user. The file is converted once into a columnar
+    // cache next to it, which is mapped into memory and reused as long as it is newer than the file
+    private void readDataFile() throws IOException {
+        System.out.println("file location?");
+        String location = reader.nextLine();
+        System.out.println("Does the first line hold column names? (y/n)");
+        CsvDataset csv = new CsvDataset(location, network.getLayer(0).getSize(),
+                network.getLayer(network.getLayers().size() - 1).getSize());
+        csv.setHeader(reader.nextLine().startsWith("y"));
+        MappedDataset mapped = MappedDataset.cache(csv, location, location + ".cache", false);
+        mapped.setNormalized(true);
+        System.out.println(mapped.size() + " data read");
+        dataset = mapped;
+    }
 
+    // MODIFIES: this
+    // EFFECTS: read the training data typed in by the user, normalizing each input
+    private void typeData() {
+        String[] stringData;
+        List<double[]> dataList = new ArrayList<double[]>();
+        List<double[]> expectedList = new ArrayList<double[]>();
+        System.out.println("How many data?");
         int num = Integer.parseInt(reader.nextLine());
         for (int i = 0; i < num; i++) {
             System.out.println(i + ": Type in your data in the form x1, x2, x3, ... , xn of length "
@@ -153,17 +208,17 @@ public class NetworkApp {
             for (int j = 0; j < stringData.length; j++) {
                 tempData[j] = Double.parseDouble(stringData[j]);
             }
-            dataList.add(tempData);
+            dataList.add(Process.normalize(tempData));
             System.out.println(i + ": Type in your expected output in the form y1, y2, y3, ..., yn of length "
                     + network.getLayer(network.getLayers().size() - 1).getSize());
-            double[] tempExpected = new double[network.getLayer(0).getSize()];
+            double[] tempExpected = new double[network.getLayer(network.getLayers().size() - 1).getSize()];
             stringData = reader.nextLine().split(",", 0);
             for (int j = 0; j < stringData.length; j++) {
                 tempExpected[j] = Double.parseDouble(stringData[j]);
             }
             expectedList.add(tempExpected);
         }
-
+        dataset = new InMemoryDataset(dataList.toArray(new double[0][]), expectedList.toArray(new double[0][]));
     }
 
     private void testNetwork() throws Exception {
@@ -189,7 +244,8 @@ public class NetworkApp {
             tempData[j] = Double.parseDouble(stringData[j]);
         }
         System.out.println("Output: ");
-        System.out.println(network.output(Process.listToOutput(tempData)));
+        double[] output = network.infer(tempData);
+        System.out.println(new Matrix(new Tensor(output, output.length, 1)));
 
 
 
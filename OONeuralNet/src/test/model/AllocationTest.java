@@ -0,0 +1,96 @@
+package model;
+
+import com.sun.management.ThreadMXBean;
+import model.neuralnetwork.ExecutionContext;
+import model.neuralnetwork.ExecutionPlan;
+import model.neuralnetwork.Layer;
+import model.neuralnetwork.Network;
+import model.operation.Activation;
+import model.operation.Process;
+import model.optimizer.Adam;
+import model.tensor.Tensor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Checks that the hot paths of training and inference allocate nothing once warmed up, by counting the bytes
+// allocated by the test thread (which HotSpot JVMs report through com.sun.management.ThreadMXBean)
+public class AllocationTest {
+    private static final int WARMUP = 2000;
+    private static final int STEPS = 1000;
+    private static final int BATCH = 8;
+
+    @Test
+    public void testTrainingStep() {
+        Network network = network();
+        Tensor inputs = Process.randTensor(BATCH, 4, "Xavier");
+        Tensor expected = oneHot(BATCH, 3);
+        assertAllocationFree(() -> network.backProp(inputs, expected, 1e-3));
+    }
+
+    @Test
+    public void testTrainingStepAdam() {
+        Network network = network();
+        network.setOptimizer(new Adam());
+        Tensor inputs = Process.randTensor(BATCH, 4, "Xavier");
+        Tensor expected = oneHot(BATCH, 3);
+        assertAllocationFree(() -> network.backProp(inputs, expected, 1e-3));
+    }
+
+    @Test
+    public void testForward() {
+        Network network = network();
+        ExecutionContext context = new ExecutionContext(network, BATCH);
+        Tensor inputs = Process.randTensor(BATCH, 4, "Xavier");
+        assertAllocationFree(() -> context.forward(network, inputs));
+    }
+
+    @Test
+    public void testExecutionPlan() {
+        ExecutionPlan plan = network().compile();
+        double[] input = Process.normalize(1, -2, 3, 0.5);
+        double[] output = new double[3];
+        double[] expected = {0, 1, 0};
+        assertAllocationFree(() -> plan.forward(input, output));
+        assertAllocationFree(() -> plan.backward(input, expected, 1));
+    }
+
+    // EFFECTS: return a small network of packed layers using several kinds of activation
+    private static Network network() {
+        Network network = new Network();
+        network.addLayer(new Layer(4, Activation.TANH));
+        network.addLayer(new Layer(16, Activation.GELU));
+        network.addLayer(new Layer(16, Activation.RELU));
+        network.addLayer(new Layer(3, Activation.SOFTMAX));
+        network.fullConnect();
+        return network;
+    }
+
+    // EFFECTS: return rows x cols expected outputs, each row having a 1 in a different column
+    private static Tensor oneHot(int rows, int cols) {
+        Tensor expected = new Tensor(rows, cols);
+        for (int r = 0; r < rows; r++) {
+            expected.set(r, r % cols, 1);
+        }
+        return expected;
+    }
+
+    // EFFECTS: check that step allocates less than one byte per run on average once it has run WARMUP times
+    private static void assertAllocationFree(Runnable step) {
+        ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            step.run();
+        }
+        long before = bean.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < STEPS; i++) {
+            step.run();
+        }
+        long allocated = bean.getThreadAllocatedBytes(thread) - before;
+        assertTrue(allocated < STEPS, allocated + " bytes allocated in " + STEPS + " steps");
+    }
+}
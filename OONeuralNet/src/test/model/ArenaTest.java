@@ -0,0 +1,66 @@
+package model;
+
+import model.tensor.Arena;
+import model.tensor.Tensor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArenaTest {
+
+    @Test
+    public void testAllocate() {
+        Arena arena = new Arena(20);
+        Tensor first = arena.allocate(2, 3);
+        Tensor second = arena.allocate(3, 4);
+        assertEquals(2, first.getDimRow());
+        assertEquals(4, second.getDimCol());
+        assertSame(first.getData(), second.getData());
+        assertEquals(first.getOffset() + 6, second.getOffset());
+        assertEquals(18, arena.getUsed());
+        assertEquals(20, arena.getCapacity());
+    }
+
+    @Test
+    public void testResetReuses() {
+        Arena arena = new Arena(20);
+        Tensor first = arena.allocate(2, 3);
+        Tensor second = arena.allocate(3, 4);
+        arena.reset();
+        assertEquals(0, arena.getUsed());
+        assertSame(first, arena.allocate(2, 3));
+        assertSame(second, arena.allocate(3, 4));
+        arena.reset();
+        Tensor other = arena.allocate(3, 2);
+        assertNotSame(first, other);
+        assertEquals(first.getOffset(), other.getOffset());
+        assertSame(second, arena.allocate(3, 4));
+    }
+
+    @Test
+    public void testGrow() {
+        Arena arena = new Arena(4);
+        Tensor first = arena.allocate(1, 3);
+        Tensor second = arena.allocate(2, 3);
+        assertTrue(arena.getCapacity() >= 9);
+        assertNotSame(first.getData(), second.getData());
+        second.fill(1);
+        assertEquals(0, first.getFlat(0));
+        arena.reset();
+        Tensor grownFirst = arena.allocate(1, 3);
+        assertNotSame(first, grownFirst);
+        assertSame(second, arena.allocate(2, 3));
+        arena.reset();
+        assertSame(grownFirst, arena.allocate(1, 3));
+        assertSame(second, arena.allocate(2, 3));
+    }
+
+    @Test
+    public void testManyTensors() {
+        Arena arena = new Arena(1);
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i, arena.allocate(1, 1).getOffset());
+        }
+        assertEquals(40, arena.getUsed());
+    }
+}
@@ -0,0 +1,92 @@
+package model;
+
+import model.data.Batch;
+import model.data.InMemoryDataset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.BinaryDataset;
+import persistence.BinaryDatasetWriter;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryDatasetTest {
+    private static final String FILE = "./data/testDataset.bin";
+    private InMemoryDataset dataset;
+
+    @BeforeEach
+    public void setUp() {
+        double[][] inputs = new double[1000][];
+        double[][] expected = new double[1000][];
+        for (int i = 0; i < 1000; i++) {
+            inputs[i] = new double[]{i, Math.sqrt(i), -i};
+            expected[i] = new double[]{i % 2};
+        }
+        dataset = new InMemoryDataset(inputs, expected);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        assertEquals(1000, new BinaryDatasetWriter(FILE).write(dataset));
+        BinaryDataset read = new BinaryDataset(FILE);
+        assertEquals(3, read.getInputSize());
+        assertEquals(1, read.getOutputSize());
+        assertEquals(Double.BYTES, read.getBytesPerValue());
+        assertSameSamples(read.batches(64, null), 0);
+    }
+
+    @Test
+    public void testSinglePrecision() throws IOException {
+        new BinaryDatasetWriter(FILE, true).write(dataset);
+        BinaryDataset read = new BinaryDataset(FILE);
+        assertEquals(Float.BYTES, read.getBytesPerValue());
+        assertSameSamples(read.batches(100, null), 1e-4);
+    }
+
+    @Test
+    public void testNotADatasetFile() {
+        try {
+            new BinaryDataset("./data/testReadMLP.json");
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        new BinaryDatasetWriter(FILE).write(dataset);
+        try (RandomAccessFile file = new RandomAccessFile(FILE, "rw")) {
+            file.setLength(file.length() - 8);
+        }
+        Iterator<Batch> batches = new BinaryDataset(FILE).batches(10, null);
+        try {
+            while (batches.hasNext()) {
+                batches.next();
+            }
+            fail("UncheckedIOException expected");
+        } catch (UncheckedIOException e) {
+            // pass
+        }
+    }
+
+    private void assertSameSamples(Iterator<Batch> batches, double delta) {
+        Iterator<Batch> expected = dataset.batches(1000, null);
+        Batch all = expected.next();
+        int row = 0;
+        while (batches.hasNext()) {
+            Batch batch = batches.next();
+            for (int r = 0; r < batch.size(); r++, row++) {
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(all.getInputs().get(row, c), batch.getInputs().get(r, c), delta * row);
+                }
+                assertEquals(all.getExpected().get(row, 0), batch.getExpected().get(r, 0));
+            }
+        }
+        assertEquals(1000, row);
+    }
+}
@@ -0,0 +1,77 @@
+package model;
+
+import model.neuralnetwork.Network;
+import org.junit.jupiter.api.Test;
+import persistence.BinaryReader;
+import persistence.BinaryWriter;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryReaderTest {
+
+    @Test
+    void testNonExistentFile() {
+        BinaryReader reader = new BinaryReader("./data/noSuchFile.bin");
+        try {
+            reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReadJsonFile() {
+        BinaryReader reader = new BinaryReader("./data/testReadMLP.json");
+        try {
+            reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReadTruncatedFile() throws IOException {
+        new BinaryWriter("./data/testReadMLP.bin").write(Network.multilayerPerceptron(4, 4, 4));
+        try (RandomAccessFile file = new RandomAccessFile("./data/testReadMLP.bin", "rw")) {
+            file.setLength(file.length() - 8);
+        }
+        try {
+            new BinaryReader("./data/testReadMLP.bin").read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReadOutOfRange() throws IOException {
+        new BinaryWriter("./data/testReadMLP.bin").write(Network.multilayerPerceptron(4, 4, 4));
+        byte[] valid = Files.readAllBytes(Paths.get("./data/testReadMLP.bin"));
+        // the number of layers
+        assertInvalid(valid, 3 * Integer.BYTES, -1);
+        assertInvalid(valid, 3 * Integer.BYTES, 0);
+        assertInvalid(valid, 3 * Integer.BYTES, 1 << 30);
+        // the size of layer 1
+        assertInvalid(valid, 6 * Integer.BYTES, 0);
+        assertInvalid(valid, 6 * Integer.BYTES, -5);
+        assertInvalid(valid, 6 * Integer.BYTES, 1 << 30);
+        assertInvalid(valid, 6 * Integer.BYTES, 1000);
+    }
+
+    // EFFECTS: assert that reading valid with the int at offset replaced by value throws IOException
+    private static void assertInvalid(byte[] valid, int offset, int value) throws IOException {
+        byte[] patched = valid.clone();
+        ByteBuffer.wrap(patched).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        Files.write(Paths.get("./data/testReadMLP.bin"), patched);
+        assertThrows(IOException.class, () -> new BinaryReader("./data/testReadMLP.bin").read());
+    }
+}
@@ -0,0 +1,111 @@
+package model;
+
+import model.neuralnetwork.Layer;
+import model.neuralnetwork.Network;
+import model.operation.Activation;
+import model.operation.Process;
+import model.tensor.Precision;
+import org.junit.jupiter.api.Test;
+import persistence.BinaryReader;
+import persistence.BinaryWriter;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryWriterTest {
+
+    @Test
+    void testWrite() throws Exception {
+        Network network = Network.multilayerPerceptron(4, 6, 5, 3);
+        network.getLayer(2).setActivation(Activation.SIGMOID);
+        new BinaryWriter("./data/testWriteMLP.bin").write(network);
+        Network loadedNetwork = new BinaryReader("./data/testWriteMLP.bin").read();
+
+        assertEquals(4, loadedNetwork.getLayers().size());
+        for (int i = 0; i < loadedNetwork.getLayers().size(); i++) {
+            assertEquals(network.getLayer(i).getSize(), loadedNetwork.getLayer(i).getSize());
+        }
+        for (int i = 1; i < loadedNetwork.getLayers().size(); i++) {
+            Layer layer = network.getLayer(i);
+            Layer loadedLayer = loadedNetwork.getLayer(i);
+            assertTrue(loadedLayer.isPacked());
+            assertEquals(layer.getActivation(), loadedLayer.getActivation());
+            assertArrayEquals(layer.getWeights().toArray(), loadedLayer.getWeights().toArray(), 0);
+            assertArrayEquals(layer.getBiases().toArray(), loadedLayer.getBiases().toArray(), 0);
+        }
+        double[] input = Process.normalize(1, 2, 3, 4);
+        assertArrayEquals(network.infer(input), loadedNetwork.infer(input), 0);
+    }
+
+    @Test
+    void testWriteSinglePrecision() throws IOException {
+        Network network = Network.multilayerPerceptron(3, 8, 2);
+        new BinaryWriter("./data/testWriteMLP.bin", true).write(network);
+        Network loadedNetwork = new BinaryReader("./data/testWriteMLP.bin").read();
+        for (int i = 1; i < loadedNetwork.getLayers().size(); i++) {
+            Layer layer = network.getLayer(i);
+            Layer loadedLayer = loadedNetwork.getLayer(i);
+            assertArrayEquals(layer.getWeights().toArray(), loadedLayer.getWeights().toArray(), 1e-6);
+            assertArrayEquals(layer.getBiases().toArray(), loadedLayer.getBiases().toArray(), 1e-6);
+        }
+    }
+
+    @Test
+    void testWriteNetworkPrecision() throws IOException {
+        Network network = Network.multilayerPerceptron(3, 8, 2);
+        network.setPrecision(Precision.SINGLE);
+        new BinaryWriter("./data/testWriteMLP.bin").write(network);
+        Network loadedNetwork = new BinaryReader("./data/testWriteMLP.bin").read();
+        assertEquals(Precision.MIXED, loadedNetwork.getPrecision());
+        for (int i = 1; i < loadedNetwork.getLayers().size(); i++) {
+            assertArrayEquals(network.getLayer(i).getWeights().toArray(),
+                    loadedNetwork.getLayer(i).getWeights().toArray(), 0);
+            assertArrayEquals(network.getLayer(i).getBiases().toArray(),
+                    loadedNetwork.getLayer(i).getBiases().toArray(), 0);
+        }
+        new BinaryWriter("./data/testWriteMLP.bin", false).write(loadedNetwork);
+        assertEquals(Precision.DOUBLE, new BinaryReader("./data/testWriteMLP.bin").read().getPrecision());
+    }
+
+    @Test
+    void testWriteCustomLayer() throws IOException {
+        Network network = Network.multilayerPerceptron(3, 4, 2);
+        network.getLayer(1).setActivateFunction(Process::sigmoid);
+        new BinaryWriter("./data/testWriteMLP.bin").write(Network.multilayerPerceptron(3, 4, 2));
+        byte[] saved = Files.readAllBytes(Paths.get("./data/testWriteMLP.bin"));
+        try {
+            new BinaryWriter("./data/testWriteMLP.bin").write(network);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals("Layer 1 is not fully connected", e.getMessage());
+        }
+        assertArrayEquals(saved, Files.readAllBytes(Paths.get("./data/testWriteMLP.bin")));
+    }
+
+    @Test
+    void testReadCustomLayer() throws IOException {
+        new BinaryWriter("./data/testWriteMLP.bin").write(Network.multilayerPerceptron(3, 4, 2));
+        try (RandomAccessFile file = new RandomAccessFile("./data/testWriteMLP.bin", "rw")) {
+            // the activation of layer 1 in the header
+            file.seek(4 * Integer.BYTES + 3 * Integer.BYTES);
+            file.write(new byte[]{-1, -1, -1, -1});
+        }
+        assertThrows(IOException.class, () -> new BinaryReader("./data/testWriteMLP.bin").read());
+    }
+
+    @Test
+    void testWriteSparse() throws IOException {
+        Network network = Network.multilayerPerceptron(3, 4, 2);
+        network.prune(0.1);
+        try {
+            new BinaryWriter("./data/testWriteMLP.bin").write(network);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals("Layer 1 is sparse", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package model;
+
+import model.tensor.CsrPattern;
+import model.tensor.Tensor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsrPatternTest {
+
+    @Test
+    public void testDense() {
+        CsrPattern pattern = CsrPattern.dense(2, 3);
+        assertEquals(2, pattern.getRows());
+        assertEquals(3, pattern.getCols());
+        assertEquals(6, pattern.getSize());
+        assertEquals(3, pattern.getRowStart(1));
+        assertEquals(3, pattern.getRowLength(1));
+        assertEquals(2, pattern.getColumn(5));
+    }
+
+    @Test
+    public void testLocal() {
+        // 4 rows over 8 columns, 3 columns each, centred on columns 1, 3, 5 and 7 but kept within the edges
+        CsrPattern pattern = CsrPattern.local(4, 8, 3);
+        assertEquals(12, pattern.getSize());
+        int[][] expected = {{0, 1, 2}, {2, 3, 4}, {4, 5, 6}, {5, 6, 7}};
+        for (int r = 0; r < 4; r++) {
+            assertEquals(3, pattern.getRowLength(r));
+            for (int e = 0; e < 3; e++) {
+                assertEquals(expected[r][e], pattern.getColumn(pattern.getRowStart(r) + e));
+            }
+        }
+        assertEquals(4, CsrPattern.local(2, 4, 10).getRowLength(1));
+    }
+
+    @Test
+    public void testPruneGatherScatter() {
+        Tensor matrix = new Tensor(new double[]{0.5, -0.01, 0.2, 0.03, -0.04, 0.02}, 2, 3);
+        CsrPattern pattern = CsrPattern.prune(matrix, 0.1);
+        // the second row keeps its largest element only
+        assertEquals(3, pattern.getSize());
+        assertEquals(2, pattern.getRowLength(0));
+        assertEquals(1, pattern.getRowLength(1));
+        assertEquals(1, pattern.getColumn(2));
+        Tensor values = pattern.gather(matrix);
+        assertTrue(values.hasGrad());
+        assertArrayEquals(new double[]{0.5, 0.2, -0.04}, values.toArray());
+        assertArrayEquals(new double[]{0.5, 0, 0.2, 0, -0.04, 0}, pattern.scatter(values).toArray());
+    }
+}
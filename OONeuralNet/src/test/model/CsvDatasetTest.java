@@ -0,0 +1,89 @@
+package model;
+
+import model.data.Batch;
+import org.junit.jupiter.api.Test;
+import persistence.CsvDataset;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvDatasetTest {
+    private static final String FILE = "./data/testDataset.csv";
+
+    @Test
+    public void testRead() throws IOException {
+        write("x1,x2,y1,y2", "1,2,0,1", "", "3,4,1,0", "5,0.5,0,1");
+        CsvDataset dataset = new CsvDataset(FILE, 2, 2);
+        dataset.setHeader(true);
+        assertTrue(dataset.hasHeader());
+        assertEquals(2, dataset.getInputSize());
+        assertEquals(2, dataset.getOutputSize());
+        Iterator<Batch> batches = dataset.batches(2, null);
+        Batch batch = batches.next();
+        assertArrayEquals(new double[]{1, 2, 3, 4}, batch.getInputs().toArray());
+        assertArrayEquals(new double[]{0, 1, 1, 0}, batch.getExpected().toArray());
+        batch = batches.next();
+        assertEquals(1, batch.size());
+        assertArrayEquals(new double[]{5, 0.5}, batch.getInputs().toArray());
+        assertFalse(batches.hasNext());
+    }
+
+    @Test
+    public void testChunksShuffledAndNormalized() throws IOException {
+        String[] lines = new String[10];
+        for (int i = 0; i < 10; i++) {
+            lines[i] = (i + 1) + ",0," + i;
+        }
+        write(lines);
+        CsvDataset dataset = new CsvDataset(FILE, 2, 1);
+        dataset.setChunkSize(3);
+        dataset.setNormalized(true);
+        assertTrue(dataset.isNormalized());
+        assertEquals(3, dataset.getChunkSize());
+        Iterator<Batch> batches = dataset.batches(2, new Random(7));
+        // chunks are rounded up to 4 samples, and samples never leave their chunk
+        int count = 0;
+        while (batches.hasNext()) {
+            Batch batch = batches.next();
+            for (int r = 0; r < batch.size(); r++) {
+                assertEquals(1, batch.getInputs().get(r, 0));
+                assertEquals(count / 4, (int) batch.getExpected().get(r, 0) / 4);
+                count++;
+            }
+        }
+        assertEquals(10, count);
+    }
+
+    @Test
+    public void testMalformed() throws IOException {
+        String[][] files = {{"1,2,3"}, {"1,2,3,4,5"}, {"1,a,3,4"}};
+        for (String[] lines : files) {
+            write(lines);
+            try {
+                new CsvDataset(FILE, 2, 2).batches(1, null).next();
+                fail("UncheckedIOException expected");
+            } catch (UncheckedIOException e) {
+                assertTrue(e.getCause().getMessage().contains("line 1"));
+            }
+        }
+        try {
+            new CsvDataset("./data/noSuchFile.csv", 2, 2).batches(1, null);
+            fail("UncheckedIOException expected");
+        } catch (UncheckedIOException e) {
+            // pass
+        }
+    }
+
+    private static void write(String... lines) throws IOException {
+        try (PrintWriter writer = new PrintWriter(FILE, "UTF-8")) {
+            for (String line : lines) {
+                writer.println(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package model;
+
+import model.neuralnetwork.Network;
+import model.operation.Process;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+    private EventLog log;
+
+    @BeforeEach
+    public void setUp() {
+        log = EventLog.getInstance();
+        log.setLevel(LogLevel.INFO);
+        log.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        log.setLevel(LogLevel.INFO);
+    }
+
+    @Test
+    public void testBounded() {
+        for (int i = 0; i < 3 * EventLog.CAPACITY; i++) {
+            log.logEvent(new Event("event " + i));
+        }
+        List<Event> events = toList(log.iterator());
+        assertEquals(EventLog.CAPACITY, events.size());
+        assertEquals("event " + (2 * EventLog.CAPACITY), events.get(0).getDescription());
+        assertEquals("event " + (3 * EventLog.CAPACITY - 1), events.get(events.size() - 1).getDescription());
+    }
+
+    @Test
+    public void testClear() {
+        log.logEvent(new Event("before"));
+        log.clear();
+        List<Event> events = toList(log.iterator());
+        assertEquals(1, events.size());
+        assertEquals("Event log cleared.", events.get(0).getDescription());
+    }
+
+    @Test
+    public void testLevel() throws Exception {
+        assertTrue(log.isEnabled(LogLevel.WARN));
+        assertFalse(log.isEnabled(LogLevel.DEBUG));
+        Network network = Network.multilayerPerceptron(2, 3, 2);
+        log.clear();
+        log.logEvent(new Event("hidden", LogLevel.DEBUG));
+        network.output(Process.listToNormalizedInput(1, 2));
+        assertEquals(1, toList(log.iterator()).size());
+        log.setLevel(LogLevel.DEBUG);
+        assertEquals(LogLevel.DEBUG, log.getLevel());
+        network.output(Process.listToNormalizedInput(1, 2));
+        List<Event> events = toList(log.iterator());
+        assertEquals(2, events.size());
+        assertEquals(LogLevel.DEBUG, events.get(1).getLevel());
+        assertTrue(events.get(1).getDescription().startsWith("Output of Network"));
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    log.logEvent(new Event(id + ":" + i));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        List<Event> events = toList(log.iterator());
+        assertEquals(EventLog.CAPACITY, events.size());
+        for (Event event : events) {
+            assertNotNull(event);
+        }
+    }
+
+    @Test
+    public void testSinks() throws IOException {
+        List<Event> received = new ArrayList<>();
+        EventSink sink = new EventSink() {
+            @Override
+            public void accept(Event event) {
+                received.add(event);
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+        log.addSink(sink);
+        for (int i = 0; i < 100; i++) {
+            log.logEvent(new Event("event " + i));
+        }
+        log.flush();
+        log.removeSink(sink);
+        assertEquals(100, received.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("event " + i, received.get(i).getDescription());
+        }
+        assertEquals(0, log.getDropped());
+    }
+
+    @Test
+    public void testRollingFileSink() throws IOException {
+        Path dir = Files.createTempDirectory("eventlog");
+        String path = dir.resolve("network.log").toString();
+        RollingFileSink sink = new RollingFileSink(path, 200, 2);
+        for (int i = 0; i < 20; i++) {
+            sink.accept(new Event("event " + i));
+        }
+        sink.close();
+        assertTrue(Files.exists(dir.resolve("network.log.1")));
+        assertTrue(Files.exists(dir.resolve("network.log.2")));
+        assertFalse(Files.exists(dir.resolve("network.log.3")));
+        assertTrue(Files.size(dir.resolve("network.log.1")) >= 200);
+        List<String> lines = Files.readAllLines(dir.resolve("network.log.1"));
+        lines.addAll(Files.readAllLines(dir.resolve("network.log")));
+        assertTrue(lines.get(lines.size() - 1).endsWith("INFO event 19"));
+    }
+
+    private static List<Event> toList(Iterator<Event> iterator) {
+        List<Event> events = new ArrayList<>();
+        iterator.forEachRemaining(events::add);
+        return events;
+    }
+}
@@ -0,0 +1,47 @@
+package model;
+
+import model.neuralnetwork.ExecutionContext;
+import model.neuralnetwork.Layer;
+import model.neuralnetwork.Network;
+import model.operation.Activation;
+import model.operation.Process;
+import model.tensor.Tensor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionContextTest {
+
+    @Test
+    public void testInfer() throws Exception {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        ExecutionContext context = new ExecutionContext(network, 1);
+        double[] input = Process.normalize(1, -2, 3);
+        double[] output = context.infer(network, input);
+        assertArrayEquals(network.infer(input), output, 1e-12);
+        assertNotSame(output, context.infer(network, input));
+    }
+
+    @Test
+    public void testForward() {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        ExecutionContext context = new ExecutionContext(network, 4);
+        assertEquals(4, context.getCapacity());
+        Tensor inputs = new Tensor(new double[]{1, 0, -1, 0.5, 0.5, 2}, 2, 3);
+        Tensor output = context.forward(network, inputs);
+        assertEquals(2, output.getDimRow());
+        Tensor expected = network.getLayer(2).forward(network.getLayer(1).forward(inputs));
+        assertArrayEquals(expected.toArray(), output.toArray(), 1e-12);
+    }
+
+    @Test
+    public void testFits() {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        ExecutionContext context = new ExecutionContext(network, 2);
+        assertTrue(context.fits(network, 2));
+        assertFalse(context.fits(network, 3));
+        assertFalse(context.fits(Network.multilayerPerceptron(3, 6, 4), 1));
+        network.addLayer(new Layer(2, Activation.SOFTMAX));
+        assertFalse(context.fits(network, 1));
+    }
+}
@@ -0,0 +1,182 @@
+package model;
+
+import model.neuralnetwork.ExecutionPlan;
+import model.neuralnetwork.Layer;
+import model.neuralnetwork.Network;
+import model.operation.Activation;
+import model.operation.Process;
+import model.tensor.CsrPattern;
+import model.tensor.Precision;
+import model.tensor.Tensor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionPlanTest {
+
+    @Test
+    public void testForward() throws Exception {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        ExecutionPlan plan = network.compile();
+        assertEquals(3, plan.getInputSize());
+        assertEquals(4, plan.getOutputSize());
+        double[] input = Process.normalize(1, -2, 3);
+        double[] output = new double[4];
+        plan.forward(input, output);
+        assertArrayEquals(network.infer(input), output, 1e-12);
+    }
+
+    @Test
+    public void testForwardSparse() throws Exception {
+        Network network = Network.multilayerPerceptron(8, 4, 3);
+        network.sparseConnect(1, CsrPattern.local(4, 8, 3));
+        double[] input = Process.normalize(1, -2, 3, 0, 0.5, 4, -1, 2);
+        double[] output = new double[3];
+        network.compile().forward(input, output);
+        assertArrayEquals(network.infer(input), output, 1e-12);
+    }
+
+    @Test
+    public void testCompileCached() {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        ExecutionPlan plan = network.compile();
+        assertSame(plan, network.compile());
+        assertTrue(plan.isCompiledFrom(network));
+        network.getLayer(1).setActivation(Activation.RELU);
+        assertFalse(plan.isCompiledFrom(network));
+        ExecutionPlan recompiled = network.compile();
+        assertNotSame(plan, recompiled);
+        network.fullConnect();
+        assertFalse(recompiled.isCompiledFrom(network));
+        assertFalse(recompiled.isCompiledFrom(Network.multilayerPerceptron(3, 5, 4)));
+    }
+
+    @Test
+    public void testCompileNotPacked() {
+        Network network = new Network();
+        network.addLayer(new Layer(3, Activation.TANH));
+        assertThrows(IllegalStateException.class, network::compile);
+        network.addLayer(new Layer(2, Process::rowAppend, Process::linear, Process::tanh));
+        network.fullConnect();
+        assertThrows(IllegalStateException.class, network::compile);
+    }
+
+    @Test
+    public void testForwardSingle() throws Exception {
+        for (Precision precision : new Precision[]{Precision.SINGLE, Precision.MIXED}) {
+            Network network = Network.multilayerPerceptron(8, 16, 4);
+            network.sparseConnect(2, CsrPattern.local(4, 16, 5));
+            network.setPrecision(precision);
+            ExecutionPlan plan = network.compile();
+            assertEquals(precision, plan.getPrecision());
+            double[] input = Process.normalize(1, -2, 3, 0, 0.5, 4, -1, 2);
+            double[] output = new double[4];
+            plan.forward(input, output);
+            assertArrayEquals(network.infer(input), output, 1e-5);
+        }
+    }
+
+    @Test
+    public void testForwardSingleRefreshed() throws Exception {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        network.setPrecision(Precision.SINGLE);
+        ExecutionPlan plan = network.compile();
+        double[] input = Process.normalize(1, -2, 3);
+        double[] output = new double[4];
+        plan.forward(input, output);
+        network.backProp(new Tensor(input, 1, 3), new Tensor(new double[]{0, 1, 0, 0}, 1, 4), 0.5);
+        assertSame(plan, network.compile());
+        plan.forward(input, output);
+        assertArrayEquals(network.infer(input), output, 1e-5);
+        network.setPrecision(Precision.DOUBLE);
+        assertFalse(plan.isCompiledFrom(network));
+        network.compile().forward(input, output);
+        assertArrayEquals(network.infer(input), output, 1e-12);
+    }
+
+    @Test
+    public void testBackwardSingle() {
+        CsrPattern pattern = CsrPattern.local(4, 8, 3);
+        Network single = Network.multilayerPerceptron(8, 4, 3);
+        single.sparseConnect(1, pattern);
+        single.setPrecision(Precision.SINGLE);
+        Network reference = Network.multilayerPerceptron(8, 4, 3);
+        reference.sparseConnect(1, pattern);
+        for (int i = 1; i < 3; i++) {
+            reference.getLayer(i).getWeights().assign(single.getLayer(i).getWeights());
+            reference.getLayer(i).getBiases().assign(single.getLayer(i).getBiases());
+        }
+        double[] input = Process.normalize(1, -2, 3, 0, 0.5, 4, -1, 2);
+        double[] expected = {0, 0, 1};
+        assertEquals(reference.compile().backward(input, expected, 2), single.compile().backward(input, expected, 2),
+                1e-12);
+        for (int i = 1; i < 3; i++) {
+            assertArrayEquals(reference.getLayer(i).getWeights().gradient().toArray(),
+                    single.getLayer(i).getWeights().gradient().toArray(), 1e-12);
+            assertArrayEquals(reference.getLayer(i).getBiases().gradient().toArray(),
+                    single.getLayer(i).getBiases().gradient().toArray(), 1e-12);
+        }
+    }
+
+    @Test
+    public void testBackwardSoftmax() {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        assertGradients(network, Process.normalize(1, -2, 3), new double[]{0, 1, 0, 0});
+    }
+
+    @Test
+    public void testBackward() {
+        Network network = new Network();
+        network.addLayer(new Layer(3, Activation.TANH));
+        network.addLayer(new Layer(5, Activation.GELU));
+        network.addLayer(new Layer(4, Activation.LEAKY_RELU));
+        network.addLayer(new Layer(2, Activation.SIGMOID));
+        network.fullConnect();
+        assertGradients(network, Process.normalize(1, -2, 3), new double[]{1, 0});
+    }
+
+    @Test
+    public void testBackwardSparse() {
+        Network network = Network.multilayerPerceptron(8, 4, 3);
+        network.sparseConnect(1, CsrPattern.local(4, 8, 3));
+        assertGradients(network, Process.normalize(1, -2, 3, 0, 0.5, 4, -1, 2), new double[]{0, 0, 1});
+    }
+
+    // EFFECTS: check that backward returns the loss of input and adds to the gradient of every parameter half of
+    // its central difference derivative (batch of 2)
+    private void assertGradients(Network network, double[] input, double[] expected) {
+        ExecutionPlan plan = network.compile();
+        double loss = plan.backward(input, expected, 2);
+        assertEquals(loss(plan, input, expected), loss, 1e-9);
+        for (int i = 1; i < network.getLayers().size(); i++) {
+            assertGradients(plan, network.getLayer(i).getWeights(), input, expected);
+            assertGradients(plan, network.getLayer(i).getBiases(), input, expected);
+        }
+    }
+
+    // EFFECTS: check the gradient of every element of parameter against a central difference
+    private void assertGradients(ExecutionPlan plan, Tensor parameter, double[] input, double[] expected) {
+        double h = 1e-6;
+        for (int k = 0; k < parameter.getSize(); k++) {
+            double value = parameter.getFlat(k);
+            parameter.setFlat(k, value + h);
+            double above = loss(plan, input, expected);
+            parameter.setFlat(k, value - h);
+            double below = loss(plan, input, expected);
+            parameter.setFlat(k, value);
+            double grad = parameter.getGrad()[parameter.getOffset() + k];
+            assertEquals((above - below) / (2 * h) / 2, grad, 1e-6);
+        }
+    }
+
+    // EFFECTS: return the cross entropy loss of the output of plan for input
+    private double loss(ExecutionPlan plan, double[] input, double[] expected) {
+        double[] output = new double[expected.length];
+        plan.forward(input, output);
+        double loss = 0;
+        for (int j = 0; j < output.length; j++) {
+            loss -= expected[j] * Math.log(output[j]);
+        }
+        return loss;
+    }
+}
@@ -0,0 +1,97 @@
+package model;
+
+import model.data.Batch;
+import model.data.InMemoryDataset;
+import model.data.IndexedDataset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryDatasetTest {
+    private InMemoryDataset dataset;
+
+    @BeforeEach
+    public void setUp() {
+        double[][] inputs = new double[7][];
+        double[][] expected = new double[7][];
+        for (int i = 0; i < 7; i++) {
+            inputs[i] = new double[]{i, -i};
+            expected[i] = new double[]{i % 2, 1 - i % 2, 10 * i};
+        }
+        dataset = new InMemoryDataset(inputs, expected);
+    }
+
+    @Test
+    public void testConstructor() {
+        assertEquals(7, dataset.size());
+        assertEquals(2, dataset.getInputSize());
+        assertEquals(3, dataset.getOutputSize());
+    }
+
+    @Test
+    public void testBatchesInOrder() {
+        Iterator<Batch> batches = dataset.batches(3, null);
+        int[] sizes = {3, 3, 1};
+        int sample = 0;
+        for (int size : sizes) {
+            Batch batch = batches.next();
+            assertEquals(size, batch.size());
+            for (int r = 0; r < size; r++) {
+                assertEquals(sample, batch.getInputs().get(r, 0));
+                assertEquals(-sample, batch.getInputs().get(r, 1));
+                assertEquals(10 * sample, batch.getExpected().get(r, 2));
+                sample++;
+            }
+        }
+        assertFalse(batches.hasNext());
+    }
+
+    @Test
+    public void testBatchesShuffled() {
+        boolean[] seen = new boolean[7];
+        Iterator<Batch> batches = dataset.batches(2, new Random(4));
+        while (batches.hasNext()) {
+            Batch batch = batches.next();
+            for (int r = 0; r < batch.size(); r++) {
+                int sample = (int) batch.getInputs().get(r, 0);
+                assertFalse(seen[sample]);
+                seen[sample] = true;
+                assertEquals(10 * sample, batch.getExpected().get(r, 2));
+            }
+        }
+        for (boolean s : seen) {
+            assertTrue(s);
+        }
+    }
+
+    @Test
+    public void testPermutation() {
+        int[] order = IndexedDataset.permutation(50, new Random(1));
+        int[] sorted = order.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(IndexedDataset.permutation(50, null), sorted);
+        assertFalse(Arrays.equals(sorted, order));
+    }
+
+    @Test
+    public void testSplit() {
+        InMemoryDataset[] split = dataset.split(0.3, new Random(2));
+        assertEquals(5, split[0].size());
+        assertEquals(2, split[1].size());
+        double sum = 0;
+        for (InMemoryDataset part : split) {
+            Iterator<Batch> batches = part.batches(10, null);
+            Batch batch = batches.next();
+            for (int r = 0; r < batch.size(); r++) {
+                sum += batch.getInputs().get(r, 0);
+            }
+        }
+        assertEquals(21, sum);
+        assertEquals(1, dataset.split(0.01, new Random(2))[1].size());
+    }
+}
@@ -2,15 +2,20 @@ package model;
 
 import model.neuralnetwork.Network;
 import model.neuralnetwork.Neuron;
+import model.tensor.Precision;
 import org.junit.jupiter.api.Test;
 import persistence.JsonReader;
 import persistence.JsonWriter;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 public class JsonWriterTest {
 
@@ -32,6 +37,7 @@ public class JsonWriterTest {
         }
 
         for (int i = 1; i < loadedNetwork.getLayers().size(); i++) {
+            assertTrue(loadedNetwork.getLayer(i).isPacked());
             for (int j = 0; j < loadedNetwork.getLayer(i).getNeurons().size(); j++) {
                 Neuron neuron = network.getLayer(i).getNeuron(j);
                 Neuron loadedNeuron = loadedNetwork.getLayer(i).getNeuron(j);
@@ -55,4 +61,40 @@ public class JsonWriterTest {
         }
 
     }
+
+    @Test
+    void testWritePrecision() throws IOException {
+        JsonWriter jsonWriter = new JsonWriter("./data/testWriteMLP.json");
+        jsonWriter.open();
+        Network network = Network.multilayerPerceptron(4, 4, 4);
+        network.setPrecision(Precision.SINGLE);
+        jsonWriter.write(network);
+        jsonWriter.close();
+
+        Network loadedNetwork = new JsonReader("./data/testWriteMLP.json").read();
+        assertEquals(Precision.SINGLE, loadedNetwork.getPrecision());
+        for (int i = 1; i < loadedNetwork.getLayers().size(); i++) {
+            assertArrayEquals(network.getLayer(i).getWeights().toArray(),
+                    loadedNetwork.getLayer(i).getWeights().toArray(), 0);
+        }
+    }
+
+    @Test
+    void testWriteSparse() throws IOException {
+        Network network = Network.multilayerPerceptron(4, 3, 2);
+        network.prune(0.3);
+        Path path = Files.createTempDirectory("json").resolve("sparse.json");
+        Files.write(path, "{}".getBytes(StandardCharsets.UTF_8));
+        JsonWriter jsonWriter = new JsonWriter(path.toString());
+        jsonWriter.open();
+        try {
+            jsonWriter.write(network);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals("Layer 1 is sparse", e.getMessage());
+        } finally {
+            jsonWriter.close();
+        }
+        assertEquals("{}", new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,298 @@
+package model;
+
+import model.operation.Process;
+import model.tensor.CsrPattern;
+import model.tensor.KernelBackend;
+import model.tensor.Kernels;
+import model.tensor.Tensor;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KernelsTest {
+
+    // a is 2 x 3, b is 3 x 2
+    private final Tensor a = new Tensor(new double[]{1, 2, 3, 4, 5, 6}, 2, 3);
+    private final Tensor b = new Tensor(new double[]{7, 8, 9, 10, 11, 12}, 3, 2);
+
+    @Test
+    public void testGemv() {
+        Tensor y = new Tensor(2);
+        Kernels.gemv(a, new Tensor(new double[]{1, 0, -1}, 3), y);
+        assertArrayEquals(new double[]{-2, -2}, y.toArray());
+    }
+
+    @Test
+    public void testGemm() {
+        Tensor c = new Tensor(2, 2);
+        Kernels.gemm(a, false, b, false, c, false);
+        assertArrayEquals(new double[]{58, 64, 139, 154}, c.toArray());
+        Kernels.gemm(a, false, b, false, c, true);
+        assertArrayEquals(new double[]{116, 128, 278, 308}, c.toArray());
+    }
+
+    @Test
+    public void testGemmTransposed() {
+        // a * a^T
+        Tensor c = new Tensor(2, 2);
+        Kernels.gemm(a, false, a, true, c, false);
+        assertArrayEquals(new double[]{14, 32, 32, 77}, c.toArray());
+        // a^T * a
+        Tensor d = new Tensor(3, 3);
+        Kernels.gemm(a, true, a, false, d, false);
+        assertArrayEquals(new double[]{17, 22, 27, 22, 29, 36, 27, 36, 45}, d.toArray());
+        // b^T * a^T = (a * b)^T
+        Tensor e = new Tensor(2, 2);
+        Kernels.gemm(b, true, a, true, e, false);
+        assertArrayEquals(new double[]{58, 139, 64, 154}, e.toArray());
+    }
+
+    @Test
+    public void testAddRow() {
+        Tensor c = new Tensor(2, 3);
+        Kernels.addRow(c, new Tensor(new double[]{1, 2, 3}, 3));
+        assertArrayEquals(new double[]{1, 2, 3, 1, 2, 3}, c.toArray());
+    }
+
+    @Test
+    public void testBackends() {
+        Random random = new Random(11);
+        for (int n = 0; n < 40; n++) {
+            double[] x = new double[n + 3];
+            double[] y = new double[n + 5];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = random.nextGaussian();
+            }
+            for (int i = 0; i < y.length; i++) {
+                y[i] = random.nextGaussian();
+            }
+            double expected = 0;
+            for (int i = 0; i < n; i++) {
+                expected += x[3 + i] * y[5 + i];
+            }
+            for (KernelBackend backend : KernelBackend.values()) {
+                assertEquals(expected, backend.dot(x, 3, y, 5, n), 1e-12);
+                double[] z = y.clone();
+                backend.axpy(-2, x, 3, z, 5, n);
+                for (int i = 0; i < y.length; i++) {
+                    assertEquals(i < 5 ? y[i] : y[i] - 2 * x[i - 2], z[i], 1e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFloatBackends() {
+        Random random = new Random(13);
+        for (int n = 0; n < 40; n++) {
+            float[] x = new float[n + 2];
+            float[] y = new float[n + 1];
+            double[] z = new double[n + 1];
+            double expected = 0;
+            for (int i = 0; i < n; i++) {
+                x[2 + i] = (float) random.nextGaussian();
+                y[1 + i] = (float) random.nextGaussian();
+                z[1 + i] = y[1 + i];
+                expected += (double) x[2 + i] * y[1 + i];
+            }
+            for (KernelBackend backend : KernelBackend.values()) {
+                assertEquals(expected, backend.dot(x, 2, y, 1, n), 1e-5);
+                assertEquals(expected, backend.dotMixed(x, 2, y, 1, n), 1e-12);
+                assertEquals(expected, backend.dot(x, 2, z, 1, n), 1e-12);
+                double[] w = z.clone();
+                backend.axpy(-2, x, 2, w, 1, n);
+                for (int i = 1; i < w.length; i++) {
+                    assertEquals(z[i] - 2 * x[i + 1], w[i], 1e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testByteBackends() {
+        Random random = new Random(17);
+        for (int n = 0; n < 40; n++) {
+            byte[] x = new byte[n + 1];
+            byte[] y = new byte[n + 3];
+            random.nextBytes(x);
+            random.nextBytes(y);
+            int expected = 0;
+            for (int i = 0; i < n; i++) {
+                expected += x[1 + i] * y[3 + i];
+            }
+            for (KernelBackend backend : KernelBackend.values()) {
+                assertEquals(expected, backend.dot(x, 1, y, 3, n));
+            }
+        }
+        byte[] extreme = new byte[1 << 10];
+        Arrays.fill(extreme, Byte.MIN_VALUE);
+        assertEquals(extreme.length << 14, KernelBackend.UNROLLED.dot(extreme, 0, extreme, 0, extreme.length));
+    }
+
+    @Test
+    public void testSelect() {
+        assertEquals(KernelBackend.UNROLLED, Kernels.getBackend());
+        System.setProperty(KernelBackend.PROPERTY, "Scalar");
+        assertEquals(KernelBackend.SCALAR, KernelBackend.select());
+        System.setProperty(KernelBackend.PROPERTY, "none");
+        assertEquals(KernelBackend.UNROLLED, KernelBackend.select());
+        System.clearProperty(KernelBackend.PROPERTY);
+        assertEquals(KernelBackend.UNROLLED, KernelBackend.select());
+    }
+
+    @Test
+    public void testGemmOddShapes() {
+        // 5 x 7 times 7 x 6 in every transposed variant, against the definition
+        Tensor x = Process.randTensor(5, 7, "Xavier");
+        Tensor y = Process.randTensor(7, 6, "Xavier");
+        Tensor xt = transpose(x);
+        Tensor yt = transpose(y);
+        Tensor expected = new Tensor(5, 6);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 6; j++) {
+                for (int p = 0; p < 7; p++) {
+                    expected.set(i, j, expected.get(i, j) + x.get(i, p) * y.get(p, j));
+                }
+            }
+        }
+        Tensor[][] operands = {{x, y}, {xt, y}, {x, yt}, {xt, yt}};
+        for (int variant = 0; variant < 4; variant++) {
+            Tensor c = new Tensor(5, 6);
+            c.fill(1);
+            Kernels.gemm(operands[variant][0], variant % 2 == 1, operands[variant][1], variant >= 2, c, true);
+            for (int i = 0; i < 30; i++) {
+                assertEquals(expected.getFlat(i) + 1, c.getFlat(i), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testSingleOperands() {
+        Tensor y = new Tensor(2);
+        Kernels.gemv(a.toSingle(), new Tensor(new double[]{1, 0, -1}, 3), y);
+        assertArrayEquals(new double[]{-2, -2}, y.toArray());
+        Tensor c = new Tensor(2, 3);
+        Kernels.addRow(c, new Tensor(new double[]{1, 2, 3}, 3).toSingle());
+        assertArrayEquals(new double[]{1, 2, 3, 1, 2, 3}, c.toArray());
+        assertEquals(14, Kernels.dot(a.toSingle().view(0, 3), a.view(0, 3)));
+        assertEquals(14, Kernels.dot(a.view(0, 3), a.toSingle().view(0, 3)));
+        Tensor z = new Tensor(3);
+        Kernels.axpy(2, a.toSingle().view(3, 3), z);
+        assertArrayEquals(new double[]{8, 10, 12}, z.toArray());
+    }
+
+    @Test
+    public void testGemmSingle() {
+        // b stored in float, small and blocked, against the same product with b widened to double
+        for (int[] shape : new int[][]{{5, 7, 6}, {67, 300, 71}}) {
+            Tensor x = Process.randTensor(shape[0], shape[1], "Xavier");
+            Tensor y = Process.randTensor(shape[1], shape[2], "Xavier").toSingle();
+            Tensor[][] operands = {{x, y}, {transpose(x), y}, {x, transpose(y).toSingle()},
+                {transpose(x), transpose(y).toSingle()}};
+            for (int variant = 0; variant < 4; variant++) {
+                Tensor expected = new Tensor(shape[0], shape[2]);
+                Tensor c = new Tensor(shape[0], shape[2]);
+                Tensor[] operand = operands[variant];
+                Kernels.gemm(operand[0], variant % 2 == 1, operand[1].toDouble(), variant >= 2, expected, false);
+                Kernels.gemm(operand[0], variant % 2 == 1, operand[1], variant >= 2, c, false);
+                assertArrayEquals(expected.toArray(), c.toArray(), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testGemmBlocked() {
+        // large enough to be blocked, with partial register tiles and two panels along the shared dimension
+        assertGemmVariants(67, 300, 71);
+    }
+
+    @Test
+    public void testGemmParallel() {
+        // large enough to be split across row blocks on the common pool
+        assertGemmVariants(203, 520, 33);
+    }
+
+    @Test
+    public void testCsrGemm() {
+        CsrPattern pattern = CsrPattern.local(5, 7, 3);
+        Tensor values = Process.randTensor(1, pattern.getSize(), "Xavier");
+        Tensor dense = pattern.scatter(values);
+        Tensor input = Process.randTensor(4, 7, "Xavier");
+        Tensor output = new Tensor(4, 5);
+        Tensor expected = new Tensor(4, 5);
+        Kernels.csrGemm(input, pattern, values, output);
+        Kernels.gemm(input, false, dense, true, expected, false);
+        assertArrayEquals(expected.toArray(), output.toArray(), 1e-12);
+
+        Tensor gradOutput = Process.randTensor(4, 5, "Xavier");
+        Tensor gradValues = new Tensor(1, pattern.getSize());
+        gradValues.fill(1);
+        Tensor gradInput = new Tensor(4, 7);
+        gradInput.fill(1);
+        Kernels.csrGemmBackward(input, pattern, values, gradOutput, gradValues, gradInput);
+        Tensor gradDense = new Tensor(5, 7);
+        Kernels.gemm(gradOutput, true, input, false, gradDense, false);
+        Tensor expectedValues = pattern.gather(gradDense);
+        for (int e = 0; e < pattern.getSize(); e++) {
+            assertEquals(expectedValues.getFlat(e) + 1, gradValues.getFlat(e), 1e-12);
+        }
+        Tensor expectedInput = new Tensor(4, 7);
+        Kernels.gemm(gradOutput, false, dense, false, expectedInput, false);
+        assertArrayEquals(expectedInput.toArray(), gradInput.toArray(), 1e-12);
+        Kernels.csrGemmBackward(input, pattern, values, gradOutput, gradValues, null);
+
+        Tensor single = values.toSingle();
+        Kernels.csrGemm(input, pattern, single, output);
+        Kernels.csrGemm(input, pattern, single.toDouble(), expected);
+        assertArrayEquals(expected.toArray(), output.toArray(), 1e-12);
+        Kernels.csrGemmBackward(input, pattern, single, gradOutput, gradValues, gradInput);
+        Kernels.csrGemmBackward(input, pattern, single.toDouble(), gradOutput, gradValues, expectedInput);
+        assertArrayEquals(expectedInput.toArray(), gradInput.toArray(), 1e-12);
+    }
+
+    @Test
+    public void testDotAndAxpy() {
+        Tensor x = new Tensor(new double[]{1, 2, 3, 4, 5}, 5);
+        Tensor y = new Tensor(new double[]{1, 1, 1, 1, 1}, 5);
+        assertEquals(15, Kernels.dot(x, y));
+        Kernels.axpy(2, x, y);
+        assertArrayEquals(new double[]{3, 5, 7, 9, 11}, y.toArray());
+    }
+
+    private static void assertGemmVariants(int m, int k, int n) {
+        Tensor x = Process.randTensor(m, k, "Xavier");
+        Tensor y = Process.randTensor(k, n, "Xavier");
+        Tensor[][] operands = {{x, y}, {transpose(x), y}, {x, transpose(y)}, {transpose(x), transpose(y)}};
+        Tensor expected = new Tensor(m, n);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int p = 0; p < k; p++) {
+                    sum += x.get(i, p) * y.get(p, j);
+                }
+                expected.set(i, j, sum);
+            }
+        }
+        for (int variant = 0; variant < 4; variant++) {
+            Tensor c = new Tensor(m, n);
+            c.fill(2);
+            Kernels.gemm(operands[variant][0], variant % 2 == 1, operands[variant][1], variant >= 2, c, variant < 2);
+            for (int i = 0; i < m * n; i++) {
+                assertEquals(expected.getFlat(i) + (variant < 2 ? 2 : 0), c.getFlat(i), 1e-10);
+            }
+        }
+    }
+
+    private static Tensor transpose(Tensor t) {
+        Tensor result = new Tensor(t.getDimCol(), t.getDimRow());
+        for (int r = 0; r < t.getDimRow(); r++) {
+            for (int c = 0; c < t.getDimCol(); c++) {
+                result.set(c, r, t.get(r, c));
+            }
+        }
+        return result;
+    }
+}
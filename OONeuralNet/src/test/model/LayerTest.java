@@ -3,6 +3,10 @@ package model;
 import model.neuralnetwork.Layer;
 import model.neuralnetwork.Neuron;
 import model.neuralnetwork.Synapse;
+import model.neuralnetwork.Network;
+import model.operation.Activation;
+import model.tensor.CsrPattern;
+import model.tensor.Tensor;
 import model.tensor.Matrix;
 import org.junit.jupiter.api.Test;
 import model.operation.Process;
@@ -120,6 +124,132 @@ public class LayerTest {
         assertTrue(x.getValue() == tempValue - 2);
     }
 
+    @Test
+    public void testActivation() {
+        Layer layer = new Layer(3, Activation.SIGMOID);
+        assertEquals(Activation.SIGMOID, layer.getActivation());
+        assertTrue(layer.isFullyConnected());
+        layer.setActivation(Activation.TANH);
+        assertEquals(Activation.TANH, layer.getActivation());
+        assertTrue(layer.isFullyConnected());
+        layer.setActivateFunction(Process::tanh);
+        assertNull(layer.getActivation());
+        assertFalse(layer.isFullyConnected());
+
+        Layer custom = new Layer(3, Activation.TANH);
+        custom.setCombineFunction(Process::identityCombine);
+        assertFalse(custom.isFullyConnected());
+        assertFalse(new Layer(3, Process::rowAppend, Process::linear, Process::tanh).isFullyConnected());
+    }
+
+    @Test
+    public void testConnect() {
+        Layer layer = new Layer(3, Activation.TANH);
+        assertFalse(layer.isPacked());
+        layer.connect(4);
+        assertTrue(layer.isPacked());
+        assertEquals(3, layer.getWeights().getDimRow());
+        assertEquals(4, layer.getWeights().getDimCol());
+        layer.getWeights().set(2, 1, 0.75);
+        assertEquals(0.75, layer.getNeuron(2).getWeights().getValue(0, 1));
+
+        layer.getNeuron(1).setWeights(Process.randMat(1, 4, "Zero"));
+        assertFalse(layer.isPacked());
+    }
+
+    @Test
+    public void testFireAllDense() throws Exception {
+        Network network = Network.multilayerPerceptron(3, 4, 2);
+        Layer hidden = network.getLayer(1);
+        network.fire(Process.listToNormalizedInput(1, 2, 3));
+        double[] expected = new double[hidden.getSize()];
+        for (int j = 0; j < expected.length; j++) {
+            expected[j] = hidden.getNeuron(j).getActivateData().getValue(0, 0);
+        }
+        network.fire(new Tensor(Process.normalize(1, 2, 3), 3));
+        for (int j = 0; j < expected.length; j++) {
+            assertTrue(hidden.getNeuron(j).getActivateData().isDense());
+            assertEquals(expected[j], hidden.getNeuron(j).getActivateData().getValue(0, 0), 1e-12);
+            assertTrue(hidden.getNeuron(j).getReceiveData() == hidden.getNeuron(0).getReceiveData());
+        }
+    }
+
+    @Test
+    public void testForwardBatch() throws Exception {
+        Network network = Network.multilayerPerceptron(3, 4, 2);
+        Layer hidden = network.getLayer(1);
+        Tensor batch = new Tensor(new double[]{1, 2, 3, -1, 0, 0.5}, 2, 3);
+        Tensor output = hidden.forward(batch);
+        assertEquals(2, output.getDimRow());
+        assertEquals(4, output.getDimCol());
+        for (int b = 0; b < 2; b++) {
+            double[] row = hidden.infer(network.getLayer(0), batch.row(b).toArray());
+            for (int j = 0; j < 4; j++) {
+                assertEquals(row[j], output.get(b, j), 1e-12);
+            }
+        }
+    }
 
+    @Test
+    public void testAdjacentView() {
+        Layer layer = new Layer(4, Activation.TANH);
+        Neuron neuron = layer.getNeuron(2);
+        assertEquals(3, neuron.getAdj().size());
+        assertEquals(layer.getNeuron(0), neuron.getAdj(0));
+        assertEquals(layer.getNeuron(3), neuron.getAdj(2));
+        assertFalse(neuron.getAdj().contains(neuron));
+        Neuron added = new Neuron();
+        layer.addNeuron(added);
+        assertEquals(added, neuron.getAdj(3));
+        assertEquals(4, added.getAdj().size());
+        assertEquals(layer.getNeuron(3), added.getAdj(3));
+    }
 
+    @Test
+    public void testSparseConnect() throws Exception {
+        Network network = Network.multilayerPerceptron(8, 4, 3);
+        CsrPattern pattern = CsrPattern.local(4, 8, 3);
+        network.sparseConnect(1, pattern);
+        Layer layer = network.getLayer(1);
+        assertTrue(layer.isSparse());
+        assertEquals(pattern, layer.getPattern());
+        assertTrue(layer.isPacked());
+        assertTrue(network.isPacked());
+        assertArrayEquals(new int[]{1, 12}, layer.getWeights().getShape());
+        assertEquals(3, layer.getNeuron(1).getPrev().size());
+        assertEquals(network.getLayer(0).getNeuron(3), layer.getNeuron(1).getPrev().get(1));
+        assertEquals(1, network.getLayer(0).getNeuron(0).getNext().size());
+        assertEquals(2, network.getLayer(0).getNeuron(2).getNext().size());
+
+        // the per-neuron pipeline, the single sample path and the batch path agree
+        double[] input = {0.3, -0.2, 0.5, 0.1, -0.4, 0.6, 0.05, -0.15};
+        network.fire(new Tensor(input, 1, 8));
+        double[] inferred = network.infer(input);
+        Tensor batch = layer.forward(new Tensor(input, 1, 8));
+        for (int j = 0; j < 4; j++) {
+            assertEquals(batch.getFlat(j), layer.getNeuron(j).getActivateData().getValue(0, 0), 1e-12);
+        }
+        for (int j = 0; j < 3; j++) {
+            assertEquals(inferred[j], network.getLayer(2).getNeuron(j).getActivateData().getValue(0, 0), 1e-12);
+        }
+    }
+
+    @Test
+    public void testPrune() throws Exception {
+        Network network = Network.multilayerPerceptron(5, 6, 2);
+        Tensor weights = network.getLayer(1).getWeights();
+        for (int i = 0; i < weights.getSize(); i += 2) {
+            weights.setFlat(i, 0);
+        }
+        double[] input = {0.1, 0.2, -0.3, 0.4, -0.5};
+        double[] dense = network.infer(input);
+        network.prune(1e-9);
+        assertTrue(network.getLayer(1).isSparse());
+        assertEquals(15, network.getLayer(1).getWeights().getSize());
+        assertEquals(12, network.getLayer(2).getWeights().getSize());
+        assertArrayEquals(dense, network.infer(input), 1e-12);
+        network.fullConnect();
+        assertFalse(network.getLayer(1).isSparse());
+        assertEquals(5, network.getLayer(1).getNeuron(0).getPrev().size());
+    }
 }
@@ -0,0 +1,160 @@
+package model;
+
+import model.data.Batch;
+import model.data.Dataset;
+import model.data.InMemoryDataset;
+import model.neuralnetwork.Network;
+import model.neuralnetwork.Trainer;
+import model.operation.Process;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.ColumnarCacheWriter;
+import persistence.CsvDataset;
+import persistence.MappedDataset;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedDatasetTest {
+    private static final String FILE = "./data/testCache.bin";
+    private InMemoryDataset dataset;
+
+    @BeforeEach
+    public void setUp() {
+        double[][] inputs = new double[300][];
+        double[][] expected = new double[300][];
+        for (int i = 0; i < 300; i++) {
+            inputs[i] = new double[]{i, Math.sqrt(i), -i};
+            expected[i] = new double[]{i % 2, 1 - i % 2};
+        }
+        dataset = new InMemoryDataset(inputs, expected);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        assertEquals(300, new ColumnarCacheWriter(FILE).write(dataset));
+        MappedDataset mapped = new MappedDataset(FILE);
+        assertEquals(300, mapped.size());
+        assertEquals(3, mapped.getInputSize());
+        assertEquals(2, mapped.getOutputSize());
+        assertEquals(Double.BYTES, mapped.getBytesPerValue());
+        assertSameBatches(dataset.batches(32, new Random(5)), mapped.batches(32, new Random(5)), 0);
+    }
+
+    @Test
+    public void testSinglePrecision() throws IOException {
+        new ColumnarCacheWriter(FILE, true).write(dataset);
+        MappedDataset mapped = new MappedDataset(FILE);
+        assertEquals(Float.BYTES, mapped.getBytesPerValue());
+        assertSameBatches(dataset.batches(300, null), mapped.batches(300, null), 1e-4);
+    }
+
+    @Test
+    public void testNormalized() throws IOException {
+        new ColumnarCacheWriter(FILE).write(dataset);
+        MappedDataset mapped = new MappedDataset(FILE);
+        mapped.setNormalized(true);
+        assertTrue(mapped.isNormalized());
+        Batch batch = mapped.batches(300, null).next();
+        double[] row = {7, Math.sqrt(7), -7};
+        assertArrayEquals(Process.normalize(row), batch.getInputs().row(7).toArray(), 1e-12);
+    }
+
+    @Test
+    public void testCacheFromCsv() throws IOException {
+        String csv = "./data/testCache.csv";
+        try (PrintWriter writer = new PrintWriter(csv, "UTF-8")) {
+            for (int i = 0; i < 300; i++) {
+                writer.println(i + "," + Math.sqrt(i) + "," + (-i) + "," + (i % 2) + "," + (1 - i % 2));
+            }
+        }
+        new File(FILE).delete();
+        MappedDataset mapped = MappedDataset.cache(new CsvDataset(csv, 3, 2), csv, FILE, false);
+        assertSameBatches(dataset.batches(50, null), mapped.batches(50, null), 0);
+        // an up to date cache is reused as it is
+        assertTrue(new File(FILE).setLastModified(new File(csv).lastModified() + 2000));
+        mapped = MappedDataset.cache(new CsvDataset(csv, 3, 2), csv, FILE, false);
+        assertEquals(new File(csv).lastModified() + 2000, new File(FILE).lastModified());
+        // but rebuilt if it holds samples of other sizes than the dataset given
+        mapped = MappedDataset.cache(new CsvDataset(csv, 2, 3), csv, FILE, false);
+        assertEquals(2, mapped.getInputSize());
+        assertEquals(3, mapped.getOutputSize());
+    }
+
+    @Test
+    public void testFailedWriteKeepsCache() throws IOException {
+        new ColumnarCacheWriter(FILE).write(dataset);
+        InMemoryDataset smaller = new InMemoryDataset(new double[][]{{1, 2, 3}}, new double[][]{{0, 1}});
+        Dataset changing = new Dataset() {
+            private int passes = 0;
+
+            @Override
+            public int getInputSize() {
+                return 3;
+            }
+
+            @Override
+            public int getOutputSize() {
+                return 2;
+            }
+
+            @Override
+            public Iterator<Batch> batches(int batchSize, Random random) {
+                return (passes++ == 0 ? dataset : smaller).batches(batchSize, random);
+            }
+        };
+        assertThrows(IOException.class, () -> new ColumnarCacheWriter(FILE).write(changing));
+        assertFalse(new File(FILE + ".tmp").exists());
+        MappedDataset mapped = new MappedDataset(FILE);
+        assertSameBatches(dataset.batches(300, null), mapped.batches(300, null), 0);
+    }
+
+    @Test
+    public void testInvalidFiles() throws IOException {
+        try {
+            new MappedDataset("./data/testReadMLP.json");
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+        new ColumnarCacheWriter(FILE).write(dataset);
+        try (RandomAccessFile file = new RandomAccessFile(FILE, "rw")) {
+            file.setLength(file.length() - 8);
+        }
+        try {
+            new MappedDataset(FILE);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    public void testTrain() throws IOException {
+        new ColumnarCacheWriter(FILE).write(dataset);
+        Network network = Network.multilayerPerceptron(3, 4, 2);
+        Trainer trainer = new Trainer(network);
+        trainer.setEpochs(2);
+        assertEquals(2, trainer.train(new MappedDataset(FILE)).size());
+    }
+
+    private static void assertSameBatches(Iterator<Batch> expected, Iterator<Batch> actual, double delta) {
+        while (expected.hasNext()) {
+            Batch expectedBatch = expected.next();
+            Batch batch = actual.next();
+            double[] values = expectedBatch.getInputs().toArray();
+            double[] read = batch.getInputs().toArray();
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(values[i], read[i], delta * Math.abs(values[i]));
+            }
+            assertArrayEquals(expectedBatch.getExpected().toArray(), batch.getExpected().toArray());
+        }
+        assertFalse(actual.hasNext());
+    }
+}
@@ -2,6 +2,7 @@ package model;
 
 import model.tensor.Matrix;
 import model.neuralnetwork.Synapse;
+import model.tensor.Tensor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -94,4 +95,30 @@ public class MatrixTest {
         assertTrue(testMatrix.getSynapse(1, 0).equals(testSynapse2));
 
     }
+
+    @Test
+    public void testDenseMatrix() {
+        Tensor tensor = Tensor.variable(2, 3);
+        for (int i = 0; i < tensor.getSize(); i++) {
+            tensor.setFlat(i, i + 1);
+        }
+        Matrix dense = new Matrix(tensor);
+        assertTrue(dense.isDense());
+        assertFalse(mat1.isDense());
+        assertEquals(str1Output, dense.toString());
+        assertEquals(mat1.toString2(), dense.toString2());
+        assertEquals(6, dense.getValue(1, 2));
+
+        // a Synapse handed out by a dense Matrix accumulates its derivative into the tensor gradient
+        Synapse product = Synapse.multiply(dense.getSynapse(1, 2), new Synapse(3, false));
+        product.autoDifferentiate();
+        assertEquals(3, tensor.getGrad()[tensor.index(1, 2)]);
+        dense.getSynapse(1, 2).gradientDescent(1);
+        assertEquals(3, dense.getValue(1, 2));
+
+        Matrix graph = dense.toGraph();
+        assertFalse(graph.isDense());
+        assertEquals(dense.toString(), graph.toString());
+        assertTrue(mat1.toGraph() == mat1);
+    }
 }
@@ -4,9 +4,21 @@ import model.neuralnetwork.Layer;
 import model.neuralnetwork.Network;
 import model.neuralnetwork.Neuron;
 import model.neuralnetwork.Synapse;
+import model.operation.Activation;
 import model.operation.Process;
+import model.tensor.CsrPattern;
 import model.tensor.Matrix;
+import model.tensor.Precision;
+import model.tensor.Tensor;
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class NetworkTest {
@@ -161,6 +173,67 @@ public class NetworkTest {
         assertTrue(tempBiasValue == testLayer1.getNeuron(0).getBiases().getSynapse(0,0).getValue());
     }
 
+    @Test
+    public void testSetPrecision() {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        assertEquals(Precision.DOUBLE, network.getPrecision());
+        network.setPrecision(Precision.SINGLE);
+        assertEquals(Precision.SINGLE, network.getPrecision());
+        assertSingle(network);
+        Tensor in = new Tensor(new double[]{1, -2, 3, 0.5, 0, -1}, 2, 3);
+        Tensor out = new Tensor(new double[]{0, 1, 0, 0, 0, 0, 0, 1}, 2, 4);
+        double first = network.backProp(in, out, 0.5);
+        assertSingle(network);
+        for (int i = 0; i < 5; i++) {
+            network.backProp(in, out, 0.5);
+        }
+        assertSingle(network);
+        assertTrue(network.backProp(in, out, 0.5) < first);
+        double[] weights = network.getLayer(1).getWeights().toArray();
+        network.setPrecision(Precision.DOUBLE);
+        assertFalse(network.getLayer(1).getWeights().isSingle());
+        assertArrayEquals(weights, network.getLayer(1).getWeights().toArray(), 0);
+        assertTrue(network.getLayer(1).isPacked());
+    }
+
+    @Test
+    public void testSetPrecisionMixed() {
+        Network mixed = Network.multilayerPerceptron(4, 8, 3);
+        Network reference = Network.multilayerPerceptron(4, 8, 3);
+        for (int l = 1; l < 3; l++) {
+            copy(mixed.getLayer(l).getWeights(), reference.getLayer(l).getWeights());
+            copy(mixed.getLayer(l).getBiases(), reference.getLayer(l).getBiases());
+        }
+        double[] initial = reference.getLayer(1).getWeights().toArray();
+        mixed.setPrecision(Precision.MIXED);
+        assertSingle(mixed);
+        Tensor in = new Tensor(new double[]{1, -2, 3, 0.5}, 1, 4);
+        Tensor out = new Tensor(new double[]{0, 1, 0}, 1, 3);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(reference.backProp(in, out, 1e-7), mixed.backProp(in, out, 1e-7), 1e-6);
+        }
+        assertSingle(mixed);
+        // updates far below the resolution of a float were kept by the master copies
+        mixed.setPrecision(Precision.DOUBLE);
+        assertFalse(Arrays.equals(initial, reference.getLayer(1).getWeights().toArray()));
+        for (int l = 1; l < 3; l++) {
+            assertArrayEquals(reference.getLayer(l).getWeights().toArray(), mixed.getLayer(l).getWeights().toArray(),
+                    1e-12);
+            assertArrayEquals(reference.getLayer(l).getBiases().toArray(), mixed.getLayer(l).getBiases().toArray(),
+                    1e-12);
+        }
+    }
+
+    @Test
+    public void testSetPrecisionMixedWrittenDirectly() {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        network.setPrecision(Precision.MIXED);
+        network.getLayer(1).getNeuron(0).getWeights().setData(0, 0, Synapse.constant(0.25));
+        network.parametersChanged();
+        network.setPrecision(Precision.DOUBLE);
+        assertEquals(0.25, network.getLayer(1).getWeights().get(0, 0), 0);
+    }
+
     @Test
     public void testFire() throws Exception {
         Matrix[] testInput = Process.listToNormalizedInput(1);
@@ -181,5 +254,192 @@ public class NetworkTest {
                 testInput[0].getSynapse(0,0)));
     }
 
+    @Test
+    public void testFireDense() throws Exception {
+        Network network = Network.multilayerPerceptron(3, 5, 2);
+        Matrix[] input = Process.listToNormalizedInput(1, 2, 3);
+        network.fire(input);
+        Layer last = network.getLayer(2);
+        double[] expected = new double[last.getSize()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = last.getNeuron(i).getActivateData().getValue(0, 0);
+        }
+
+        Tensor denseInput = new Tensor(3);
+        for (int i = 0; i < 3; i++) {
+            denseInput.setFlat(i, input[i].getValue(0, 0));
+        }
+        network.fire(denseInput);
+        for (int i = 0; i < expected.length; i++) {
+            assertTrue(last.getNeuron(i).getActivateData().isDense());
+            assertEquals(expected[i], last.getNeuron(i).getActivateData().getValue(0, 0), 1e-12);
+        }
+    }
+
+    @Test
+    public void testInfer() throws Exception {
+        Network network = Network.multilayerPerceptron(3, 5, 6, 4);
+        network.getLayer(2).setActivation(Activation.SIGMOID);
+        double[] input = Process.normalize(1, -2, 3);
+        network.fire(Process.listToNormalizedInput(1, -2, 3));
+        Layer last = network.getLayer(3);
+        double[] output = network.infer(input);
+        assertEquals(last.getSize(), output.length);
+        double sum = 0;
+        for (int i = 0; i < output.length; i++) {
+            assertEquals(last.getNeuron(i).getActivateData().getValue(0, 0), output[i], 1e-12);
+            sum += output[i];
+        }
+        assertEquals(1, sum, 1e-12);
+    }
+
+    @Test
+    public void testInferCustomLayer() throws Exception {
+        Network network = Network.multilayerPerceptron(2, 3, 2);
+        network.getLayer(1).setActivateFunction(Process::identityActivate);
+        network.fire(Process.listToOutput(0.5, -0.25));
+        double expected = network.getLayer(2).getNeuron(1).getActivateData().getValue(0, 0);
+        assertFalse(network.getLayer(1).isFullyConnected());
+        assertEquals(expected, network.infer(new double[]{0.5, -0.25})[1], 1e-12);
+    }
+
+    @Test
+    public void testBackPropBatch() throws Exception {
+        Network graph = Network.multilayerPerceptron(3, 5, 4);
+        Network dense = Network.multilayerPerceptron(3, 5, 4);
+        dense.getLayer(1).setActivation(Activation.SIGMOID);
+        graph.getLayer(1).setActivation(Activation.SIGMOID);
+        for (int l = 1; l < 3; l++) {
+            copy(graph.getLayer(l).getWeights(), dense.getLayer(l).getWeights());
+            copy(graph.getLayer(l).getBiases(), dense.getLayer(l).getBiases());
+        }
+        double[][] x = {{1, -2, 3}, {0.5, 0, -1}};
+        double[][] y = {{0, 1, 0, 0}, {0, 0, 0, 1}};
+        Matrix[][] inputs = {Process.listToOutput(x[0]), Process.listToOutput(x[1])};
+        Matrix[][] expected = {Process.listToOutput(y[0]), Process.listToOutput(y[1])};
+        Matrix loss = graph.backProp(Process::crossEntropy, inputs, expected, 0.5);
+        Tensor in = new Tensor(new double[]{1, -2, 3, 0.5, 0, -1}, 2, 3);
+        Tensor out = new Tensor(new double[]{0, 1, 0, 0, 0, 0, 0, 1}, 2, 4);
+        assertEquals(loss.getValue(0, 0), dense.backProp(in, out, 0.5), 1e-12);
+        for (int l = 1; l < 3; l++) {
+            Layer expectedLayer = graph.getLayer(l);
+            Layer actualLayer = dense.getLayer(l);
+            assertArrayEquals(expectedLayer.getWeights().toArray(), actualLayer.getWeights().toArray(), 1e-12);
+            assertArrayEquals(expectedLayer.getBiases().toArray(), actualLayer.getBiases().toArray(), 1e-12);
+        }
+        double first = dense.backProp(in, out, 0.5);
+        for (int i = 0; i < 5; i++) {
+            dense.backProp(in, out, 0.5);
+        }
+        assertTrue(dense.backProp(in, out, 0.5) < first);
+    }
+
+    @Test
+    public void testBackPropBatchActivations() throws Exception {
+        Activation[] activations = {Activation.RELU, Activation.LEAKY_RELU, Activation.GELU, Activation.SOFTPLUS};
+        double[][] x = {{1, -2, 3}, {0.5, 0, -1}};
+        Matrix[][] inputs = {Process.listToOutput(x[0]), Process.listToOutput(x[1])};
+        Matrix[][] expected = {Process.listToOutput(new double[]{1, 0}), Process.listToOutput(new double[]{0, 1})};
+        Tensor in = new Tensor(new double[]{1, -2, 3, 0.5, 0, -1}, 2, 3);
+        Tensor out = new Tensor(new double[]{1, 0, 0, 1}, 2, 2);
+        for (Activation activation : activations) {
+            Network graph = Network.multilayerPerceptron(3, 4, 2);
+            Network dense = Network.multilayerPerceptron(3, 4, 2);
+            for (int l = 1; l < 3; l++) {
+                copy(graph.getLayer(l).getWeights(), dense.getLayer(l).getWeights());
+                copy(graph.getLayer(l).getBiases(), dense.getLayer(l).getBiases());
+            }
+            graph.getLayer(1).setActivation(activation);
+            dense.getLayer(1).setActivation(activation);
+            Matrix loss = graph.backProp(Process::crossEntropy, inputs, expected, 0.5);
+            assertEquals(loss.getValue(0, 0), dense.backProp(in, out, 0.5), 1e-12);
+            assertArrayEquals(graph.getLayer(1).getWeights().toArray(), dense.getLayer(1).getWeights().toArray(),
+                    1e-12);
+        }
+    }
+
+    @Test
+    public void testBackPropBatchCustomLayer() {
+        Network test = Network.multilayerPerceptron(2, 3, 2);
+        test.getLayer(1).setCombineFunction(Process::linear);
+        try {
+            test.backProp(new Tensor(1, 2), new Tensor(1, 2), 0.1);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
 
+    @Test
+    public void testBackPropSparse() throws Exception {
+        // one step on the Synapse graph and one on tensors give the same parameters for a sparse layer
+        Network graph = Network.multilayerPerceptron(6, 5, 2);
+        Network dense = Network.multilayerPerceptron(6, 5, 2);
+        CsrPattern pattern = CsrPattern.local(5, 6, 2);
+        graph.sparseConnect(1, pattern);
+        dense.sparseConnect(1, pattern);
+        for (int l = 1; l < 3; l++) {
+            double[] weights = graph.getLayer(l).getWeights().getData();
+            System.arraycopy(weights, 0, dense.getLayer(l).getWeights().getData(), 0, weights.length);
+            double[] biases = graph.getLayer(l).getBiases().getData();
+            System.arraycopy(biases, 0, dense.getLayer(l).getBiases().getData(), 0, biases.length);
+        }
+        double[] x = {0.2, -0.1, 0.4, 0.3, -0.5, 0.1};
+        double[] y = {1, 0};
+        Matrix loss = graph.backProp(Process::crossEntropy, Process.listToOutput(x), Process.listToOutput(y), 0.1);
+        assertEquals(loss.getValue(0, 0), dense.backProp(new Tensor(x, 1, 6), new Tensor(y, 1, 2), 0.1), 1e-12);
+        for (int l = 1; l < 3; l++) {
+            assertArrayEquals(graph.getLayer(l).getWeights().toArray(), dense.getLayer(l).getWeights().toArray(),
+                    1e-12);
+            assertArrayEquals(graph.getLayer(l).getBiases().toArray(), dense.getLayer(l).getBiases().toArray(),
+                    1e-12);
+        }
+    }
+
+    @Test
+    public void testInferConcurrent() throws Exception {
+        Network network = Network.multilayerPerceptron(4, 16, 8, 3);
+        double[][] inputs = new double[50][];
+        double[][] expected = new double[50][];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = Process.normalize(Math.sin(i), Math.cos(i), i % 3, -i % 5);
+            expected[i] = network.infer(inputs[i]);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(pool.submit(() -> {
+                boolean same = true;
+                for (int r = 0; r < 100; r++) {
+                    for (int i = 0; i < inputs.length; i++) {
+                        same &= Arrays.equals(expected[i], network.infer(inputs[i]));
+                    }
+                }
+                return same;
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        pool.shutdown();
+    }
+
+    private static void copy(Tensor from, Tensor to) {
+        System.arraycopy(from.getData(), from.getOffset(), to.getData(), to.getOffset(), from.getSize());
+    }
+
+    // EFFECTS: check that the parameters of network are stored in float arrays, each a float value
+    private static void assertSingle(Network network) {
+        for (int l = 1; l < network.getLayers().size(); l++) {
+            assertTrue(network.getLayer(l).getWeights().isSingle());
+            assertTrue(network.getLayer(l).getBiases().isSingle());
+            assertNull(network.getLayer(l).getWeights().getData());
+            for (double value : network.getLayer(l).getWeights().toArray()) {
+                assertEquals((float) value, value, 0);
+            }
+            for (double value : network.getLayer(l).getBiases().toArray()) {
+                assertEquals((float) value, value, 0);
+            }
+        }
+    }
 }
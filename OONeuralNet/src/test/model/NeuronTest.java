@@ -7,6 +7,10 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import model.operation.Process;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public class NeuronTest {
 
     @Test
@@ -98,4 +102,24 @@ public class NeuronTest {
         neuron.addNext(next);
         assertTrue(neuron.getNext().get(0).equals(next));
     }
+
+    @Test
+    public void testSharedLists() {
+        List<Neuron> shared = Collections.unmodifiableList(Arrays.asList(new Neuron(), new Neuron()));
+        Neuron first = new Neuron();
+        Neuron second = new Neuron();
+        first.setPrev(shared);
+        second.setPrev(shared);
+        first.setNext(shared);
+        first.setAdj(shared);
+        Neuron added = new Neuron();
+        first.addPrev(added);
+        first.addNext(added);
+        first.addAdj(added);
+        assertEquals(3, first.getPrev().size());
+        assertEquals(added, first.getNext().get(2));
+        assertEquals(added, first.getAdj(2));
+        assertEquals(2, second.getPrev().size());
+        assertEquals(2, shared.size());
+    }
 }
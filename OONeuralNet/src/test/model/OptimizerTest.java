@@ -0,0 +1,98 @@
+package model;
+
+import model.neuralnetwork.Network;
+import model.optimizer.Adam;
+import model.optimizer.AdamW;
+import model.optimizer.Momentum;
+import model.optimizer.Optimizer;
+import model.optimizer.RmsProp;
+import model.optimizer.Sgd;
+import model.tensor.Tensor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OptimizerTest {
+    private Tensor parameters;
+
+    @BeforeEach
+    public void setUp() {
+        parameters = Tensor.variable(1, 2);
+        parameters.getData()[0] = 1;
+        parameters.getData()[1] = -2;
+    }
+
+    @Test
+    public void testSgd() {
+        step(new Sgd(), 0.5, 4, -2);
+        assertArrayEquals(new double[]{-1, -1}, parameters.toArray(), 1e-12);
+        assertArrayEquals(new double[]{0, 0}, parameters.getGrad(), 0);
+    }
+
+    @Test
+    public void testMomentum() {
+        Optimizer optimizer = new Momentum(0.5);
+        step(optimizer, 0.1, 2, 0);
+        assertArrayEquals(new double[]{0.8, -2}, parameters.toArray(), 1e-12);
+        // the velocity of the first element is 0.5 * 2 + 2
+        step(optimizer, 0.1, 2, 0);
+        assertArrayEquals(new double[]{0.5, -2}, parameters.toArray(), 1e-12);
+        assertArrayEquals(new double[]{0, 0}, parameters.getGrad(), 0);
+    }
+
+    @Test
+    public void testRmsProp() {
+        Optimizer optimizer = new RmsProp(0.9, 0);
+        step(optimizer, 0.01, 3, -0.5);
+        double root = Math.sqrt(0.1);
+        assertArrayEquals(new double[]{1 - 0.01 / root, -2 + 0.01 / root}, parameters.toArray(), 1e-12);
+    }
+
+    @Test
+    public void testAdam() {
+        Optimizer optimizer = new Adam();
+        // the first step of Adam has the size of the learning rate whatever the scale of the gradient
+        step(optimizer, 0.1, 1000, -0.001);
+        assertArrayEquals(new double[]{0.9, -1.9}, parameters.toArray(), 1e-5);
+        step(optimizer, 0.1, 1000, -0.001);
+        assertArrayEquals(new double[]{0.8, -1.8}, parameters.toArray(), 1e-5);
+        assertArrayEquals(new double[]{0, 0}, parameters.getGrad(), 0);
+    }
+
+    @Test
+    public void testAdamW() {
+        Optimizer optimizer = new AdamW(0.5);
+        step(optimizer, 0.1, 0, 0);
+        assertArrayEquals(new double[]{0.95, -1.9}, parameters.toArray(), 1e-12);
+        Tensor other = Tensor.variable(1, 1);
+        other.getData()[0] = 1;
+        other.getGrad()[0] = 1;
+        optimizer.update(other, 0.1);
+        assertEquals(0.95 - 0.1, other.getFlat(0), 1e-6);
+    }
+
+    @Test
+    public void testNetworkOptimizer() {
+        Tensor inputs = new Tensor(new double[]{1, -2, 3, 0.5, 0, -1}, 2, 3);
+        Tensor expected = new Tensor(new double[]{0, 1, 0, 0, 0, 0, 0, 1}, 2, 4);
+        Optimizer[] optimizers = {new Momentum(), new RmsProp(), new Adam(), new AdamW(0.01)};
+        for (Optimizer optimizer : optimizers) {
+            Network network = Network.multilayerPerceptron(3, 5, 4);
+            assertTrue(network.getOptimizer() instanceof Sgd);
+            network.setOptimizer(optimizer);
+            assertSame(optimizer, network.getOptimizer());
+            double first = network.backProp(inputs, expected, 0.01);
+            for (int i = 0; i < 50; i++) {
+                network.backProp(inputs, expected, 0.01);
+            }
+            assertTrue(network.backProp(inputs, expected, 0.01) < first);
+        }
+    }
+
+    private void step(Optimizer optimizer, double learningRate, double grad0, double grad1) {
+        parameters.getGrad()[0] = grad0;
+        parameters.getGrad()[1] = grad1;
+        optimizer.update(parameters, learningRate);
+    }
+}
@@ -0,0 +1,114 @@
+package model;
+
+import model.neuralnetwork.Layer;
+import model.neuralnetwork.Network;
+import model.neuralnetwork.ParallelTrainer;
+import model.tensor.Tensor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelTrainerTest {
+    private Tensor inputs;
+    private Tensor expected;
+
+    @BeforeEach
+    public void setUp() {
+        inputs = new Tensor(10, 3);
+        expected = new Tensor(10, 4);
+        for (int b = 0; b < 10; b++) {
+            for (int i = 0; i < 3; i++) {
+                inputs.set(b, i, Math.sin(b * 3 + i));
+            }
+            expected.set(b, b % 4, 1);
+        }
+    }
+
+    @Test
+    public void testSameAsSingleThread() {
+        Network sequential = Network.multilayerPerceptron(3, 6, 4);
+        Network parallel = copyOf(sequential);
+        ParallelTrainer trainer = new ParallelTrainer(parallel, new ForkJoinPool(4), 4);
+        assertEquals(4, trainer.getShards());
+        assertSame(parallel, trainer.getNetwork());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(sequential.backProp(inputs, expected, 0.3), trainer.backProp(inputs, expected, 0.3), 1e-12);
+        }
+        assertSameParameters(sequential, parallel, 1e-12);
+    }
+
+    @Test
+    public void testDeterministic() {
+        Network first = Network.multilayerPerceptron(3, 6, 5, 4);
+        Network second = copyOf(first);
+        ParallelTrainer oneThread = new ParallelTrainer(first, new ForkJoinPool(1), 3);
+        ParallelTrainer manyThreads = new ParallelTrainer(second, new ForkJoinPool(3), 3);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(oneThread.backProp(inputs, expected, 0.1), manyThreads.backProp(inputs, expected, 0.1));
+        }
+        assertSameParameters(first, second, 0);
+    }
+
+    @Test
+    public void testDefaultShards() {
+        ParallelTrainer trainer = new ParallelTrainer(Network.multilayerPerceptron(3, 6, 4));
+        assertEquals(Runtime.getRuntime().availableProcessors(), trainer.getShards());
+    }
+
+    @Test
+    public void testFailedShard() {
+        Network network = Network.multilayerPerceptron(3, 6, 4);
+        Network reference = copyOf(network);
+        ParallelTrainer trainer = new ParallelTrainer(network, new ForkJoinPool(4), 4);
+        // the last shard runs past the end of the inputs, the others complete
+        Tensor truncated = new Tensor(Arrays.copyOf(inputs.getData(), 27), 10, 3);
+        assertThrows(RuntimeException.class, () -> trainer.backProp(truncated, expected, 0.3));
+        assertSameParameters(reference, network, 0);
+        assertEquals(new ParallelTrainer(reference, new ForkJoinPool(4), 4).backProp(inputs, expected, 0.3),
+                trainer.backProp(inputs, expected, 0.3));
+        assertSameParameters(reference, network, 0);
+    }
+
+    @Test
+    public void testMoreShardsThanSamples() {
+        Network network = Network.multilayerPerceptron(3, 6, 4);
+        ParallelTrainer trainer = new ParallelTrainer(network, ForkJoinPool.commonPool(), 16);
+        double first = trainer.backProp(inputs, expected, 0.5);
+        for (int i = 0; i < 10; i++) {
+            trainer.backProp(inputs, expected, 0.5);
+        }
+        assertTrue(trainer.backProp(inputs, expected, 0.5) < first);
+        Tensor few = inputs.view(0, 2, 3);
+        assertTrue(trainer.backProp(few, expected.view(0, 2, 4), 0.5) > 0);
+    }
+
+    private static Network copyOf(Network network) {
+        int[] sizes = new int[network.getLayers().size()];
+        for (int l = 0; l < sizes.length; l++) {
+            sizes[l] = network.getLayer(l).getSize();
+        }
+        Network copy = Network.multilayerPerceptron(sizes);
+        for (int l = 1; l < sizes.length; l++) {
+            copy(network.getLayer(l).getWeights(), copy.getLayer(l).getWeights());
+            copy(network.getLayer(l).getBiases(), copy.getLayer(l).getBiases());
+        }
+        return copy;
+    }
+
+    private static void copy(Tensor from, Tensor to) {
+        System.arraycopy(from.getData(), from.getOffset(), to.getData(), to.getOffset(), from.getSize());
+    }
+
+    private static void assertSameParameters(Network expected, Network actual, double delta) {
+        for (int l = 1; l < expected.getLayers().size(); l++) {
+            Layer expectedLayer = expected.getLayer(l);
+            Layer actualLayer = actual.getLayer(l);
+            assertArrayEquals(expectedLayer.getWeights().toArray(), actualLayer.getWeights().toArray(), delta);
+            assertArrayEquals(expectedLayer.getBiases().toArray(), actualLayer.getBiases().toArray(), delta);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+import model.tensor.Precision;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrecisionTest {
+
+    @Test
+    public void testOfBytes() {
+        assertEquals(Precision.DOUBLE, Precision.ofBytes(8));
+        assertEquals(Precision.MIXED, Precision.ofBytes(4));
+        assertThrows(IllegalArgumentException.class, () -> Precision.ofBytes(2));
+        assertTrue(Precision.SINGLE.isSingle());
+        assertFalse(Precision.SINGLE.accumulatesInDouble());
+        assertTrue(Precision.MIXED.accumulatesInDouble());
+        assertEquals(4, Precision.MIXED.getBytes());
+    }
+}
@@ -0,0 +1,159 @@
+package model;
+
+import model.data.Batch;
+import model.data.BatchIterator;
+import model.data.Dataset;
+import model.data.InMemoryDataset;
+import model.data.PrefetchingDataset;
+import model.data.RowReader;
+import model.data.StreamingDataset;
+import model.neuralnetwork.Network;
+import model.neuralnetwork.Trainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefetchingDatasetTest {
+    private InMemoryDataset dataset;
+
+    @BeforeEach
+    public void setUp() {
+        double[][] inputs = new double[50][];
+        double[][] expected = new double[50][];
+        for (int i = 0; i < 50; i++) {
+            inputs[i] = new double[]{i, 1};
+            expected[i] = new double[]{i % 2, 1 - i % 2};
+        }
+        dataset = new InMemoryDataset(inputs, expected);
+    }
+
+    @Test
+    public void testSameBatches() {
+        PrefetchingDataset prefetching = new PrefetchingDataset(dataset, 2);
+        assertEquals(2, prefetching.getDepth());
+        assertEquals(2, prefetching.getInputSize());
+        assertEquals(2, prefetching.getOutputSize());
+        Iterator<Batch> actual = prefetching.batches(8, new Random(3));
+        Iterator<Batch> expected = dataset.batches(8, new Random(3));
+        Batch previous = null;
+        double[] previousInputs = null;
+        while (expected.hasNext()) {
+            assertTrue(actual.hasNext());
+            Batch batch = actual.next();
+            Batch expectedBatch = expected.next();
+            assertArrayEquals(expectedBatch.getInputs().toArray(), batch.getInputs().toArray());
+            assertArrayEquals(expectedBatch.getExpected().toArray(), batch.getExpected().toArray());
+            if (previous != null) {
+                // the previous batch is still intact after hasNext and next were called
+                assertArrayEquals(previousInputs, previous.getInputs().toArray());
+            }
+            previous = batch;
+            previousInputs = batch.getInputs().toArray();
+            assertTrue(actual.hasNext() || !expected.hasNext());
+        }
+        assertFalse(actual.hasNext());
+        try {
+            actual.next();
+            fail("NoSuchElementException expected");
+        } catch (NoSuchElementException e) {
+            // pass
+        }
+    }
+
+    @Test
+    public void testFailure() {
+        Dataset failing = new Dataset() {
+            public int getInputSize() {
+                return 1;
+            }
+
+            public int getOutputSize() {
+                return 1;
+            }
+
+            public Iterator<Batch> batches(int batchSize, Random random) {
+                throw new IllegalArgumentException("broken");
+            }
+        };
+        try {
+            new PrefetchingDataset(failing, 1).batches(4, null);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            // pass
+        }
+    }
+
+    @Test
+    public void testFailureError() {
+        Dataset failing = new Dataset() {
+            public int getInputSize() {
+                return 1;
+            }
+
+            public int getOutputSize() {
+                return 1;
+            }
+
+            public Iterator<Batch> batches(int batchSize, Random random) {
+                return new Iterator<Batch>() {
+                    public boolean hasNext() {
+                        throw new Error("broken");
+                    }
+
+                    public Batch next() {
+                        throw new NoSuchElementException();
+                    }
+                };
+            }
+        };
+        Iterator<Batch> batches = new PrefetchingDataset(failing, 1).batches(4, null);
+        IllegalStateException e = assertThrows(IllegalStateException.class, batches::hasNext);
+        assertEquals("broken", e.getCause().getMessage());
+    }
+
+    @Test
+    public void testClose() throws InterruptedException {
+        AtomicBoolean closed = new AtomicBoolean();
+        StreamingDataset endless = new StreamingDataset(1, 1) {
+            @Override
+            protected RowReader open() {
+                return new RowReader() {
+                    public boolean next(double[] inputs, int inputOffset, double[] expected, int expectedOffset) {
+                        inputs[inputOffset] = 1;
+                        expected[expectedOffset] = 0;
+                        return true;
+                    }
+
+                    public void close() {
+                        closed.set(true);
+                    }
+                };
+            }
+        };
+        endless.setChunkSize(8);
+        Iterator<Batch> batches = new PrefetchingDataset(endless, 2).batches(4, null);
+        assertTrue(batches.hasNext());
+        batches.next();
+        ((BatchIterator) batches).close();
+        assertFalse(batches.hasNext());
+        for (int i = 0; i < 250 && !closed.get(); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testTrain() {
+        Network network = Network.multilayerPerceptron(2, 4, 2);
+        Trainer trainer = new Trainer(network);
+        trainer.setEpochs(3);
+        trainer.setBatchSize(5);
+        assertEquals(3, trainer.train(new PrefetchingDataset(dataset, 3)).size());
+    }
+}
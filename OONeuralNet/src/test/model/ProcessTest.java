@@ -4,6 +4,10 @@ import model.neuralnetwork.Layer;
 import model.neuralnetwork.Neuron;
 import model.neuralnetwork.Synapse;
 import model.tensor.Matrix;
+import model.neuralnetwork.Tape;
+import model.operation.Activation;
+import model.operation.Fire;
+import model.tensor.Tensor;
 import org.junit.jupiter.api.Test;
 import model.operation.Process;
 import static org.junit.jupiter.api.Assertions.*;
@@ -90,6 +94,17 @@ public class ProcessTest {
 
     }
 
+    @Test
+    public void testSoftmaxFloat() {
+        float[] values = {5, 0.1f, 0.2f, 0.3f, 5};
+        Process.softmax(values, 1, 4);
+        assertEquals(0.3006096, values[1], 1e-6);
+        assertEquals(0.332225, values[2], 1e-6);
+        assertEquals(0.367165401, values[3], 1e-6);
+        assertEquals(5, values[0]);
+        assertEquals(5, values[4]);
+    }
+
     @Test
     public void testRandMat() {
         Matrix testMatrix1 = Process.randMat(5, 5, "helloowoworwaoefwfe");
@@ -129,6 +144,25 @@ public class ProcessTest {
                         && neuron.getActivateData().getDimCol() == 1);
     }
 
+    @Test
+    public void testElementwiseActivations() throws Exception {
+        Fire[] fires = {Process::relu, Process::leakyRelu, Process::gelu, Process::softplus};
+        double[] expected = {0, -0.005, Process.gelu(-0.5), Math.log(1 + Math.exp(-0.5))};
+        for (int f = 0; f < fires.length; f++) {
+            Neuron neuron = new Neuron();
+            neuron.setCombineData(new Matrix(new Synapse[][]{{new Synapse(-0.5)}}));
+            fires[f].compute(neuron);
+            assertEquals(expected[f], neuron.getActivateData().getValue(0, 0), 1e-12);
+            neuron.setCombineData(new Matrix(Tensor.scalar(-0.5)));
+            fires[f].compute(neuron);
+            assertTrue(neuron.getActivateData().isDense());
+            assertEquals(expected[f], neuron.getActivateData().getValue(0, 0), 1e-12);
+        }
+        assertEquals(0.841192, Process.gelu(1), 1e-6);
+        assertEquals(1.2, Process.relu(1.2));
+        assertEquals(1.2, Process.leakyRelu(1.2));
+    }
+
     @Test
     public void testListToNormalizedInput() {
         Matrix[] testInput = Process.listToNormalizedInput(2, 2, 1);
@@ -197,5 +231,62 @@ public class ProcessTest {
         assertTrue(Math.abs(y.getDerivative() - (-15.220 - 5)) < epsilon);
     }
 
+    @Test
+    public void testSoftmaxLayer() throws Exception {
+        Tape tape = new Tape();
+        Layer testLayer = new Layer(200, Activation.SOFTMAX);
+        for (int i = 0; i < testLayer.getSize(); i++) {
+            Synapse logit = new Synapse(0.01 * i);
+            tape.watch(logit);
+            testLayer.getNeuron(i).setCombineData(new Matrix(new Synapse[][]{{logit}}));
+        }
+        testLayer.activate();
+        // the normalizing sum is shared by all neurons, so the graph grows linearly with the size of the layer
+        assertTrue(tape.size() <= 4 * testLayer.getSize() + 1);
+        double sum = 0;
+        double[] expected = new double[testLayer.getSize()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = 0.01 * i;
+        }
+        Process.softmax(expected, 0, expected.length);
+        for (int i = 0; i < testLayer.getSize(); i++) {
+            double value = testLayer.getNeuron(i).getActivateData().getValue(0, 0);
+            assertEquals(expected[i], value, 1e-12);
+            sum += value;
+        }
+        assertEquals(1, sum, 1e-12);
+    }
+
+    @Test
+    public void testSoftmaxCrossEntropy() throws Exception {
+        Layer testLayer = new Layer(4, Activation.SOFTMAX);
+        Synapse[] logits = new Synapse[4];
+        for (int i = 0; i < testLayer.getSize(); i++) {
+            logits[i] = new Synapse(0.5 * i);
+            testLayer.getNeuron(i).setCombineData(new Matrix(new Synapse[][]{{logits[i]}}));
+        }
+        testLayer.activate();
+        Matrix[] expected = Process.listToOutput(0, 0, 1, 0);
+        Matrix fused = Process.softmaxCrossEntropy(testLayer, expected);
+        assertEquals(Process.crossEntropy(testLayer, expected).getValue(0, 0), fused.getValue(0, 0), 1e-12);
+        Process.autoDifferentiate(fused);
+        for (int i = 0; i < 4; i++) {
+            double p = testLayer.getNeuron(i).getActivateData().getValue(0, 0);
+            assertEquals(p - (i == 2 ? 1 : 0), logits[i].getDerivative(), 1e-12);
+        }
+    }
 
+    @Test
+    public void testSoftmaxCrossEntropyTensor() {
+        Tensor logits = new Tensor(new double[]{1, 2, 3, 1000, 0, -1000}, 2, 3);
+        Tensor expected = new Tensor(new double[]{0, 0, 1, 0, 1, 0}, 2, 3);
+        Tensor gradient = new Tensor(2, 3);
+        double loss = Process.softmaxCrossEntropy(logits, expected, 4, gradient);
+        double lse = Math.log(Math.exp(1) + Math.exp(2) + Math.exp(3));
+        assertEquals(lse - 3 + 1000, loss, 1e-9);
+        assertEquals((Math.exp(3 - lse) - 1) / 4, gradient.get(0, 2), 1e-12);
+        assertEquals(0.25, gradient.get(1, 0), 1e-12);
+        assertEquals(-0.25, gradient.get(1, 1), 1e-12);
+        assertEquals(0, gradient.get(1, 2), 1e-12);
+    }
 }
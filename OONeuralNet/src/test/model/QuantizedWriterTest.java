@@ -0,0 +1,87 @@
+package model;
+
+import model.neuralnetwork.Network;
+import model.neuralnetwork.QuantizedLayer;
+import model.neuralnetwork.QuantizedNetwork;
+import model.neuralnetwork.Quantizer;
+import org.junit.jupiter.api.Test;
+import persistence.BinaryWriter;
+import persistence.QuantizedReader;
+import persistence.QuantizedWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantizedWriterTest {
+
+    @Test
+    void testWrite() throws IOException {
+        Network network = Network.multilayerPerceptron(256, 128, 10);
+        Quantizer quantizer = new Quantizer(network);
+        quantizer.calibrate(QuantizerTest.randomDataset(50, 256, 10));
+        QuantizedNetwork quantized = quantizer.quantize();
+        new QuantizedWriter("./data/testWriteQuantized.bin").write(quantized);
+        QuantizedNetwork loaded = new QuantizedReader("./data/testWriteQuantized.bin").read();
+
+        assertEquals(quantized.getLayers().size(), loaded.getLayers().size());
+        for (int i = 0; i < loaded.getLayers().size(); i++) {
+            QuantizedLayer layer = quantized.getLayer(i);
+            QuantizedLayer loadedLayer = loaded.getLayer(i);
+            assertEquals(layer.getActivation(), loadedLayer.getActivation());
+            assertEquals(layer.getFanIn(), loadedLayer.getFanIn());
+            assertArrayEquals(layer.getWeights(), loadedLayer.getWeights());
+            assertArrayEquals(layer.getWeightScales(), loadedLayer.getWeightScales());
+            assertArrayEquals(layer.getBiases(), loadedLayer.getBiases());
+            assertEquals(layer.getInputScale(), loadedLayer.getInputScale());
+            assertEquals(layer.getInputZeroPoint(), loadedLayer.getInputZeroPoint());
+        }
+        double[] input = new double[256];
+        input[3] = 1;
+        double[] expected = new double[10];
+        double[] output = new double[10];
+        quantized.forward(input, expected);
+        loaded.forward(input, output);
+        assertArrayEquals(expected, output, 0);
+
+        new BinaryWriter("./data/testWriteMLP.bin", true).write(network);
+        assertTrue(3.5 * new File("./data/testWriteQuantized.bin").length()
+                < new File("./data/testWriteMLP.bin").length());
+    }
+
+    @Test
+    void testReadInvalid() throws IOException {
+        Files.write(Paths.get("./data/testWriteQuantized.bin"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> new QuantizedReader("./data/testWriteQuantized.bin").read());
+        new BinaryWriter("./data/testWriteQuantized.bin").write(Network.multilayerPerceptron(3, 4, 2));
+        assertThrows(IOException.class, () -> new QuantizedReader("./data/testWriteQuantized.bin").read());
+        assertThrows(IOException.class, () -> new QuantizedReader("./data/missing.bin").read());
+    }
+
+    @Test
+    void testReadOutOfRange() throws IOException {
+        Quantizer quantizer = new Quantizer(Network.multilayerPerceptron(3, 4, 2));
+        quantizer.calibrate(QuantizerTest.randomDataset(5, 3, 2));
+        new QuantizedWriter("./data/testWriteQuantized.bin").write(quantizer.quantize());
+        byte[] valid = Files.readAllBytes(Paths.get("./data/testWriteQuantized.bin"));
+        // the zero point of the first layer
+        assertInvalid(valid, 7 * Integer.BYTES, 200);
+        // the size of the first layer, whose weights would overflow an int
+        assertInvalid(valid, 4 * Integer.BYTES, 1 << 30);
+        // the size of the first layer, whose weights would run past the end of the file
+        assertInvalid(valid, 4 * Integer.BYTES, 1000);
+    }
+
+    // EFFECTS: assert that reading valid with the int at offset replaced by value throws IOException
+    private static void assertInvalid(byte[] valid, int offset, int value) throws IOException {
+        byte[] patched = valid.clone();
+        ByteBuffer.wrap(patched).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        Files.write(Paths.get("./data/testWriteQuantized.bin"), patched);
+        assertThrows(IOException.class, () -> new QuantizedReader("./data/testWriteQuantized.bin").read());
+    }
+}
@@ -0,0 +1,111 @@
+package model;
+
+import model.data.InMemoryDataset;
+import model.neuralnetwork.Layer;
+import model.neuralnetwork.Network;
+import model.neuralnetwork.QuantizationReport;
+import model.neuralnetwork.QuantizedLayer;
+import model.neuralnetwork.QuantizedNetwork;
+import model.neuralnetwork.Quantizer;
+import model.operation.Activation;
+import model.tensor.CsrPattern;
+import org.junit.jupiter.api.Test;
+import persistence.JsonReader;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantizerTest {
+
+    @Test
+    public void testQuantizeXor() throws IOException {
+        Network network = new JsonReader("./data/XOR.json").read();
+        InMemoryDataset dataset = new InMemoryDataset(new double[][]{{0, 0}, {0, 1}, {1, 0}, {1, 1}},
+                new double[][]{{1, 0}, {0, 1}, {0, 1}, {1, 0}});
+        Quantizer quantizer = new Quantizer(network);
+        quantizer.calibrate(dataset);
+        assertEquals(4, quantizer.getSamples());
+        QuantizedNetwork quantized = quantizer.quantize();
+        assertEquals(2, quantized.getInputSize());
+        assertEquals(2, quantized.getOutputSize());
+        QuantizationReport report = quantizer.evaluate(quantized, dataset);
+        assertEquals(4, report.getSamples());
+        assertEquals(1, report.getAgreement());
+        assertTrue(report.getMaxAbsoluteError() < 0.05);
+    }
+
+    @Test
+    public void testQuantizeDrift() {
+        Network network = new Network();
+        network.addLayer(new Layer(16, Activation.TANH));
+        network.addLayer(new Layer(32, Activation.RELU));
+        network.addLayer(new Layer(32, Activation.GELU));
+        network.addLayer(new Layer(4, Activation.SOFTMAX));
+        network.fullConnect();
+        InMemoryDataset dataset = randomDataset(500, 16, 4);
+        Quantizer quantizer = new Quantizer(network);
+        quantizer.calibrate(dataset);
+        QuantizationReport report = quantizer.evaluate(quantizer.quantize(), dataset);
+        assertEquals(500, report.getSamples());
+        assertTrue(report.getMeanAbsoluteError() < 0.01);
+        assertTrue(report.getMaxAbsoluteError() < 0.05);
+        assertTrue(report.getAgreement() > 0.95);
+        assertTrue(report.getCompression() > 6);
+        assertTrue(report.toString().startsWith("Quantized over 500 samples"));
+    }
+
+    @Test
+    public void testQuantizeCopiesParameters() {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        Quantizer quantizer = new Quantizer(network);
+        quantizer.observe(new double[]{1, -2, 3});
+        QuantizedNetwork quantized = quantizer.quantize();
+        double[] before = new double[4];
+        quantized.forward(new double[]{1, -2, 3}, before);
+        network.getLayer(1).getWeights().fill(0);
+        double[] after = new double[4];
+        quantized.forward(new double[]{1, -2, 3}, after);
+        assertArrayEquals(before, after, 0);
+    }
+
+    @Test
+    public void testQuantizeLayer() {
+        QuantizedLayer layer = new QuantizedLayer(Activation.IDENTITY, 3, new byte[]{127, -64, 0, 1, 2, 3},
+                new float[]{0.5f, 0.25f}, new float[]{1, -1}, 0.1f, -10);
+        byte[] q = new byte[3];
+        layer.quantizeInput(new double[]{1, -2, 100}, q);
+        assertArrayEquals(new byte[]{0, -30, 127}, q);
+        double[] y = new double[2];
+        layer.forward(q, y);
+        assertEquals(0.5 * 0.1 * (127 * 10 - 64 * -20) + 1, y[0], 1e-5);
+        assertEquals(0.25 * 0.1 * (10 - 40 + 3 * 137) - 1, y[1], 1e-5);
+        assertEquals(6 + 4 * 4 + 4 + 4, layer.getParameterBytes());
+    }
+
+    @Test
+    public void testQuantizerErrors() {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        assertThrows(IllegalStateException.class, () -> new Quantizer(network).quantize());
+        network.sparseConnect(1, CsrPattern.local(5, 3, 2));
+        assertThrows(IllegalStateException.class, () -> new Quantizer(network));
+        Network single = new Network();
+        single.addLayer(new Layer(3, Activation.TANH));
+        assertThrows(IllegalStateException.class, () -> new Quantizer(single));
+    }
+
+    // EFFECTS: return a dataset of count samples with inputs drawn from a standard normal distribution
+    static InMemoryDataset randomDataset(int count, int inputSize, int outputSize) {
+        Random random = new Random(5);
+        double[][] inputs = new double[count][inputSize];
+        double[][] expected = new double[count][outputSize];
+        for (int i = 0; i < count; i++) {
+            for (int p = 0; p < inputSize; p++) {
+                inputs[i][p] = random.nextGaussian();
+            }
+            expected[i][random.nextInt(outputSize)] = 1;
+        }
+        return new InMemoryDataset(inputs, expected);
+    }
+}
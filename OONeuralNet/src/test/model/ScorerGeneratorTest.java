@@ -0,0 +1,103 @@
+package model;
+
+import model.neuralnetwork.Layer;
+import model.neuralnetwork.Network;
+import model.neuralnetwork.Scorer;
+import model.neuralnetwork.ScorerGenerator;
+import model.operation.Activation;
+import model.operation.Process;
+import model.tensor.CsrPattern;
+import org.junit.jupiter.api.Test;
+import persistence.JsonReader;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScorerGeneratorTest {
+
+    @Test
+    public void testGenerateXor() throws IOException {
+        Network network = new JsonReader("./data/XOR.json").read();
+        Scorer scorer = ScorerGenerator.generate(network);
+        assertEquals(2, scorer.getInputSize());
+        assertEquals(2, scorer.getOutputSize());
+        assertSameScores(network, scorer, new double[]{0, 0}, new double[]{0, 1}, new double[]{1, 0},
+                new double[]{1, 1});
+    }
+
+    @Test
+    public void testGenerateActivations() {
+        Network network = new Network();
+        network.addLayer(new Layer(3, Activation.TANH));
+        network.addLayer(new Layer(6, Activation.GELU));
+        network.addLayer(new Layer(5, Activation.RELU));
+        network.addLayer(new Layer(4, Activation.LEAKY_RELU));
+        network.addLayer(new Layer(4, Activation.SOFTPLUS));
+        network.addLayer(new Layer(3, Activation.IDENTITY));
+        network.addLayer(new Layer(2, Activation.SIGMOID));
+        network.fullConnect();
+        assertSameScores(network, ScorerGenerator.generate(network), Process.normalize(1, -2, 3),
+                new double[]{0.5, 0, -4});
+    }
+
+    @Test
+    public void testGenerateSparseWide() {
+        Network network = Network.multilayerPerceptron(8, 200, 3);
+        network.sparseConnect(1, CsrPattern.local(200, 8, 1));
+        network.sparseConnect(2, CsrPattern.local(3, 200, 4));
+        assertTrue(ScorerGenerator.canGenerate(network));
+        assertSameScores(network, ScorerGenerator.generate(network), Process.normalize(1, -2, 3, 0, 0.5, 4, -1, 2));
+    }
+
+    @Test
+    public void testGenerateKeepsParameters() {
+        Network network = Network.multilayerPerceptron(3, 5, 4);
+        double[] input = Process.normalize(1, -2, 3);
+        Scorer scorer = ScorerGenerator.generate(network);
+        double[] before = new double[4];
+        scorer.forward(input, before);
+        network.getLayer(1).getWeights().fill(0);
+        double[] after = new double[4];
+        scorer.forward(input, after);
+        assertArrayEquals(before, after, 0);
+    }
+
+    @Test
+    public void testGenerateNearCap() {
+        Network network = Network.multilayerPerceptron(16, 32, 4);
+        assertTrue(ScorerGenerator.canGenerate(network));
+        assertSameScores(network, ScorerGenerator.generate(network), Process.normalize(1, -2, 3, 0, 0.5, 4, -1, 2,
+                1, 1, 1, 1, -3, 0, 2, 0.25));
+        assertFalse(ScorerGenerator.canGenerate(Network.multilayerPerceptron(16, 48, 4)));
+    }
+
+    @Test
+    public void testCanGenerate() {
+        assertTrue(ScorerGenerator.canGenerate(Network.multilayerPerceptron(2, 10, 2)));
+        assertFalse(ScorerGenerator.canGenerate(Network.multilayerPerceptron(64, 128, 10)));
+        // under MAX_PARAMETERS, but unrolled into more code than HotSpot compiles
+        assertFalse(ScorerGenerator.canGenerate(Network.multilayerPerceptron(60, 60, 4)));
+        Network hiddenSoftmax = new Network();
+        hiddenSoftmax.addLayer(new Layer(3, Activation.TANH));
+        hiddenSoftmax.addLayer(new Layer(3, Activation.SOFTMAX));
+        hiddenSoftmax.addLayer(new Layer(2, Activation.SIGMOID));
+        hiddenSoftmax.fullConnect();
+        assertFalse(ScorerGenerator.canGenerate(hiddenSoftmax));
+        Network single = new Network();
+        single.addLayer(new Layer(3, Activation.TANH));
+        assertFalse(ScorerGenerator.canGenerate(single));
+        assertThrows(IllegalStateException.class, () -> ScorerGenerator.generate(hiddenSoftmax));
+    }
+
+    // EFFECTS: check that scorer computes the same output as the compiled plan of network for each input
+    private void assertSameScores(Network network, Scorer scorer, double[]... inputs) {
+        for (double[] input : inputs) {
+            double[] expected = new double[network.compile().getOutputSize()];
+            network.compile().forward(input, expected);
+            double[] output = new double[scorer.getOutputSize()];
+            scorer.forward(input, output);
+            assertArrayEquals(expected, output, 1e-12);
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package model;
 
 import model.neuralnetwork.Synapse;
+import model.neuralnetwork.Tape;
+import model.operation.Process;
 import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class SynapseTest {
@@ -198,4 +206,100 @@ public class SynapseTest {
 
     }
 
+    @Test
+    public void testLogSumExp() {
+        Synapse x = new Synapse(1);
+        Synapse y = new Synapse(2);
+        Synapse lse = Synapse.logSumExp(x, y, new Synapse(3, false));
+        double sum = Math.exp(1) + Math.exp(2) + Math.exp(3);
+        assertEquals(Math.log(sum), lse.getValue(), 1e-12);
+        lse.autoDifferentiate();
+        assertEquals(Math.exp(1) / sum, x.getDerivative(), 1e-12);
+        assertEquals(Math.exp(2) / sum, y.getDerivative(), 1e-12);
+        // large values would overflow e^x without the shift
+        assertEquals(1000 + Math.log(1 + Math.exp(-1)), Synapse.logSumExp(new Synapse(999), new Synapse(1000))
+                .getValue(), 1e-9);
+    }
+
+    @Test
+    public void testSoftmaxCrossEntropy() {
+        Synapse[] logits = {new Synapse(2000), new Synapse(1000), new Synapse(0)};
+        Synapse loss = Synapse.softmaxCrossEntropy(logits, new double[]{0, 1, 0});
+        // p = (1, e^-1000, e^-2000) in floating point, so ln(p2) alone would be -infinity
+        assertEquals(1000, loss.getValue(), 1e-9);
+        loss.autoDifferentiate();
+        assertEquals(1, logits[0].getDerivative(), 1e-12);
+        assertEquals(-1, logits[1].getDerivative(), 1e-12);
+        assertEquals(0, logits[2].getDerivative(), 1e-12);
+    }
+
+    @Test
+    public void testActivations() {
+        List<Function<Synapse, Synapse>> primitives = Arrays.asList(Synapse::tanh, Synapse::sigmoid, Synapse::relu,
+                x -> Synapse.leakyRelu(x, 0.1), Synapse::gelu, Synapse::softplus);
+        List<DoubleUnaryOperator> values = Arrays.asList(Math::tanh, x -> 1 / (1 + Math.exp(-x)),
+                x -> Math.max(x, 0), x -> x > 0 ? x : 0.1 * x, Process::gelu, x -> Math.log(1 + Math.exp(x)));
+        double h = 1e-6;
+        for (int f = 0; f < primitives.size(); f++) {
+            for (double point : new double[]{-1.5, 0.7}) {
+                Synapse x = new Synapse(point);
+                Synapse y = primitives.get(f).apply(x);
+                DoubleUnaryOperator value = values.get(f);
+                assertEquals(value.applyAsDouble(point), y.getValue(), 1e-12);
+                y.autoDifferentiate();
+                double slope = (value.applyAsDouble(point + h) - value.applyAsDouble(point - h)) / (2 * h);
+                assertEquals(slope, x.getDerivative(), 1e-6);
+            }
+        }
+        // no overflow for large inputs
+        assertEquals(1000, Synapse.softplus(new Synapse(1000)).getValue(), 1e-12);
+        assertEquals(0, Synapse.softplus(new Synapse(-1000)).getValue(), 1e-12);
+    }
+
+    @Test
+    public void testActivationsSingleNode() {
+        Tape tape = new Tape();
+        Synapse x = new Synapse(0.3);
+        tape.watch(x);
+        Synapse y = Synapse.gelu(Synapse.tanh(Synapse.sigmoid(x)));
+        assertEquals(4, tape.size());
+        Synapse constant = Synapse.relu(new Synapse(2, false));
+        assertEquals(4, tape.size());
+        assertEquals(2, constant.getValue());
+        y.autoDifferentiate();
+        double s = Process.sigmoid(0.3);
+        double t = Math.tanh(s);
+        assertEquals(Process.geluDerivative(t) * (1 - t * t) * s * (1 - s), x.getDerivative(), 1e-12);
+    }
+
+    @Test
+    public void testConstant() {
+        assertSame(Synapse.constant(-1), Synapse.constant(-1));
+        assertSame(Synapse.constant(127), Synapse.constant(127));
+        assertNotSame(Synapse.constant(0.5), Synapse.constant(0.5));
+        assertEquals(-0.0, Synapse.constant(-0.0).getValue());
+        Synapse one = Synapse.constant(1);
+        one.autoDifferentiate();
+        assertEquals(0, one.getDerivative());
+        assertEquals(1000, Synapse.constant(1000).getValue());
+    }
+
+    @Test
+    public void testConstantFolding() {
+        Synapse x = new Synapse(3);
+        assertSame(x, Synapse.plus(x, Synapse.constant(0)));
+        assertSame(x, Synapse.plus(Synapse.constant(0), x));
+        assertSame(x, Synapse.multiply(Synapse.constant(1), x));
+        assertSame(x, Synapse.pow(x, 1));
+        assertSame(Synapse.constant(0), Synapse.multiply(x, Synapse.constant(0)));
+        Synapse folded = Synapse.exp(Synapse.plus(Synapse.constant(2), new Synapse(0.5, false)));
+        assertEquals(Math.exp(2.5), folded.getValue(), 1e-12);
+        Synapse f = Synapse.minus(Synapse.multiply(x, Synapse.constant(2)), Synapse.constant(1));
+        assertEquals(5, f.getValue());
+        f.autoDifferentiate();
+        assertEquals(2, x.getDerivative());
+        Synapse shared = Synapse.multiply(Synapse.constant(-1), Synapse.constant(-1));
+        shared.autoDifferentiate();
+        assertEquals(0, Synapse.constant(1).getDerivative());
+    }
 }
@@ -0,0 +1,116 @@
+package model;
+
+import model.neuralnetwork.Synapse;
+import model.neuralnetwork.Tape;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TapeTest {
+
+    @Test
+    public void testSameDerivativesAsClosures() {
+        // f(x,y) = (e^x) * (lny)^-1, see SynapseTest.testAutoDifferentiate
+        Tape tape = new Tape();
+        Synapse x = new Synapse(6);
+        Synapse y = new Synapse(7);
+        tape.watch(x);
+        tape.watch(y);
+        Synapse f = Synapse.multiply(Synapse.exp(x), Synapse.pow(Synapse.ln(y), -1));
+        assertEquals(6, tape.size());
+        f.autoDifferentiate();
+        double epsilon = 0.001;
+        assertTrue(Math.abs(x.getDerivative() - 207.321) < epsilon);
+        assertTrue(Math.abs(y.getDerivative() - -15.220) < epsilon);
+    }
+
+    @Test
+    public void testConstantsAreNotRecorded() {
+        Tape tape = new Tape();
+        Synapse x = new Synapse(4);
+        tape.watch(x);
+        Synapse product = Synapse.multiply(x, new Synapse(3, false));
+        Synapse constant = Synapse.multiply(new Synapse(2, false), new Synapse(5, false));
+        assertEquals(2, tape.size());
+        assertEquals(10, constant.getValue());
+        product.autoDifferentiate();
+        assertEquals(3, x.getDerivative());
+    }
+
+    @Test
+    public void testSharedNodesVisitedOnce() {
+        // t = s + s applied 60 times to s = x * x gives t = 2^60 * x^2, whose derivative is 2^61 * x.
+        // Walking each path separately would take 2^60 steps.
+        Tape tape = new Tape();
+        Synapse x = new Synapse(3);
+        tape.watch(x);
+        Synapse t = Synapse.multiply(x, x);
+        for (int i = 0; i < 60; i++) {
+            t = Synapse.plus(t, t);
+        }
+        t.autoDifferentiate();
+        assertEquals(Math.pow(2, 61) * 3, x.getDerivative());
+    }
+
+    @Test
+    public void testDeepGraph() {
+        Tape tape = new Tape();
+        Synapse x = new Synapse(1);
+        tape.watch(x);
+        Synapse sum = new Synapse(0, false);
+        for (int i = 0; i < 200000; i++) {
+            sum = Synapse.plus(sum, x);
+        }
+        sum.autoDifferentiate();
+        assertEquals(200000, x.getDerivative());
+    }
+
+    @Test
+    public void testReset() {
+        Tape tape = new Tape();
+        Synapse x = new Synapse(2);
+        tape.watch(x);
+        Synapse.multiply(x, x);
+        tape.reset();
+        assertEquals(0, tape.size());
+
+        // after the reset x is no longer recorded, so the closure-based differentiation is used
+        Synapse product = Synapse.multiply(x, new Synapse(5, false));
+        assertEquals(0, tape.size());
+        product.autoDifferentiate();
+        assertEquals(5, x.getDerivative());
+    }
+
+    @Test
+    public void testManyOperands() {
+        Tape tape = new Tape();
+        Synapse[] x = new Synapse[100];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = new Synapse(i / 100.0);
+            tape.watch(x[i]);
+        }
+        Synapse lse = Synapse.logSumExp(x);
+        // one node for the log-sum-exp, whatever the number of operands
+        assertEquals(101, tape.size());
+        Synapse.multiply(lse, new Synapse(2, false)).autoDifferentiate();
+        double sum = 0;
+        for (Synapse synapse : x) {
+            sum += synapse.getDerivative();
+        }
+        assertEquals(2, sum, 1e-12);
+    }
+
+    @Test
+    public void testConstantFolding() {
+        Tape tape = new Tape();
+        Synapse x = new Synapse(2);
+        tape.watch(x);
+        tape.watch(Synapse.constant(3));
+        Synapse y = Synapse.plus(Synapse.multiply(Synapse.constant(1), x),
+                Synapse.exp(Synapse.multiply(Synapse.constant(2), Synapse.constant(3))));
+        // only the leaf x and the addition of the folded constant e^6 are recorded
+        assertEquals(2, tape.size());
+        y.autoDifferentiate();
+        assertEquals(1, x.getDerivative());
+        assertEquals(2 + Math.exp(6), y.getValue(), 1e-9);
+    }
+}
@@ -0,0 +1,94 @@
+package model;
+
+import model.tensor.Tensor;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TensorTest {
+
+    @Test
+    public void testShapeAndStrides() {
+        Tensor tensor = new Tensor(2, 3, 4);
+        assertEquals(3, tensor.getRank());
+        assertEquals(24, tensor.getSize());
+        assertArrayEquals(new int[]{12, 4, 1}, tensor.getStrides());
+        assertEquals(2, tensor.getDimRow());
+        assertEquals(4, tensor.getDimCol());
+        assertEquals(12 + 2 * 4 + 3, tensor.index(1, 2, 3));
+        assertFalse(tensor.hasGrad());
+    }
+
+    @Test
+    public void testGetSet() {
+        Tensor tensor = new Tensor(new double[]{1, 2, 3, 4, 5, 6}, 2, 3);
+        assertEquals(6, tensor.get(1, 2));
+        tensor.set(0, 1, 10);
+        assertEquals(10, tensor.getFlat(1));
+        tensor.setFlat(3, -1);
+        assertEquals(-1, tensor.get(1, 0));
+    }
+
+    @Test
+    public void testViewsShareData() {
+        Tensor tensor = Tensor.variable(3, 2);
+        Tensor row = tensor.row(1);
+        assertEquals(1, row.getDimRow());
+        assertEquals(2, row.getDimCol());
+        row.set(0, 1, 7);
+        assertEquals(7, tensor.get(1, 1));
+        assertTrue(row.hasGrad());
+        row.getGrad()[row.index(0, 0)] = 3;
+        assertEquals(3, tensor.getGrad()[tensor.index(1, 0)]);
+        Tensor reshaped = tensor.reshape(6);
+        assertEquals(7, reshaped.getFlat(3));
+    }
+
+    @Test
+    public void testCopyAndFill() {
+        Tensor tensor = new Tensor(2, 2);
+        tensor.fill(2.5);
+        Tensor copy = tensor.copy();
+        copy.setFlat(0, 0);
+        assertEquals(2.5, tensor.getFlat(0));
+        assertArrayEquals(new double[]{0, 2.5, 2.5, 2.5}, copy.toArray());
+    }
+
+    @Test
+    public void testSingle() {
+        Tensor tensor = Tensor.variable(2, 2);
+        tensor.setFlat(0, 0.1);
+        Tensor single = tensor.toSingle();
+        assertTrue(single.isSingle());
+        assertNull(single.getData());
+        assertSame(tensor.getGrad(), single.getGrad());
+        assertEquals((float) 0.1, single.getFlat(0), 0);
+        single.set(1, 1, 0.3);
+        assertEquals((float) 0.3, single.getSingleData()[3], 0);
+        assertEquals(0, tensor.getFlat(3));
+        assertTrue(single.row(1).sharesData(single));
+        assertFalse(single.row(1).sharesData(tensor));
+        single.getGrad()[0] = 1;
+        single.gradientDescent(0.5);
+        assertEquals((float) ((float) 0.1 - 0.5), single.getFlat(0), 0);
+        assertEquals(0, single.getGrad()[0]);
+        Tensor back = single.toDouble();
+        assertFalse(back.isSingle());
+        assertArrayEquals(single.toArray(), back.toArray());
+        single.assign(new Tensor(new double[]{0.1, 0.2, 0.3, 0.4}, 4));
+        assertEquals((float) 0.2, single.getFlat(1), 0);
+        single.fill(0.1);
+        assertEquals((float) 0.1, single.get(1, 1), 0);
+    }
+
+    @Test
+    public void testGradientDescent() {
+        Tensor tensor = Tensor.variable(1, 2);
+        tensor.fill(1);
+        tensor.getGrad()[0] = 2;
+        tensor.getGrad()[1] = -4;
+        tensor.gradientDescent(0.5);
+        assertArrayEquals(new double[]{0, 3}, tensor.toArray());
+        assertEquals(0, tensor.getGrad()[0]);
+        assertEquals(0, tensor.getGrad()[1]);
+    }
+}
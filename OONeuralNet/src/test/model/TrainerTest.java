@@ -0,0 +1,123 @@
+package model;
+
+import model.data.InMemoryDataset;
+import model.neuralnetwork.EpochReport;
+import model.neuralnetwork.Network;
+import model.neuralnetwork.Trainer;
+import model.optimizer.LearningRateSchedule;
+import model.tensor.Tensor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrainerTest {
+    private InMemoryDataset dataset;
+
+    @BeforeEach
+    public void setUp() {
+        double[][] inputs = new double[40][];
+        double[][] expected = new double[40][];
+        for (int b = 0; b < 40; b++) {
+            inputs[b] = new double[]{Math.sin(b), Math.cos(3 * b), b % 2};
+            expected[b] = new double[]{b % 2, 1 - b % 2};
+        }
+        dataset = new InMemoryDataset(inputs, expected);
+    }
+
+    @Test
+    public void testTrain() {
+        Network network = Network.multilayerPerceptron(3, 6, 2);
+        Trainer trainer = new Trainer(network);
+        assertSame(network, trainer.getNetwork());
+        trainer.setEpochs(20);
+        trainer.setBatchSize(8);
+        trainer.setSchedule(LearningRateSchedule.cosine(0.5, 0.05, 20));
+        trainer.setRandom(new Random(3));
+        double before = trainer.evaluate(dataset);
+        List<EpochReport> reports = trainer.train(dataset);
+        assertEquals(20, reports.size());
+        assertEquals(0.5, reports.get(0).getLearningRate(), 1e-12);
+        assertEquals(19, reports.get(19).getEpoch());
+        assertTrue(Double.isNaN(reports.get(0).getValidationLoss()));
+        assertTrue(reports.get(19).getTrainingLoss() < reports.get(0).getTrainingLoss());
+        assertTrue(trainer.evaluate(dataset) < before);
+        assertTrue(reports.get(0).getMillis() >= 0);
+        assertTrue(reports.get(0).toString().startsWith("Epoch 0: loss "));
+    }
+
+    @Test
+    public void testEarlyStopping() {
+        Network network = Network.multilayerPerceptron(3, 6, 2);
+        InMemoryDataset[] split = dataset.split(0.25, new Random(5));
+        Trainer trainer = new Trainer(network);
+        trainer.setEpochs(1000);
+        trainer.setBatchSize(4);
+        trainer.setSchedule(LearningRateSchedule.constant(2));
+        trainer.setEarlyStopping(3, 0.01);
+        List<EpochReport> reports = trainer.train(split[0], split[1]);
+        assertTrue(reports.size() < 1000);
+        double best = Double.POSITIVE_INFINITY;
+        for (EpochReport report : reports) {
+            best = report.getValidationLoss() < best - 0.01 ? report.getValidationLoss() : best;
+        }
+        // the parameters of the last epoch that improved on the best loss by more than minDelta are restored
+        assertEquals(best, trainer.evaluate(split[1]), 1e-12);
+    }
+
+    @Test
+    public void testNoEarlyStoppingWithoutValidation() {
+        Trainer trainer = new Trainer(Network.multilayerPerceptron(3, 4, 2));
+        trainer.setEpochs(5);
+        trainer.setEarlyStopping(1, 0);
+        assertEquals(5, trainer.train(dataset).size());
+    }
+
+    @Test
+    public void testSameAsBackProp() {
+        Network trained = Network.multilayerPerceptron(3, 4, 2);
+        Network expected = Network.multilayerPerceptron(3, 4, 2);
+        for (int l = 1; l < 3; l++) {
+            copy(trained.getLayer(l).getWeights(), expected.getLayer(l).getWeights());
+            copy(trained.getLayer(l).getBiases(), expected.getLayer(l).getBiases());
+        }
+        Trainer trainer = new Trainer(trained);
+        trainer.setBatchSize(40);
+        trainer.setSchedule(LearningRateSchedule.constant(0.1));
+        double loss = trainer.train(dataset).get(0).getTrainingLoss();
+        Tensor inputs = new Tensor(40, 3);
+        Tensor outputs = new Tensor(40, 2);
+        dataset.batches(40, null).forEachRemaining(b -> {
+            copy(b.getInputs(), inputs);
+            copy(b.getExpected(), outputs);
+        });
+        assertEquals(expected.backProp(inputs, outputs, 0.1), loss, 1e-12);
+        assertArrayEquals(expected.getLayer(1).getWeights().toArray(), trained.getLayer(1).getWeights().toArray(),
+                1e-12);
+    }
+
+    @Test
+    public void testSchedules() {
+        assertEquals(0.3, LearningRateSchedule.constant(0.3).rate(100));
+        LearningRateSchedule step = LearningRateSchedule.step(1, 10, 0.5);
+        assertEquals(1, step.rate(9));
+        assertEquals(0.25, step.rate(25));
+        LearningRateSchedule cosine = LearningRateSchedule.cosine(1, 0.1, 10);
+        assertEquals(1, cosine.rate(0), 1e-12);
+        assertEquals(0.55, cosine.rate(5), 1e-12);
+        assertEquals(0.1, cosine.rate(10), 1e-12);
+        assertEquals(0.1, cosine.rate(50), 1e-12);
+        LearningRateSchedule warmup = LearningRateSchedule.warmup(4, cosine);
+        assertEquals(0.25, warmup.rate(0), 1e-12);
+        assertEquals(1, warmup.rate(3), 1e-12);
+        assertEquals(1, warmup.rate(4), 1e-12);
+        assertEquals(0.55, warmup.rate(9), 1e-12);
+    }
+
+    private static void copy(Tensor from, Tensor to) {
+        System.arraycopy(from.getData(), from.getOffset(), to.getData(), to.getOffset(), from.getSize());
+    }
+}